@@ -0,0 +1,115 @@
+package com.mr486.safetynet.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mr486.safetynet.SafetyNetApplication;
+import com.mr486.safetynet.configuration.AppConfiguation;
+import com.mr486.safetynet.model.Person;
+import com.mr486.safetynet.tools.DatasetGenerator;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * Application started on a generated dataset, without its web server, shared by the threads of
+ * a benchmark. The dataset is written to {@code data/data.json} in the working directory, which
+ * the benchmark profile sets to {@code target/jmh}.
+ */
+@State(Scope.Benchmark)
+public abstract class ApplicationState {
+
+  /**
+   * Number of stations of the generated datasets.
+   */
+  static final int STATIONS = 20;
+
+  /**
+   * Day the ages of the generated datasets are computed from, fixed so that every build writes
+   * the same birthdates.
+   */
+  static final LocalDate REFERENCE_DATE = LocalDate.of(2025, 1, 1);
+
+  private static final int SAMPLES = 1_024;
+
+  @Param({"1000", "10000", "100000"})
+  public int persons;
+
+  /**
+   * Persons of the dataset whose fields are looked up, spread over the whole dataset.
+   */
+  Person[] samples;
+
+  private ConfigurableApplicationContext context;
+
+  @Setup(Level.Trial)
+  public void start() throws IOException {
+    DatasetGenerator generator = generator(persons);
+    Path json = Path.of(AppConfiguation.JSON_FILE_PATH);
+    Files.createDirectories(json.getParent());
+    Files.deleteIfExists(Path.of(AppConfiguation.SNAPSHOT_FILE_PATH));
+    generator.writeJson(new ObjectMapper(), json);
+    samples = new Person[SAMPLES];
+    for (int i = 0; i < SAMPLES; i++) {
+      samples[i] = generator.person((int) ((long) i * persons / SAMPLES));
+    }
+    context = new SpringApplicationBuilder(SafetyNetApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties("logging.level.root=WARN",
+                    "spring.main.banner-mode=off",
+                    "safetynet.persistence.storage=" + storage())
+            .run();
+    beans(context);
+  }
+
+  @TearDown(Level.Trial)
+  public void stop() {
+    context.close();
+  }
+
+  /**
+   * Returns the generator of the datasets of the benchmarks, identical from one build to the next.
+   *
+   * @param persons the number of persons
+   * @return the generator
+   */
+  static DatasetGenerator generator(int persons) {
+    return new DatasetGenerator(DatasetGenerator.Options.builder().persons(persons).stations(STATIONS)
+            .referenceDate(REFERENCE_DATE).build());
+  }
+
+  /**
+   * Returns the next person whose fields are looked up by a benchmark thread.
+   *
+   * @param keys the cursor of the thread
+   * @return a person of the dataset
+   */
+  Person sample(KeyCursor keys) {
+    return samples[keys.next(samples.length)];
+  }
+
+  /**
+   * Returns the storage mode of the dataset, "heap" or "mapped".
+   *
+   * @return the value of {@code safetynet.persistence.storage}
+   */
+  protected String storage() {
+    return "heap";
+  }
+
+  /**
+   * Looks up the beans the benchmark calls, once the application is started.
+   *
+   * @param context the application context
+   */
+  protected abstract void beans(ConfigurableApplicationContext context);
+}
@@ -0,0 +1,57 @@
+package com.mr486.safetynet.benchmark;
+
+import com.mr486.safetynet.configuration.AppConfiguation;
+import com.mr486.safetynet.tools.Birthdates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The age of a birthdate, parsed on every call as the medical record service used to, then
+ * through {@link Birthdates}.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class BirthdatesBenchmark {
+
+  private static final int BIRTHDATES = 4_000;
+
+  private String[] birthdates;
+
+  @Setup
+  public void birthdates() {
+    DateTimeFormatter formatter = DateTimeFormatter.ofPattern(AppConfiguation.DATE_FORMAT);
+    birthdates = new String[BIRTHDATES];
+    for (int i = 0; i < BIRTHDATES; i++) {
+      birthdates[i] = LocalDate.of(1940, 1, 1).plusDays(i * 7L).format(formatter);
+    }
+  }
+
+  @Benchmark
+  public int parsingAge(KeyCursor keys) {
+    DateTimeFormatter formatter = DateTimeFormatter.ofPattern(AppConfiguation.DATE_FORMAT);
+    String birthdate = birthdates[keys.next(BIRTHDATES)];
+    return Period.between(LocalDate.parse(birthdate, formatter), LocalDate.now()).getYears();
+  }
+
+  @Benchmark
+  public int cachedAge(KeyCursor keys) {
+    return Birthdates.age(birthdates[keys.next(BIRTHDATES)]);
+  }
+}
@@ -0,0 +1,119 @@
+package com.mr486.safetynet.benchmark;
+
+import com.mr486.safetynet.dto.request.PersonInfoDto;
+import com.mr486.safetynet.dto.response.ChildAlertResponseDto;
+import com.mr486.safetynet.dto.response.CoverageResponseDto;
+import com.mr486.safetynet.dto.response.FireResponseDto;
+import com.mr486.safetynet.dto.response.FloodStationsResponseDto;
+import com.mr486.safetynet.model.MedicalRecord;
+import com.mr486.safetynet.service.MedicalRecordService;
+import com.mr486.safetynet.service.business.ChildAlertService;
+import com.mr486.safetynet.service.business.CommunityEmailService;
+import com.mr486.safetynet.service.business.FireService;
+import com.mr486.safetynet.service.business.FireStationConverageService;
+import com.mr486.safetynet.service.business.FloodService;
+import com.mr486.safetynet.service.business.PersonInfoService;
+import com.mr486.safetynet.service.business.PhoneAlertService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.mr486.safetynet.benchmark.ApplicationState.STATIONS;
+
+/**
+ * The business services, called directly so the response cache is left out, and the age
+ * computation of the medical record service they rely on.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BusinessServiceBenchmark {
+
+  /**
+   * Application on a dataset kept on heap.
+   */
+  @State(Scope.Benchmark)
+  public static class Services extends ApplicationState {
+
+    MedicalRecordService medicalRecordService;
+    List<MedicalRecord> medicalRecords;
+    FireStationConverageService fireStationConverageService;
+    ChildAlertService childAlertService;
+    PhoneAlertService phoneAlertService;
+    FireService fireService;
+    FloodService floodService;
+    PersonInfoService personInfoService;
+    CommunityEmailService communityEmailService;
+
+    @Override
+    protected void beans(ConfigurableApplicationContext context) {
+      medicalRecordService = context.getBean(MedicalRecordService.class);
+      medicalRecords = medicalRecordService.findAll();
+      fireStationConverageService = context.getBean(FireStationConverageService.class);
+      childAlertService = context.getBean(ChildAlertService.class);
+      phoneAlertService = context.getBean(PhoneAlertService.class);
+      fireService = context.getBean(FireService.class);
+      floodService = context.getBean(FloodService.class);
+      personInfoService = context.getBean(PersonInfoService.class);
+      communityEmailService = context.getBean(CommunityEmailService.class);
+    }
+
+    int station(KeyCursor keys) {
+      return keys.next(STATIONS) + 1;
+    }
+  }
+
+  @Benchmark
+  public int getAge(Services state, KeyCursor keys) {
+    return state.medicalRecordService.getAge(state.medicalRecords.get(keys.next(state.medicalRecords.size())));
+  }
+
+  @Benchmark
+  public CoverageResponseDto coverage(Services state, KeyCursor keys) {
+    return state.fireStationConverageService.getCoverageByStationNumber(state.station(keys));
+  }
+
+  @Benchmark
+  public ChildAlertResponseDto childAlert(Services state, KeyCursor keys) {
+    return state.childAlertService.getChildrenByAddress(state.sample(keys).getAddress());
+  }
+
+  @Benchmark
+  public List<String> phoneAlert(Services state, KeyCursor keys) {
+    return state.phoneAlertService.getPhonesByStation(state.station(keys));
+  }
+
+  @Benchmark
+  public FireResponseDto fire(Services state, KeyCursor keys) {
+    return state.fireService.getFireInfoByAddress(state.sample(keys).getAddress());
+  }
+
+  @Benchmark
+  public FloodStationsResponseDto flood(Services state, KeyCursor keys) {
+    int station = state.station(keys);
+    return state.floodService.getHouseholdsByStations(
+            List.of(station, station % STATIONS + 1, (station + 1) % STATIONS + 1));
+  }
+
+  @Benchmark
+  public List<PersonInfoDto> personInfo(Services state, KeyCursor keys) {
+    return state.personInfoService.getPersonInfoByLastName(state.sample(keys).getLastName());
+  }
+
+  @Benchmark
+  public List<String> communityEmail(Services state, KeyCursor keys) {
+    return state.communityEmailService.getEmailsByCity(state.sample(keys).getCity());
+  }
+}
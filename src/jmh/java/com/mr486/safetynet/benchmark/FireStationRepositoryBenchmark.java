@@ -0,0 +1,95 @@
+package com.mr486.safetynet.benchmark;
+
+import com.mr486.safetynet.model.FireStation;
+import com.mr486.safetynet.repository.impl.FireStationRepositoryImpl;
+import com.mr486.safetynet.tools.JournalEntry;
+import com.mr486.safetynet.tools.JsonService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Loading and changing the fire stations of many addresses covered by few stations, without the
+ * application around the repository, so that the cost of the index by station shows at the
+ * sizes of a national dataset.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Benchmark)
+public class FireStationRepositoryBenchmark {
+
+  private static final int STATIONS = 10;
+
+  @Param({"100000", "200000", "400000"})
+  public int addresses;
+
+  private List<FireStation> mappings;
+  private FireStationRepositoryImpl repository;
+
+  @Setup(Level.Trial)
+  public void load() {
+    mappings = new ArrayList<>(addresses);
+    for (int i = 0; i < addresses; i++) {
+      mappings.add(new FireStation(i + " Culver St", i % STATIONS + 1));
+    }
+    repository = new FireStationRepositoryImpl(new Mappings(mappings));
+    repository.init();
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public FireStationRepositoryImpl init() {
+    FireStationRepositoryImpl loaded = new FireStationRepositoryImpl(new Mappings(mappings));
+    loaded.init();
+    return loaded;
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public FireStation save(KeyCursor keys) {
+    int address = keys.next(addresses);
+    return repository.save(new FireStation(address + " Culver St", keys.next(STATIONS) + 1));
+  }
+
+  /**
+   * Hands the generated mappings to the repository and drops its changes.
+   */
+  private static final class Mappings extends JsonService {
+
+    private final List<FireStation> fireStations;
+
+    private Mappings(List<FireStation> fireStations) {
+      super(null, null, null);
+      this.fireStations = fireStations;
+    }
+
+    @Override
+    public List<FireStation> loadFireStations(Supplier<List<FireStation>> fireStations) {
+      return this.fireStations;
+    }
+
+    @Override
+    public void saveFireStations(Supplier<List<FireStation>> fireStations) {
+    }
+
+    @Override
+    public void journal(JournalEntry entry) {
+    }
+  }
+}
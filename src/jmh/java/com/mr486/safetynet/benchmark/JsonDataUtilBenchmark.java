@@ -0,0 +1,69 @@
+package com.mr486.safetynet.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mr486.safetynet.dto.request.DataBindingDto;
+import com.mr486.safetynet.tools.JsonDataUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading and saving of the JSON data file, with and without the binary snapshot.
+ */
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class JsonDataUtilBenchmark {
+
+  @Param({"1000", "10000", "100000"})
+  public int persons;
+
+  private JsonDataUtil jsonDataUtil;
+  private DataBindingDto data;
+  private File loaded;
+  private File snapshot;
+  private File saved;
+
+  @Setup(Level.Trial)
+  public void write() throws IOException {
+    File directory = Files.createDirectories(new File("data").toPath()).toFile();
+    jsonDataUtil = new JsonDataUtil(new ObjectMapper());
+    data = ApplicationState.generator(persons).build();
+    loaded = new File(directory, "load-" + persons + ".json");
+    snapshot = new File(directory, "load-" + persons + ".snapshot");
+    saved = new File(directory, "save-" + persons + ".json");
+    jsonDataUtil.saveData(data, loaded, snapshot);
+  }
+
+  @Benchmark
+  public DataBindingDto loadJson() {
+    return jsonDataUtil.loadData(loaded);
+  }
+
+  @Benchmark
+  public DataBindingDto loadSnapshot() {
+    return jsonDataUtil.loadData(loaded, snapshot);
+  }
+
+  @Benchmark
+  public void saveJson() {
+    jsonDataUtil.saveData(data, saved, null);
+  }
+}
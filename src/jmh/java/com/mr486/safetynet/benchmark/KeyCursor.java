@@ -0,0 +1,19 @@
+package com.mr486.safetynet.benchmark;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Index cycling through the keys looked up by one benchmark thread, so successive calls
+ * hit different entries without the cost of a random generator.
+ */
+@State(Scope.Thread)
+public class KeyCursor {
+
+  private int next;
+
+  int next(int bound) {
+    next = next + 7_919 < 0 ? 0 : next + 7_919;
+    return next % bound;
+  }
+}
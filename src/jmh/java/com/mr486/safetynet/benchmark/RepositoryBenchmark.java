@@ -0,0 +1,97 @@
+package com.mr486.safetynet.benchmark;
+
+import com.mr486.safetynet.model.FireStation;
+import com.mr486.safetynet.model.MedicalRecord;
+import com.mr486.safetynet.model.Person;
+import com.mr486.safetynet.repository.FireStationRepository;
+import com.mr486.safetynet.repository.MedicalRecordRepository;
+import com.mr486.safetynet.repository.PersonRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups of the repositories, in both storage modes.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RepositoryBenchmark {
+
+  /**
+   * Application on a dataset kept on heap or served from the memory-mapped snapshot.
+   */
+  @State(Scope.Benchmark)
+  public static class Repositories extends ApplicationState {
+
+    @Param({"heap", "mapped"})
+    public String storage;
+
+    PersonRepository personRepository;
+    MedicalRecordRepository medicalRecordRepository;
+    FireStationRepository fireStationRepository;
+
+    @Override
+    protected String storage() {
+      return storage;
+    }
+
+    @Override
+    protected void beans(ConfigurableApplicationContext context) {
+      personRepository = context.getBean(PersonRepository.class);
+      medicalRecordRepository = context.getBean(MedicalRecordRepository.class);
+      fireStationRepository = context.getBean(FireStationRepository.class);
+    }
+  }
+
+  @Benchmark
+  public Optional<Person> personByName(Repositories state, KeyCursor keys) {
+    Person person = state.sample(keys);
+    return state.personRepository.findByFirstNameAndLastName(person.getFirstName(), person.getLastName());
+  }
+
+  @Benchmark
+  public List<Person> personsByAddress(Repositories state, KeyCursor keys) {
+    return state.personRepository.findByAddress(state.sample(keys).getAddress());
+  }
+
+  @Benchmark
+  public List<Person> personsByLastName(Repositories state, KeyCursor keys) {
+    return state.personRepository.findByLastName(state.sample(keys).getLastName());
+  }
+
+  @Benchmark
+  public List<Person> personsByCity(Repositories state, KeyCursor keys) {
+    return state.personRepository.findByCity(state.sample(keys).getCity());
+  }
+
+  @Benchmark
+  public Optional<MedicalRecord> medicalRecordByName(Repositories state, KeyCursor keys) {
+    Person person = state.sample(keys);
+    return state.medicalRecordRepository.findByFirstNameAndLastName(person.getFirstName(), person.getLastName());
+  }
+
+  @Benchmark
+  public Optional<FireStation> fireStationByAddress(Repositories state, KeyCursor keys) {
+    return state.fireStationRepository.findByAddress(state.sample(keys).getAddress());
+  }
+
+  @Benchmark
+  public List<FireStation> fireStationsByNumber(Repositories state, KeyCursor keys) {
+    return state.fireStationRepository.findByStationNumber(keys.next(ApplicationState.STATIONS) + 1);
+  }
+}
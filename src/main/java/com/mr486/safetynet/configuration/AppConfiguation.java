@@ -12,6 +12,11 @@ public class AppConfiguation {
    */
   public static final String JSON_FILE_PATH = "data/data.json";
 
+  /**
+   * Path to the binary snapshot of the data, written next to the JSON file.
+   */
+  public static final String SNAPSHOT_FILE_PATH = "data/data.snapshot";
+
 
   /**
    * Date format used in the application.
@@ -22,4 +27,9 @@ public class AppConfiguation {
    * Age threshold for considering a person as an adult.
    */
   public static final int ADULT_AGE = 18;
+
+  /**
+   * Maximum number of items of a page of results.
+   */
+  public static final int MAX_PAGE_SIZE = 1000;
 }
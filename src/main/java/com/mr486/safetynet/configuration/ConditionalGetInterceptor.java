@@ -0,0 +1,44 @@
+package com.mr486.safetynet.configuration;
+
+import com.mr486.safetynet.controller.DatasetEtag;
+import com.mr486.safetynet.service.business.DatasetVersions;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Interceptor answering the conditional GETs of the endpoints annotated with {@link DatasetEtag}.
+ * The ETag built from the versions of the datasets is set on the response; when it matches the
+ * {@code If-None-Match} header, {@code 304 Not Modified} is returned before the endpoint is called.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+  private final DatasetVersions datasetVersions;
+
+  /**
+   * Sets the ETag of an annotated endpoint, and stops the request if the client already has it.
+   *
+   * @param request  the current request
+   * @param response the current response
+   * @param handler  the handler of the request
+   * @return false if the response is not modified, true to call the endpoint
+   */
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    if (!(handler instanceof HandlerMethod handlerMethod)) {
+      return true;
+    }
+    DatasetEtag datasetEtag = handlerMethod.getMethodAnnotation(DatasetEtag.class);
+    if (datasetEtag == null) {
+      return true;
+    }
+    String etag = datasetVersions.etag(datasetEtag.value());
+    return !new ServletWebRequest(request, response).checkNotModified(etag);
+  }
+}
@@ -4,6 +4,7 @@ package com.mr486.safetynet.configuration;
 import com.mr486.safetynet.dto.response.ErrorResponseDto;
 import com.mr486.safetynet.exception.EntityAlreadyExistsException;
 import com.mr486.safetynet.exception.EntityNotFoundException;
+import com.mr486.safetynet.exception.InvalidRequestException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -66,6 +67,24 @@ public class GlobalExceptionHandler {
             .body(errorResponse);
   }
 
+  /**
+   * Handles InvalidRequestException.
+   * Returns an HTTP 400 (Bad Request) response with an error message.
+   *
+   * @param ex the thrown exception
+   * @return ResponseEntity containing an ApiResponse with error details
+   */
+  @ExceptionHandler(InvalidRequestException.class)
+  public ResponseEntity<ErrorResponseDto> handleInvalidRequest(InvalidRequestException ex) {
+    ErrorResponseDto errorResponse = new ErrorResponseDto(
+            "BAD REQUEST " + ex.getMessage(),
+            400
+    );
+    return ResponseEntity
+            .status(HttpStatus.BAD_REQUEST)
+            .body(errorResponse);
+  }
+
   /**
    * Handles EntityNotFoundException.
    * Returns an HTTP 404 (Not Found) response with an error message.
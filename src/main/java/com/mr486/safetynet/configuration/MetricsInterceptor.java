@@ -0,0 +1,66 @@
+package com.mr486.safetynet.configuration;
+
+import com.mr486.safetynet.tools.Metrics;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Interceptor recording the latency of every endpoint in the {@link Metrics}, under
+ * {@code http.<method> <path pattern>}, and counting its failed requests under
+ * {@code http.<method> <path pattern>.errors}.
+ * <p>
+ * The pattern of the endpoint is used rather than the path of the request, so the number of
+ * metrics stays bounded whatever the requested paths. The start of the request is kept in a
+ * request attribute, so asynchronous responses are measured until their last byte is written.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class MetricsInterceptor implements HandlerInterceptor {
+
+  private static final String START_ATTRIBUTE = MetricsInterceptor.class.getName() + ".start";
+
+  private final Metrics metrics;
+
+  /**
+   * Keeps the start of the request, unless it was already kept by its first dispatch.
+   *
+   * @param request  the current request
+   * @param response the current response
+   * @param handler  the handler of the request
+   * @return always true
+   */
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    if (request.getAttribute(START_ATTRIBUTE) == null) {
+      request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+    }
+    return true;
+  }
+
+  /**
+   * Records the latency of the completed request.
+   *
+   * @param request  the current request
+   * @param response the current response
+   * @param handler  the handler of the request
+   * @param ex       the exception thrown by the handler and not resolved, if any
+   */
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                              Exception ex) {
+    if (!(request.getAttribute(START_ATTRIBUTE) instanceof Long start)) {
+      return;
+    }
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    String name = "http." + request.getMethod() + " " + (pattern != null ? pattern : "unmapped");
+    metrics.timer(name).recordSince(start);
+    if (ex != null || response.getStatus() >= 400) {
+      metrics.counter(name + ".errors").increment();
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package com.mr486.safetynet.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mr486.safetynet.tools.ResponseCache;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * JSON message converter writing the {@link ResponseCache.Cached} responses as the UTF-8 bytes
+ * kept with them, with their ETag, instead of serializing them again.
+ * Any other response, or a cached one without its JSON, is serialized by Jackson as usual.
+ * <p>
+ * Declaring this converter replaces the one Spring Boot configures by default.
+ * </p>
+ */
+@Component
+public class PreSerializedJsonConverter extends MappingJackson2HttpMessageConverter {
+
+  /**
+   * Creates the converter.
+   *
+   * @param objectMapper the mapper serializing the responses without their JSON
+   */
+  public PreSerializedJsonConverter(ObjectMapper objectMapper) {
+    super(objectMapper);
+  }
+
+  /**
+   * Writes the kept bytes of a cached response, or serializes the response otherwise.
+   *
+   * @param object        the response
+   * @param type          the declared type of the response
+   * @param outputMessage the message to write to
+   * @throws IOException                     if an I/O error occurs
+   * @throws HttpMessageNotWritableException if the response cannot be serialized
+   */
+  @Override
+  protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+          throws IOException, HttpMessageNotWritableException {
+    HttpHeaders headers = outputMessage.getHeaders();
+    ResponseCache.Serialized serialized = object instanceof ResponseCache.Cached<?> cached ? cached.serialized() : null;
+    if (serialized == null || !isUtf8(headers.getContentType())) {
+      super.writeInternal(object, type, outputMessage);
+      return;
+    }
+    headers.setContentLength(serialized.json().length);
+    if (headers.getETag() == null) {
+      headers.setETag(serialized.etag());
+    }
+    outputMessage.getBody().write(serialized.json());
+  }
+
+  private static boolean isUtf8(MediaType contentType) {
+    return contentType == null || contentType.getCharset() == null
+            || StandardCharsets.UTF_8.equals(contentType.getCharset());
+  }
+}
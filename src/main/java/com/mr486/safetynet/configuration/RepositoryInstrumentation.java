@@ -0,0 +1,136 @@
+package com.mr486.safetynet.configuration;
+
+import com.mr486.safetynet.tools.Metrics;
+import com.mr486.safetynet.tools.RepositoryLookupEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Repository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the calls to the repositories and the rows they return, in the {@link Metrics}, under
+ * {@code repository.<interface>.<method>.calls} and {@code repository.<interface>.<method>.rows},
+ * and emits a {@link RepositoryLookupEvent} for each call while a flight recording runs.
+ * <p>
+ * Every {@link Repository} bean is wrapped in a proxy of its interfaces: the counters of each
+ * method are looked up once, when the proxy is created, so a call only costs two increments.
+ * A method returning a collection counts its size, an optional or an entity counts one row when
+ * present, and the rows of an iterator are counted as they are read.
+ * Disabled, along with the events, by {@code safetynet.metrics.repositories=false}.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "safetynet.metrics.repositories", havingValue = "true", matchIfMissing = true)
+public class RepositoryInstrumentation implements BeanPostProcessor {
+
+  private final Metrics metrics;
+
+  /**
+   * Wraps the repositories in a proxy counting their calls.
+   *
+   * @param bean     the initialized bean
+   * @param beanName the name of the bean
+   * @return the proxy of a repository, or the bean itself
+   */
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    Class<?>[] interfaces = bean.getClass().getInterfaces();
+    if (interfaces.length == 0 || AnnotationUtils.findAnnotation(bean.getClass(), Repository.class) == null) {
+      return bean;
+    }
+    return instrument(bean, interfaces);
+  }
+
+  /**
+   * Creates the proxy counting the calls to a repository.
+   *
+   * @param target     the repository
+   * @param interfaces the interfaces of the repository, whose methods are counted
+   * @return the proxy implementing the interfaces
+   */
+  Object instrument(Object target, Class<?>... interfaces) {
+    Map<Method, Counters> counters = new HashMap<>();
+    for (Class<?> type : interfaces) {
+      for (Method method : type.getMethods()) {
+        String lookup = type.getSimpleName() + "." + method.getName();
+        counters.put(method, new Counters(lookup, metrics.counter("repository." + lookup + ".calls"),
+                metrics.counter("repository." + lookup + ".rows")));
+      }
+    }
+    return Proxy.newProxyInstance(target.getClass().getClassLoader(), interfaces,
+            new CountingHandler(target, counters));
+  }
+
+  private record Counters(String lookup, LongAdder calls, LongAdder rows) {
+  }
+
+  private record CountingHandler(Object target, Map<Method, Counters> counters) implements InvocationHandler {
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      Counters methodCounters = counters.get(method);
+      if (methodCounters == null) {
+        return invoke(method, args);
+      }
+      RepositoryLookupEvent event = new RepositoryLookupEvent();
+      event.begin();
+      Object result = invoke(method, args);
+      methodCounters.calls().increment();
+      if (result instanceof Iterator<?> iterator) {
+        event.commit(methodCounters.lookup(), args, -1);
+        return new CountingIterator<>(iterator, methodCounters.rows());
+      }
+      long rows = rows(result);
+      methodCounters.rows().add(rows);
+      event.commit(methodCounters.lookup(), args, rows);
+      return result;
+    }
+
+    private Object invoke(Method method, Object[] args) throws Throwable {
+      try {
+        return method.invoke(target, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+
+    private static long rows(Object result) {
+      if (result instanceof Collection<?> collection) {
+        return collection.size();
+      }
+      if (result instanceof Optional<?> optional) {
+        return optional.isPresent() ? 1 : 0;
+      }
+      return result == null || result instanceof Boolean || result instanceof Number ? 0 : 1;
+    }
+  }
+
+  private record CountingIterator<T>(Iterator<T> iterator, LongAdder rows) implements Iterator<T> {
+
+    @Override
+    public boolean hasNext() {
+      return iterator.hasNext();
+    }
+
+    @Override
+    public T next() {
+      T next = iterator.next();
+      rows.increment();
+      return next;
+    }
+  }
+}
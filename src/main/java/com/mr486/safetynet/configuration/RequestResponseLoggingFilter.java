@@ -1,27 +1,128 @@
 package com.mr486.safetynet.configuration;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.util.ContentCachingRequestWrapper;
-import org.springframework.web.util.ContentCachingResponseWrapper;
 
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Enumeration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * A filter that logs the details of incoming HTTP requests and outgoing HTTP responses.
- * It wraps the request and response to capture their content for logging purposes.
+ * <p>
+ * Only a sample of the requests is logged ({@code safetynet.logging.sample-rate}), and only the
+ * first {@code safetynet.logging.max-body-bytes} of their bodies: the response is written straight
+ * through to the client while its beginning is copied aside, so large responses are never
+ * buffered. Requests under {@code safetynet.logging.excluded-paths} are not logged, and failed
+ * requests left out of the sample are still logged without their bodies.
+ * </p>
+ * <p>
+ * With {@code safetynet.logging.async}, the exchanges are logged by a background thread from a
+ * bounded queue; when the queue is full, exchanges are dropped and counted rather than blocking
+ * the request thread.
+ * </p>
  */
 @Slf4j
 @Configuration
 public class RequestResponseLoggingFilter extends OncePerRequestFilter {
 
+  private final boolean async;
+  private final double sampleRate;
+  private final int maxBodyBytes;
+  private final String[] excludedPaths;
+  private final BlockingQueue<Exchange> queue;
+  private final LongAdder dropped = new LongAdder();
+  private Thread worker;
+
+  /**
+   * Creates the filter.
+   *
+   * @param async         whether exchanges are logged by a background thread
+   * @param sampleRate    the fraction of the requests logged, from 0 to 1
+   * @param maxBodyBytes  the number of bytes of each body logged, 0 to omit bodies
+   * @param excludedPaths the path prefixes of the requests never logged
+   * @param queueCapacity the number of exchanges waiting to be logged before new ones are dropped
+   */
+  public RequestResponseLoggingFilter(@Value("${safetynet.logging.async:true}") boolean async,
+                                      @Value("${safetynet.logging.sample-rate:1.0}") double sampleRate,
+                                      @Value("${safetynet.logging.max-body-bytes:2048}") int maxBodyBytes,
+                                      @Value("${safetynet.logging.excluded-paths:}") String[] excludedPaths,
+                                      @Value("${safetynet.logging.queue-capacity:1024}") int queueCapacity) {
+    this.async = async;
+    this.sampleRate = sampleRate;
+    this.maxBodyBytes = Math.max(0, maxBodyBytes);
+    this.excludedPaths = Arrays.stream(excludedPaths).map(String::trim).filter(path -> !path.isEmpty())
+            .toArray(String[]::new);
+    this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+  }
+
+  /**
+   * Starts the thread logging the exchanges, in asynchronous mode.
+   */
+  @PostConstruct
+  public synchronized void start() {
+    if (async && worker == null) {
+      worker = new Thread(this::drain, "request-logging");
+      worker.setDaemon(true);
+      worker.start();
+    }
+  }
+
+  /**
+   * Stops the logging thread, then logs the exchanges still waiting.
+   */
+  @PreDestroy
+  public synchronized void close() {
+    if (worker != null) {
+      worker.interrupt();
+      try {
+        worker.join(1_000);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      worker = null;
+    }
+    while (logNext()) {
+      // Flush the remaining exchanges on the closing thread
+    }
+  }
+
+  /**
+   * Skips the requests under an excluded path.
+   *
+   * @param request the incoming HTTP request
+   * @return true if the request must not be logged
+   */
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    String uri = request.getRequestURI();
+    for (String excludedPath : excludedPaths) {
+      if (uri.startsWith(excludedPath)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Filters the request and response, logging their details.
    *
@@ -37,60 +138,130 @@ public class RequestResponseLoggingFilter extends OncePerRequestFilter {
                                   FilterChain filterChain)
           throws ServletException, IOException {
 
-    // Wrap the request and response to enable content caching
-    ContentCachingRequestWrapper wrappedRequest = new ContentCachingRequestWrapper(request);
-    ContentCachingResponseWrapper wrappedResponse = new ContentCachingResponseWrapper(response);
+    if (!sampled()) {
+      filterChain.doFilter(request, response);
+      if (response.getStatus() >= 400) {
+        submit(new Exchange(request.getMethod(), request.getRequestURI(), request.getQueryString(), null,
+                null, 0, response.getStatus(), null, 0));
+      }
+      return;
+    }
+
+    // Wrap the request and response to keep the beginning of their bodies
+    ContentCachingRequestWrapper wrappedRequest = new ContentCachingRequestWrapper(request, maxBodyBytes);
+    BodyCapturingResponseWrapper wrappedResponse = new BodyCapturingResponseWrapper(response, maxBodyBytes);
 
     // Proceed with the filter chain
     filterChain.doFilter(wrappedRequest, wrappedResponse);
+    wrappedResponse.flushWriter();
 
-    // Log the request and response details
-    logRequest(wrappedRequest);
-    logResponse(wrappedResponse);
+    submit(new Exchange(request.getMethod(), request.getRequestURI(), request.getQueryString(),
+            getHeadersAsString(request), wrappedRequest.getContentAsByteArray(),
+            Math.max(request.getContentLengthLong(), wrappedRequest.getContentAsByteArray().length),
+            wrappedResponse.getStatus(), wrappedResponse.getCapturedBody(), wrappedResponse.getBodyLength()));
+  }
 
-    // Copy the cached response body back to the original response
-    wrappedResponse.copyBodyToResponse();
+  /**
+   * Returns the number of exchanges waiting to be logged.
+   *
+   * @return the size of the queue
+   */
+  int pendingCount() {
+    return queue.size();
   }
 
   /**
-   * Logs the details of the incoming HTTP request.
+   * Logs the next exchange waiting, if any.
    *
-   * @param request the wrapped HTTP request
+   * @return false if no exchange was waiting
    */
-  private void logRequest(ContentCachingRequestWrapper request) {
-    String method = request.getMethod();
-    String uri = request.getRequestURI();
-    String query = request.getQueryString();
-    String headers = getHeadersAsString(request);
-    String body = new String(request.getContentAsByteArray(), StandardCharsets.UTF_8);
+  boolean logNext() {
+    Exchange exchange = queue.poll();
+    if (exchange == null) {
+      return false;
+    }
+    log(exchange);
+    return true;
+  }
+
+  // Private methods logging the exchanges
+
+  private boolean sampled() {
+    return sampleRate >= 1 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+  }
+
+  private void submit(Exchange exchange) {
+    if (!async) {
+      log(exchange);
+    } else if (!queue.offer(exchange)) {
+      dropped.increment();
+    }
+  }
+
+  private void drain() {
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        log(queue.take());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void log(Exchange exchange) {
+    long lost = dropped.sumThenReset();
+    if (lost > 0) {
+      log.warn("{} request(s) not logged, the logging queue was full", lost);
+    }
+    if (exchange.headers() != null) {
+      logRequest(exchange);
+    }
+    logResponse(exchange);
+  }
 
+  /**
+   * Logs the details of the incoming HTTP request.
+   *
+   * @param exchange the logged exchange
+   */
+  private void logRequest(Exchange exchange) {
     log.info("==== Incoming request ====");
-    log.info("Method: {}", method);
-    log.info("URI: {}{}", uri, (query != null ? "?" + query : ""));
-    log.info("Headers: {}", headers);
-    log.info("Request body: {}", body);
+    log.info("Method: {}", exchange.method());
+    log.info("URI: {}{}", exchange.uri(), (exchange.query() != null ? "?" + exchange.query() : ""));
+    log.info("Headers: {}", exchange.headers());
+    log.info("Request body: {}", body(exchange.requestBody(), exchange.requestLength()));
   }
 
   /**
    * Logs the details of the outgoing HTTP response.
    *
-   * @param response the wrapped HTTP response
+   * @param exchange the logged exchange
    */
-  private void logResponse(ContentCachingResponseWrapper response) {
-    String body = new String(response.getContentAsByteArray(), StandardCharsets.UTF_8);
+  private void logResponse(Exchange exchange) {
+    if (exchange.headers() == null) {
+      log.error("==== Outgoing request ==== {} {}{} returned {}", exchange.method(), exchange.uri(),
+              (exchange.query() != null ? "?" + exchange.query() : ""), exchange.status());
+      return;
+    }
+    String body = body(exchange.responseBody(), exchange.responseLength());
 
-    if (response.getStatus() >= 400) {
+    if (exchange.status() >= 400) {
       log.error("==== Outgoing request ====");
-      log.error("Status: {}", response.getStatus());
+      log.error("Status: {}", exchange.status());
       log.error("Response body: {}", body);
     } else {
       log.info("==== Outgoing request ====");
-      log.info("Status: {}", response.getStatus());
+      log.info("Status: {}", exchange.status());
       log.info("Response body: {}", body);
     }
 
   }
 
+  private static String body(byte[] captured, long length) {
+    String body = new String(captured, StandardCharsets.UTF_8);
+    return length > captured.length ? body + "... (" + length + " bytes)" : body;
+  }
+
   /**
    * Retrieves the headers of the HTTP request as a formatted string.
    *
@@ -107,4 +278,133 @@ public class RequestResponseLoggingFilter extends OncePerRequestFilter {
     }
     return headers.toString();
   }
+
+  /**
+   * Request and response as logged, with the beginning of their bodies.
+   * An exchange left out of the sample has no headers nor bodies.
+   */
+  private record Exchange(String method, String uri, String query, String headers,
+                          byte[] requestBody, long requestLength,
+                          int status, byte[] responseBody, long responseLength) {
+  }
+
+  /**
+   * Response writing its body through to the client, copying its beginning aside.
+   */
+  static final class BodyCapturingResponseWrapper extends HttpServletResponseWrapper {
+
+    private final byte[] captured;
+    private int capturedLength;
+    private long bodyLength;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    BodyCapturingResponseWrapper(HttpServletResponse response, int maxBodyBytes) {
+      super(response);
+      this.captured = new byte[maxBodyBytes];
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+      if (outputStream == null) {
+        outputStream = new CapturingOutputStream(super.getOutputStream());
+      }
+      return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+      if (writer == null) {
+        writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+      }
+      return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+      flushWriter();
+      super.flushBuffer();
+    }
+
+    @Override
+    public void resetBuffer() {
+      super.resetBuffer();
+      capturedLength = 0;
+      bodyLength = 0;
+    }
+
+    @Override
+    public void reset() {
+      super.reset();
+      capturedLength = 0;
+      bodyLength = 0;
+    }
+
+    void flushWriter() {
+      if (writer != null) {
+        writer.flush();
+      }
+    }
+
+    byte[] getCapturedBody() {
+      return Arrays.copyOf(captured, capturedLength);
+    }
+
+    long getBodyLength() {
+      return bodyLength;
+    }
+
+    private void capture(byte[] bytes, int offset, int length) {
+      int copied = Math.min(length, captured.length - capturedLength);
+      if (copied > 0) {
+        System.arraycopy(bytes, offset, captured, capturedLength, copied);
+        capturedLength += copied;
+      }
+      bodyLength += length;
+    }
+
+    private final class CapturingOutputStream extends ServletOutputStream {
+
+      private final ServletOutputStream target;
+
+      private CapturingOutputStream(ServletOutputStream target) {
+        this.target = target;
+      }
+
+      @Override
+      public void write(int b) throws IOException {
+        target.write(b);
+        if (capturedLength < captured.length) {
+          captured[capturedLength++] = (byte) b;
+        }
+        bodyLength++;
+      }
+
+      @Override
+      public void write(byte[] bytes, int offset, int length) throws IOException {
+        target.write(bytes, offset, length);
+        capture(bytes, offset, length);
+      }
+
+      @Override
+      public void flush() throws IOException {
+        target.flush();
+      }
+
+      @Override
+      public void close() throws IOException {
+        target.close();
+      }
+
+      @Override
+      public boolean isReady() {
+        return target.isReady();
+      }
+
+      @Override
+      public void setWriteListener(WriteListener writeListener) {
+        target.setWriteListener(writeListener);
+      }
+    }
+  }
 }
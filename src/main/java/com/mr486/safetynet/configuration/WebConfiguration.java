@@ -0,0 +1,29 @@
+package com.mr486.safetynet.configuration;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Spring MVC configuration registering the interceptors of the application.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebConfiguration implements WebMvcConfigurer {
+
+  private final MetricsInterceptor metricsInterceptor;
+  private final ConditionalGetInterceptor conditionalGetInterceptor;
+
+  /**
+   * Registers the interceptor measuring the endpoints, first so the requests answered
+   * {@code 304 Not Modified} are measured too, then the interceptor answering conditional GETs.
+   *
+   * @param registry the registry of the interceptors
+   */
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(metricsInterceptor);
+    registry.addInterceptor(conditionalGetInterceptor);
+  }
+}
@@ -1,11 +1,18 @@
 package com.mr486.safetynet.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mr486.safetynet.dto.request.PersonInfoDto;
 import com.mr486.safetynet.dto.response.ChildAlertResponseDto;
 import com.mr486.safetynet.dto.response.CoverageResponseDto;
 import com.mr486.safetynet.dto.response.FireResponseDto;
 import com.mr486.safetynet.dto.response.FloodStationsResponseDto;
 import com.mr486.safetynet.service.business.*;
+import com.mr486.safetynet.tools.CacheTags;
+import com.mr486.safetynet.tools.Keys;
+import com.mr486.safetynet.tools.PositionedList;
+import com.mr486.safetynet.tools.Projection;
+import com.mr486.safetynet.tools.ResponseCache;
+import com.mr486.safetynet.tools.ResponseCache.Cached;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,12 +20,19 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
-import java.util.Set;
+
+import static com.mr486.safetynet.service.business.DatasetVersions.Dataset.*;
 
 /**
  * Controller for handling business logic related to fire stations, child alerts, phone alerts, fire information, and flood information.
  * It provides endpoints to retrieve coverage information, children living at an address, phone numbers for residents served by a fire station,
  * fire information for a specific address, and flood information for specified fire stations.
+ * Responses are served from the {@link ResponseCache} as {@link Cached} bodies, whose kept JSON is written as is,
+ * tagged with the entities they were computed from,
+ * and carry an ETag built from the versions of the datasets they read (see {@link DatasetEtag}).
+ * Endpoints returning collections can be paged (see {@link Paging}): their responses are ordered by
+ * the positions of the persons they were derived from, so a cursor stays valid when a response is
+ * computed again after a change.
  */
 @RestController
 @RequiredArgsConstructor
@@ -31,6 +45,8 @@ public class BuisnessController {
   private final FloodService floodService;
   private final PersonInfoService personInfoService;
   private final CommunityEmailService communityEmailService;
+  private final ResponseCache responseCache;
+  private final ObjectMapper objectMapper;
 
   /**
    * Retrieves coverage information for a specific fire station.
@@ -38,10 +54,13 @@ public class BuisnessController {
    * @param stationNumber the number of the fire station for which to retrieve coverage
    * @return a ResponseEntity containing the coverage information or a 404 Not Found status if no coverage is found
    */
+  @DatasetEtag({FIRE_STATIONS, PERSONS, MEDICAL_RECORDS})
   @GetMapping(path = "/firestation", produces = "application/json")
-  public ResponseEntity<CoverageResponseDto> getCoverage(@RequestParam int stationNumber) {
-    CoverageResponseDto coverageResponse = fireStationConverageService.getCoverageByStationNumber(stationNumber);
-    if (coverageResponse.getPersons().isEmpty()) {
+  public ResponseEntity<Cached<CoverageResponseDto>> getCoverage(@RequestParam int stationNumber) {
+    Cached<CoverageResponseDto> coverageResponse = responseCache.cached("firestation", String.valueOf(stationNumber),
+            List.of(CacheTags.station(stationNumber)),
+            () -> fireStationConverageService.getCoverageByStationNumber(stationNumber));
+    if (coverageResponse.value().getPersons().isEmpty()) {
       return ResponseEntity.notFound().build();
     }
     return ResponseEntity.ok(coverageResponse);
@@ -53,20 +72,31 @@ public class BuisnessController {
    * @param address the address to search for children
    * @return a ResponseEntity containing ChildAlertResponseDto with children details
    */
+  @DatasetEtag({PERSONS, MEDICAL_RECORDS})
   @GetMapping(path = "/childAlert", produces = "application/json")
-  public ResponseEntity<ChildAlertResponseDto> getChildrenByAddress(@RequestParam String address) {
-    return ResponseEntity.ok(childAlertService.getChildrenByAddress(address));
+  public ResponseEntity<Cached<ChildAlertResponseDto>> getChildrenByAddress(@RequestParam String address) {
+    return ResponseEntity.ok(responseCache.cached("childAlert", Keys.normalize(address),
+            List.of(CacheTags.address(address)),
+            () -> childAlertService.getChildrenByAddress(address)));
   }
 
   /**
    * Retrieves phone numbers for residents served by a specific fire station.
    *
    * @param firestation the number of the fire station to retrieve phone numbers for
-   * @return a ResponseEntity containing a set of phone numbers
+   * @param cursor      the cursor returned with the previous page, or null for the first page
+   * @param limit       the maximum number of phone numbers of a page, or null for the default page size
+   * @return a ResponseEntity containing the phone numbers, or a page of them
    */
+  @DatasetEtag({FIRE_STATIONS, PERSONS})
   @GetMapping(path = "/phoneAlert", produces = "application/json")
-  public ResponseEntity<Set<String>> getPhonesByStation(@RequestParam int firestation) {
-    return ResponseEntity.ok(phoneAlertService.getPhonesByStation(firestation));
+  public ResponseEntity<?> getPhonesByStation(@RequestParam int firestation,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) Integer limit) {
+    Cached<PositionedList<String>> phones = responseCache.cached("phoneAlert", String.valueOf(firestation),
+            List.of(CacheTags.station(firestation)),
+            () -> phoneAlertService.getPhonesByStation(firestation));
+    return Paging.ok(phones, cursor, limit, Projection.NONE);
   }
 
   /**
@@ -75,9 +105,12 @@ public class BuisnessController {
    * @param address the address to search for fire information
    * @return a ResponseEntity containing FireResponseDto with fire details
    */
+  @DatasetEtag({FIRE_STATIONS, PERSONS, MEDICAL_RECORDS})
   @GetMapping(path = "/fire", produces = "application/json")
-  public ResponseEntity<FireResponseDto> getFireInfo(@RequestParam String address) {
-    return ResponseEntity.ok(fireService.getFireInfoByAddress(address));
+  public ResponseEntity<Cached<FireResponseDto>> getFireInfo(@RequestParam String address) {
+    return ResponseEntity.ok(responseCache.cached("fire", Keys.normalize(address),
+            List.of(CacheTags.address(address)),
+            () -> fireService.getFireInfoByAddress(address)));
   }
 
   /**
@@ -86,30 +119,53 @@ public class BuisnessController {
    * @param stations a list of fire station numbers to retrieve flood information for
    * @return a ResponseEntity containing FloodStationsResponseDto with flood details
    */
+  @DatasetEtag({FIRE_STATIONS, PERSONS, MEDICAL_RECORDS})
   @GetMapping(path = "/flood/stations", produces = "application/json")
-  public ResponseEntity<FloodStationsResponseDto> getFloodInfo(@RequestParam List<Integer> stations) {
-    return ResponseEntity.ok(floodService.getHouseholdsByStations(stations));
+  public ResponseEntity<Cached<FloodStationsResponseDto>> getFloodInfo(@RequestParam List<Integer> stations) {
+    return ResponseEntity.ok(responseCache.cached("flood", stations.toString(),
+            stations.stream().map(CacheTags::station).toList(),
+            () -> floodService.getHouseholdsByStations(stations)));
   }
 
   /**
    * Retrieves person information by last name.
    *
    * @param personInfolastName the last name of the person to search for
-   * @return a ResponseEntity containing a list of PersonInfoDto with person details
+   * @param cursor             the cursor returned with the previous page, or null for the first page
+   * @param limit              the maximum number of persons of a page, or null for the default page size
+   * @param fields             the comma-separated fields to return, or null for all of them
+   * @return a ResponseEntity containing PersonInfoDto with person details, or a page of them
    */
+  @DatasetEtag({PERSONS, MEDICAL_RECORDS})
   @GetMapping(value = "/persons", produces = "application/json")
-  public ResponseEntity<List<PersonInfoDto>> getPersonInfo(@RequestParam String personInfolastName) {
-    return ResponseEntity.ok(personInfoService.getPersonInfoByLastName(personInfolastName));
+  public ResponseEntity<?> getPersonInfo(@RequestParam String personInfolastName,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) Integer limit,
+                                         @RequestParam(required = false) String fields) {
+    Projection projection = Projection.of(objectMapper, PersonInfoDto.class, fields);
+    Cached<PositionedList<PersonInfoDto>> persons = responseCache.cached("personInfo",
+            Keys.normalize(personInfolastName),
+            List.of(CacheTags.lastName(personInfolastName)),
+            () -> personInfoService.getPersonInfoByLastName(personInfolastName));
+    return Paging.ok(persons, cursor, limit, projection);
   }
 
   /**
    * Retrieves a set of email addresses for residents in a specified city.
    *
-   * @param city the city to search for email addresses
-   * @return a ResponseEntity containing a set of email addresses
+   * @param city   the city to search for email addresses
+   * @param cursor the cursor returned with the previous page, or null for the first page
+   * @param limit  the maximum number of email addresses of a page, or null for the default page size
+   * @return a ResponseEntity containing the email addresses, or a page of them
    */
+  @DatasetEtag({PERSONS})
   @GetMapping(path = "/communityEmail", produces = "application/json")
-  public ResponseEntity<Set<String>> getCommunityEmails(@RequestParam String city) {
-    return ResponseEntity.ok(communityEmailService.getEmailsByCity(city));
+  public ResponseEntity<?> getCommunityEmails(@RequestParam String city,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) Integer limit) {
+    Cached<PositionedList<String>> emails = responseCache.cached("communityEmail", Keys.normalize(city),
+            List.of(CacheTags.city(city)),
+            () -> communityEmailService.getEmailsByCity(city));
+    return Paging.ok(emails, cursor, limit, Projection.NONE);
   }
 }
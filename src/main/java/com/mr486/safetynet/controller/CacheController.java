@@ -0,0 +1,28 @@
+package com.mr486.safetynet.controller;
+
+import com.mr486.safetynet.tools.ResponseCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * CacheController exposes the statistics of the business response cache.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/cache")
+public class CacheController {
+
+  private final ResponseCache responseCache;
+
+  /**
+   * Retrieves the hits, misses, evictions and size of the response cache.
+   *
+   * @return the statistics of the cache since startup.
+   */
+  @GetMapping(path = "/stats", produces = "application/json")
+  public ResponseCache.Stats getStats() {
+    return responseCache.stats();
+  }
+}
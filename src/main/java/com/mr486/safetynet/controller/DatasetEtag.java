@@ -0,0 +1,27 @@
+package com.mr486.safetynet.controller;
+
+import com.mr486.safetynet.service.business.DatasetVersions;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an endpoint whose response only changes with the datasets it reads.
+ * Its ETag is built by {@link DatasetVersions} from their versions, and a conditional GET
+ * matching it is answered with {@code 304 Not Modified} without calling the endpoint.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface DatasetEtag {
+
+  /**
+   * Returns the datasets the response is computed from.
+   *
+   * @return the datasets
+   */
+  DatasetVersions.Dataset[] value();
+}
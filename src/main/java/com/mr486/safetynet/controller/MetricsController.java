@@ -0,0 +1,27 @@
+package com.mr486.safetynet.controller;
+
+import com.mr486.safetynet.tools.Metrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * MetricsController exposes the latency histograms, counters and gauges of the application.
+ */
+@RestController
+@RequiredArgsConstructor
+public class MetricsController {
+
+  private final Metrics metrics;
+
+  /**
+   * Retrieves the latency of the endpoints and persistence flushes, the calls and rows read of
+   * the repositories, and the size of the persisted files.
+   *
+   * @return the metrics since startup, durations in microseconds.
+   */
+  @GetMapping(path = "/metrics", produces = "application/json")
+  public Metrics.Snapshot getMetrics() {
+    return metrics.snapshot();
+  }
+}
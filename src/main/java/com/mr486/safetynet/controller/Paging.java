@@ -0,0 +1,99 @@
+package com.mr486.safetynet.controller;
+
+import com.mr486.safetynet.configuration.AppConfiguation;
+import com.mr486.safetynet.tools.Page;
+import com.mr486.safetynet.tools.Projection;
+import com.mr486.safetynet.tools.ResponseCache;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Pagination contract shared by the controllers returning collections.
+ * <p>
+ * Without {@code cursor} nor {@code limit}, the whole collection is returned as before.
+ * Otherwise a page of at most {@code limit} items (default and maximum
+ * {@value AppConfiguation#MAX_PAGE_SIZE}) is returned, with the cursor of the next page in the
+ * {@value Page#NEXT_CURSOR_HEADER} header until the last page.
+ * </p>
+ */
+final class Paging {
+
+  private Paging() {
+  }
+
+  /**
+   * Tells whether the client asked for a page.
+   *
+   * @param cursor the cursor parameter
+   * @param limit  the limit parameter
+   * @return true if either parameter is present
+   */
+  static boolean isRequested(String cursor, Integer limit) {
+    return cursor != null || limit != null;
+  }
+
+  /**
+   * Returns the requested page size, or the default one.
+   *
+   * @param limit the limit parameter, may be null
+   * @return the page size
+   */
+  static int limit(Integer limit) {
+    return limit == null ? AppConfiguation.MAX_PAGE_SIZE : limit;
+  }
+
+  /**
+   * Builds the response for a collection, paged if the client asked for a page.
+   *
+   * @param items      the whole collection, as a list so that a page is read from its cursor directly
+   * @param cursor     the cursor parameter
+   * @param limit      the limit parameter
+   * @param projection the projection of the items
+   * @param <T>        the type of the items
+   * @return a ResponseEntity containing the items or a page of them
+   */
+  static <T> ResponseEntity<Collection<?>> ok(List<T> items, String cursor, Integer limit,
+                                              Projection projection) {
+    if (!isRequested(cursor, limit)) {
+      return ResponseEntity.ok(projection.apply(items));
+    }
+    return ok(Page.of(items, cursor, limit(limit)), projection);
+  }
+
+  /**
+   * Builds the response for a cached collection, paged if the client asked for a page.
+   * The whole collection is returned as cached, so that its kept JSON is written as is.
+   *
+   * @param items      the whole collection, with its JSON if kept
+   * @param cursor     the cursor parameter
+   * @param limit      the limit parameter
+   * @param projection the projection of the items
+   * @param <T>        the type of the items
+   * @return a ResponseEntity containing the cached collection, its projection or a page of it
+   */
+  static <T> ResponseEntity<?> ok(ResponseCache.Cached<? extends List<T>> items, String cursor, Integer limit,
+                                  Projection projection) {
+    if (!isRequested(cursor, limit) && projection == Projection.NONE) {
+      return ResponseEntity.ok(items);
+    }
+    return ok(items.value(), cursor, limit, projection);
+  }
+
+  /**
+   * Builds the response for a page, with the cursor of the next one.
+   *
+   * @param page       the page
+   * @param projection the projection of the items
+   * @param <T>        the type of the items
+   * @return a ResponseEntity containing the items of the page
+   */
+  static <T> ResponseEntity<Collection<?>> ok(Page<T> page, Projection projection) {
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (page.nextCursor() != null) {
+      response.header(Page.NEXT_CURSOR_HEADER, page.nextCursor());
+    }
+    return response.body(projection.apply(page.items()));
+  }
+}
@@ -1,12 +1,20 @@
 package com.mr486.safetynet.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mr486.safetynet.dto.request.PersonDto;
 import com.mr486.safetynet.model.Person;
 import com.mr486.safetynet.service.PersonService;
+import com.mr486.safetynet.tools.Ndjson;
+import com.mr486.safetynet.tools.Page;
+import com.mr486.safetynet.tools.Projection;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Collection;
 
 /**
  * PersonController handles HTTP requests related to Person entities.
@@ -18,16 +26,51 @@ import org.springframework.web.bind.annotation.*;
 public class PersonController {
 
   private final PersonService personService;
+  private final ObjectMapper objectMapper;
 
   /**
-   * Retrieves all persons.
+   * Retrieves all persons, or a page of them in the stable order of the repository
+   * (see {@link Paging}), optionally projected on some of their fields.
    *
-   * @return a ResponseEntity containing an iterable of Person objects.
+   * @param cursor the cursor returned with the previous page, or null for the first page.
+   * @param limit  the maximum number of persons of a page, or null for the default page size.
+   * @param fields the comma-separated fields to return, or null for all of them.
+   * @return a ResponseEntity containing the persons.
    */
   @GetMapping(path = "/all", produces = "application/json")
-  public ResponseEntity<Iterable<Person>> getAllPersons() {
-    Iterable<Person> persons = personService.findAll();
-    return ResponseEntity.ok(persons);
+  public ResponseEntity<Collection<?>> getAllPersons(@RequestParam(required = false) String cursor,
+                                                     @RequestParam(required = false) Integer limit,
+                                                     @RequestParam(required = false) String fields) {
+    Projection projection = Projection.of(objectMapper, Person.class, fields);
+    if (!Paging.isRequested(cursor, limit)) {
+      return ResponseEntity.ok(projection.apply(personService.findAll()));
+    }
+    return Paging.ok(personService.findPage(cursor, Paging.limit(limit)), projection);
+  }
+
+  /**
+   * Streams all persons as newline-delimited JSON, written as they are read from the repository.
+   * With a cursor or a limit, streams one page of persons instead, the cursor of the next page
+   * being returned in the {@value Page#NEXT_CURSOR_HEADER} header until the last page.
+   *
+   * @param cursor the cursor returned with the previous page, or null for the first page.
+   * @param limit  the maximum number of persons of a page, or null for the default page size.
+   * @return a ResponseEntity streaming the persons, one JSON object per line.
+   */
+  @GetMapping(path = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> streamPersons(@RequestParam(required = false) String cursor,
+                                                             @RequestParam(required = false) Integer limit) {
+    if (!Paging.isRequested(cursor, limit)) {
+      return ResponseEntity.ok()
+              .contentType(MediaType.APPLICATION_NDJSON)
+              .body(Ndjson.stream(objectMapper, personService.iterateAll()));
+    }
+    Page<Person> page = personService.findPage(cursor, Paging.limit(limit));
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON);
+    if (page.nextCursor() != null) {
+      response.header(Page.NEXT_CURSOR_HEADER, page.nextCursor());
+    }
+    return response.body(Ndjson.stream(objectMapper, page.items().iterator()));
   }
 
   /**
@@ -0,0 +1,17 @@
+package com.mr486.safetynet.exception;
+
+/**
+ * Exception thrown when the parameters of a request are invalid,
+ * such as a malformed pagination cursor or an out of range page size.
+ */
+public class InvalidRequestException extends RuntimeException {
+
+  /**
+   * Constructs a new InvalidRequestException with the specified detail message.
+   *
+   * @param message the detail message explaining why the request is invalid
+   */
+  public InvalidRequestException(String message) {
+    super(message);
+  }
+}
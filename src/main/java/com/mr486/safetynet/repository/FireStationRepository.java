@@ -20,6 +20,14 @@ public interface FireStationRepository {
    */
   Optional<FireStation> findByAddress(String address);
 
+  /**
+   * Finds every fire station covering an address, which may be covered by several stations.
+   *
+   * @param address the address to search for
+   * @return the fire stations of the address, the one returned by findByAddress first
+   */
+  List<FireStation> findAllByAddress(String address);
+
   /**
    * Saves a fire station to the repository.
    *
@@ -29,7 +37,7 @@ public interface FireStationRepository {
   FireStation save(FireStation fireStation);
 
   /**
-   * Deletes a fire station by its address.
+   * Deletes every fire station of an address.
    *
    * @param address the address of the fire station to delete
    */
@@ -57,4 +65,12 @@ public interface FireStationRepository {
    * @return a list of all fire stations
    */
   List<FireStation> findAll();
+
+  /**
+   * Returns the version of the repository, incremented by every save and delete.
+   * Responses computed from the repository can be identified by the versions they were read at.
+   *
+   * @return the version, 0 until the first change since startup
+   */
+  long version();
 }
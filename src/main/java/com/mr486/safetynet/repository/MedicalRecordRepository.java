@@ -1,6 +1,7 @@
 package com.mr486.safetynet.repository;
 
 import com.mr486.safetynet.model.MedicalRecord;
+import com.mr486.safetynet.model.Person;
 
 import java.util.List;
 import java.util.Optional;
@@ -27,6 +28,14 @@ public interface MedicalRecordRepository {
    */
   Optional<MedicalRecord> findByFirstNameAndLastName(String firstName, String lastName);
 
+  /**
+   * Finds the medical records of the given persons in a single pass.
+   *
+   * @param persons the persons whose medical records are wanted
+   * @return the medical records in the order of the persons, with null for a person without record
+   */
+  List<MedicalRecord> findByPersons(List<Person> persons);
+
   /**
    * Saves a medical record entity.
    *
@@ -51,4 +60,12 @@ public interface MedicalRecordRepository {
    * @return true if a medical record exists for the specified person, false otherwise
    */
   boolean exists(String firstName, String lastName);
+
+  /**
+   * Returns the version of the repository, incremented by every save and delete.
+   * Responses computed from the repository can be identified by the versions they were read at.
+   *
+   * @return the version, 0 until the first change since startup
+   */
+  long version();
 }
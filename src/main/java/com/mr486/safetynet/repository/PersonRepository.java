@@ -1,7 +1,9 @@
 package com.mr486.safetynet.repository;
 
 import com.mr486.safetynet.model.Person;
+import com.mr486.safetynet.tools.Positioned;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 
@@ -61,6 +63,24 @@ public interface PersonRepository {
    */
   List<Person> findAll();
 
+  /**
+   * Iterates the persons in a stable order, starting after a position, without copying them.
+   * Positions never change, so a client can page through the persons while they are updated.
+   *
+   * @param position the position of the last person already read, or -1 to start from the first
+   * @return a weakly consistent iterator over the following persons with their positions
+   */
+  Iterator<Positioned<Person>> iterateAfter(long position);
+
+  /**
+   * Returns the position of a person in the order of {@link #iterateAfter(long)}.
+   *
+   * @param firstName the first name of the person
+   * @param lastName  the last name of the person
+   * @return the position of the person, or -1 if there is none
+   */
+  long position(String firstName, String lastName);
+
   /**
    * Finds persons by their last name.
    *
@@ -76,4 +96,12 @@ public interface PersonRepository {
    * @return a list of persons living in the specified city
    */
   List<Person> findByCity(String city);
+
+  /**
+   * Returns the version of the repository, incremented by every save and delete.
+   * Responses computed from the repository can be identified by the versions they were read at.
+   *
+   * @return the version, 0 until the first change since startup
+   */
+  long version();
 }
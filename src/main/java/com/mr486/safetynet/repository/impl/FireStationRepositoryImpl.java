@@ -2,86 +2,152 @@ package com.mr486.safetynet.repository.impl;
 
 import com.mr486.safetynet.model.FireStation;
 import com.mr486.safetynet.repository.FireStationRepository;
+import com.mr486.safetynet.tools.JournalEntry;
+import com.mr486.safetynet.tools.IntObjectMap;
 import com.mr486.safetynet.tools.JsonService;
+import com.mr486.safetynet.tools.Keys;
+import com.mr486.safetynet.tools.OrderedConcurrentMap;
+import com.mr486.safetynet.tools.StationMappings;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 /**
  * Implementation of the FireStationRepository interface that uses JSON data for storage.
  * This class initializes
  * the repository with fire station data from a JSON file upon application startup.
  * It provides methods to find, save, delete, and check the existence of fire stations
+ * <p>
+ * Fire stations are stored by case-folded address, each address holding the list of its
+ * mappings since an address may be covered by several stations; the rules applied to that list
+ * are those of {@link StationMappings}. An index maps each station number to its fire stations,
+ * so that lookups by station cost the size of their result.
+ * </p>
+ * <p>
+ * Reads never lock: the lists of an address are immutable and replaced on every change, along
+ * with the fire stations they hold. Each station of the index holds a concurrent skip list of its
+ * fire stations by the position of their address, which a save keeps, so a change costs a
+ * logarithmic access to the stations it touches whatever their size; only the map of the
+ * stations themselves is copied, when a station gains its first address or loses its last.
+ * Writes are serialized on the repository.
+ * </p>
  **/
+@Slf4j
 @Repository
 @RequiredArgsConstructor
 public class FireStationRepositoryImpl implements FireStationRepository {
 
   private final JsonService jsonService;
-  private List<FireStation> fireStations = new ArrayList<>();
+  private volatile long version;
+  private final OrderedConcurrentMap<List<FireStation>> fireStations = new OrderedConcurrentMap<>();
+  private volatile IntObjectMap<NavigableMap<Long, FireStation>> fireStationsByStation = IntObjectMap.empty();
 
   /**
    * Initializes the repository by loading fire station data from a JSON file.
    * This method is called after the bean's properties have been set.
    */
   @PostConstruct
-  public void init() {
-    fireStations = jsonService.loadFireStations();
+  public synchronized void init() {
+    fireStations.clear();
+    fireStationsByStation = IntObjectMap.empty();
+    Map<String, List<FireStation>> byAddress = new LinkedHashMap<>();
+    for (FireStation fireStation : jsonService.loadFireStations(this::copyForPersistence)) {
+      String key = Keys.normalize(fireStation.getAddress());
+      List<FireStation> mappings = byAddress.get(key);
+      List<FireStation> added = StationMappings.add(mappings, fireStation);
+      if (added == mappings) {
+        log.warn("Duplicate fire station ignored: {} -> {}", fireStation.getAddress(), fireStation.getStation());
+        continue;
+      }
+      byAddress.put(key, added);
+    }
+    byAddress.forEach((key, mappings) -> {
+      fireStations.put(key, mappings);
+      long position = fireStations.position(key);
+      mappings.forEach(fireStation -> index(position, fireStation));
+    });
   }
 
   /**
    * Finds a fire station by its address.
+   * When several stations cover the address, the first one is returned.
    *
    * @param address the address of the fire station to find.
    * @return an Optional containing the FireStation if found, or empty if not found.
    */
   @Override
   public Optional<FireStation> findByAddress(String address) {
-    return fireStations.stream()
-            .filter(fireStation -> fireStation.getAddress().equalsIgnoreCase(address))
-            .findFirst();
+    List<FireStation> mappings = fireStations.get(Keys.normalize(address));
+    return mappings == null ? Optional.empty() : Optional.of(mappings.get(0));
   }
 
+  /**
+   * Finds every fire station covering an address.
+   *
+   * @param address the address to search for.
+   * @return the fire stations of the address, the one returned by findByAddress first.
+   */
+  @Override
+  public List<FireStation> findAllByAddress(String address) {
+    List<FireStation> mappings = fireStations.get(Keys.normalize(address));
+    return mappings == null ? List.of() : mappings;
+  }
 
   /**
    * Saves a fire station entity.
-   * If the fire station already exists by address, it updates the existing one.
+   * If the address already has fire stations, the first one is replaced by a fire station with the
+   * new station number, the others being kept.
    * If it does not exist, it adds the new fire station to the list.
    *
    * @param fireStation the FireStation entity to save.
    * @return the saved FireStation entity.
    */
   @Override
-  public FireStation save(FireStation fireStation) {
-    // Check if the fire station already exists by address
-    Optional<FireStation> existingFireStation = findByAddress(fireStation.getAddress());
-    // If it exists, update the existing one
-    if (existingFireStation.isPresent()) {
-      FireStation existing = existingFireStation.get();
-      existing.setStation(fireStation.getStation());
-      jsonService.saveFireStations(fireStations);
-      return existing;
-    } else {
-      // If it does not exist, add the new fire station
-      fireStations.add(fireStation);
-      jsonService.saveFireStations(fireStations);
+  public synchronized FireStation save(FireStation fireStation) {
+    String key = Keys.normalize(fireStation.getAddress());
+    List<FireStation> existing = fireStations.get(key);
+    FireStation saved = fireStation;
+    if (existing != null) {
+      // Keep the address as first recorded, and replace the fire station instead of modifying it
+      saved = new FireStation(existing.get(0).getAddress(), fireStation.getStation());
+      long position = fireStations.position(key);
+      existing.forEach(mapping -> unindex(position, mapping));
     }
-    return fireStation;
+    List<FireStation> mappings = StationMappings.save(existing, saved);
+    fireStations.put(key, mappings);
+    long position = fireStations.position(key);
+    mappings.forEach(mapping -> index(position, mapping));
+    version++;
+    jsonService.journal(JournalEntry.saveFireStation(saved));
+    jsonService.saveFireStations(this::copyForPersistence);
+    return saved;
   }
 
   /**
-   * Deletes a fire station by its address.
+   * Deletes every fire station of an address.
    *
    * @param address the address of the fire station to delete.
    */
   @Override
-  public void delete(String address) {
-    fireStations.removeIf(fireStation -> fireStation.getAddress().equalsIgnoreCase(address));
-    jsonService.saveFireStations(fireStations);
+  public synchronized void delete(String address) {
+    String key = Keys.normalize(address);
+    long position = fireStations.position(key);
+    List<FireStation> removed = fireStations.remove(key);
+    if (removed != null) {
+      removed.forEach(mapping -> unindex(position, mapping));
+      version++;
+      jsonService.journal(JournalEntry.deleteFireStation(address));
+    }
+    jsonService.saveFireStations(this::copyForPersistence);
   }
 
   /**
@@ -92,9 +158,8 @@ public class FireStationRepositoryImpl implements FireStationRepository {
    */
   @Override
   public List<FireStation> findByStationNumber(int stationNumber) {
-    return fireStations.stream()
-            .filter(fireStation -> fireStation.getStation() == stationNumber)
-            .toList();
+    NavigableMap<Long, FireStation> bucket = fireStationsByStation.get(stationNumber);
+    return bucket == null ? List.of() : List.copyOf(bucket.values());
   }
 
   /**
@@ -105,8 +170,7 @@ public class FireStationRepositoryImpl implements FireStationRepository {
    */
   @Override
   public boolean exists(String address) {
-    return fireStations.stream()
-            .anyMatch(fireStation -> fireStation.getAddress().equalsIgnoreCase(address));
+    return fireStations.containsKey(Keys.normalize(address));
   }
 
   /**
@@ -116,6 +180,50 @@ public class FireStationRepositoryImpl implements FireStationRepository {
    */
   @Override
   public List<FireStation> findAll() {
-    return new ArrayList<>(fireStations);
+    List<FireStation> all = new ArrayList<>(fireStations.size());
+    fireStations.values().forEach(all::addAll);
+    return all;
+  }
+
+  /**
+   * Returns the version of the repository, incremented by every save and delete.
+   *
+   * @return the version, 0 until the first change since startup
+   */
+  @Override
+  public long version() {
+    return version;
+  }
+
+  // Private methods for index maintenance
+
+  private void index(long position, FireStation fireStation) {
+    if (fireStation.getStation() == null) {
+      return;
+    }
+    NavigableMap<Long, FireStation> bucket = fireStationsByStation.get(fireStation.getStation());
+    if (bucket == null) {
+      bucket = new ConcurrentSkipListMap<>();
+      fireStationsByStation = fireStationsByStation.with(fireStation.getStation(), bucket);
+    }
+    bucket.put(position, fireStation);
+  }
+
+  private void unindex(long position, FireStation fireStation) {
+    if (fireStation.getStation() == null) {
+      return;
+    }
+    NavigableMap<Long, FireStation> bucket = fireStationsByStation.get(fireStation.getStation());
+    if (bucket != null) {
+      bucket.remove(position);
+      if (bucket.isEmpty()) {
+        fireStationsByStation = fireStationsByStation.without(fireStation.getStation());
+      }
+    }
+  }
+
+  // Called by the persister: the lock keeps the copy from seeing a change half applied
+  private synchronized List<FireStation> copyForPersistence() {
+    return List.copyOf(findAll());
   }
 }
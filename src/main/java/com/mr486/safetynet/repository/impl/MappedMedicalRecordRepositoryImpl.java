@@ -0,0 +1,148 @@
+package com.mr486.safetynet.repository.impl;
+
+import com.mr486.safetynet.model.MedicalRecord;
+import com.mr486.safetynet.model.Person;
+import com.mr486.safetynet.repository.MedicalRecordRepository;
+import com.mr486.safetynet.tools.JournalEntry;
+import com.mr486.safetynet.tools.JsonService;
+import com.mr486.safetynet.tools.Keys;
+import com.mr486.safetynet.tools.MappedOverlay;
+import com.mr486.safetynet.tools.MappedSnapshot;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Implementation of the MedicalRecordRepository interface serving medical records from the
+ * memory-mapped snapshot. Enabled by {@code safetynet.persistence.storage=mapped}.
+ * <p>
+ * Records are looked up by name through the index of the {@link MappedSnapshot}; records saved
+ * or deleted since startup are kept in a {@link MappedOverlay}. Reads never lock and writes are
+ * serialized on the repository.
+ * </p>
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "safetynet.persistence.storage", havingValue = "mapped")
+public class MappedMedicalRecordRepositoryImpl implements MedicalRecordRepository {
+
+  private final JsonService jsonService;
+  private volatile long version;
+
+  private MappedSnapshot snapshot;
+  private MappedOverlay<MedicalRecord> overlay;
+
+  /**
+   * Initializes the repository by mapping the snapshot of the dataset.
+   * This method is called after the bean is constructed.
+   */
+  @PostConstruct
+  public void init() {
+    snapshot = jsonService.mappedSnapshot();
+    overlay = new MappedOverlay<>(snapshot.medicalRecordCount(), snapshot::medicalRecord);
+  }
+
+  /**
+   * Retrieves all medical records from the repository, decoding every mapped record.
+   *
+   * @return a list of all medical records.
+   */
+  @Override
+  public List<MedicalRecord> findAll() {
+    return new ArrayList<>(overlay.values());
+  }
+
+  /**
+   * Finds a medical record by the first name and last name of the person.
+   *
+   * @param firstName the first name of the person
+   * @param lastName  the last name of the person
+   * @return an Optional containing the MedicalRecord if found, or empty if not found
+   */
+  @Override
+  public Optional<MedicalRecord> findByFirstNameAndLastName(String firstName, String lastName) {
+    return Optional.ofNullable(overlay.get(Keys.nameKey(firstName, lastName),
+            snapshot.medicalRecordIndex(firstName, lastName)));
+  }
+
+  /**
+   * Finds the medical records of the given persons by probing the name index once per person.
+   *
+   * @param persons the persons whose medical records are wanted
+   * @return the medical records in the order of the persons, with null for a person without record
+   */
+  @Override
+  public List<MedicalRecord> findByPersons(List<Person> persons) {
+    List<MedicalRecord> records = new ArrayList<>(persons.size());
+    for (Person person : persons) {
+      records.add(overlay.get(Keys.nameKey(person.getFirstName(), person.getLastName()),
+              snapshot.medicalRecordIndex(person.getFirstName(), person.getLastName())));
+    }
+    return records;
+  }
+
+  /**
+   * Saves a medical record to the repository, replacing the record of the same person if any.
+   *
+   * @param medicalRecord the medical record to save
+   * @return the saved MedicalRecord entity
+   */
+  @Override
+  public synchronized MedicalRecord save(MedicalRecord medicalRecord) {
+    overlay.put(Keys.nameKey(medicalRecord.getFirstName(), medicalRecord.getLastName()),
+            snapshot.medicalRecordIndex(medicalRecord.getFirstName(), medicalRecord.getLastName()),
+            medicalRecord);
+    version++;
+    jsonService.journal(JournalEntry.saveMedicalRecord(medicalRecord));
+    jsonService.saveMedicalRecords(this::copyForPersistence);
+    return medicalRecord;
+  }
+
+  /**
+   * Deletes a medical record by the first name and last name of the person.
+   *
+   * @param firstName the first name of the person
+   * @param lastName  the last name of the person
+   */
+  @Override
+  public synchronized void delete(String firstName, String lastName) {
+    if (overlay.remove(Keys.nameKey(firstName, lastName), snapshot.medicalRecordIndex(firstName, lastName))) {
+      version++;
+      jsonService.journal(JournalEntry.deleteMedicalRecord(firstName, lastName));
+    }
+    jsonService.saveMedicalRecords(this::copyForPersistence);
+  }
+
+  /**
+   * Checks if a medical record exists for the specified first name and last name.
+   *
+   * @param firstName the first name to check
+   * @param lastName  the last name to check
+   * @return true if a medical record exists for the specified person, false otherwise
+   */
+  @Override
+  public boolean exists(String firstName, String lastName) {
+    return findByFirstNameAndLastName(firstName, lastName).isPresent();
+  }
+
+  /**
+   * Returns the version of the repository, incremented by every save and delete.
+   *
+   * @return the version, 0 until the first change since startup
+   */
+  @Override
+  public long version() {
+    return version;
+  }
+
+  // Called by the persister: the lock keeps the copy from seeing a change half applied,
+  // and the mapped records are only decoded, or copied as they are, when the copy is written
+  private synchronized List<MedicalRecord> copyForPersistence() {
+    return overlay.copy();
+  }
+}
@@ -0,0 +1,209 @@
+package com.mr486.safetynet.repository.impl;
+
+import com.mr486.safetynet.model.Person;
+import com.mr486.safetynet.repository.PersonRepository;
+import com.mr486.safetynet.tools.JournalEntry;
+import com.mr486.safetynet.tools.JsonService;
+import com.mr486.safetynet.tools.Keys;
+import com.mr486.safetynet.tools.MappedOverlay;
+import com.mr486.safetynet.tools.MappedSnapshot;
+import com.mr486.safetynet.tools.Positioned;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Implementation of the PersonRepository interface serving persons from the memory-mapped snapshot.
+ * Enabled by {@code safetynet.persistence.storage=mapped}.
+ * <p>
+ * Lookups go through the indexes of the {@link MappedSnapshot} and decode the matching persons
+ * from the mapping. Persons saved or deleted since startup are kept in a {@link MappedOverlay}.
+ * Reads never lock and writes are serialized on the repository; an updated person is replaced
+ * by a new instance instead of being modified.
+ * </p>
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "safetynet.persistence.storage", havingValue = "mapped")
+public class MappedPersonRepositoryImpl implements PersonRepository {
+
+  // Secondary keys of the overlay, in the order they are given to it
+  private static final int BY_ADDRESS = 0;
+  private static final int BY_LAST_NAME = 1;
+  private static final int BY_CITY = 2;
+
+  private final JsonService jsonService;
+  private volatile long version;
+
+  private MappedSnapshot snapshot;
+  private MappedOverlay<Person> overlay;
+
+  /**
+   * Initializes the repository by mapping the snapshot of the dataset.
+   * This method is called after the bean's properties have been set.
+   */
+  @PostConstruct
+  public void init() {
+    snapshot = jsonService.mappedSnapshot();
+    overlay = new MappedOverlay<>(snapshot.personCount(), snapshot::person,
+            person -> Keys.normalize(person.getAddress()),
+            person -> Keys.normalize(person.getLastName()),
+            person -> Keys.normalize(person.getCity()));
+  }
+
+  /**
+   * Finds a person by their first and last name.
+   *
+   * @param firstName the first name of the person
+   * @param lastName  the last name of the person
+   * @return an Optional containing the found person, or empty if not found
+   */
+  @Override
+  public Optional<Person> findByFirstNameAndLastName(String firstName, String lastName) {
+    return Optional.ofNullable(overlay.get(Keys.nameKey(firstName, lastName), snapshot.personIndex(firstName, lastName)));
+  }
+
+  /**
+   * Saves a person to the repository.
+   * An existing person gets the address, city and zip of the given one.
+   *
+   * @param person the person to save
+   * @return the saved person
+   */
+  @Override
+  public synchronized Person save(Person person) {
+    String key = Keys.nameKey(person.getFirstName(), person.getLastName());
+    int index = snapshot.personIndex(person.getFirstName(), person.getLastName());
+    Person existing = overlay.get(key, index);
+    if (existing != null) {
+      // Replace the person with a copy: callers may still hold the instance as it was before
+      Person updated = new Person(existing.getFirstName(), existing.getLastName(), person.getAddress(),
+              person.getCity(), person.getZip(), existing.getPhone(), existing.getEmail());
+      overlay.put(key, index, updated);
+      version++;
+      jsonService.journal(JournalEntry.savePerson(updated));
+    } else {
+      overlay.put(key, index, person);
+      version++;
+      jsonService.journal(JournalEntry.savePerson(person));
+    }
+    jsonService.savePersons(this::copyForPersistence);
+    return person;
+  }
+
+  /**
+   * Deletes a person by their first and last name.
+   *
+   * @param firstName the first name of the person to delete
+   * @param lastName  the last name of the person to delete
+   */
+  @Override
+  public synchronized void delete(String firstName, String lastName) {
+    if (overlay.remove(Keys.nameKey(firstName, lastName), snapshot.personIndex(firstName, lastName))) {
+      version++;
+      jsonService.journal(JournalEntry.deletePerson(firstName, lastName));
+    }
+    jsonService.savePersons(this::copyForPersistence);
+  }
+
+  /**
+   * Checks if a person exists by their first and last name.
+   *
+   * @param firstName the first name to check
+   * @param lastName  the last name to check
+   * @return true if a person with the specified first and last name exists, false otherwise
+   */
+  @Override
+  public boolean exists(String firstName, String lastName) {
+    return findByFirstNameAndLastName(firstName, lastName).isPresent();
+  }
+
+  /**
+   * Finds persons by their address.
+   *
+   * @param address the address to search for
+   * @return a list of persons living at the specified address
+   */
+  @Override
+  public List<Person> findByAddress(String address) {
+    return overlay.find(BY_ADDRESS, Keys.normalize(address), snapshot.personsByAddress(address));
+  }
+
+  /**
+   * Finds all persons in the repository, decoding every mapped person.
+   *
+   * @return a list of all persons
+   */
+  @Override
+  public List<Person> findAll() {
+    return new ArrayList<>(overlay.values());
+  }
+
+  /**
+   * Iterates the persons in the order of the mapping, then the persons saved since startup,
+   * starting after a position. A mapped person updated since startup moves to the end.
+   *
+   * @param position the position of the last person already read, or -1 to start from the first
+   * @return a weakly consistent iterator over the following persons with their positions
+   */
+  @Override
+  public Iterator<Positioned<Person>> iterateAfter(long position) {
+    return overlay.iterateAfter(position);
+  }
+
+  /**
+   * Returns the position of a person in the order of {@link #iterateAfter(long)}.
+   *
+   * @param firstName the first name of the person
+   * @param lastName  the last name of the person
+   * @return the position of the person, or -1 if there is none
+   */
+  @Override
+  public long position(String firstName, String lastName) {
+    return overlay.position(Keys.nameKey(firstName, lastName), snapshot.personIndex(firstName, lastName));
+  }
+
+  /**
+   * Finds persons by their last name.
+   *
+   * @param lastName the last name to search for
+   * @return a list of persons with the specified last name
+   */
+  @Override
+  public List<Person> findByLastName(String lastName) {
+    return overlay.find(BY_LAST_NAME, Keys.normalize(lastName), snapshot.personsByLastName(lastName));
+  }
+
+  /**
+   * Finds persons by their city.
+   *
+   * @param city the city to search for
+   * @return a list of persons living in the specified city
+   */
+  @Override
+  public List<Person> findByCity(String city) {
+    return overlay.find(BY_CITY, Keys.normalize(city), snapshot.personsByCity(city));
+  }
+
+  /**
+   * Returns the version of the repository, incremented by every save and delete.
+   *
+   * @return the version, 0 until the first change since startup
+   */
+  @Override
+  public long version() {
+    return version;
+  }
+
+  // Called by the persister: the lock keeps the copy from seeing a change half applied,
+  // and the mapped records are only decoded, or copied as they are, when the copy is written
+  private synchronized List<Person> copyForPersistence() {
+    return overlay.copy();
+  }
+}
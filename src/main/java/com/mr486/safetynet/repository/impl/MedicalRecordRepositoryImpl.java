@@ -1,12 +1,19 @@
 package com.mr486.safetynet.repository.impl;
 
 import com.mr486.safetynet.model.MedicalRecord;
+import com.mr486.safetynet.model.Person;
 import com.mr486.safetynet.repository.MedicalRecordRepository;
+import com.mr486.safetynet.tools.JournalEntry;
 import com.mr486.safetynet.tools.JsonService;
+import com.mr486.safetynet.tools.Keys;
+import com.mr486.safetynet.tools.OrderedConcurrentMap;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,14 +21,21 @@ import java.util.Optional;
  * Implementation of the MedicalRecordRepository interface using JSON data storage.
  * This repository provides methods to manage medical records, including finding,
  * saving, and deleting records.
+ * <p>
+ * Records are stored by a case-folded first name/last name key. Reads never lock and
+ * writes are serialized on the repository.
+ * </p>
  */
+@Slf4j
 @Repository
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "safetynet.persistence.storage", havingValue = "heap", matchIfMissing = true)
 public class MedicalRecordRepositoryImpl implements MedicalRecordRepository {
 
   private final JsonService jsonService;
+  private volatile long version;
 
-  private List<MedicalRecord> medicalRecords;
+  private final OrderedConcurrentMap<MedicalRecord> medicalRecords = new OrderedConcurrentMap<>();
 
   /**
    * Initializes the repository by loading medical record data from a JSON file.
@@ -29,8 +43,13 @@ public class MedicalRecordRepositoryImpl implements MedicalRecordRepository {
    * medical records list is populated with data before any operations are performed.
    */
   @PostConstruct
-  public void init() {
-    medicalRecords = jsonService.loadMedicalRecords();
+  public synchronized void init() {
+    medicalRecords.clear();
+    for (MedicalRecord medicalRecord : jsonService.loadMedicalRecords(this::copyForPersistence)) {
+      if (medicalRecords.putIfAbsent(key(medicalRecord), medicalRecord) != null) {
+        log.warn("Duplicate medical record ignored: {} {}", medicalRecord.getFirstName(), medicalRecord.getLastName());
+      }
+    }
   }
 
   /**
@@ -40,7 +59,7 @@ public class MedicalRecordRepositoryImpl implements MedicalRecordRepository {
    */
   @Override
   public List<MedicalRecord> findAll() {
-    return medicalRecords;
+    return new ArrayList<>(medicalRecords.values());
   }
 
   /**
@@ -52,22 +71,36 @@ public class MedicalRecordRepositoryImpl implements MedicalRecordRepository {
    */
   @Override
   public Optional<MedicalRecord> findByFirstNameAndLastName(String firstName, String lastName) {
-    return medicalRecords.stream()
-            .filter(medicalRecord -> medicalRecord.getFirstName().equalsIgnoreCase(firstName) &&
-                    medicalRecord.getLastName().equalsIgnoreCase(lastName))
-            .findFirst();
+    return Optional.ofNullable(medicalRecords.get(Keys.nameKey(firstName, lastName)));
   }
 
   /**
-   * Saves a medical record to the repository.
+   * Finds the medical records of the given persons by probing the name index once per person.
+   *
+   * @param persons the persons whose medical records are wanted
+   * @return the medical records in the order of the persons, with null for a person without record
+   */
+  @Override
+  public List<MedicalRecord> findByPersons(List<Person> persons) {
+    List<MedicalRecord> records = new ArrayList<>(persons.size());
+    for (Person person : persons) {
+      records.add(medicalRecords.get(Keys.nameKey(person.getFirstName(), person.getLastName())));
+    }
+    return records;
+  }
+
+  /**
+   * Saves a medical record to the repository, replacing the record of the same person if any.
    *
    * @param medicalRecord the medical record to save
    * @return the saved MedicalRecord entity
    */
   @Override
-  public MedicalRecord save(MedicalRecord medicalRecord) {
-    medicalRecords.add(medicalRecord);
-    jsonService.saveMedicalRecords(medicalRecords);
+  public synchronized MedicalRecord save(MedicalRecord medicalRecord) {
+    medicalRecords.put(key(medicalRecord), medicalRecord);
+    version++;
+    jsonService.journal(JournalEntry.saveMedicalRecord(medicalRecord));
+    jsonService.saveMedicalRecords(this::copyForPersistence);
     return medicalRecord;
   }
 
@@ -78,10 +111,12 @@ public class MedicalRecordRepositoryImpl implements MedicalRecordRepository {
    * @param lastName  the last name of the person
    */
   @Override
-  public void delete(String firstName, String lastName) {
-    medicalRecords.removeIf(medicalRecord -> medicalRecord.getFirstName().equalsIgnoreCase(firstName) &&
-            medicalRecord.getLastName().equalsIgnoreCase(lastName));
-    jsonService.saveMedicalRecords(medicalRecords);
+  public synchronized void delete(String firstName, String lastName) {
+    if (medicalRecords.remove(Keys.nameKey(firstName, lastName)) != null) {
+      version++;
+      jsonService.journal(JournalEntry.deleteMedicalRecord(firstName, lastName));
+    }
+    jsonService.saveMedicalRecords(this::copyForPersistence);
   }
 
   /**
@@ -93,8 +128,25 @@ public class MedicalRecordRepositoryImpl implements MedicalRecordRepository {
    */
   @Override
   public boolean exists(String firstName, String lastName) {
-    return medicalRecords.stream()
-            .anyMatch(medicalRecord -> medicalRecord.getFirstName().equalsIgnoreCase(firstName) &&
-                    medicalRecord.getLastName().equalsIgnoreCase(lastName));
+    return medicalRecords.containsKey(Keys.nameKey(firstName, lastName));
+  }
+
+  /**
+   * Returns the version of the repository, incremented by every save and delete.
+   *
+   * @return the version, 0 until the first change since startup
+   */
+  @Override
+  public long version() {
+    return version;
+  }
+
+  private static String key(MedicalRecord medicalRecord) {
+    return Keys.nameKey(medicalRecord.getFirstName(), medicalRecord.getLastName());
+  }
+
+  // Called by the persister: the lock keeps the copy from seeing a change half applied
+  private synchronized List<MedicalRecord> copyForPersistence() {
+    return List.copyOf(medicalRecords.values());
   }
 }
@@ -2,34 +2,74 @@ package com.mr486.safetynet.repository.impl;
 
 import com.mr486.safetynet.model.Person;
 import com.mr486.safetynet.repository.PersonRepository;
+import com.mr486.safetynet.tools.JournalEntry;
 import com.mr486.safetynet.tools.JsonService;
+import com.mr486.safetynet.tools.Keys;
+import com.mr486.safetynet.tools.OrderedConcurrentMap;
+import com.mr486.safetynet.tools.Positioned;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 /**
  * Implementation of the PersonRepository interface that uses JSON files for data storage.
  * This class provides methods to find, save, delete, and check the existence of persons.
  * It initializes the repository by loading person data from a JSON file upon bean creation.
+ * <p>
+ * Persons are stored by a case-folded first name/last name key, and secondary indexes on
+ * address, last name and city are maintained on every save and delete, so that lookups
+ * cost a hash access plus the size of the result instead of a scan of every person.
+ * </p>
+ * <p>
+ * Reads never lock: the maps are concurrent, and an updated person is replaced by a new instance
+ * instead of being modified. Each index bucket is a concurrent skip list of its persons by their
+ * position in the repository, which an update keeps, so a save or delete costs a logarithmic
+ * access to the buckets it touches whatever their size, and the persons of a bucket are always
+ * listed in the order of the repository. Writes are serialized on the repository.
+ * </p>
  */
+@Slf4j
 @Repository
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "safetynet.persistence.storage", havingValue = "heap", matchIfMissing = true)
 public class PersonRepositoryImpl implements PersonRepository {
 
   private final JsonService jsonService;
-  private List<Person> persons = new ArrayList<>();
+  private volatile long version;
+  private final OrderedConcurrentMap<Person> personsByName = new OrderedConcurrentMap<>();
+  private final Map<String, NavigableMap<Long, Person>> personsByAddress = new ConcurrentHashMap<>();
+  private final Map<String, NavigableMap<Long, Person>> personsByLastName = new ConcurrentHashMap<>();
+  private final Map<String, NavigableMap<Long, Person>> personsByCity = new ConcurrentHashMap<>();
 
   /**
    * Initializes the repository by loading person data from a JSON file.
    * This method is called after the bean's properties have been set.
    */
   @PostConstruct
-  public void init() {
-    persons = jsonService.loadPersons();
+  public synchronized void init() {
+    personsByName.clear();
+    personsByAddress.clear();
+    personsByLastName.clear();
+    personsByCity.clear();
+    for (Person person : jsonService.loadPersons(this::copyForPersistence)) {
+      String key = Keys.nameKey(person.getFirstName(), person.getLastName());
+      if (personsByName.putIfAbsent(key, person) != null) {
+        log.warn("Duplicate person ignored: {} {}", person.getFirstName(), person.getLastName());
+        continue;
+      }
+      index(personsByName.position(key), person);
+    }
   }
 
   /**
@@ -38,10 +78,7 @@ public class PersonRepositoryImpl implements PersonRepository {
    * @return a list of all persons.
    */
   public Optional<Person> findByFirstNameAndLastName(String firstName, String lastName) {
-    return persons.stream()
-            .filter(person -> person.getFirstName().equalsIgnoreCase(firstName) &&
-                    person.getLastName().equalsIgnoreCase(lastName))
-            .findFirst();
+    return Optional.ofNullable(personsByName.get(Keys.nameKey(firstName, lastName)));
   }
 
   /**
@@ -50,21 +87,26 @@ public class PersonRepositoryImpl implements PersonRepository {
    * @param person the person to save.
    * @return the saved Person entity.
    */
-  public Person save(Person person) {
+  public synchronized Person save(Person person) {
     // Check if a person with the same first and last name already exists
-    Optional<Person> existingPerson = findByFirstNameAndLastName(person.getFirstName(), person.getLastName());
-    if (existingPerson.isPresent()) {
-      // If the person exists, update their address, city, and zip
-      Person existing = existingPerson.get();
-      existing.setAddress(person.getAddress());
-      existing.setCity(person.getCity());
-      existing.setZip(person.getZip());
-      jsonService.savePersons(persons);
+    String key = Keys.nameKey(person.getFirstName(), person.getLastName());
+    Person existing = personsByName.get(key);
+    if (existing != null) {
+      // If the person exists, replace them with a copy holding the new address, city, and zip
+      Person updated = new Person(existing.getFirstName(), existing.getLastName(), person.getAddress(),
+              person.getCity(), person.getZip(), existing.getPhone(), existing.getEmail());
+      personsByName.put(key, updated);
+      reindex(personsByName.position(key), existing, updated);
+      version++;
+      jsonService.journal(JournalEntry.savePerson(updated));
     } else {
-      // If the person does not exist, add them to the list
-      persons.add(person);
-      jsonService.savePersons(persons);
+      // If the person does not exist, add them to the repository
+      personsByName.put(key, person);
+      index(personsByName.position(key), person);
+      version++;
+      jsonService.journal(JournalEntry.savePerson(person));
     }
+    jsonService.savePersons(this::copyForPersistence);
     return person;
 
   }
@@ -75,10 +117,16 @@ public class PersonRepositoryImpl implements PersonRepository {
    * @param firstName the first name of the person to delete.
    * @param lastName  the last name of the person to delete.
    */
-  public void delete(String firstName, String lastName) {
-    persons.removeIf(person -> person.getFirstName().equalsIgnoreCase(firstName) &&
-            person.getLastName().equalsIgnoreCase(lastName));
-    jsonService.savePersons(persons);
+  public synchronized void delete(String firstName, String lastName) {
+    String key = Keys.nameKey(firstName, lastName);
+    long position = personsByName.position(key);
+    Person removed = personsByName.remove(key);
+    if (removed != null) {
+      unindex(position, removed);
+      version++;
+      jsonService.journal(JournalEntry.deletePerson(firstName, lastName));
+    }
+    jsonService.savePersons(this::copyForPersistence);
   }
 
   /**
@@ -89,9 +137,7 @@ public class PersonRepositoryImpl implements PersonRepository {
    * @return true if a person with the specified first and last name exists, false otherwise.
    */
   public boolean exists(String firstName, String lastName) {
-    return persons.stream()
-            .anyMatch(person -> person.getFirstName().equalsIgnoreCase(firstName) &&
-                    person.getLastName().equalsIgnoreCase(lastName));
+    return personsByName.containsKey(Keys.nameKey(firstName, lastName));
   }
 
   /**
@@ -101,9 +147,7 @@ public class PersonRepositoryImpl implements PersonRepository {
    * @return a list of Person entities with the specified address.
    */
   public List<Person> findByAddress(String address) {
-    return persons.stream()
-            .filter(person -> person.getAddress().equalsIgnoreCase(address))
-            .toList();
+    return lookup(personsByAddress, address);
   }
 
   /**
@@ -112,7 +156,31 @@ public class PersonRepositoryImpl implements PersonRepository {
    * @return a list of all persons.
    */
   public List<Person> findAll() {
-    return new ArrayList<>(persons);
+    return new ArrayList<>(personsByName.values());
+  }
+
+  /**
+   * Iterates the persons in insertion order, starting after a position.
+   * An updated person keeps its position.
+   *
+   * @param position the position of the last person already read, or -1 to start from the first
+   * @return a weakly consistent iterator over the following persons with their positions
+   */
+  @Override
+  public Iterator<Positioned<Person>> iterateAfter(long position) {
+    return personsByName.iterateAfter(position);
+  }
+
+  /**
+   * Returns the position of a person in the order of {@link #iterateAfter(long)}.
+   *
+   * @param firstName the first name of the person
+   * @param lastName  the last name of the person
+   * @return the position of the person, or -1 if there is none
+   */
+  @Override
+  public long position(String firstName, String lastName) {
+    return personsByName.position(Keys.nameKey(firstName, lastName));
   }
 
   /**
@@ -122,9 +190,7 @@ public class PersonRepositoryImpl implements PersonRepository {
    * @return a list of persons with the specified last name.
    */
   public List<Person> findByLastName(String lastName) {
-    return persons.stream()
-            .filter(person -> person.getLastName().equalsIgnoreCase(lastName))
-            .toList();
+    return lookup(personsByLastName, lastName);
   }
 
   /**
@@ -134,8 +200,76 @@ public class PersonRepositoryImpl implements PersonRepository {
    * @return a list of persons living in the specified city.
    */
   public List<Person> findByCity(String city) {
-    return persons.stream()
-            .filter(person -> person.getCity().equalsIgnoreCase(city))
-            .toList();
+    return lookup(personsByCity, city);
+  }
+
+  /**
+   * Returns the version of the repository, incremented by every save and delete.
+   *
+   * @return the version, 0 until the first change since startup
+   */
+  @Override
+  public long version() {
+    return version;
+  }
+
+  // Private methods for index maintenance
+
+  private void index(long position, Person person) {
+    add(personsByAddress, person.getAddress(), position, person);
+    add(personsByLastName, person.getLastName(), position, person);
+    add(personsByCity, person.getCity(), position, person);
+  }
+
+  private void reindex(long position, Person existing, Person updated) {
+    move(personsByAddress, existing.getAddress(), updated.getAddress(), position, updated);
+    move(personsByLastName, existing.getLastName(), updated.getLastName(), position, updated);
+    move(personsByCity, existing.getCity(), updated.getCity(), position, updated);
+  }
+
+  private void unindex(long position, Person person) {
+    remove(personsByAddress, person.getAddress(), position);
+    remove(personsByLastName, person.getLastName(), position);
+    remove(personsByCity, person.getCity(), position);
+  }
+
+  private static void move(Map<String, NavigableMap<Long, Person>> index, String from, String to,
+                           long position, Person person) {
+    if (!bucketKey(from).equals(bucketKey(to))) {
+      remove(index, from, position);
+    }
+    add(index, to, position, person);
+  }
+
+  private static void add(Map<String, NavigableMap<Long, Person>> index, String value, long position,
+                          Person person) {
+    index.computeIfAbsent(bucketKey(value), key -> new ConcurrentSkipListMap<>()).put(position, person);
+  }
+
+  private static void remove(Map<String, NavigableMap<Long, Person>> index, String value, long position) {
+    String key = bucketKey(value);
+    NavigableMap<Long, Person> bucket = index.get(key);
+    if (bucket != null) {
+      bucket.remove(position);
+      if (bucket.isEmpty()) {
+        index.remove(key);
+      }
+    }
+  }
+
+  private static List<Person> lookup(Map<String, NavigableMap<Long, Person>> index, String value) {
+    NavigableMap<Long, Person> bucket = index.get(bucketKey(value));
+    return bucket == null ? List.of() : List.copyOf(bucket.values());
+  }
+
+  private static String bucketKey(String value) {
+    // ConcurrentHashMap does not accept null keys
+    String key = Keys.normalize(value);
+    return key == null ? "" : key;
+  }
+
+  // Called by the persister: the lock keeps the copy from seeing a change half applied
+  private synchronized List<Person> copyForPersistence() {
+    return List.copyOf(personsByName.values());
   }
 }
@@ -2,6 +2,7 @@ package com.mr486.safetynet.service;
 
 import com.mr486.safetynet.dto.request.MedicalRecordDto;
 import com.mr486.safetynet.model.MedicalRecord;
+import com.mr486.safetynet.model.Person;
 
 import java.util.List;
 
@@ -27,6 +28,14 @@ public interface MedicalRecordService {
    */
   MedicalRecord findByFirstNameAndLastName(String firstName, String lastName);
 
+  /**
+   * Finds the medical records of a list of persons in a single pass.
+   *
+   * @param persons the persons whose medical records are wanted.
+   * @return the medical records, in the order of the persons.
+   */
+  List<MedicalRecord> findByPersons(List<Person> persons);
+
   /**
    * Saves a new medical record or updates an existing one.
    *
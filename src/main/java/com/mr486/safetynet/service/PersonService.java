@@ -2,7 +2,9 @@ package com.mr486.safetynet.service;
 
 import com.mr486.safetynet.dto.request.PersonDto;
 import com.mr486.safetynet.model.Person;
+import com.mr486.safetynet.tools.Page;
 
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -63,6 +65,31 @@ public interface PersonService {
    */
   List<Person> findAll();
 
+  /**
+   * Iterates all persons in the stable order of the repository, without copying them.
+   *
+   * @return an iterator over all Person entities.
+   */
+  Iterator<Person> iterateAll();
+
+  /**
+   * Finds a page of persons in the stable order of the repository.
+   *
+   * @param cursor the cursor returned with the previous page, or null for the first page.
+   * @param limit  the maximum number of persons of the page.
+   * @return the page of Person entities, with the cursor of the next one.
+   */
+  Page<Person> findPage(String cursor, int limit);
+
+  /**
+   * Returns the position of a person in the stable order of the repository.
+   * Responses derived from persons are ordered by these positions, so they can be paged like the persons.
+   *
+   * @param person the person
+   * @return the position of the person, or -1 if it is no longer in the repository
+   */
+  long position(Person person);
+
   /**
    * Finds persons by their last name.
    *
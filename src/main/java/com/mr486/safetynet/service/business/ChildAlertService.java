@@ -7,6 +7,7 @@ import com.mr486.safetynet.model.MedicalRecord;
 import com.mr486.safetynet.model.Person;
 import com.mr486.safetynet.service.MedicalRecordService;
 import com.mr486.safetynet.service.PersonService;
+import com.mr486.safetynet.tools.BusinessJoinEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -26,20 +27,31 @@ public class ChildAlertService {
 
   private final PersonService personService;
   private final MedicalRecordService medicalRecordService;
+  private final ChildAlertView childAlertView;
 
   /**
    * Retrieves a list of children and their household members for a given address.
+   * The response is served from the {@link ChildAlertView} when the address is materialized.
    *
    * @param address the address to search for children
    * @return a ChildAlertResponseDto containing the list of children and their household members
    */
   public ChildAlertResponseDto getChildrenByAddress(String address) {
+    ChildAlertResponseDto view = childAlertView.findByAddress(address);
+    if (view != null) {
+      return view;
+    }
+
+    BusinessJoinEvent event = new BusinessJoinEvent();
+    event.begin();
     List<Person> persons = personService.findByAddress(address);
     List<ChildAlertDto> children = new ArrayList<>();
 
     log.debug("Retrieving children for address: {}", address);
-    for (Person person : persons) {
-      MedicalRecord record = medicalRecordService.findByFirstNameAndLastName(person.getFirstName(), person.getLastName());
+    List<MedicalRecord> records = medicalRecordService.findByPersons(persons);
+    for (int i = 0; i < persons.size(); i++) {
+      Person person = persons.get(i);
+      MedicalRecord record = records.get(i);
       if (record == null) {
         continue; // Skip if no medical record is found
       }
@@ -52,6 +64,7 @@ public class ChildAlertService {
         children.add(new ChildAlertDto(person.getFirstName(), person.getLastName(), age, householdMembers));
       }
     }
+    event.commit("childAlert", address, 1, persons.size(), records.size());
     return new ChildAlertResponseDto(children);
   }
 }
@@ -0,0 +1,143 @@
+package com.mr486.safetynet.service.business;
+
+import com.mr486.safetynet.configuration.AppConfiguation;
+import com.mr486.safetynet.dto.request.ChildAlertDto;
+import com.mr486.safetynet.dto.request.HouseholdMemberDto;
+import com.mr486.safetynet.dto.response.ChildAlertResponseDto;
+import com.mr486.safetynet.model.MedicalRecord;
+import com.mr486.safetynet.model.Person;
+import com.mr486.safetynet.repository.MedicalRecordRepository;
+import com.mr486.safetynet.repository.PersonRepository;
+import com.mr486.safetynet.tools.Birthdates;
+import com.mr486.safetynet.tools.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Prebuilt {@code /childAlert} responses by address.
+ * <p>
+ * The response of an address is built from the repositories on its first request, then served
+ * as is until the services report a change to a resident of the address or to their medical
+ * record. Ages change on birthdays, so a response listing children is only kept until midnight.
+ * Addresses where nobody lives are not cached, nor are addresses with a resident lacking a
+ * medical record: the caller reports the missing record.
+ * </p>
+ * <p>
+ * Reads never lock. A response built while a change was being reported is discarded rather
+ * than cached, so a stale response is never stored.
+ * </p>
+ */
+@Component
+public class ChildAlertView {
+
+  private final PersonRepository personRepository;
+  private final MedicalRecordRepository medicalRecordRepository;
+  private final Clock clock;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private long generation;
+
+  /**
+   * Creates an empty view.
+   *
+   * @param personRepository        the repository of the persons
+   * @param medicalRecordRepository the repository of the medical records
+   */
+  @Autowired
+  public ChildAlertView(PersonRepository personRepository, MedicalRecordRepository medicalRecordRepository) {
+    this(personRepository, medicalRecordRepository, Clock.systemDefaultZone());
+  }
+
+  ChildAlertView(PersonRepository personRepository, MedicalRecordRepository medicalRecordRepository, Clock clock) {
+    this.personRepository = personRepository;
+    this.medicalRecordRepository = medicalRecordRepository;
+    this.clock = clock;
+  }
+
+  /**
+   * Returns the children living at an address with their household members.
+   * The returned response is shared and must not be modified.
+   *
+   * @param address the address
+   * @return the response, or null if a resident of the address has no medical record
+   */
+  public ChildAlertResponseDto findByAddress(String address) {
+    if (address == null) {
+      return null;
+    }
+    String key = Keys.normalize(address);
+    int today = Birthdates.today(clock);
+    Entry entry = entries.get(key);
+    if (entry != null && entry.validThrough() >= today) {
+      return entry.response();
+    }
+    long stamp;
+    synchronized (this) {
+      stamp = generation;
+    }
+    entry = build(address, today);
+    if (entry != null && entry.validThrough() >= today) {
+      synchronized (this) {
+        if (generation == stamp) {
+          entries.put(key, entry);
+        }
+      }
+    }
+    return entry == null ? null : entry.response();
+  }
+
+  /**
+   * Discards the response of an address after a change to one of its residents
+   * or to their medical record.
+   *
+   * @param address the address of the resident
+   */
+  public synchronized void invalidate(String address) {
+    generation++;
+    if (address != null) {
+      entries.remove(Keys.normalize(address));
+    }
+  }
+
+  // Private methods building the responses
+
+  private Entry build(String address, int today) {
+    List<Person> persons = personRepository.findByAddress(address);
+    if (persons.isEmpty()) {
+      // Not cached, so that requests for unknown addresses cannot fill the view
+      return new Entry(new ChildAlertResponseDto(List.of()), -1);
+    }
+    List<MedicalRecord> records = medicalRecordRepository.findByPersons(persons);
+    List<ChildAlertDto> children = new ArrayList<>();
+    for (int i = 0; i < persons.size(); i++) {
+      if (records.get(i) == null) {
+        return null;
+      }
+      Person person = persons.get(i);
+      int age = Birthdates.age(records.get(i).getBirthdate(), clock);
+      if (age < AppConfiguation.ADULT_AGE) {
+        children.add(new ChildAlertDto(person.getFirstName(), person.getLastName(), age, householdMembers(persons, person)));
+      }
+    }
+    int validThrough = children.isEmpty() ? Integer.MAX_VALUE : today;
+    return new Entry(new ChildAlertResponseDto(List.copyOf(children)), validThrough);
+  }
+
+  private static List<HouseholdMemberDto> householdMembers(List<Person> persons, Person child) {
+    List<HouseholdMemberDto> members = new ArrayList<>(persons.size() - 1);
+    for (Person person : persons) {
+      if (!person.getFirstName().equals(child.getFirstName()) || !person.getLastName().equals(child.getLastName())) {
+        members.add(new HouseholdMemberDto(person.getFirstName(), person.getLastName()));
+      }
+    }
+    return List.copyOf(members);
+  }
+
+  private record Entry(ChildAlertResponseDto response, int validThrough) {
+  }
+}
@@ -0,0 +1,12 @@
+package com.mr486.safetynet.service.business;
+
+import java.util.List;
+
+/**
+ * Event published by the {@link ComingOfAgeScheduler} when persons reach the adult age.
+ *
+ * @param date  the day they came of age, as {@code yyyymmdd}
+ * @param names the persons who came of age, as keys built by {@link com.mr486.safetynet.tools.Keys#nameKey}
+ */
+public record ComingOfAgeEvent(int date, List<String> names) {
+}
@@ -0,0 +1,197 @@
+package com.mr486.safetynet.service.business;
+
+import com.mr486.safetynet.configuration.AppConfiguation;
+import com.mr486.safetynet.model.MedicalRecord;
+import com.mr486.safetynet.repository.MedicalRecordRepository;
+import com.mr486.safetynet.tools.Birthdates;
+import com.mr486.safetynet.tools.Keys;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Component publishing a {@link ComingOfAgeEvent} at the midnight persons reach the adult age,
+ * so that caches classifying persons as adults or children only reclassify those persons.
+ * <p>
+ * The days children come of age are kept in a priority queue, seeded from the medical records
+ * at startup and updated by the medical record service. A background thread wakes up on the
+ * earliest of these days only. Entries replaced by a later change are skipped when they reach
+ * the head of the queue, and the queue is rebuilt when they outnumber the live ones.
+ * </p>
+ */
+@Slf4j
+@Component
+public class ComingOfAgeScheduler {
+
+  private final MedicalRecordRepository medicalRecordRepository;
+  private final ApplicationEventPublisher eventPublisher;
+  private final Clock clock;
+  private final ScheduledExecutorService executor;
+  private final PriorityQueue<Due> queue = new PriorityQueue<>();
+  private final Map<String, Due> dueByName = new HashMap<>();
+  private ScheduledFuture<?> wakeUp;
+  private int wakeUpDate = Integer.MAX_VALUE;
+
+  /**
+   * Creates the scheduler.
+   *
+   * @param medicalRecordRepository the repository the queue is seeded from
+   * @param eventPublisher          the publisher of the events
+   */
+  @Autowired
+  public ComingOfAgeScheduler(MedicalRecordRepository medicalRecordRepository,
+                              ApplicationEventPublisher eventPublisher) {
+    this(medicalRecordRepository, eventPublisher, Clock.systemDefaultZone());
+  }
+
+  ComingOfAgeScheduler(MedicalRecordRepository medicalRecordRepository,
+                       ApplicationEventPublisher eventPublisher, Clock clock) {
+    this.medicalRecordRepository = medicalRecordRepository;
+    this.eventPublisher = eventPublisher;
+    this.clock = clock;
+    this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "coming-of-age");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Seeds the queue with the children of the medical record repository.
+   */
+  @PostConstruct
+  public synchronized void start() {
+    for (MedicalRecord medicalRecord : medicalRecordRepository.findAll()) {
+      enqueue(medicalRecord);
+    }
+    log.debug("{} child(ren) waiting to come of age", dueByName.size());
+    reschedule();
+  }
+
+  /**
+   * Records that a medical record was saved, whether added or updated.
+   *
+   * @param medicalRecord the saved medical record
+   */
+  public synchronized void medicalRecordSaved(MedicalRecord medicalRecord) {
+    dueByName.remove(Keys.nameKey(medicalRecord.getFirstName(), medicalRecord.getLastName()));
+    enqueue(medicalRecord);
+    if (queue.size() > 2 * dueByName.size() + 64) {
+      queue.clear();
+      queue.addAll(dueByName.values());
+    }
+    reschedule();
+  }
+
+  /**
+   * Records that a medical record was deleted.
+   *
+   * @param firstName the first name of the person
+   * @param lastName  the last name of the person
+   */
+  public synchronized void medicalRecordDeleted(String firstName, String lastName) {
+    dueByName.remove(Keys.nameKey(firstName, lastName));
+  }
+
+  /**
+   * Returns the number of children waiting to come of age.
+   *
+   * @return the number of children in the queue
+   */
+  public synchronized int pendingCount() {
+    return dueByName.size();
+  }
+
+  /**
+   * Publishes a {@link ComingOfAgeEvent} for the children who have come of age, if any.
+   * Called by the background thread; the event is published outside the lock.
+   */
+  void fireDue() {
+    int today = Birthdates.today(clock);
+    List<String> names = new ArrayList<>();
+    synchronized (this) {
+      wakeUp = null;
+      wakeUpDate = Integer.MAX_VALUE;
+      while (!queue.isEmpty() && queue.peek().date() <= today) {
+        Due due = queue.poll();
+        if (dueByName.remove(due.name(), due)) {
+          names.add(due.name());
+        }
+      }
+      reschedule();
+    }
+    if (!names.isEmpty()) {
+      log.debug("{} person(s) came of age on {}", names.size(), today);
+      eventPublisher.publishEvent(new ComingOfAgeEvent(today, List.copyOf(names)));
+    }
+  }
+
+  /**
+   * Stops the background thread.
+   */
+  @PreDestroy
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  // Private methods maintaining the queue
+
+  private void enqueue(MedicalRecord medicalRecord) {
+    int birthdate;
+    try {
+      birthdate = Birthdates.parse(medicalRecord.getBirthdate());
+    } catch (IllegalArgumentException e) {
+      return;
+    }
+    int adulthood = birthdate + AppConfiguation.ADULT_AGE * 10_000;
+    if (adulthood > Birthdates.today(clock)) {
+      Due due = new Due(adulthood, Keys.nameKey(medicalRecord.getFirstName(), medicalRecord.getLastName()));
+      dueByName.put(due.name(), due);
+      queue.add(due);
+    }
+  }
+
+  private void reschedule() {
+    while (!queue.isEmpty() && !queue.peek().equals(dueByName.get(queue.peek().name()))) {
+      queue.poll();
+    }
+    if (queue.isEmpty() || queue.peek().date() >= wakeUpDate) {
+      return;
+    }
+    if (wakeUp != null) {
+      wakeUp.cancel(false);
+    }
+    wakeUpDate = queue.peek().date();
+    long delay = Math.max(0, startOfDay(wakeUpDate) - clock.millis());
+    wakeUp = executor.schedule(this::fireDue, delay, TimeUnit.MILLISECONDS);
+  }
+
+  private long startOfDay(int date) {
+    // Day 29 of February in a common year starts on the 1st of March
+    LocalDate day = LocalDate.of(date / 10_000, date / 100 % 100, 1).plusDays(date % 100 - 1L);
+    return day.atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+  }
+
+  private record Due(int date, String name) implements Comparable<Due> {
+
+    @Override
+    public int compareTo(Due other) {
+      return Integer.compare(date, other.date);
+    }
+  }
+}
@@ -2,13 +2,14 @@ package com.mr486.safetynet.service.business;
 
 import com.mr486.safetynet.model.Person;
 import com.mr486.safetynet.service.PersonService;
+import com.mr486.safetynet.tools.BusinessJoinEvent;
+import com.mr486.safetynet.tools.Positioned;
+import com.mr486.safetynet.tools.PositionedList;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Service for retrieving community emails based on city.
@@ -25,13 +26,17 @@ public class CommunityEmailService {
    * Retrieves a set of email addresses for all persons in the specified city.
    *
    * @param city the city to search for persons
-   * @return a set of email addresses of persons in the specified city
+   * @return the distinct email addresses of persons in the specified city, in the order of the repository
    */
-  public Set<String> getEmailsByCity(String city) {
+  public PositionedList<String> getEmailsByCity(String city) {
+    BusinessJoinEvent event = new BusinessJoinEvent();
+    event.begin();
     List<Person> persons = personService.findByCity(city);
     log.debug("Retrieving emails by city: {}", city);
-    return persons.stream()
-            .map(Person::getEmail)
-            .collect(Collectors.toSet());
+    PositionedList<String> emails = PositionedList.distinct(persons.stream()
+            .map(person -> new Positioned<>(personService.position(person), person.getEmail()))
+            .toList());
+    event.commit("communityEmail", city, 0, persons.size(), 0);
+    return emails;
   }
 }
\ No newline at end of file
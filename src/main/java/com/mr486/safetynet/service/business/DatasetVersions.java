@@ -0,0 +1,105 @@
+package com.mr486.safetynet.service.business;
+
+import com.mr486.safetynet.repository.FireStationRepository;
+import com.mr486.safetynet.repository.MedicalRecordRepository;
+import com.mr486.safetynet.repository.PersonRepository;
+import com.mr486.safetynet.tools.Birthdates;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+
+/**
+ * Versions of the datasets the business responses are read from, used as their ETags.
+ * <p>
+ * The versions are those of the repositories, incremented by every save and delete. They are
+ * only published once the services have applied a change to the views and caches derived from
+ * the repositories, so an ETag is never attached to a response computed from stale derived data.
+ * Responses reading medical records also depend on the current day, since they hold ages, and on
+ * the children who came of age that day.
+ * </p>
+ */
+@Component
+public class DatasetVersions {
+
+  private final PersonRepository personRepository;
+  private final MedicalRecordRepository medicalRecordRepository;
+  private final FireStationRepository fireStationRepository;
+  private final Clock clock;
+  private final String boot;
+  private volatile Snapshot published;
+
+  /**
+   * Creates the versions, published as they are at startup.
+   *
+   * @param personRepository        the repository of the persons
+   * @param medicalRecordRepository the repository of the medical records
+   * @param fireStationRepository   the repository of the fire stations
+   */
+  @Autowired
+  public DatasetVersions(PersonRepository personRepository, MedicalRecordRepository medicalRecordRepository,
+                         FireStationRepository fireStationRepository) {
+    this(personRepository, medicalRecordRepository, fireStationRepository, Clock.systemDefaultZone());
+  }
+
+  DatasetVersions(PersonRepository personRepository, MedicalRecordRepository medicalRecordRepository,
+                  FireStationRepository fireStationRepository, Clock clock) {
+    this.personRepository = personRepository;
+    this.medicalRecordRepository = medicalRecordRepository;
+    this.fireStationRepository = fireStationRepository;
+    this.clock = clock;
+    // Versions restart at 0, so the ETags of a previous run must not match
+    this.boot = Long.toString(clock.millis(), 36);
+    this.published = snapshot(0);
+  }
+
+  /**
+   * Builds the ETag of a response from the published versions of the datasets it reads.
+   *
+   * @param datasets the datasets the response is computed from
+   * @return the weak ETag, quoted
+   */
+  public String etag(Dataset... datasets) {
+    Snapshot snapshot = published;
+    StringBuilder etag = new StringBuilder("W/\"").append(boot);
+    for (Dataset dataset : datasets) {
+      switch (dataset) {
+        case PERSONS -> etag.append("-p").append(snapshot.persons());
+        case MEDICAL_RECORDS -> etag.append("-m").append(snapshot.medicalRecords())
+                .append('.').append(Birthdates.today(clock)).append('.').append(snapshot.comingOfAge());
+        case FIRE_STATIONS -> etag.append("-f").append(snapshot.fireStations());
+      }
+    }
+    return etag.append('"').toString();
+  }
+
+  /**
+   * Publishes the current versions of the repositories, once a change has been applied
+   * to everything derived from them.
+   */
+  public synchronized void publish() {
+    published = snapshot(published.comingOfAge());
+  }
+
+  /**
+   * Publishes that children came of age, once the counts derived from their ages are updated.
+   */
+  public synchronized void publishComingOfAge() {
+    published = snapshot(published.comingOfAge() + 1);
+  }
+
+  private Snapshot snapshot(long comingOfAge) {
+    return new Snapshot(personRepository.version(), medicalRecordRepository.version(),
+            fireStationRepository.version(), comingOfAge);
+  }
+
+  /**
+   * Datasets a business response can be computed from.
+   */
+  public enum Dataset {
+    PERSONS, MEDICAL_RECORDS, FIRE_STATIONS
+  }
+
+  private record Snapshot(long persons, long medicalRecords, long fireStations, long comingOfAge) {
+  }
+}
@@ -9,12 +9,14 @@ import com.mr486.safetynet.model.Person;
 import com.mr486.safetynet.service.FireStationService;
 import com.mr486.safetynet.service.MedicalRecordService;
 import com.mr486.safetynet.service.PersonService;
+import com.mr486.safetynet.tools.BusinessJoinEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Service for handling fire-related operations.
@@ -38,16 +40,20 @@ public class FireService {
    */
   public FireResponseDto getFireInfoByAddress(String address) {
     log.debug("Retrieving fire information for address: {}", address);
+    BusinessJoinEvent event = new BusinessJoinEvent();
+    event.begin();
     FireStation station = fireStationService.findByAddress(address);
     if (station == null) {
       throw new EntityNotFoundException("Fire station with address " + address + " not found");
     }
     int stationNumber = station.getStation();
     List<Person> persons = personService.findByAddress(address);
+    List<MedicalRecord> records = medicalRecordService.findByPersons(persons);
 
-    List<FirePersonDto> residents = persons.stream().map(person -> {
+    List<FirePersonDto> residents = IntStream.range(0, persons.size()).mapToObj(i -> {
+      Person person = persons.get(i);
       log.debug("Processing person: {} {}", person.getFirstName(), person.getLastName());
-      MedicalRecord record = medicalRecordService.findByFirstNameAndLastName(person.getFirstName(), person.getLastName());
+      MedicalRecord record = records.get(i);
       int age = medicalRecordService.getAge(record);
       return new FirePersonDto(
               person.getLastName(),
@@ -58,6 +64,7 @@ public class FireService {
       );
     }).collect(Collectors.toList());
 
+    event.commit("fire", address, 1, persons.size(), records.size());
     return new FireResponseDto(stationNumber, residents);
   }
 }
\ No newline at end of file
@@ -7,10 +7,12 @@ import com.mr486.safetynet.model.Person;
 import com.mr486.safetynet.service.FireStationService;
 import com.mr486.safetynet.service.MedicalRecordService;
 import com.mr486.safetynet.service.PersonService;
+import com.mr486.safetynet.tools.BusinessJoinEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -25,9 +27,12 @@ public class FireStationConverageService {
   private final FireStationService fireStationService;
   private final PersonService personService;
   private final MedicalRecordService medicalRecordService;
+  private final StationDemographics stationDemographics;
 
   /**
    * Retrieves the coverage information for a specific fire station.
+   * The adult and child counts come from {@link StationDemographics}; medical records are only
+   * looked up when a resident has none, to report it.
    *
    * @param stationNumber the number of the fire station
    * @return a CoverageResponseDto containing the coverage details
@@ -35,6 +40,8 @@ public class FireStationConverageService {
   public CoverageResponseDto getCoverageByStationNumber(int stationNumber) {
 
     CoverageResponseDto responseDto = new CoverageResponseDto();
+    BusinessJoinEvent event = new BusinessJoinEvent();
+    event.begin();
 
     log.debug("Retrieving coverage for fire station number: {}", stationNumber);
     List<FireStation> fireStations = fireStationService.findByStationNumber(stationNumber);
@@ -44,17 +51,40 @@ public class FireStationConverageService {
             .toList();
 
     log.debug("Retrieving addresses for fire station number {}: {}", stationNumber, addresses);
+    List<Person> persons = new ArrayList<>();
     for (String address : addresses) {
-      List<Person> persons = personService.findByAddress(address);
-      log.debug("Retrieving persons for address {}: {}", address, persons);
+      List<Person> residents = personService.findByAddress(address);
+      log.debug("Retrieving persons for address {}: {}", address, residents);
+      persons.addAll(residents);
+    }
+    StationDemographics.Counts counts = stationDemographics.countsByStation(stationNumber);
+    if (counts.unknown() > 0) {
       getResponse(persons, responseDto);
+    } else {
+      getPersons(persons, responseDto);
+      responseDto.setAdultCount(counts.adults());
+      responseDto.setChildCount(counts.children());
     }
+    event.commit("firestation", stationNumber, addresses.size(), persons.size(),
+            counts.unknown() > 0 ? persons.size() : 0);
 
     return responseDto;
   }
 
   private void getResponse(List<Person> persons, CoverageResponseDto response) {
 
+    List<MedicalRecord> medicalRecords = medicalRecordService.findByPersons(persons);
+    getPersons(persons, response);
+    for (MedicalRecord medicalRecord : medicalRecords) {
+      if (medicalRecordService.isAdult(medicalRecord)) {
+        response.setAdultCount(response.getAdultCount() + 1);
+      } else {
+        response.setChildCount(response.getChildCount() + 1);
+      }
+    }
+  }
+
+  private void getPersons(List<Person> persons, CoverageResponseDto response) {
     for (Person person : persons) {
       CoverageResponseDto.PersonInfo personInfo = new CoverageResponseDto.PersonInfo(
               person.getFirstName(),
@@ -63,15 +93,6 @@ public class FireStationConverageService {
               person.getPhone()
       );
       response.getPersons().add(personInfo);
-
-      MedicalRecord medicalRecord = medicalRecordService.findByFirstNameAndLastName(
-              person.getFirstName(), person.getLastName());
-
-      if (medicalRecordService.isAdult(medicalRecord)) {
-        response.setAdultCount(response.getAdultCount() + 1);
-      } else {
-        response.setChildCount(response.getChildCount() + 1);
-      }
     }
   }
 }
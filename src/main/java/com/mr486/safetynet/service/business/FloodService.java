@@ -9,39 +9,83 @@ import com.mr486.safetynet.model.Person;
 import com.mr486.safetynet.service.FireStationService;
 import com.mr486.safetynet.service.MedicalRecordService;
 import com.mr486.safetynet.service.PersonService;
-import lombok.RequiredArgsConstructor;
+import com.mr486.safetynet.tools.BusinessJoinEvent;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Service for handling flood-related operations.
  * It retrieves households and their residents based on the fire station numbers provided.
+ * <p>
+ * The households are sorted by address. Once a flood spans {@code safetynet.flood.parallel-threshold}
+ * addresses, they are assembled in parallel, by ranges of addresses, on a dedicated fork-join pool
+ * of {@code safetynet.flood.parallelism} threads, so a large flood neither runs on a single request
+ * thread nor takes over the common pool. Each range is written at its own position in the response,
+ * so the order does not depend on the mode.
+ * </p>
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class FloodService {
 
+  /**
+   * Smallest range of addresses assembled by one task of the pool.
+   */
+  private static final int MIN_RANGE = 64;
+
   private final FireStationService fireStationService;
   private final PersonService personService;
   private final MedicalRecordService medicalRecordService;
+  private final int parallelThreshold;
+  private final ForkJoinPool pool;
+
+  /**
+   * Creates the service.
+   *
+   * @param fireStationService   the service of the fire stations
+   * @param personService        the service of the persons
+   * @param medicalRecordService the service of the medical records
+   * @param parallelism          the number of threads assembling large floods, 0 for the number of
+   *                             processors, 1 to always assemble on the request thread
+   * @param parallelThreshold    the number of addresses from which a flood is assembled in parallel
+   */
+  public FloodService(FireStationService fireStationService,
+                      PersonService personService,
+                      MedicalRecordService medicalRecordService,
+                      @Value("${safetynet.flood.parallelism:0}") int parallelism,
+                      @Value("${safetynet.flood.parallel-threshold:1000}") int parallelThreshold) {
+    this.fireStationService = fireStationService;
+    this.personService = personService;
+    this.medicalRecordService = medicalRecordService;
+    this.parallelThreshold = Math.max(1, parallelThreshold);
+    int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    this.pool = threads > 1 ? new ForkJoinPool(threads, FloodService::newWorker, null, false) : null;
+  }
 
   /**
    * Retrieves households and their residents based on the provided fire station numbers.
    *
    * @param stationNumbers a list of fire station numbers
-   * @return a FloodStationsResponseDto containing the households and their residents
+   * @return a FloodStationsResponseDto containing the households and their residents, sorted by address
    * @throws IllegalArgumentException if any station number is invalid (null or negative)
    */
   public FloodStationsResponseDto getHouseholdsByStations(List<Integer> stationNumbers) {
     log.debug("Retrieving households for fire stations: {}", stationNumbers);
-    Set<String> addresses = new HashSet<>();
+    BusinessJoinEvent event = new BusinessJoinEvent();
+    event.begin();
+    TreeSet<String> addressSet = new TreeSet<>();
     for (Integer stationNumber : stationNumbers) {
       log.debug("Processing fire station number: {}", stationNumber);
       if (stationNumber == null || stationNumber < 0) {
@@ -50,17 +94,61 @@ public class FloodService {
       List<FireStation> fireStations = fireStationService.findByStationNumber(stationNumber);
       for (FireStation fireStation : fireStations) {
         log.debug("Adding address from fire station: {}", fireStation.getAddress());
-        addresses.add(fireStation.getAddress());
+        addressSet.add(fireStation.getAddress());
       }
 
     }
 
-    List<FloodHouseholdDto> households = new ArrayList<>();
-    for (String address : addresses) {
-      log.debug("Retrieving persons for address: {}", address);
-      List<Person> persons = personService.findByAddress(address);
-      List<FloodPersonDto> residents = persons.stream().map(person -> {
-        MedicalRecord record = medicalRecordService.findByFirstNameAndLastName(person.getFirstName(), person.getLastName());
+    String[] addresses = addressSet.toArray(String[]::new);
+    FloodHouseholdDto[] households = new FloodHouseholdDto[addresses.length];
+    if (pool == null || addresses.length < parallelThreshold) {
+      assemble(addresses, 0, addresses.length, households);
+    } else {
+      int range = Math.max(MIN_RANGE, addresses.length / (pool.getParallelism() * 4));
+      pool.invoke(new AssemblyTask(addresses, 0, addresses.length, households, range));
+    }
+
+    int residents = Arrays.stream(households).mapToInt(household -> household.getResidents().size()).sum();
+    event.commit("flood", stationNumbers, addresses.length, residents, residents);
+    return new FloodStationsResponseDto(new ArrayList<>(Arrays.asList(households)));
+  }
+
+  /**
+   * Stops the threads assembling large floods.
+   */
+  @PreDestroy
+  public void close() {
+    if (pool != null) {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Assembles the households of a range of addresses, each at the position of its address.
+   *
+   * @param addresses  the addresses of the flood
+   * @param from       the first address of the range, inclusive
+   * @param to         the last address of the range, exclusive
+   * @param households the households of the flood, written from {@code from} to {@code to}
+   */
+  private void assemble(String[] addresses, int from, int to, FloodHouseholdDto[] households) {
+    List<List<Person>> personsByAddress = new ArrayList<>(to - from);
+    for (int a = from; a < to; a++) {
+      log.debug("Retrieving persons for address: {}", addresses[a]);
+      personsByAddress.add(personService.findByAddress(addresses[a]));
+    }
+    // resolve the medical records of every resident of every household in one pass
+    List<MedicalRecord> records = medicalRecordService.findByPersons(
+            personsByAddress.stream().flatMap(List::stream).toList());
+
+    int next = 0;
+    for (int a = from; a < to; a++) {
+      List<Person> persons = personsByAddress.get(a - from);
+      int offset = next;
+      next += persons.size();
+      List<FloodPersonDto> residents = IntStream.range(0, persons.size()).mapToObj(i -> {
+        Person person = persons.get(i);
+        MedicalRecord record = records.get(offset + i);
         int age = medicalRecordService.getAge(record);
         return new FloodPersonDto(
                 person.getFirstName(),
@@ -71,8 +159,45 @@ public class FloodService {
                 record.getAllergies()
         );
       }).collect(Collectors.toList());
-      households.add(new FloodHouseholdDto(address, residents));
+      households[a] = new FloodHouseholdDto(addresses[a], residents);
+    }
+  }
+
+  private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+    thread.setName("flood-assembly-" + thread.getPoolIndex());
+    thread.setDaemon(true);
+    return thread;
+  }
+
+  /**
+   * Task splitting a range of addresses in halves until they are small enough to be assembled.
+   */
+  private final class AssemblyTask extends RecursiveAction {
+
+    private final String[] addresses;
+    private final int from;
+    private final int to;
+    private final FloodHouseholdDto[] households;
+    private final int range;
+
+    private AssemblyTask(String[] addresses, int from, int to, FloodHouseholdDto[] households, int range) {
+      this.addresses = addresses;
+      this.from = from;
+      this.to = to;
+      this.households = households;
+      this.range = range;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= range) {
+        assemble(addresses, from, to, households);
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      invokeAll(new AssemblyTask(addresses, from, middle, households, range),
+              new AssemblyTask(addresses, middle, to, households, range));
     }
-    return new FloodStationsResponseDto(households);
   }
-}
\ No newline at end of file
+}
@@ -5,12 +5,15 @@ import com.mr486.safetynet.model.MedicalRecord;
 import com.mr486.safetynet.model.Person;
 import com.mr486.safetynet.service.MedicalRecordService;
 import com.mr486.safetynet.service.PersonService;
+import com.mr486.safetynet.tools.BusinessJoinEvent;
+import com.mr486.safetynet.tools.Positioned;
+import com.mr486.safetynet.tools.PositionedList;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Service for retrieving detailed information about persons based on their last name.
@@ -29,15 +32,19 @@ public class PersonInfoService {
    * with the specified last name.
    *
    * @param lastName the last name of the persons to retrieve information for
-   * @return a list of PersonInfoDto objects containing person details and medical records
+   * @return a list of PersonInfoDto objects containing person details and medical records, in the order of the repository
    */
-  public List<PersonInfoDto> getPersonInfoByLastName(String lastName) {
+  public PositionedList<PersonInfoDto> getPersonInfoByLastName(String lastName) {
+    BusinessJoinEvent event = new BusinessJoinEvent();
+    event.begin();
     List<Person> persons = personService.findByLastName(lastName);
     log.debug("Retrieving person info for last name: {}", lastName);
-    return persons.stream().map(person -> {
-      MedicalRecord record = medicalRecordService.findByFirstNameAndLastName(person.getFirstName(), person.getLastName());
+    List<MedicalRecord> records = medicalRecordService.findByPersons(persons);
+    PositionedList<PersonInfoDto> personInfos = PositionedList.sorted(IntStream.range(0, persons.size()).mapToObj(i -> {
+      Person person = persons.get(i);
+      MedicalRecord record = records.get(i);
       int age = medicalRecordService.getAge(record);
-      return new PersonInfoDto(
+      return new Positioned<>(personService.position(person), new PersonInfoDto(
               person.getFirstName(),
               person.getLastName(),
               person.getAddress(),
@@ -45,7 +52,9 @@ public class PersonInfoService {
               person.getEmail(),
               record.getMedications(),
               record.getAllergies()
-      );
-    }).collect(Collectors.toList());
+      ));
+    }).toList());
+    event.commit("personInfo", lastName, 0, persons.size(), records.size());
+    return personInfos;
   }
 }
\ No newline at end of file
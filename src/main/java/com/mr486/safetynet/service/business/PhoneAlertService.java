@@ -4,13 +4,15 @@ import com.mr486.safetynet.model.FireStation;
 import com.mr486.safetynet.model.Person;
 import com.mr486.safetynet.service.FireStationService;
 import com.mr486.safetynet.service.PersonService;
+import com.mr486.safetynet.tools.BusinessJoinEvent;
+import com.mr486.safetynet.tools.Positioned;
+import com.mr486.safetynet.tools.PositionedList;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Service for retrieving phone numbers of persons covered by a specific fire station.
@@ -29,19 +31,25 @@ public class PhoneAlertService {
    * Retrieves a set of phone numbers for all persons covered by the specified fire station.
    *
    * @param stationNumber the number of the fire station
-   * @return a set of phone numbers of persons covered by the fire station
+   * @return the distinct phone numbers of persons covered by the fire station, in the order of the persons repository
    */
-  public Set<String> getPhonesByStation(int stationNumber) {
+  public PositionedList<String> getPhonesByStation(int stationNumber) {
     log.debug("Retrieving phone numbers for fire station number: {}", stationNumber);
+    BusinessJoinEvent event = new BusinessJoinEvent();
+    event.begin();
     List<String> addresses = fireStationService.findByStationNumber(stationNumber)
             .stream()
             .map(FireStation::getAddress)
             .toList();
 
-    return addresses.stream()
-            .flatMap(address -> personService.findByAddress(address).stream())
-            .map(Person::getPhone)
-            .collect(Collectors.toSet());
+    List<Positioned<String>> phones = new ArrayList<>();
+    for (String address : addresses) {
+      for (Person person : personService.findByAddress(address)) {
+        phones.add(new Positioned<>(personService.position(person), person.getPhone()));
+      }
+    }
+    event.commit("phoneAlert", stationNumber, addresses.size(), phones.size(), 0);
+    return PositionedList.distinct(phones);
   }
 
 }
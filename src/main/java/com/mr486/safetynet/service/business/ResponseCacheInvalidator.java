@@ -0,0 +1,74 @@
+package com.mr486.safetynet.service.business;
+
+import com.mr486.safetynet.model.Person;
+import com.mr486.safetynet.repository.FireStationRepository;
+import com.mr486.safetynet.tools.CacheTags;
+import com.mr486.safetynet.tools.ResponseCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Translates the changes made by the services into the {@link CacheTags} of the business
+ * responses they affect, and invalidates them in the {@link ResponseCache}.
+ * Once they are invalidated, the new versions of the repositories are published as the ETags of
+ * the responses by {@link DatasetVersions}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ResponseCacheInvalidator {
+
+  private final ResponseCache responseCache;
+  private final FireStationRepository fireStationRepository;
+  private final DatasetVersions datasetVersions;
+
+  /**
+   * Invalidates the responses listing persons or computed from their medical records:
+   * those of their addresses, of the fire stations covering them, of their cities and of their last names.
+   *
+   * @param persons the persons as before or after the change, all of them for a change moving a person
+   */
+  public void personChanged(Person... persons) {
+    List<String> tags = new ArrayList<>(4 * persons.length);
+    for (Person person : persons) {
+      tags.add(CacheTags.address(person.getAddress()));
+      tags.add(CacheTags.city(person.getCity()));
+      tags.add(CacheTags.lastName(person.getLastName()));
+      fireStationRepository.findAllByAddress(person.getAddress())
+              .forEach(fireStation -> tags.add(CacheTags.station(fireStation.getStation())));
+    }
+    responseCache.invalidate(tags);
+    datasetVersions.publish();
+  }
+
+  /**
+   * Invalidates the responses depending on the fire station of an address.
+   *
+   * @param address  the address of the fire station
+   * @param stations the station numbers the address was or is now covered by
+   */
+  public void fireStationChanged(String address, int... stations) {
+    List<String> tags = new ArrayList<>(stations.length + 1);
+    tags.add(CacheTags.address(address));
+    for (int station : stations) {
+      tags.add(CacheTags.station(station));
+    }
+    responseCache.invalidate(tags);
+    datasetVersions.publish();
+  }
+
+  /**
+   * Invalidates every response once children came of age, after {@link StationDemographics}
+   * counted them as adults. This happens at most once a day.
+   *
+   * @param event the event naming the persons who came of age
+   */
+  @EventListener
+  public void onComingOfAge(ComingOfAgeEvent event) {
+    responseCache.invalidateAll();
+    datasetVersions.publishComingOfAge();
+  }
+}
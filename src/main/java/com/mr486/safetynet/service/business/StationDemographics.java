@@ -0,0 +1,302 @@
+package com.mr486.safetynet.service.business;
+
+import com.mr486.safetynet.configuration.AppConfiguation;
+import com.mr486.safetynet.model.FireStation;
+import com.mr486.safetynet.model.MedicalRecord;
+import com.mr486.safetynet.model.Person;
+import com.mr486.safetynet.repository.FireStationRepository;
+import com.mr486.safetynet.repository.MedicalRecordRepository;
+import com.mr486.safetynet.repository.PersonRepository;
+import com.mr486.safetynet.tools.Birthdates;
+import com.mr486.safetynet.tools.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Number of adults and children covered by each fire station, kept up to date as persons,
+ * medical records and fire stations change.
+ * <p>
+ * Only the counts of each covered address and of each station are kept. They are built from
+ * the fire stations on first use, each covered address counting its residents through the
+ * repositories, then the services report every change and the addresses it touches are counted
+ * again, so reading the counts of a station is a single lookup. Children who come of age are
+ * moved to the adults on the {@link ComingOfAgeEvent} of the {@link ComingOfAgeScheduler}.
+ * Residents without a valid medical record are counted apart.
+ * </p>
+ * <p>
+ * Reads never lock; changes are serialized on this object. An address is counted from the
+ * repositories after the change is applied, so a change racing with the initial build is
+ * counted correctly whichever runs first.
+ * </p>
+ */
+@Component
+public class StationDemographics {
+
+  private final PersonRepository personRepository;
+  private final MedicalRecordRepository medicalRecordRepository;
+  private final FireStationRepository fireStationRepository;
+  private final Clock clock;
+
+  private final Map<String, List<Integer>> stationsByAddress = new HashMap<>();
+  private final Map<String, Counts> countsByAddress = new HashMap<>();
+  private final Map<Integer, Counts> countsByStation = new ConcurrentHashMap<>();
+  private volatile boolean built;
+
+  /**
+   * Creates the counts, built from the repositories on first use.
+   *
+   * @param personRepository        the repository of the persons
+   * @param medicalRecordRepository the repository of the medical records
+   * @param fireStationRepository   the repository of the fire stations
+   */
+  @Autowired
+  public StationDemographics(PersonRepository personRepository, MedicalRecordRepository medicalRecordRepository,
+                             FireStationRepository fireStationRepository) {
+    this(personRepository, medicalRecordRepository, fireStationRepository, Clock.systemDefaultZone());
+  }
+
+  StationDemographics(PersonRepository personRepository, MedicalRecordRepository medicalRecordRepository,
+                      FireStationRepository fireStationRepository, Clock clock) {
+    this.personRepository = personRepository;
+    this.medicalRecordRepository = medicalRecordRepository;
+    this.fireStationRepository = fireStationRepository;
+    this.clock = clock;
+  }
+
+  /**
+   * Returns the residents covered by a fire station, by category.
+   *
+   * @param stationNumber the number of the fire station
+   * @return the counts of the station, empty if it covers nobody
+   */
+  public Counts countsByStation(int stationNumber) {
+    if (!built) {
+      build();
+    }
+    return countsByStation.getOrDefault(stationNumber, Counts.EMPTY);
+  }
+
+  /**
+   * Records that persons were added, updated or deleted.
+   *
+   * @param persons the persons as before or after the change, all of them for a change moving a person
+   */
+  public synchronized void personChanged(Person... persons) {
+    if (built) {
+      for (Person person : persons) {
+        recount(person.getAddress());
+      }
+    }
+  }
+
+  /**
+   * Records that a medical record was saved, whether added or updated.
+   *
+   * @param medicalRecord the saved medical record
+   */
+  public synchronized void medicalRecordSaved(MedicalRecord medicalRecord) {
+    if (built) {
+      recountResidence(medicalRecord.getFirstName(), medicalRecord.getLastName());
+    }
+  }
+
+  /**
+   * Records that a medical record was deleted.
+   *
+   * @param firstName the first name of the person
+   * @param lastName  the last name of the person
+   */
+  public synchronized void medicalRecordDeleted(String firstName, String lastName) {
+    if (built) {
+      recountResidence(firstName, lastName);
+    }
+  }
+
+  /**
+   * Records that a fire station was saved, whether added or assigned another station number.
+   * The address is assigned to every station covering it in the repository.
+   *
+   * @param fireStation the saved fire station
+   */
+  public synchronized void fireStationSaved(FireStation fireStation) {
+    if (built) {
+      reassign(fireStation.getAddress());
+    }
+  }
+
+  /**
+   * Records that a fire station was deleted.
+   *
+   * @param address the address of the fire station
+   */
+  public synchronized void fireStationDeleted(String address) {
+    if (built) {
+      reassign(address);
+    }
+  }
+
+  /**
+   * Moves the residents who came of age from the children to the adults.
+   *
+   * Runs before the listeners depending on the counts.
+   *
+   * @param event the event naming the persons who came of age
+   */
+  @Order(0)
+  @EventListener
+  public synchronized void onComingOfAge(ComingOfAgeEvent event) {
+    if (built) {
+      Set<String> addresses = new HashSet<>();
+      for (String name : event.names()) {
+        personRepository.findByFirstNameAndLastName(Keys.firstName(name), Keys.lastName(name))
+                .ifPresent(person -> addresses.add(Keys.normalize(person.getAddress())));
+      }
+      addresses.forEach(this::recount);
+    }
+  }
+
+  // Private methods maintaining the counts
+
+  private synchronized void build() {
+    if (built) {
+      return;
+    }
+    for (FireStation fireStation : fireStationRepository.findAll()) {
+      assign(Keys.normalize(fireStation.getAddress()), fireStation.getStation());
+    }
+    for (String address : stationsByAddress.keySet()) {
+      recount(address);
+    }
+    built = true;
+  }
+
+  private void recountResidence(String firstName, String lastName) {
+    personRepository.findByFirstNameAndLastName(firstName, lastName)
+            .ifPresent(person -> recount(person.getAddress()));
+  }
+
+  // Only the addresses covered by a station are counted: an address is counted when assigned
+  private void recount(String address) {
+    if (address == null) {
+      return;
+    }
+    String key = Keys.normalize(address);
+    List<Integer> stations = stationsByAddress.get(key);
+    if (stations == null) {
+      return;
+    }
+    Counts counts = count(personRepository.findByAddress(address));
+    Counts delta = counts.plus(countsByAddress.getOrDefault(key, Counts.EMPTY), -1);
+    if (counts.residents() == 0) {
+      countsByAddress.remove(key);
+    } else {
+      countsByAddress.put(key, counts);
+    }
+    for (int station : stations) {
+      addToStation(station, delta, 1);
+    }
+  }
+
+  private Counts count(List<Person> residents) {
+    int today = Birthdates.today(clock);
+    int adults = 0;
+    int children = 0;
+    int unknown = 0;
+    for (MedicalRecord medicalRecord : medicalRecordRepository.findByPersons(residents)) {
+      Integer birthdate = medicalRecord == null ? null : birthdate(medicalRecord.getBirthdate());
+      if (birthdate == null) {
+        unknown++;
+      } else if (today >= birthdate + AppConfiguation.ADULT_AGE * 10_000) {
+        adults++;
+      } else {
+        children++;
+      }
+    }
+    return new Counts(adults, children, unknown);
+  }
+
+  private void reassign(String address) {
+    if (address == null) {
+      return;
+    }
+    String key = Keys.normalize(address);
+    unassign(key);
+    for (FireStation mapping : fireStationRepository.findAllByAddress(address)) {
+      assign(key, mapping.getStation());
+    }
+    recount(address);
+  }
+
+  private void assign(String address, Integer station) {
+    if (address != null && station != null) {
+      List<Integer> stations = stationsByAddress.computeIfAbsent(address, key -> new ArrayList<>(1));
+      if (!stations.contains(station)) {
+        stations.add(station);
+      }
+    }
+  }
+
+  private void unassign(String address) {
+    List<Integer> stations = stationsByAddress.remove(address);
+    Counts counts = countsByAddress.remove(address);
+    if (stations != null && counts != null) {
+      stations.forEach(station -> addToStation(station, counts, -1));
+    }
+  }
+
+  private void addToStation(int station, Counts delta, int sign) {
+    Counts counts = countsByStation.getOrDefault(station, Counts.EMPTY).plus(delta, sign);
+    if (counts.residents() == 0) {
+      countsByStation.remove(station);
+    } else {
+      countsByStation.put(station, counts);
+    }
+  }
+
+  private static Integer birthdate(String birthdate) {
+    try {
+      return Birthdates.parse(birthdate);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Residents covered by a fire station, by category.
+   *
+   * @param adults   the residents of age
+   * @param children the residents under age
+   * @param unknown  the residents without a valid medical record, whose age is unknown
+   */
+  public record Counts(int adults, int children, int unknown) {
+
+    /**
+     * Counts of a station covering nobody.
+     */
+    public static final Counts EMPTY = new Counts(0, 0, 0);
+
+    /**
+     * Returns the total number of residents.
+     *
+     * @return the number of residents, whatever their category
+     */
+    public int residents() {
+      return adults + children + unknown;
+    }
+
+    private Counts plus(Counts other, int sign) {
+      return new Counts(adults + sign * other.adults, children + sign * other.children, unknown + sign * other.unknown);
+    }
+  }
+}
@@ -6,6 +6,8 @@ import com.mr486.safetynet.exception.EntityNotFoundException;
 import com.mr486.safetynet.model.FireStation;
 import com.mr486.safetynet.repository.FireStationRepository;
 import com.mr486.safetynet.service.FireStationService;
+import com.mr486.safetynet.service.business.ResponseCacheInvalidator;
+import com.mr486.safetynet.service.business.StationDemographics;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -20,6 +22,8 @@ import java.util.List;
 public class FireStationServiceImpl implements FireStationService {
 
   private final FireStationRepository fireStationRepository;
+  private final StationDemographics stationDemographics;
+  private final ResponseCacheInvalidator responseCacheInvalidator;
 
   /**
    * Finds a fire station by its address.
@@ -42,11 +46,14 @@ public class FireStationServiceImpl implements FireStationService {
     if (exists(fireStation.getAddress())) {
       throw fireStationDuplicateException(fireStation.getAddress());
     }
-    return fireStationRepository.save(fireStation);
+    FireStation savedFireStation = fireStationRepository.save(fireStation);
+    stationDemographics.fireStationSaved(fireStation);
+    responseCacheInvalidator.fireStationChanged(fireStation.getAddress(), fireStation.getStation());
+    return savedFireStation;
   }
 
   /**
-   * Deletes a fire station by its address.
+   * Deletes every fire station of an address.
    *
    * @param address the address of the fire station to delete.
    */
@@ -54,7 +61,11 @@ public class FireStationServiceImpl implements FireStationService {
     if (!exists(address)) {
       throw fireStationNotFoundException(address);
     }
+    List<FireStation> deletedFireStations = fireStationRepository.findAllByAddress(address);
     fireStationRepository.delete(address);
+    stationDemographics.fireStationDeleted(address);
+    responseCacheInvalidator.fireStationChanged(address,
+            deletedFireStations.stream().mapToInt(FireStation::getStation).toArray());
   }
 
   /**
@@ -79,11 +90,15 @@ public class FireStationServiceImpl implements FireStationService {
       throw fireStationNotFoundException(address);
     }
     FireStation existingFireStation = findByAddress(address);
+    int previousStation = existingFireStation.getStation();
     FireStation updatedFireStation = FireStation.builder()
             .address(existingFireStation.getAddress())
             .station(fireStationDto.getStation())
             .build();
-    return fireStationRepository.save(updatedFireStation);
+    FireStation savedFireStation = fireStationRepository.save(updatedFireStation);
+    stationDemographics.fireStationSaved(updatedFireStation);
+    responseCacheInvalidator.fireStationChanged(address, previousStation, updatedFireStation.getStation());
+    return savedFireStation;
   }
 
   /**
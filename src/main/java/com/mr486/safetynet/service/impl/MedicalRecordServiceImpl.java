@@ -9,13 +9,14 @@ import com.mr486.safetynet.model.Person;
 import com.mr486.safetynet.repository.MedicalRecordRepository;
 import com.mr486.safetynet.repository.PersonRepository;
 import com.mr486.safetynet.service.MedicalRecordService;
+import com.mr486.safetynet.service.business.ChildAlertView;
+import com.mr486.safetynet.service.business.ComingOfAgeScheduler;
+import com.mr486.safetynet.service.business.ResponseCacheInvalidator;
+import com.mr486.safetynet.service.business.StationDemographics;
+import com.mr486.safetynet.tools.Birthdates;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
-import java.time.Period;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.List;
 
 /**
@@ -28,6 +29,10 @@ public class MedicalRecordServiceImpl implements MedicalRecordService {
 
   private final MedicalRecordRepository medicalRecordRepository;
   private final PersonRepository personRepository;
+  private final StationDemographics stationDemographics;
+  private final ComingOfAgeScheduler comingOfAgeScheduler;
+  private final ChildAlertView childAlertView;
+  private final ResponseCacheInvalidator responseCacheInvalidator;
 
   /**
    * Retrieves all medical records.
@@ -52,6 +57,23 @@ public class MedicalRecordServiceImpl implements MedicalRecordService {
 
   }
 
+  /**
+   * Finds the medical records of a list of persons in a single pass.
+   *
+   * @param persons the persons whose medical records are wanted.
+   * @return the medical records, in the order of the persons.
+   * @throws EntityNotFoundException if a person has no medical record.
+   */
+  public List<MedicalRecord> findByPersons(List<Person> persons) {
+    List<MedicalRecord> medicalRecords = medicalRecordRepository.findByPersons(persons);
+    for (int i = 0; i < persons.size(); i++) {
+      if (medicalRecords.get(i) == null) {
+        throw medicalRecordNotFoundException(persons.get(i).getFirstName(), persons.get(i).getLastName());
+      }
+    }
+    return medicalRecords;
+  }
+
   /**
    * Saves a new medical record or updates an existing one.
    *
@@ -81,7 +103,11 @@ public class MedicalRecordServiceImpl implements MedicalRecordService {
     medicalRecord.setMedications(medicalRecordDto.getMedications());
     medicalRecord.setAllergies(medicalRecordDto.getAllergies());
 
-    return medicalRecordRepository.save(medicalRecord);
+    MedicalRecord savedMedicalRecord = medicalRecordRepository.save(medicalRecord);
+    stationDemographics.medicalRecordSaved(medicalRecord);
+    comingOfAgeScheduler.medicalRecordSaved(medicalRecord);
+    residentChanged(medicalRecord.getFirstName(), medicalRecord.getLastName());
+    return savedMedicalRecord;
   }
 
   /**
@@ -97,6 +123,9 @@ public class MedicalRecordServiceImpl implements MedicalRecordService {
     }
 
     medicalRecordRepository.delete(firstName, lastName);
+    stationDemographics.medicalRecordDeleted(firstName, lastName);
+    comingOfAgeScheduler.medicalRecordDeleted(firstName, lastName);
+    residentChanged(firstName, lastName);
 
   }
 
@@ -114,12 +143,20 @@ public class MedicalRecordServiceImpl implements MedicalRecordService {
       throw medicalRecordNotFoundException(firstName, lastName);
     }
 
-    MedicalRecord medicalRecord = findByFirstNameAndLastName(firstName, lastName);
+    // Replace the record instead of modifying it, so readers never see it half updated
+    MedicalRecord existing = findByFirstNameAndLastName(firstName, lastName);
+    MedicalRecord medicalRecord = new MedicalRecord();
+    medicalRecord.setFirstName(existing.getFirstName());
+    medicalRecord.setLastName(existing.getLastName());
     medicalRecord.setBirthdate(medicalRecordDto.getBirthdate());
     medicalRecord.setMedications(medicalRecordDto.getMedications());
     medicalRecord.setAllergies(medicalRecordDto.getAllergies());
 
-    return medicalRecordRepository.save(medicalRecord);
+    MedicalRecord savedMedicalRecord = medicalRecordRepository.save(medicalRecord);
+    stationDemographics.medicalRecordSaved(medicalRecord);
+    comingOfAgeScheduler.medicalRecordSaved(medicalRecord);
+    residentChanged(medicalRecord.getFirstName(), medicalRecord.getLastName());
+    return savedMedicalRecord;
   }
 
   /**
@@ -134,20 +171,14 @@ public class MedicalRecordServiceImpl implements MedicalRecordService {
 
   /**
    * Calculates the age of a person based on their birthdate.
+   * Birthdates are parsed once and today's date once a day, see {@link Birthdates}.
    *
    * @param medicalRecord the medical record of the person containing the birthdate.
    * @return the age of the person in years.
    * @throws IllegalArgumentException if the birthdate format is invalid.
    */
   public int getAge(MedicalRecord medicalRecord) {
-    DateTimeFormatter formatter = DateTimeFormatter.ofPattern(AppConfiguation.DATE_FORMAT);
-    try {
-      LocalDate now = LocalDate.now();
-      return Period.between(LocalDate.parse(medicalRecord.getBirthdate(), formatter), now).getYears();
-    } catch (DateTimeParseException e) {
-      throw new IllegalArgumentException("Invalid birthdate format. Expected format is: " + AppConfiguation.DATE_FORMAT, e);
-    }
-
+    return Birthdates.age(medicalRecord.getBirthdate());
   }
 
   private EntityNotFoundException medicalRecordNotFoundException(String firstName, String lastName) {
@@ -162,6 +193,14 @@ public class MedicalRecordServiceImpl implements MedicalRecordService {
     return new EntityNotFoundException("Person not found for " + firstName + " " + lastName);
   }
 
+  private void residentChanged(String firstName, String lastName) {
+    personRepository.findByFirstNameAndLastName(firstName, lastName)
+            .ifPresent(person -> {
+              childAlertView.invalidate(person.getAddress());
+              responseCacheInvalidator.personChanged(person);
+            });
+  }
+
   private boolean exists(String firstName, String lastName) {
     return medicalRecordRepository.exists(firstName, lastName);
   }
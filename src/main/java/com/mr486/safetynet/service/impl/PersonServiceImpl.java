@@ -3,13 +3,21 @@ package com.mr486.safetynet.service.impl;
 import com.mr486.safetynet.dto.request.PersonDto;
 import com.mr486.safetynet.exception.EntityAlreadyExistsException;
 import com.mr486.safetynet.exception.EntityNotFoundException;
+import com.mr486.safetynet.exception.InvalidRequestException;
 import com.mr486.safetynet.model.Person;
 import com.mr486.safetynet.repository.PersonRepository;
 import com.mr486.safetynet.service.PersonService;
+import com.mr486.safetynet.service.business.ChildAlertView;
+import com.mr486.safetynet.service.business.ResponseCacheInvalidator;
+import com.mr486.safetynet.service.business.StationDemographics;
+import com.mr486.safetynet.tools.Page;
+import com.mr486.safetynet.tools.Positioned;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Service implementation for managing Person entities.
@@ -21,6 +29,9 @@ import java.util.List;
 public class PersonServiceImpl implements PersonService {
 
   private final PersonRepository personRepository;
+  private final StationDemographics stationDemographics;
+  private final ChildAlertView childAlertView;
+  private final ResponseCacheInvalidator responseCacheInvalidator;
 
   /**
    * Finds a person by their first and last name.
@@ -45,7 +56,9 @@ public class PersonServiceImpl implements PersonService {
     if (exists(person.getFirstName(), person.getLastName())) {
       throw personDuplicateException(person.getFirstName(), person.getLastName());
     }
-    return personRepository.save(person);
+    Person savedPerson = personRepository.save(person);
+    residentChanged(person);
+    return savedPerson;
   }
 
   /**
@@ -58,7 +71,9 @@ public class PersonServiceImpl implements PersonService {
     if (!exists(firstName, lastName)) {
       throw personNotFoundException(firstName, lastName);
     }
+    Optional<Person> deletedPerson = personRepository.findByFirstNameAndLastName(firstName, lastName);
     personRepository.delete(firstName, lastName);
+    deletedPerson.ifPresent(this::residentChanged);
   }
 
   /**
@@ -83,7 +98,9 @@ public class PersonServiceImpl implements PersonService {
             .phone(personDto.getPhone())
             .email(personDto.getEmail())
             .build();
-    return personRepository.save(updatedPerson);
+    Person savedPerson = personRepository.save(updatedPerson);
+    residentChanged(existingPerson, updatedPerson);
+    return savedPerson;
   }
 
   /**
@@ -105,6 +122,49 @@ public class PersonServiceImpl implements PersonService {
     return personRepository.findAll();
   }
 
+  /**
+   * Iterates all persons in the stable order of the repository, without copying them.
+   *
+   * @return an iterator over all persons.
+   */
+  public Iterator<Person> iterateAll() {
+    Iterator<Positioned<Person>> persons = personRepository.iterateAfter(-1);
+    return new Iterator<>() {
+      @Override
+      public boolean hasNext() {
+        return persons.hasNext();
+      }
+
+      @Override
+      public Person next() {
+        return persons.next().value();
+      }
+    };
+  }
+
+  /**
+   * Finds a page of persons in the stable order of the repository.
+   *
+   * @param cursor the cursor returned with the previous page, or null for the first page.
+   * @param limit  the maximum number of persons of the page.
+   * @return the page of persons, with the cursor of the next one.
+   * @throws InvalidRequestException if the cursor or the limit is invalid.
+   */
+  public Page<Person> findPage(String cursor, int limit) {
+    int checkedLimit = Page.checkLimit(limit);
+    return Page.read(personRepository.iterateAfter(Page.position(cursor)), checkedLimit);
+  }
+
+  /**
+   * Returns the position of a person in the stable order of the repository.
+   *
+   * @param person the person.
+   * @return the position of the person, or -1 if it is no longer in the repository.
+   */
+  public long position(Person person) {
+    return personRepository.position(person.getFirstName(), person.getLastName());
+  }
+
   /**
    * Finds persons by their last name.
    *
@@ -137,6 +197,14 @@ public class PersonServiceImpl implements PersonService {
             "Person not found: " + firstName + " " + lastName);
   }
 
+  private void residentChanged(Person... persons) {
+    stationDemographics.personChanged(persons);
+    for (Person person : persons) {
+      childAlertView.invalidate(person.getAddress());
+    }
+    responseCacheInvalidator.personChanged(persons);
+  }
+
   private boolean exists(String firstName, String lastName) {
     return personRepository.exists(firstName, lastName);
   }
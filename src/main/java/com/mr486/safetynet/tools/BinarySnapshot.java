@@ -0,0 +1,385 @@
+package com.mr486.safetynet.tools;
+
+import com.mr486.safetynet.dto.request.DataBindingDto;
+import com.mr486.safetynet.model.FireStation;
+import com.mr486.safetynet.model.MedicalRecord;
+import com.mr486.safetynet.model.Person;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Utility class encoding the dataset in a compact binary format, much faster to load than JSON.
+ * <p>
+ * The file starts with a magic number and a format version, followed by a table holding each
+ * distinct string once, then by the persons, fire stations and medical records. Every string
+ * field is written as its index in the table and every collection is prefixed by its length.
+ * </p>
+ */
+public final class BinarySnapshot {
+
+  /**
+   * Magic number identifying a snapshot file ("SNET").
+   */
+  public static final int MAGIC = 0x534E4554;
+
+  /**
+   * Version of the format written by this class.
+   */
+  public static final int VERSION = 1;
+
+  private static final int NULL = -1;
+  private static final int PERSON_FIELDS = 7;
+
+  private BinarySnapshot() {
+  }
+
+  /**
+   * Writes the dataset to the given file.
+   *
+   * @param data the dataset to write
+   * @param file the snapshot file
+   * @throws IOException if the file cannot be written
+   */
+  public static void write(DataBindingDto data, Path file) throws IOException {
+    List<Person> persons = orEmpty(data.getPersons());
+    List<FireStation> fireStations = orEmpty(data.getFirestations());
+    List<MedicalRecord> medicalRecords = orEmpty(data.getMedicalrecords());
+
+    StringTable table = new StringTable(0);
+    persons.forEach(table::add);
+    fireStations.forEach(table::add);
+    medicalRecords.forEach(table::add);
+
+    try (DataOutputStream out = open(file)) {
+      out.writeInt(table.strings.size());
+      writeStrings(out, table);
+      out.writeInt(persons.size());
+      for (Person person : persons) {
+        writePerson(out, table, person);
+      }
+      writeFireStations(out, table, fireStations);
+      out.writeInt(medicalRecords.size());
+      for (MedicalRecord medicalRecord : medicalRecords) {
+        writeMedicalRecord(out, table, medicalRecord);
+      }
+    }
+  }
+
+  /**
+   * Writes the dataset served from a mapped snapshot to the given file, without decoding it.
+   * The visible mapped records are copied from the mapping with their strings, keeping only the
+   * strings still referenced, and the records saved since the snapshot was mapped are encoded
+   * after them: only the saved records and the fire stations are held on heap.
+   *
+   * @param source         the mapped snapshot the persons and medical records were copied from
+   * @param persons        the persons, as copied from their overlay on the snapshot
+   * @param fireStations   the fire stations
+   * @param medicalRecords the medical records, as copied from their overlay on the snapshot
+   * @param file           the snapshot file, which must not be the mapped one
+   * @throws IOException if the file cannot be written
+   */
+  public static void write(MappedSnapshot source, MappedOverlay.Copy<Person> persons, List<FireStation> fireStations,
+                           MappedOverlay.Copy<MedicalRecord> medicalRecords, Path file) throws IOException {
+    if (persons.mappedCount() != source.personCount()
+            || medicalRecords.mappedCount() != source.medicalRecordCount()) {
+      throw new IllegalArgumentException("the records were not copied from the given snapshot");
+    }
+    // Renumbers the mapped strings still referenced, in mapping order, dropping the others
+    int[] remap = new int[source.stringCount()];
+    Arrays.fill(remap, NULL);
+    for (int i = 0; i < persons.mappedCount(); i++) {
+      if (persons.isVisible(i)) {
+        for (int field = 0; field < PERSON_FIELDS; field++) {
+          mark(remap, source.personRef(i, field));
+        }
+      }
+    }
+    for (int i = 0; i < medicalRecords.mappedCount(); i++) {
+      if (medicalRecords.isVisible(i)) {
+        forEachRef(source.medicalRecordInts(i), ref -> mark(remap, ref));
+      }
+    }
+    int mappedStrings = 0;
+    for (int ref = 0; ref < remap.length; ref++) {
+      if (remap[ref] != NULL) {
+        remap[ref] = mappedStrings++;
+      }
+    }
+    StringTable table = new StringTable(mappedStrings);
+    persons.saved().forEach(table::add);
+    orEmpty(fireStations).forEach(table::add);
+    medicalRecords.saved().forEach(table::add);
+
+    try (DataOutputStream out = open(file)) {
+      out.writeInt(mappedStrings + table.strings.size());
+      for (int ref = 0; ref < remap.length; ref++) {
+        if (remap[ref] != NULL) {
+          byte[] bytes = source.stringBytes(ref);
+          out.writeInt(bytes.length);
+          out.write(bytes);
+        }
+      }
+      writeStrings(out, table);
+      out.writeInt(persons.size());
+      for (int i = 0; i < persons.mappedCount(); i++) {
+        if (persons.isVisible(i)) {
+          for (int field = 0; field < PERSON_FIELDS; field++) {
+            out.writeInt(remap(remap, source.personRef(i, field)));
+          }
+        }
+      }
+      for (Person person : persons.saved()) {
+        writePerson(out, table, person);
+      }
+      writeFireStations(out, table, orEmpty(fireStations));
+      out.writeInt(medicalRecords.size());
+      for (int i = 0; i < medicalRecords.mappedCount(); i++) {
+        if (medicalRecords.isVisible(i)) {
+          int[] ints = source.medicalRecordInts(i);
+          forEachRef(ints, ref -> remap(remap, ref));
+          for (int value : ints) {
+            out.writeInt(value);
+          }
+        }
+      }
+      for (MedicalRecord medicalRecord : medicalRecords.saved()) {
+        writeMedicalRecord(out, table, medicalRecord);
+      }
+    }
+  }
+
+  /**
+   * Reads a dataset from the given snapshot file.
+   * Every count and string ref is checked against the size of the file and the string table,
+   * so a truncated or corrupt file is reported as such instead of failing on a huge allocation
+   * or an out of bounds index.
+   *
+   * @param file the snapshot file
+   * @return the dataset
+   * @throws IOException if the file cannot be read, is not a snapshot, has an unsupported version
+   *                     or is truncated or corrupt
+   */
+  public static DataBindingDto read(Path file) throws IOException {
+    long size = Files.size(file);
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("not a snapshot file: " + file);
+      }
+      int version = in.readInt();
+      if (version != VERSION) {
+        throw new IOException("unsupported snapshot version " + version + " in " + file);
+      }
+      String[] strings = new String[count(in, Integer.BYTES, size, file)];
+      for (int i = 0; i < strings.length; i++) {
+        byte[] bytes = new byte[count(in, 1, size, file)];
+        in.readFully(bytes);
+        strings[i] = new String(bytes, StandardCharsets.UTF_8);
+      }
+
+      int personCount = count(in, PERSON_FIELDS * Integer.BYTES, size, file);
+      List<Person> persons = new ArrayList<>(personCount);
+      for (int i = 0; i < personCount; i++) {
+        persons.add(new Person(
+                string(in, strings, file),
+                string(in, strings, file),
+                string(in, strings, file),
+                string(in, strings, file),
+                string(in, strings, file),
+                string(in, strings, file),
+                string(in, strings, file)));
+      }
+      int fireStationCount = count(in, 2 * Integer.BYTES, size, file);
+      List<FireStation> fireStations = new ArrayList<>(fireStationCount);
+      for (int i = 0; i < fireStationCount; i++) {
+        String address = string(in, strings, file);
+        int station = in.readInt();
+        fireStations.add(new FireStation(address, station == NULL ? null : station));
+      }
+      int medicalRecordCount = count(in, 5 * Integer.BYTES, size, file);
+      List<MedicalRecord> medicalRecords = new ArrayList<>(medicalRecordCount);
+      for (int i = 0; i < medicalRecordCount; i++) {
+        medicalRecords.add(new MedicalRecord(
+                string(in, strings, file),
+                string(in, strings, file),
+                string(in, strings, file),
+                readRefs(in, strings, size, file),
+                readRefs(in, strings, size, file)));
+      }
+      if (in.read() != -1) {
+        throw new IOException("corrupt snapshot file, unexpected data after the records: " + file);
+      }
+      return new DataBindingDto(persons, fireStations, medicalRecords);
+    } catch (EOFException e) {
+      throw new IOException("truncated snapshot file: " + file, e);
+    }
+  }
+
+  // Private methods for encoding
+
+  private static DataOutputStream open(Path file) throws IOException {
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    return out;
+  }
+
+  private static void writeStrings(DataOutputStream out, StringTable table) throws IOException {
+    for (String value : table.strings) {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  private static void writePerson(DataOutputStream out, StringTable table, Person person) throws IOException {
+    out.writeInt(table.ref(person.getFirstName()));
+    out.writeInt(table.ref(person.getLastName()));
+    out.writeInt(table.ref(person.getAddress()));
+    out.writeInt(table.ref(person.getCity()));
+    out.writeInt(table.ref(person.getZip()));
+    out.writeInt(table.ref(person.getPhone()));
+    out.writeInt(table.ref(person.getEmail()));
+  }
+
+  private static void writeFireStations(DataOutputStream out, StringTable table, List<FireStation> fireStations)
+          throws IOException {
+    out.writeInt(fireStations.size());
+    for (FireStation fireStation : fireStations) {
+      out.writeInt(table.ref(fireStation.getAddress()));
+      out.writeInt(fireStation.getStation() == null ? NULL : fireStation.getStation());
+    }
+  }
+
+  private static void writeMedicalRecord(DataOutputStream out, StringTable table, MedicalRecord medicalRecord)
+          throws IOException {
+    out.writeInt(table.ref(medicalRecord.getFirstName()));
+    out.writeInt(table.ref(medicalRecord.getLastName()));
+    out.writeInt(table.ref(medicalRecord.getBirthdate()));
+    writeRefs(out, table, medicalRecord.getMedications());
+    writeRefs(out, table, medicalRecord.getAllergies());
+  }
+
+  private static void writeRefs(DataOutputStream out, StringTable table, List<String> values) throws IOException {
+    List<String> list = orEmpty(values);
+    out.writeInt(list.size());
+    for (String value : list) {
+      out.writeInt(table.ref(value));
+    }
+  }
+
+  /**
+   * Applies the operator to the string refs of an encoded medical record, in place:
+   * the three names and dates, then the medications and allergies after their counts.
+   */
+  private static void forEachRef(int[] medicalRecord, IntUnaryOperator operator) {
+    int medications = 3;
+    int allergies = medications + 1 + medicalRecord[medications];
+    for (int i = 0; i < medicalRecord.length; i++) {
+      if (i != medications && i != allergies) {
+        medicalRecord[i] = operator.applyAsInt(medicalRecord[i]);
+      }
+    }
+  }
+
+  private static int mark(int[] remap, int ref) {
+    if (ref != NULL) {
+      remap[ref] = 0;
+    }
+    return ref;
+  }
+
+  private static int remap(int[] remap, int ref) {
+    return ref == NULL ? NULL : remap[ref];
+  }
+
+  // Private methods for decoding
+
+  private static int count(DataInputStream in, int elementSize, long fileSize, Path file) throws IOException {
+    int count = in.readInt();
+    if (count < 0 || (long) count * elementSize > fileSize) {
+      throw new IOException("corrupt snapshot file, invalid count " + count + ": " + file);
+    }
+    return count;
+  }
+
+  private static ArrayList<String> readRefs(DataInputStream in, String[] strings, long fileSize, Path file)
+          throws IOException {
+    int size = count(in, Integer.BYTES, fileSize, file);
+    ArrayList<String> values = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      values.add(string(in, strings, file));
+    }
+    return values;
+  }
+
+  private static String string(DataInputStream in, String[] strings, Path file) throws IOException {
+    int ref = in.readInt();
+    if (ref == NULL) {
+      return null;
+    }
+    if (ref < 0 || ref >= strings.length) {
+      throw new IOException("corrupt snapshot file, invalid string ref " + ref + ": " + file);
+    }
+    return strings[ref];
+  }
+
+  private static <T> List<T> orEmpty(List<T> list) {
+    return list == null ? List.of() : list;
+  }
+
+  /**
+   * Table assigning an index to each distinct string, in order of first appearance,
+   * starting from a given index when it follows strings copied from a mapped snapshot.
+   */
+  private static final class StringTable {
+    private final Map<String, Integer> refs = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private final int first;
+
+    private StringTable(int first) {
+      this.first = first;
+    }
+
+    private void add(Person person) {
+      add(person.getFirstName(), person.getLastName(), person.getAddress(), person.getCity(),
+              person.getZip(), person.getPhone(), person.getEmail());
+    }
+
+    private void add(FireStation fireStation) {
+      add(fireStation.getAddress());
+    }
+
+    private void add(MedicalRecord medicalRecord) {
+      add(medicalRecord.getFirstName(), medicalRecord.getLastName(), medicalRecord.getBirthdate());
+      orEmpty(medicalRecord.getMedications()).forEach(this::add);
+      orEmpty(medicalRecord.getAllergies()).forEach(this::add);
+    }
+
+    private void add(String... values) {
+      for (String value : values) {
+        if (value != null && !refs.containsKey(value)) {
+          refs.put(value, first + strings.size());
+          strings.add(value);
+        }
+      }
+    }
+
+    private int ref(String value) {
+      return value == null ? NULL : refs.get(value);
+    }
+  }
+}
@@ -0,0 +1,118 @@
+package com.mr486.safetynet.tools;
+
+import com.mr486.safetynet.configuration.AppConfiguation;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Utility class computing ages from birthdates without parsing the same date twice.
+ * <p>
+ * Birthdates are parsed once with a shared formatter into a {@code yyyymmdd} int, cached by their
+ * text: a dataset only holds a few thousand distinct birthdates however many records it has.
+ * Today's date is kept in the same form until midnight, so an age is the integer
+ * {@code (today - birthdate) / 10000}, which counts the full years exactly like
+ * {@link java.time.Period#between}.
+ * </p>
+ */
+public final class Birthdates {
+
+  private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(AppConfiguation.DATE_FORMAT);
+  private static final Map<String, Integer> PARSED = new ConcurrentHashMap<>();
+  private static volatile Today today = new Today(ZoneId.systemDefault(), 0, 0, 0);
+
+  private Birthdates() {
+  }
+
+  /**
+   * Calculates the age of a person as of today in the default time zone.
+   *
+   * @param birthdate the birthdate in the application date format
+   * @return the age in full years
+   * @throws IllegalArgumentException if the birthdate format is invalid
+   */
+  public static int age(String birthdate) {
+    return age(birthdate, Clock.systemDefaultZone());
+  }
+
+  /**
+   * Calculates the age of a person as of today according to the given clock.
+   *
+   * @param birthdate the birthdate in the application date format
+   * @param clock     the clock giving the current date
+   * @return the age in full years
+   * @throws IllegalArgumentException if the birthdate format is invalid
+   */
+  public static int age(String birthdate, Clock clock) {
+    return (today(clock) - parse(birthdate)) / 10_000;
+  }
+
+  /**
+   * Parses a birthdate into a {@code yyyymmdd} int, reusing the result of earlier calls.
+   *
+   * @param birthdate the birthdate in the application date format
+   * @return the birthdate as {@code yyyymmdd}
+   * @throws IllegalArgumentException if the birthdate format is invalid
+   */
+  public static int parse(String birthdate) {
+    Integer parsed = PARSED.get(birthdate == null ? "" : birthdate);
+    if (parsed == null) {
+      parsed = toInt(parseDate(birthdate));
+      PARSED.put(birthdate, parsed);
+    }
+    return parsed;
+  }
+
+  /**
+   * Returns today's date as {@code yyyymmdd} in the default time zone.
+   *
+   * @return today's date as {@code yyyymmdd}
+   */
+  public static int today() {
+    return today(Clock.systemDefaultZone());
+  }
+
+  /**
+   * Returns today's date as {@code yyyymmdd}, computed once per day and time zone.
+   *
+   * @param clock the clock giving the current date
+   * @return today's date as {@code yyyymmdd}
+   */
+  public static int today(Clock clock) {
+    Today current = today;
+    long millis = clock.millis();
+    if (millis < current.startMillis() || millis >= current.endMillis() || !clock.getZone().equals(current.zone())) {
+      current = Today.of(clock.getZone(), millis);
+      today = current;
+    }
+    return current.date();
+  }
+
+  private static LocalDate parseDate(String birthdate) {
+    try {
+      return LocalDate.parse(birthdate, FORMATTER);
+    } catch (DateTimeParseException | NullPointerException e) {
+      throw new IllegalArgumentException("Invalid birthdate format. Expected format is: " + AppConfiguation.DATE_FORMAT, e);
+    }
+  }
+
+  private static int toInt(LocalDate date) {
+    return date.getYear() * 10_000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+  }
+
+  private record Today(ZoneId zone, long startMillis, long endMillis, int date) {
+
+    static Today of(ZoneId zone, long millis) {
+      LocalDate date = LocalDate.ofInstant(Instant.ofEpochMilli(millis), zone);
+      long start = date.atStartOfDay(zone).toInstant().toEpochMilli();
+      long end = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+      return new Today(zone, start, end, toInt(date));
+    }
+  }
+}
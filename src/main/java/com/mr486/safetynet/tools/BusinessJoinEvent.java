@@ -0,0 +1,62 @@
+package com.mr486.safetynet.tools;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of one business response computed by joining addresses, residents and
+ * medical records. Responses served from the response cache or a precomputed view are not joined
+ * and emit no event.
+ */
+@Name("com.mr486.safetynet.BusinessJoin")
+@Label("Business Join")
+@Category({"SafetyNet", "Business"})
+@Description("Business response computed by joining addresses, residents and medical records")
+@StackTrace(false)
+public class BusinessJoinEvent extends Event {
+
+  @Label("Operation")
+  @Description("Business endpoint computed, such as fire or flood")
+  String operation;
+
+  @Label("Key")
+  @Description("Parameter of the request: address, station numbers, last name or city")
+  String key;
+
+  @Label("Addresses")
+  @Description("Addresses joined with their residents")
+  int addresses;
+
+  @Label("Residents")
+  @Description("Residents processed")
+  int residents;
+
+  @Label("Medical Records")
+  @Description("Medical records joined with the residents")
+  int medicalRecords;
+
+  /**
+   * Commits the event, if the recording keeps it.
+   *
+   * @param operation      the business endpoint computed
+   * @param key            the parameter of the request
+   * @param addresses      the addresses joined with their residents
+   * @param residents      the residents processed
+   * @param medicalRecords the medical records joined with the residents
+   */
+  public void commit(String operation, Object key, int addresses, int residents, int medicalRecords) {
+    end();
+    if (shouldCommit()) {
+      this.operation = operation;
+      this.key = String.valueOf(key);
+      this.addresses = addresses;
+      this.residents = residents;
+      this.medicalRecords = medicalRecords;
+      commit();
+    }
+  }
+}
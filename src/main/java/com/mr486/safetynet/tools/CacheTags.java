@@ -0,0 +1,52 @@
+package com.mr486.safetynet.tools;
+
+/**
+ * Utility class building the tags a cached response is invalidated by.
+ * A response is tagged with every address, fire station, city and last name it was computed
+ * from, and a change invalidates the tags of the entities it touches.
+ */
+public final class CacheTags {
+
+  private CacheTags() {
+  }
+
+  /**
+   * Builds the tag of an address, ignoring case.
+   *
+   * @param address the address
+   * @return the tag
+   */
+  public static String address(String address) {
+    return "address:" + Keys.normalize(address);
+  }
+
+  /**
+   * Builds the tag of a fire station number.
+   *
+   * @param station the fire station number
+   * @return the tag
+   */
+  public static String station(int station) {
+    return "station:" + station;
+  }
+
+  /**
+   * Builds the tag of a city, ignoring case.
+   *
+   * @param city the city
+   * @return the tag
+   */
+  public static String city(String city) {
+    return "city:" + Keys.normalize(city);
+  }
+
+  /**
+   * Builds the tag of a last name, ignoring case.
+   *
+   * @param lastName the last name
+   * @return the tag
+   */
+  public static String lastName(String lastName) {
+    return "lastName:" + Keys.normalize(lastName);
+  }
+}
@@ -0,0 +1,343 @@
+package com.mr486.safetynet.tools;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mr486.safetynet.configuration.AppConfiguation;
+import com.mr486.safetynet.dto.request.DataBindingDto;
+import com.mr486.safetynet.model.FireStation;
+import com.mr486.safetynet.model.MedicalRecord;
+import com.mr486.safetynet.model.Person;
+import lombok.Builder;
+import lombok.Value;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Generator of synthetic datasets following the schema of {@code data/data.json}, for load and
+ * memory testing.
+ * <p>
+ * Every entity is derived from the seed and its index alone, so the same options always produce
+ * the same dataset, and a dataset is written entity by entity without being held in memory:
+ * the persons are grouped in households sharing a last name, households share addresses, and
+ * addresses are covered in turn by the fire stations. Each person has a medical record, a child
+ * one with the configured probability. The medications and allergies of a record are distinct,
+ * and their counts have the configured means.
+ * </p>
+ * <p>
+ * Only JSON is written: the binary snapshot starts with a table of every distinct string, which
+ * cannot be streamed, and the application writes it from the JSON file on its first start when
+ * snapshots or mapped storage are enabled.
+ * </p>
+ */
+public final class DatasetGenerator {
+
+  private static final String[] FIRST_NAMES = {"John", "Jacob", "Tenley", "Roger", "Felicia", "Jonanathan",
+          "Tessa", "Eric", "Peter", "Reginold", "Jamie", "Sophia", "Warren", "Zach", "Lily", "Brian", "Shawna",
+          "Kendrik", "Clive", "Foster", "Allison", "Ron", "Kenneth", "Lila", "Nora"};
+  private static final String[] LAST_NAMES = {"Boyd", "Carman", "Cooper", "Duncan", "Ferguson", "Marrack",
+          "Peters", "Shepard", "Stelzer", "Walker", "Zemicks", "Cadigan", "Boyle", "Walsh", "Kim", "Lopez"};
+  private static final String[] STREETS = {"Culver St", "15th St", "Binoc Ave", "Gershwin St", "Wall St",
+          "Bridge St", "Circle", "Ashby St", "Route 66", "Oak Lane"};
+  private static final String[] MEDICATIONS = {"aznol:350mg", "hydrapermazol:100mg", "pharmacol:5000mg",
+          "terazine:10mg", "noznazol:250mg", "tetracyclaz:650mg", "thradox:700mg", "dodoxadin:30mg"};
+  private static final String[] ALLERGIES = {"nillacilan", "peanut", "shellfish", "gluten", "pollen"};
+  private static final int ADDRESSES_PER_CITY = 1_000;
+  private static final DateTimeFormatter BIRTHDATE = DateTimeFormatter.ofPattern(AppConfiguation.DATE_FORMAT);
+
+  private final Options options;
+  private final int addresses;
+
+  /**
+   * Creates a generator.
+   *
+   * @param options the shape of the dataset
+   * @throws IllegalArgumentException if an option is out of range
+   */
+  public DatasetGenerator(Options options) {
+    if (options.getPersons() < 0 || options.getPersonsPerHousehold() < 1 || options.getHouseholdsPerAddress() < 1
+            || options.getStations() < 1 || options.getChildrenRatio() < 0 || options.getChildrenRatio() > 1
+            || options.getMedicationsPerRecord() < 0 || options.getMedicationsPerRecord() > MEDICATIONS.length
+            || options.getAllergiesPerRecord() < 0 || options.getAllergiesPerRecord() > ALLERGIES.length) {
+      throw new IllegalArgumentException("Invalid dataset options: " + options);
+    }
+    this.options = options;
+    long personsPerAddress = (long) options.getPersonsPerHousehold() * options.getHouseholdsPerAddress();
+    this.addresses = (int) ((options.getPersons() + personsPerAddress - 1) / personsPerAddress);
+  }
+
+  /**
+   * Returns the number of addresses of the dataset, each covered by one fire station.
+   *
+   * @return the number of addresses
+   */
+  public int addressCount() {
+    return addresses;
+  }
+
+  /**
+   * Generates the person at the given index.
+   *
+   * @param index the index of the person, from 0 to the number of persons
+   * @return the person
+   */
+  public Person person(int index) {
+    SplittableRandom random = random(index, 0);
+    int household = index / options.getPersonsPerHousehold();
+    int address = household / options.getHouseholdsPerAddress();
+    String firstName = firstName(index);
+    String lastName = lastName(household);
+    return new Person(firstName, lastName, address(address), city(address),
+            String.valueOf(97451 + address / ADDRESSES_PER_CITY),
+            "841-874-" + String.valueOf(10_000 + random.nextInt(10_000)).substring(1),
+            (firstName + "." + lastName).toLowerCase(Locale.ROOT) + "@email.com");
+  }
+
+  /**
+   * Generates the medical record of the person at the given index.
+   *
+   * @param index the index of the person, from 0 to the number of persons
+   * @return the medical record
+   */
+  public MedicalRecord medicalRecord(int index) {
+    SplittableRandom random = random(index, 1);
+    int age = random.nextDouble() < options.getChildrenRatio()
+            ? random.nextInt(AppConfiguation.ADULT_AGE)
+            : AppConfiguation.ADULT_AGE + random.nextInt(72);
+    LocalDate birthdate = options.getReferenceDate().minusYears(age).minusDays(random.nextInt(365));
+    return new MedicalRecord(firstName(index), lastName(index / options.getPersonsPerHousehold()),
+            birthdate.format(BIRTHDATE),
+            draw(random, MEDICATIONS, options.getMedicationsPerRecord()),
+            draw(random, ALLERGIES, options.getAllergiesPerRecord()));
+  }
+
+  /**
+   * Generates the fire station mapping of the address at the given index.
+   *
+   * @param index the index of the address, from 0 to {@link #addressCount()}
+   * @return the fire station mapping
+   */
+  public FireStation fireStation(int index) {
+    return new FireStation(address(index), index % options.getStations() + 1);
+  }
+
+  /**
+   * Generates the whole dataset in memory, for datasets small enough to hold.
+   *
+   * @return the dataset
+   */
+  public DataBindingDto build() {
+    List<Person> persons = new ArrayList<>(options.getPersons());
+    List<MedicalRecord> medicalRecords = new ArrayList<>(options.getPersons());
+    for (int i = 0; i < options.getPersons(); i++) {
+      persons.add(person(i));
+      medicalRecords.add(medicalRecord(i));
+    }
+    List<FireStation> fireStations = new ArrayList<>(addresses);
+    for (int i = 0; i < addresses; i++) {
+      fireStations.add(fireStation(i));
+    }
+    return new DataBindingDto(persons, fireStations, medicalRecords);
+  }
+
+  /**
+   * Streams the dataset as JSON, one entity at a time.
+   *
+   * @param objectMapper the mapper serializing the entities
+   * @param out          the stream to write to, left open
+   * @throws IOException if the stream cannot be written
+   */
+  public void writeJson(ObjectMapper objectMapper, OutputStream out) throws IOException {
+    ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    try (JsonGenerator generator = objectMapper.createGenerator(out)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+      generator.writeStartObject();
+      generator.writeArrayFieldStart("persons");
+      for (int i = 0; i < options.getPersons(); i++) {
+        writer.writeValue(generator, person(i));
+      }
+      generator.writeEndArray();
+      generator.writeArrayFieldStart("firestations");
+      for (int i = 0; i < addresses; i++) {
+        writer.writeValue(generator, fireStation(i));
+      }
+      generator.writeEndArray();
+      generator.writeArrayFieldStart("medicalrecords");
+      for (int i = 0; i < options.getPersons(); i++) {
+        writer.writeValue(generator, medicalRecord(i));
+      }
+      generator.writeEndArray();
+      generator.writeEndObject();
+    }
+  }
+
+  /**
+   * Streams the dataset to a JSON file, written to a temporary file first and then moved over
+   * the previous version.
+   *
+   * @param objectMapper the mapper serializing the entities
+   * @param file         the JSON file
+   * @throws IOException if the file cannot be written
+   */
+  public void writeJson(ObjectMapper objectMapper, Path file) throws IOException {
+    Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 20)) {
+      writeJson(objectMapper, out);
+    }
+    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Writes a dataset to a JSON file, from options given as {@code --name=value} arguments, such as
+   * {@code --persons=10000000 --output=data/data.json}. Options not given keep their default.
+   *
+   * @param args the options, by the names of the fields of {@link Options}, and the output file
+   * @throws IOException if the file cannot be written
+   */
+  public static void main(String[] args) throws IOException {
+    Options.OptionsBuilder builder = Options.builder();
+    Path output = Path.of(AppConfiguation.JSON_FILE_PATH);
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (!arg.startsWith("--") || separator < 0) {
+        throw new IllegalArgumentException("Expected --name=value, got " + arg);
+      }
+      String value = arg.substring(separator + 1);
+      switch (arg.substring(2, separator)) {
+        case "persons" -> builder.persons(Integer.parseInt(value));
+        case "personsPerHousehold" -> builder.personsPerHousehold(Integer.parseInt(value));
+        case "householdsPerAddress" -> builder.householdsPerAddress(Integer.parseInt(value));
+        case "stations" -> builder.stations(Integer.parseInt(value));
+        case "childrenRatio" -> builder.childrenRatio(Double.parseDouble(value));
+        case "medicationsPerRecord" -> builder.medicationsPerRecord(Double.parseDouble(value));
+        case "allergiesPerRecord" -> builder.allergiesPerRecord(Double.parseDouble(value));
+        case "seed" -> builder.seed(Long.parseLong(value));
+        case "referenceDate" -> builder.referenceDate(LocalDate.parse(value));
+        case "output" -> output = Path.of(value);
+        default -> throw new IllegalArgumentException("Unknown option: " + arg);
+      }
+    }
+    Options options = builder.build();
+    long start = System.nanoTime();
+    new DatasetGenerator(options).writeJson(new ObjectMapper(), output);
+    System.out.printf("%s written in %d ms with %s%n", output, (System.nanoTime() - start) / 1_000_000, options);
+  }
+
+  // Private methods deriving the entities from their index
+
+  private SplittableRandom random(int index, int stream) {
+    // Every entity gets its own generator, so it does not depend on the order of generation
+    return new SplittableRandom(options.getSeed() * 0x9E3779B97F4A7C15L + ((long) index << 1 | stream));
+  }
+
+  private static String firstName(int index) {
+    return FIRST_NAMES[index % FIRST_NAMES.length] + (index / FIRST_NAMES.length == 0 ? "" : index / FIRST_NAMES.length);
+  }
+
+  private static String lastName(int household) {
+    return LAST_NAMES[household % LAST_NAMES.length] + (household / LAST_NAMES.length == 0 ? "" : household / LAST_NAMES.length);
+  }
+
+  private static String address(int index) {
+    return (index / STREETS.length + 1) + " " + STREETS[index % STREETS.length];
+  }
+
+  private static String city(int address) {
+    return "Culver" + (address / ADDRESSES_PER_CITY == 0 ? "" : address / ADDRESSES_PER_CITY);
+  }
+
+  private static ArrayList<String> draw(SplittableRandom random, String[] values, double mean) {
+    // Binomial count with the given mean, then as many distinct values by a partial shuffle
+    int count = 0;
+    for (int i = 0; i < values.length; i++) {
+      if (random.nextDouble() * values.length < mean) {
+        count++;
+      }
+    }
+    ArrayList<String> drawn = new ArrayList<>(count);
+    String[] remaining = count == 0 ? values : values.clone();
+    for (int i = 0; i < count; i++) {
+      int picked = i + random.nextInt(remaining.length - i);
+      String value = remaining[picked];
+      remaining[picked] = remaining[i];
+      remaining[i] = value;
+      drawn.add(value);
+    }
+    return drawn;
+  }
+
+  /**
+   * Shape of a generated dataset.
+   */
+  @Value
+  @Builder
+  public static class Options {
+
+    /**
+     * Number of persons, each with a medical record.
+     */
+    @Builder.Default
+    int persons = 1_000;
+
+    /**
+     * Number of persons sharing a last name and an address.
+     */
+    @Builder.Default
+    int personsPerHousehold = 3;
+
+    /**
+     * Number of households living at the same address.
+     */
+    @Builder.Default
+    int householdsPerAddress = 2;
+
+    /**
+     * Number of fire stations, covering the addresses in turn.
+     */
+    @Builder.Default
+    int stations = 10;
+
+    /**
+     * Probability of a person being a child.
+     */
+    @Builder.Default
+    double childrenRatio = 0.25;
+
+    /**
+     * Mean number of medications per medical record, at most 8.
+     */
+    @Builder.Default
+    double medicationsPerRecord = 1.0;
+
+    /**
+     * Mean number of allergies per medical record, at most 5.
+     */
+    @Builder.Default
+    double allergiesPerRecord = 0.5;
+
+    /**
+     * Seed of the random draws.
+     */
+    @Builder.Default
+    long seed = 486L;
+
+    /**
+     * Day the ages are computed from. It defaults to today, so the birthdates of a dataset
+     * generated with the default change from one day to the next.
+     */
+    @Builder.Default
+    LocalDate referenceDate = LocalDate.now();
+  }
+}
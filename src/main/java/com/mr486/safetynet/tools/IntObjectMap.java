@@ -0,0 +1,146 @@
+package com.mr486.safetynet.tools;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * Immutable map from primitive int keys to non-null values, avoiding the boxing of
+ * {@code Map<Integer, V>}.
+ * <p>
+ * Keys are stored in an open-addressing table probed linearly. Every change returns a new map,
+ * so a map published through a volatile field can be read by any number of threads without
+ * locking. Changes copy the whole table and are meant for small maps that rarely change,
+ * such as the fire stations by number.
+ * </p>
+ *
+ * @param <V> the type of the values
+ */
+public final class IntObjectMap<V> {
+
+  private static final IntObjectMap<?> EMPTY = new IntObjectMap<>(new int[0], new Object[0], 0);
+
+  private final int[] keys;
+  private final Object[] values;
+  private final int size;
+
+  private IntObjectMap(int[] keys, Object[] values, int size) {
+    this.keys = keys;
+    this.values = values;
+    this.size = size;
+  }
+
+  /**
+   * Returns the empty map.
+   *
+   * @param <V> the type of the values
+   * @return the empty map
+   */
+  @SuppressWarnings("unchecked")
+  public static <V> IntObjectMap<V> empty() {
+    return (IntObjectMap<V>) EMPTY;
+  }
+
+  /**
+   * Returns the value mapped to the given key.
+   *
+   * @param key the key
+   * @return the value, or null if there is none
+   */
+  @SuppressWarnings("unchecked")
+  public V get(int key) {
+    if (size == 0) {
+      return null;
+    }
+    int mask = keys.length - 1;
+    for (int slot = hash(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+      if (keys[slot] == key) {
+        return (V) values[slot];
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the number of keys in the map.
+   *
+   * @return the size of the map
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns a copy of this map where the given key is mapped to the given value.
+   *
+   * @param key   the key
+   * @param value the non-null value
+   * @return the new map
+   */
+  public IntObjectMap<V> with(int key, V value) {
+    if (value == null) {
+      throw new IllegalArgumentException("null values are not supported");
+    }
+    IntObjectMap<V> map = copy(size + 1, key);
+    map.put(key, value);
+    return new IntObjectMap<>(map.keys, map.values, map.size + 1);
+  }
+
+  /**
+   * Returns a copy of this map without the given key.
+   *
+   * @param key the key
+   * @return the new map, or this map if the key is absent
+   */
+  public IntObjectMap<V> without(int key) {
+    if (get(key) == null) {
+      return this;
+    }
+    return size == 1 ? empty() : copy(size - 1, key);
+  }
+
+  /**
+   * Returns a copy of this map where the value of the given key is replaced by the result of
+   * the function, applied to the current value or to null; a null result removes the key.
+   *
+   * @param key      the key
+   * @param function the function computing the new value from the current one
+   * @return the new map
+   */
+  public IntObjectMap<V> compute(int key, UnaryOperator<V> function) {
+    V value = function.apply(get(key));
+    return value == null ? without(key) : with(key, value);
+  }
+
+  // Private methods for the table
+
+  /**
+   * Copies every entry but the given key into a table sized for the given number of entries.
+   */
+  @SuppressWarnings("unchecked")
+  private IntObjectMap<V> copy(int capacity, int excludedKey) {
+    int length = Integer.highestOneBit(Math.max(capacity, 2) * 2 - 1) << 1;
+    IntObjectMap<V> map = new IntObjectMap<>(new int[length], new Object[length], 0);
+    int count = 0;
+    for (int slot = 0; slot < keys.length; slot++) {
+      if (values[slot] != null && keys[slot] != excludedKey) {
+        map.put(keys[slot], (V) values[slot]);
+        count++;
+      }
+    }
+    return new IntObjectMap<>(map.keys, map.values, count);
+  }
+
+  private void put(int key, V value) {
+    int mask = keys.length - 1;
+    int slot = hash(key) & mask;
+    while (values[slot] != null && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = key;
+    values[slot] = value;
+  }
+
+  private static int hash(int key) {
+    int hash = key * 0x9E3779B9;
+    return hash ^ (hash >>> 16);
+  }
+}
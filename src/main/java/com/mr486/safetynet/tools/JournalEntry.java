@@ -0,0 +1,101 @@
+package com.mr486.safetynet.tools;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.mr486.safetynet.model.FireStation;
+import com.mr486.safetynet.model.MedicalRecord;
+import com.mr486.safetynet.model.Person;
+
+import java.util.List;
+
+/**
+ * A single mutation recorded in the write-ahead log.
+ * Save entries carry the full state of the entity after the mutation, delete entries carry
+ * the key of the deleted entity, so replaying the same entry twice gives the same result.
+ *
+ * @param op            the kind of mutation
+ * @param person        the saved person, for {@link Operation#SAVE_PERSON}
+ * @param fireStation   the saved fire station, for {@link Operation#SAVE_FIRESTATION}
+ * @param medicalRecord the saved medical record, for {@link Operation#SAVE_MEDICALRECORD}
+ * @param key           the key of the deleted entity, for delete operations
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record JournalEntry(Operation op,
+                           Person person,
+                           FireStation fireStation,
+                           MedicalRecord medicalRecord,
+                           List<String> key) {
+
+  /**
+   * The kinds of mutation recorded in the journal.
+   */
+  public enum Operation {
+    SAVE_PERSON,
+    DELETE_PERSON,
+    SAVE_FIRESTATION,
+    DELETE_FIRESTATION,
+    SAVE_MEDICALRECORD,
+    DELETE_MEDICALRECORD
+  }
+
+  /**
+   * Creates an entry recording the save of a person.
+   *
+   * @param person the person as saved
+   * @return the journal entry
+   */
+  public static JournalEntry savePerson(Person person) {
+    return new JournalEntry(Operation.SAVE_PERSON, person, null, null, null);
+  }
+
+  /**
+   * Creates an entry recording the deletion of a person.
+   *
+   * @param firstName the first name of the deleted person
+   * @param lastName  the last name of the deleted person
+   * @return the journal entry
+   */
+  public static JournalEntry deletePerson(String firstName, String lastName) {
+    return new JournalEntry(Operation.DELETE_PERSON, null, null, null, List.of(firstName, lastName));
+  }
+
+  /**
+   * Creates an entry recording the save of a fire station.
+   *
+   * @param fireStation the fire station as saved
+   * @return the journal entry
+   */
+  public static JournalEntry saveFireStation(FireStation fireStation) {
+    return new JournalEntry(Operation.SAVE_FIRESTATION, null, fireStation, null, null);
+  }
+
+  /**
+   * Creates an entry recording the deletion of a fire station.
+   *
+   * @param address the address of the deleted fire station
+   * @return the journal entry
+   */
+  public static JournalEntry deleteFireStation(String address) {
+    return new JournalEntry(Operation.DELETE_FIRESTATION, null, null, null, List.of(address));
+  }
+
+  /**
+   * Creates an entry recording the save of a medical record.
+   *
+   * @param medicalRecord the medical record as saved
+   * @return the journal entry
+   */
+  public static JournalEntry saveMedicalRecord(MedicalRecord medicalRecord) {
+    return new JournalEntry(Operation.SAVE_MEDICALRECORD, null, null, medicalRecord, null);
+  }
+
+  /**
+   * Creates an entry recording the deletion of a medical record.
+   *
+   * @param firstName the first name of the person
+   * @param lastName  the last name of the person
+   * @return the journal entry
+   */
+  public static JournalEntry deleteMedicalRecord(String firstName, String lastName) {
+    return new JournalEntry(Operation.DELETE_MEDICALRECORD, null, null, null, List.of(firstName, lastName));
+  }
+}
@@ -1,21 +1,42 @@
 package com.mr486.safetynet.tools;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mr486.safetynet.configuration.AppConfiguation;
 import com.mr486.safetynet.dto.request.DataBindingDto;
-import lombok.RequiredArgsConstructor;
+import com.mr486.safetynet.model.FireStation;
+import com.mr486.safetynet.model.MedicalRecord;
+import com.mr486.safetynet.model.Person;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Component responsible for loading data from a JSON file.
- * Utilizes Jackson's ObjectMapper to deserialize JSON into a DataBindingDto object.
+ * Utilizes Jackson's streaming parser to read the persons, fire stations and medical records
+ * one entity at a time, so the file is never held in memory as a whole.
+ * Every read and write of the JSON file or of the binary snapshot emits a {@link PersistenceEvent}
+ * while a flight recording runs.
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class JsonDataUtil {
 
   /**
@@ -24,37 +45,302 @@ public class JsonDataUtil {
    */
   private final ObjectMapper mapper;
 
+  /**
+   * Whether a binary snapshot is written next to the JSON file and preferred when loading.
+   */
+  private final boolean snapshotEnabled;
+
+  /**
+   * Whether the dataset is served from the memory-mapped snapshot; implies snapshotEnabled.
+   */
+  private final boolean mapped;
+
+  /**
+   * The snapshot last mapped, from which the records it serves are copied when the snapshot is written again.
+   */
+  private volatile MappedSnapshot mappedSnapshot;
+
+  /**
+   * Creates a JsonDataUtil reading and writing the JSON file only.
+   *
+   * @param mapper the ObjectMapper used for JSON serialization
+   */
+  public JsonDataUtil(ObjectMapper mapper) {
+    this(mapper, false);
+  }
+
+  /**
+   * Creates a JsonDataUtil keeping the dataset on heap.
+   *
+   * @param mapper          the ObjectMapper used for JSON serialization
+   * @param snapshotEnabled whether a binary snapshot is written after each save and preferred when loading
+   */
+  public JsonDataUtil(ObjectMapper mapper, boolean snapshotEnabled) {
+    this(mapper, snapshotEnabled, "heap");
+  }
+
+  /**
+   * Creates a JsonDataUtil.
+   *
+   * @param mapper          the ObjectMapper used for JSON serialization
+   * @param snapshotEnabled whether a binary snapshot is written after each save and preferred when loading
+   * @param storage         "mapped" to serve the dataset from the memory-mapped snapshot, "heap" otherwise
+   */
+  @Autowired
+  public JsonDataUtil(ObjectMapper mapper,
+                      @Value("${safetynet.persistence.snapshot.enabled:false}") boolean snapshotEnabled,
+                      @Value("${safetynet.persistence.storage:heap}") String storage) {
+    this.mapper = mapper;
+    this.mapped = "mapped".equalsIgnoreCase(storage);
+    this.snapshotEnabled = snapshotEnabled || mapped;
+  }
+
+  /**
+   * Indicates whether the dataset is served from the memory-mapped snapshot instead of the heap.
+   *
+   * @return true in mapped storage mode
+   */
+  public boolean isMapped() {
+    return mapped;
+  }
+
   /**
    * Loads data from a specified JSON file path and maps it to a DataBindingDto object.
+   * When snapshots are enabled, the binary snapshot is read instead if it is newer than the JSON file.
    *
    * @return a DataBindingDto object containing the deserialized data
    * @throws RuntimeException if the file is not found or an error occurs while reading the file
    */
   public DataBindingDto loadData() {
+    return loadData(new File(AppConfiguation.JSON_FILE_PATH),
+            snapshotEnabled ? new File(AppConfiguation.SNAPSHOT_FILE_PATH) : null);
+  }
 
-    String dataFilePath = AppConfiguation.JSON_FILE_PATH;
+  /**
+   * Loads data from the binary snapshot if it exists and is at least as recent as the JSON file,
+   * falling back to the JSON file otherwise or if the snapshot cannot be read.
+   *
+   * @param file     the JSON file
+   * @param snapshot the binary snapshot file, or null to read the JSON file only
+   * @return a DataBindingDto object containing the deserialized data
+   * @throws RuntimeException if the JSON file is read and is not found or cannot be read
+   */
+  public DataBindingDto loadData(File file, File snapshot) {
+    if (snapshot != null && snapshot.isFile()
+            && (!file.isFile() || snapshot.lastModified() >= file.lastModified())) {
+      PersistenceEvent event = new PersistenceEvent();
+      event.begin();
+      try {
+        DataBindingDto data = BinarySnapshot.read(snapshot.toPath());
+        event.commit("load", snapshot.toPath(), snapshot.length());
+        log.info("Dataset loaded from snapshot {}", snapshot);
+        return data;
+      } catch (IOException e) {
+        log.warn("Unable to read snapshot {}, falling back to json file: {}", snapshot, e.getMessage());
+      }
+    }
+    return loadData(file);
+  }
 
+  /**
+   * Maps the binary snapshot in memory, first writing it from the JSON file
+   * if it is missing or older than the JSON file.
+   *
+   * @return the mapped snapshot
+   * @throws RuntimeException if the snapshot cannot be written or mapped
+   */
+  public MappedSnapshot mapData() {
+    return mapData(new File(AppConfiguation.JSON_FILE_PATH), new File(AppConfiguation.SNAPSHOT_FILE_PATH));
+  }
+
+  /**
+   * Maps the given binary snapshot in memory, first writing it from the given JSON file
+   * if it is missing or older than the JSON file.
+   *
+   * @param file     the JSON file
+   * @param snapshot the binary snapshot file
+   * @return the mapped snapshot
+   * @throws RuntimeException if the snapshot cannot be written or mapped
+   */
+  public MappedSnapshot mapData(File file, File snapshot) {
     try {
-      File file = new File(dataFilePath);
-      return mapper.readValue(file, DataBindingDto.class);
+      if (!snapshot.isFile() || (file.isFile() && snapshot.lastModified() < file.lastModified())) {
+        DataBindingDto data = loadData(file);
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
+        Path target = snapshot.toPath();
+        Path temporary = temporary(target);
+        BinarySnapshot.write(data, temporary);
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        event.commit("save", target, snapshot.length());
+      }
+      PersistenceEvent event = new PersistenceEvent();
+      event.begin();
+      MappedSnapshot mappedSnapshot = MappedSnapshot.open(snapshot.toPath());
+      event.commit("map", snapshot.toPath(), snapshot.length());
+      log.info("Dataset mapped from snapshot {}", snapshot);
+      this.mappedSnapshot = mappedSnapshot;
+      return mappedSnapshot;
+    } catch (IOException e) {
+      throw new RuntimeException("❌ Error mapping snapshot file:" + snapshot.getPath() + " message: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Loads data from the given JSON file and maps it to a DataBindingDto object.
+   * The file is read token by token, one entity at a time, and repeated strings such as addresses,
+   * cities, zip codes, medications and allergies share a single instance.
+   *
+   * @param file the JSON file to read
+   * @return a DataBindingDto object containing the deserialized data
+   * @throws RuntimeException if the file is not found or an error occurs while reading the file
+   */
+  public DataBindingDto loadData(File file) {
+    DataBindingDto data = new DataBindingDto();
+    Map<String, String> strings = new HashMap<>();
+    PersistenceEvent event = new PersistenceEvent();
+    event.begin();
+    try (JsonParser parser = mapper.createParser(file)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IOException("a JSON object is expected at the root");
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.currentName();
+        parser.nextToken();
+        switch (field) {
+          case "persons" -> readArray(parser, Person.class, person -> data.getPersons().add(dedup(person, strings)));
+          case "firestations" -> readArray(parser, FireStation.class,
+                  fireStation -> data.getFirestations().add(dedup(fireStation, strings)));
+          case "medicalrecords" -> readArray(parser, MedicalRecord.class,
+                  medicalRecord -> data.getMedicalrecords().add(dedup(medicalRecord, strings)));
+          default -> parser.skipChildren();
+        }
+      }
+      event.commit("load", file.toPath(), file.length());
     } catch (Exception e) {
-      throw new RuntimeException("❌ Error reading json file:" + dataFilePath + " message: " + e.getMessage());
+      throw new RuntimeException("❌ Error reading json file:" + file.getPath() + " message: " + e.getMessage());
     }
+    return data;
   }
 
   /**
    * Saves the provided DataBindingDto object to a JSON file.
+   * The data is written to a temporary file which then replaces the JSON file,
+   * so a crash during the write never leaves a truncated JSON file behind.
+   * When snapshots are enabled, the binary snapshot is written after the JSON file.
    *
    * @param data the DataBindingDto object to be saved
    * @throws RuntimeException if an error occurs while writing to the file
    */
   public void saveData(DataBindingDto data) {
-    String dataFilePath = AppConfiguation.JSON_FILE_PATH;
+    saveData(data, new File(AppConfiguation.JSON_FILE_PATH),
+            snapshotEnabled ? new File(AppConfiguation.SNAPSHOT_FILE_PATH) : null);
+  }
+
+  /**
+   * Saves the provided DataBindingDto object to the given JSON file, then to the binary snapshot.
+   * Both files are written to a temporary file first and then moved over the previous version.
+   * A failure while writing the snapshot is only logged: the stale snapshot, older than the JSON
+   * file, is then ignored by {@link #loadData(File, File)}.
+   * <p>
+   * The dataset of the mapped storage mode is written without being loaded on heap: its records
+   * are decoded one at a time for the JSON file and copied from the mapping for the snapshot.
+   * </p>
+   *
+   * @param data     the DataBindingDto object to be saved
+   * @param file     the JSON file
+   * @param snapshot the binary snapshot file, or null to write the JSON file only
+   * @throws RuntimeException if an error occurs while writing the JSON file
+   */
+  public void saveData(DataBindingDto data, File file, File snapshot) {
+    PersistenceEvent event = new PersistenceEvent();
+    event.begin();
     try {
-      File file = new File(dataFilePath);
-      mapper.writerWithDefaultPrettyPrinter().writeValue(file, data);
+      Path target = file.toPath();
+      Path temporary = temporary(target);
+      try (FileChannel channel = FileChannel.open(temporary,
+              StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+           OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel))) {
+        mapper.writerWithDefaultPrettyPrinter()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .writeValue(out, data);
+        out.flush();
+        channel.force(true);
+      }
+      Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      event.commit("save", target, file.length());
     } catch (Exception e) {
-      throw new RuntimeException("❌ Error writing json file:" + dataFilePath + " message: " + e.getMessage());
+      throw new RuntimeException("❌ Error writing json file:" + file.getPath() + " message: " + e.getMessage());
+    }
+    if (snapshot != null) {
+      PersistenceEvent snapshotEvent = new PersistenceEvent();
+      snapshotEvent.begin();
+      try {
+        Path target = snapshot.toPath();
+        Path temporary = temporary(target);
+        writeSnapshot(data, temporary);
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        snapshotEvent.commit("save", target, snapshot.length());
+      } catch (IOException e) {
+        log.warn("Unable to write snapshot {}: {}", snapshot, e.getMessage());
+      }
     }
   }
-}
\ No newline at end of file
+
+  // Private methods for streaming
+
+  private void writeSnapshot(DataBindingDto data, Path file) throws IOException {
+    MappedSnapshot source = mappedSnapshot;
+    if (source != null
+            && data.getPersons() instanceof MappedOverlay.Copy<Person> persons
+            && persons.mappedCount() == source.personCount()
+            && data.getMedicalrecords() instanceof MappedOverlay.Copy<MedicalRecord> medicalRecords
+            && medicalRecords.mappedCount() == source.medicalRecordCount()) {
+      BinarySnapshot.write(source, persons, data.getFirestations(), medicalRecords, file);
+    } else {
+      BinarySnapshot.write(data, file);
+    }
+  }
+
+  private static Path temporary(Path target) {
+    return target.resolveSibling(target.getFileName() + ".tmp");
+  }
+
+  private <T> void readArray(JsonParser parser, Class<T> type, Consumer<T> consumer) throws IOException {
+    if (parser.currentToken() == JsonToken.VALUE_NULL) {
+      return;
+    }
+    if (parser.currentToken() != JsonToken.START_ARRAY) {
+      throw new IOException("an array is expected for " + parser.currentName());
+    }
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      consumer.accept(mapper.readValue(parser, type));
+    }
+  }
+
+  private static Person dedup(Person person, Map<String, String> strings) {
+    person.setAddress(dedup(person.getAddress(), strings));
+    person.setCity(dedup(person.getCity(), strings));
+    person.setZip(dedup(person.getZip(), strings));
+    return person;
+  }
+
+  private static FireStation dedup(FireStation fireStation, Map<String, String> strings) {
+    fireStation.setAddress(dedup(fireStation.getAddress(), strings));
+    return fireStation;
+  }
+
+  private static MedicalRecord dedup(MedicalRecord medicalRecord, Map<String, String> strings) {
+    if (medicalRecord.getMedications() != null) {
+      medicalRecord.getMedications().replaceAll(medication -> dedup(medication, strings));
+    }
+    if (medicalRecord.getAllergies() != null) {
+      medicalRecord.getAllergies().replaceAll(allergy -> dedup(allergy, strings));
+    }
+    return medicalRecord;
+  }
+
+  private static String dedup(String value, Map<String, String> strings) {
+    return value == null ? null : strings.computeIfAbsent(value, key -> key);
+  }
+}
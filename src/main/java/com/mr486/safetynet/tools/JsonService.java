@@ -10,11 +10,30 @@ import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Service for loading JSON data related to fire stations, persons, and medical records.
  * This service uses a JsonDataUtil to read the data from a JSON file and provides methods
  * to retrieve lists of fire stations, persons, and medical records.
+ * <p>
+ * The JSON file is parsed only once: the first load call reads the whole dataset and the
+ * following ones hand out their slice of the same parsed data. When the {@link WriteAheadLog} is
+ * enabled, its entries are replayed on top of the parsed data first. Sections are written back to
+ * the file by the {@link WriteBehindPersister}.
+ * </p>
+ * <p>
+ * A repository loads its section by handing over a supplier of the section, which the persister
+ * calls when it writes: the supplier copies the section under the lock of the repository, so a
+ * write never sees a change half applied, and the section is copied once per write rather than
+ * per change. Once handed out, a section is no longer referenced by this service, so that the
+ * entities stay on heap once, in the indexes of their repository.
+ * </p>
+ * <p>
+ * In mapped storage mode the dataset is not parsed: the binary snapshot is mapped in memory
+ * and the persons and medical records are decoded from the mapping on access; until they are
+ * saved, their sections are written from the mapping.
+ * </p>
  */
 @Service
 @RequiredArgsConstructor
@@ -23,98 +42,219 @@ public class JsonService {
 
   private final JsonDataUtil jsonDataUtil;
 
+  private final WriteBehindPersister persister;
+  private final WriteAheadLog journal;
+
+  private DataBindingDto dataset;
+  private boolean loaded;
+  private MappedSnapshot mappedSnapshot;
+  private boolean loadFailed;
+  private volatile Supplier<List<Person>> savedPersons;
+  private volatile Supplier<List<FireStation>> savedFireStations;
+  private volatile Supplier<List<MedicalRecord>> savedMedicalRecords;
+
   /**
-   * Loads fire stations from the JSON data.
+   * Loads fire stations from the JSON data, handing the section over to the caller.
    *
-   * @return a list of fire stations
+   * @param fireStations supplies an immutable copy of the fire stations to write from now on
+   * @return a list of fire stations, empty if the section was already handed over
    */
-  public List<FireStation> loadFireStations() {
-    List<FireStation> fireStations = new ArrayList<>();
+  public List<FireStation> loadFireStations(Supplier<List<FireStation>> fireStations) {
+    List<FireStation> loadedFireStations = new ArrayList<>();
     try {
-      DataBindingDto dataBindingDto = jsonDataUtil.loadData();
-      if (dataBindingDto.getFirestations() != null) {
-        fireStations = dataBindingDto.getFirestations();
+      synchronized (this) {
+        DataBindingDto dataBindingDto = dataset();
+        if (dataBindingDto.getFirestations() != null) {
+          loadedFireStations = dataBindingDto.getFirestations();
+          dataBindingDto.setFirestations(null);
+        }
+        savedFireStations = fireStations;
       }
     } catch (Exception e) {
       log.warn("No fire stations found in json file.");
     }
-    return fireStations;
+    return loadedFireStations;
   }
 
   /**
-   * Loads persons from the JSON data.
+   * Loads persons from the JSON data, handing the section over to the caller.
    *
-   * @return a list of persons
+   * @param persons supplies an immutable copy of the persons to write from now on
+   * @return a list of persons, empty if the section was already handed over
    */
-  public List<Person> loadPersons() {
-    List<Person> persons = new ArrayList<>();
+  public List<Person> loadPersons(Supplier<List<Person>> persons) {
+    List<Person> loadedPersons = new ArrayList<>();
     try {
-      DataBindingDto dataBindingDto = jsonDataUtil.loadData();
-      if (dataBindingDto.getPersons() != null) {
-        persons = dataBindingDto.getPersons();
+      synchronized (this) {
+        DataBindingDto dataBindingDto = dataset();
+        if (dataBindingDto.getPersons() != null) {
+          loadedPersons = dataBindingDto.getPersons();
+          dataBindingDto.setPersons(null);
+        }
+        savedPersons = persons;
       }
     } catch (Exception e) {
       log.warn("No persons found in json file.");
     }
-    return persons;
+    return loadedPersons;
   }
 
   /**
-   * Loads medical records from the JSON data.
+   * Loads medical records from the JSON data, handing the section over to the caller.
    *
-   * @return a list of medical records
+   * @param medicalRecords supplies an immutable copy of the medical records to write from now on
+   * @return a list of medical records, empty if the section was already handed over
    */
-  public List<MedicalRecord> loadMedicalRecords() {
-    List<MedicalRecord> medicalRecords = new ArrayList<>();
+  public List<MedicalRecord> loadMedicalRecords(Supplier<List<MedicalRecord>> medicalRecords) {
+    List<MedicalRecord> loadedMedicalRecords = new ArrayList<>();
     try {
-      DataBindingDto dataBindingDto = jsonDataUtil.loadData();
-      if (dataBindingDto.getMedicalrecords() != null) {
-        medicalRecords = dataBindingDto.getMedicalrecords();
+      synchronized (this) {
+        DataBindingDto dataBindingDto = dataset();
+        if (dataBindingDto.getMedicalrecords() != null) {
+          loadedMedicalRecords = dataBindingDto.getMedicalrecords();
+          dataBindingDto.setMedicalrecords(null);
+        }
+        savedMedicalRecords = medicalRecords;
       }
     } catch (Exception e) {
       log.warn("No medical records found in json file.");
     }
-    return medicalRecords;
+    return loadedMedicalRecords;
   }
 
-  public void saveFireStations(List<FireStation> fireStations) {
-    try {
-      DataBindingDto data = jsonDataUtil.loadData();
-      data.setFirestations(fireStations);
-      jsonDataUtil.saveData(data);
-    } catch (Exception e) {
-      log.error("❌ Failed to save fire stations to JSON", e);
-    }
+  /**
+   * Saves the fire stations to the JSON data.
+   * The file itself is written asynchronously by the write-behind persister.
+   *
+   * @param fireStations supplies an immutable copy of the fire stations to save
+   */
+  public void saveFireStations(Supplier<List<FireStation>> fireStations) {
+    savedFireStations = fireStations;
+    persister.markDirty(this::snapshot);
   }
 
   /**
-   * Saves a list of persons to the JSON data.
+   * Saves the persons to the JSON data.
+   * The file itself is written asynchronously by the write-behind persister.
    *
-   * @param persons the list of persons to save
+   * @param persons supplies an immutable copy of the persons to save
    */
-  public void savePersons(List<Person> persons) {
-    try {
-      DataBindingDto data = jsonDataUtil.loadData();
-      data.setPersons(persons);
-      jsonDataUtil.saveData(data);
-    } catch (Exception e) {
-      log.error("❌ Failed to save persons to JSON", e);
+  public void savePersons(Supplier<List<Person>> persons) {
+    savedPersons = persons;
+    persister.markDirty(this::snapshot);
+  }
+
+  /**
+   * Saves the medical records to the JSON data.
+   * The file itself is written asynchronously by the write-behind persister.
+   *
+   * @param medicalRecords supplies an immutable copy of the medical records to save
+   */
+  public void saveMedicalRecords(Supplier<List<MedicalRecord>> medicalRecords) {
+    savedMedicalRecords = medicalRecords;
+    persister.markDirty(this::snapshot);
+  }
+
+  /**
+   * Records a single mutation in the write-ahead log, when the journal is enabled.
+   * Repositories journal each save or delete before saving the section it belongs to.
+   *
+   * @param entry the mutation to record
+   */
+  public void journal(JournalEntry entry) {
+    journal.append(entry);
+  }
+
+  /**
+   * Returns the memory-mapped snapshot serving the dataset in mapped storage mode.
+   *
+   * @return the mapped snapshot, or null when the dataset is kept on heap
+   */
+  public synchronized MappedSnapshot mappedSnapshot() {
+    dataset();
+    return mappedSnapshot;
+  }
+
+  /**
+   * Builds a copy of the whole dataset, combining the sections handed over to the repositories
+   * or saved since startup with the sections still held from the JSON file.
+   *
+   * The sections of the repositories are copied outside the lock of this service, since the
+   * repositories take their own lock to copy them and call this service while holding it.
+   *
+   * @return a copy of the dataset, or null if the JSON file could not be loaded
+   */
+  DataBindingDto snapshot() {
+    Supplier<List<Person>> persons;
+    Supplier<List<FireStation>> fireStations;
+    Supplier<List<MedicalRecord>> medicalRecords;
+    DataBindingDto held;
+    synchronized (this) {
+      if (loadFailed) {
+        return null;
+      }
+      held = dataset();
+      // A section is either held or supplied: read both under the lock of its hand over
+      persons = supplier(savedPersons, held.getPersons());
+      fireStations = supplier(savedFireStations, held.getFirestations());
+      medicalRecords = supplier(savedMedicalRecords, held.getMedicalrecords());
     }
+    return new DataBindingDto(persons.get(), fireStations.get(), medicalRecords.get());
   }
 
   /**
-   * Saves a list of medical records to the JSON data.
+   * Returns the dataset parsed from the JSON file, reading the file on the first call only.
+   * A file that cannot be read is remembered as an empty dataset so that it is not parsed
+   * again by the other repositories.
    *
-   * @param medicalRecords the list of medical records to save
+   * @return the parsed dataset
    */
-  public void saveMedicalRecords(List<MedicalRecord> medicalRecords) {
-    try {
+  private synchronized DataBindingDto dataset() {
+    if (!loaded) {
+      loaded = true;
+      try {
+        if (jsonDataUtil.isMapped()) {
+          compactJournal();
+          mappedSnapshot = jsonDataUtil.mapData();
+          dataset = mappedSnapshot.dataset();
+        } else {
+          dataset = jsonDataUtil.loadData();
+          if (journal.replay(dataset) > 0) {
+            persister.markDirty(this::snapshot);
+          }
+        }
+      } catch (Exception e) {
+        dataset = new DataBindingDto();
+        loadFailed = true;
+        throw e;
+      }
+    }
+    return dataset;
+  }
+
+  /**
+   * Writes the pending journal entries into the data files before they are mapped,
+   * since the mapping is read-only. This is the only case where mapped mode loads the
+   * whole dataset on heap, once, at startup.
+   */
+  private void compactJournal() {
+    if (journal.hasEntries()) {
       DataBindingDto data = jsonDataUtil.loadData();
-      data.setMedicalrecords(medicalRecords);
+      journal.replay(data);
+      long covered = journal.rotate();
       jsonDataUtil.saveData(data);
-    } catch (Exception e) {
-      log.error("❌ Failed to save medical records to JSON", e);
+      journal.discardBefore(covered);
+    }
+  }
+
+  // The held sections are never modified once the journal is replayed, so a section that is
+  // neither handed over nor saved is written as it was loaded, which in mapped storage mode
+  // decodes its records one at a time instead of copying them all on heap
+  private static <T> Supplier<List<T>> supplier(Supplier<List<T>> saved, List<T> held) {
+    if (saved != null) {
+      return saved;
     }
+    return held == null ? ArrayList::new : () -> held;
   }
 
 }
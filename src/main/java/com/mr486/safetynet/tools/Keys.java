@@ -0,0 +1,56 @@
+package com.mr486.safetynet.tools;
+
+import java.util.Locale;
+
+/**
+ * Utility class building the case-insensitive keys used to index entities.
+ * Two values that are equal ignoring case always produce the same key.
+ */
+public final class Keys {
+
+  private static final char SEPARATOR = '\u0000';
+
+  private Keys() {
+  }
+
+  /**
+   * Normalizes a single value, such as an address, a city or a last name.
+   *
+   * @param value the value to normalize, may be null
+   * @return the case-folded value, or null if the value is null
+   */
+  public static String normalize(String value) {
+    return value == null ? null : value.toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Builds the key identifying a person, or a medical record, by first and last name.
+   *
+   * @param firstName the first name
+   * @param lastName  the last name
+   * @return the case-folded composite key
+   */
+  public static String nameKey(String firstName, String lastName) {
+    return normalize(firstName) + SEPARATOR + normalize(lastName);
+  }
+
+  /**
+   * Returns the first name of a key built by {@link #nameKey}, case-folded.
+   *
+   * @param nameKey the key identifying a person
+   * @return the case-folded first name
+   */
+  public static String firstName(String nameKey) {
+    return nameKey.substring(0, nameKey.indexOf(SEPARATOR));
+  }
+
+  /**
+   * Returns the last name of a key built by {@link #nameKey}, case-folded.
+   *
+   * @param nameKey the key identifying a person
+   * @return the case-folded last name
+   */
+  public static String lastName(String nameKey) {
+    return nameKey.substring(nameKey.indexOf(SEPARATOR) + 1);
+  }
+}
@@ -0,0 +1,131 @@
+package com.mr486.safetynet.tools;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations, in nanoseconds, with a bounded relative error.
+ * <p>
+ * Like an HDR histogram, the durations are counted in log-linear buckets: every power of two is
+ * split into {@value #SUB_BUCKETS} buckets of equal width, so a percentile is reported within
+ * 1/{@value #SUB_BUCKETS} of its actual value whatever its magnitude, from nanoseconds to hours,
+ * in a fixed array of counters. Recording is a handful of atomic increments and never allocates.
+ * </p>
+ */
+public class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * Records one duration.
+   *
+   * @param nanos the duration in nanoseconds, negative durations being recorded as 0
+   */
+  public void record(long nanos) {
+    long value = Math.max(0, nanos);
+    counts.incrementAndGet(index(value));
+    count.increment();
+    sum.add(value);
+    long current = max.get();
+    while (value > current && !max.compareAndSet(current, value)) {
+      current = max.get();
+    }
+  }
+
+  /**
+   * Records the time elapsed since a start read from {@link System#nanoTime()}.
+   *
+   * @param startNanos the start of the measured operation
+   */
+  public void recordSince(long startNanos) {
+    record(System.nanoTime() - startNanos);
+  }
+
+  /**
+   * Computes the count and the percentiles of the durations recorded since the creation of the
+   * histogram. Concurrent records may be partially included.
+   *
+   * @return the summary of the recorded durations, in microseconds
+   */
+  public Summary summary() {
+    long[] snapshot = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshot[i] = counts.get(i);
+      total += snapshot[i];
+    }
+    long maximum = max.get();
+    long recorded = count.sum();
+    long mean = recorded == 0 ? 0 : sum.sum() / recorded;
+    return new Summary(recorded, micros(mean),
+            micros(percentile(snapshot, total, 0.50, maximum)),
+            micros(percentile(snapshot, total, 0.90, maximum)),
+            micros(percentile(snapshot, total, 0.99, maximum)),
+            micros(percentile(snapshot, total, 0.999, maximum)),
+            micros(maximum));
+  }
+
+  /**
+   * Returns the bucket counting a duration: durations below {@value #SUB_BUCKETS} have a bucket
+   * each, larger ones share the bucket of their 5 most significant bits.
+   *
+   * @param value the duration, not negative
+   * @return the index of its bucket
+   */
+  static int index(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+  }
+
+  /**
+   * Returns the largest duration counted by a bucket.
+   *
+   * @param index the index of the bucket
+   * @return the upper bound of the bucket, inclusive
+   */
+  static long highestEquivalent(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int shift = index / SUB_BUCKETS - 1;
+    long top = index % SUB_BUCKETS + SUB_BUCKETS;
+    return ((top + 1) << shift) - 1;
+  }
+
+  private static long percentile(long[] snapshot, long total, double quantile, long maximum) {
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(quantile * total));
+    long seen = 0;
+    for (int i = 0; i < snapshot.length; i++) {
+      seen += snapshot[i];
+      if (seen >= rank) {
+        return Math.min(highestEquivalent(i), maximum);
+      }
+    }
+    return maximum;
+  }
+
+  private static long micros(long nanos) {
+    return nanos / 1_000;
+  }
+
+  /**
+   * Count and percentiles of the recorded durations, in microseconds.
+   */
+  public record Summary(long count, long meanMicros, long p50Micros, long p90Micros, long p99Micros,
+                        long p999Micros, long maxMicros) {
+  }
+}
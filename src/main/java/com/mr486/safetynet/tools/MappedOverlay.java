@@ -0,0 +1,406 @@
+package com.mr486.safetynet.tools;
+
+import java.util.AbstractCollection;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Heap-resident changes applied on top of the records of a {@link MappedSnapshot}, which is read-only.
+ * <p>
+ * Records saved since the snapshot was mapped are kept by key, and the mapped records they replace
+ * or that were deleted are hidden by position. Everything else is decoded from the mapping.
+ * Records are iterated in a stable order: the mapped ones by position, then the saved ones in the
+ * order they were first saved.
+ * </p>
+ * <p>
+ * The saved records are also indexed by the secondary keys given at creation, such as the
+ * address of a person, in skip lists ordered like the saved records, so a lookup by one of these
+ * keys costs the size of its result however many records were saved since startup.
+ * </p>
+ * <p>
+ * Reads never lock and may run concurrently with one writer at a time: the repositories
+ * serialize their writes.
+ * </p>
+ *
+ * @param <T> the type of the records
+ */
+public final class MappedOverlay<T> {
+
+  private final int mappedCount;
+  private final IntFunction<T> decoder;
+  private final AtomicLongArray hidden;
+  private final AtomicInteger hiddenCount = new AtomicInteger();
+  private final OrderedConcurrentMap<T> saved = new OrderedConcurrentMap<>();
+  private final List<Function<T, String>> indexKeys;
+  private final List<Map<String, NavigableMap<Long, T>>> indexes;
+
+  /**
+   * Creates an empty overlay.
+   *
+   * @param mappedCount the number of mapped records
+   * @param decoder     the function decoding the mapped record at a given position
+   * @param indexKeys   the functions computing the secondary keys of a record, in the order of
+   *                    the indexes passed to {@link #find(int, String, int[])}
+   */
+  @SafeVarargs
+  public MappedOverlay(int mappedCount, IntFunction<T> decoder, Function<T, String>... indexKeys) {
+    this.mappedCount = mappedCount;
+    this.decoder = decoder;
+    this.hidden = new AtomicLongArray((mappedCount + Long.SIZE - 1) / Long.SIZE);
+    this.indexKeys = List.of(indexKeys);
+    this.indexes = new ArrayList<>(indexKeys.length);
+    for (int i = 0; i < indexKeys.length; i++) {
+      indexes.add(new ConcurrentHashMap<>());
+    }
+  }
+
+  /**
+   * Returns the record with the given key.
+   *
+   * @param key         the key of the record
+   * @param mappedIndex the position of the mapped record with this key, or -1 if there is none
+   * @return the saved record, else the mapped one unless it was deleted, else null
+   */
+  public T get(String key, int mappedIndex) {
+    T record = saved.get(key);
+    if (record == null && mappedIndex >= 0 && !isHidden(mappedIndex)) {
+      record = decoder.apply(mappedIndex);
+    }
+    return record;
+  }
+
+  /**
+   * Returns the position of the record with the given key in the order of {@link #iterateAfter(long)}.
+   *
+   * @param key         the key of the record
+   * @param mappedIndex the position of the mapped record with this key, or -1 if there is none
+   * @return the position of the saved record, else of the mapped one unless it was deleted, else -1
+   */
+  public long position(String key, int mappedIndex) {
+    long position = saved.position(key);
+    if (position >= 0) {
+      return mappedCount + position;
+    }
+    return mappedIndex >= 0 && !isHidden(mappedIndex) ? mappedIndex : -1;
+  }
+
+  /**
+   * Saves a record, replacing the mapped record with the same key if any.
+   *
+   * @param key         the key of the record
+   * @param mappedIndex the position of the mapped record with this key, or -1 if there is none
+   * @param record      the record to save
+   */
+  public void put(String key, int mappedIndex, T record) {
+    T previous = saved.put(key, record);
+    long position = saved.position(key);
+    for (int i = 0; i < indexes.size(); i++) {
+      String indexKey = indexKey(i, record);
+      if (previous != null && !indexKey(i, previous).equals(indexKey)) {
+        unindex(i, indexKey(i, previous), position);
+      }
+      indexes.get(i).computeIfAbsent(indexKey, ignored -> new ConcurrentSkipListMap<>()).put(position, record);
+    }
+    if (mappedIndex >= 0) {
+      hide(mappedIndex);
+    }
+  }
+
+  /**
+   * Deletes the record with the given key.
+   *
+   * @param key         the key of the record
+   * @param mappedIndex the position of the mapped record with this key, or -1 if there is none
+   * @return true if a record was deleted
+   */
+  public boolean remove(String key, int mappedIndex) {
+    long position = saved.position(key);
+    T record = saved.remove(key);
+    boolean removed = record != null;
+    if (removed) {
+      for (int i = 0; i < indexes.size(); i++) {
+        unindex(i, indexKey(i, record), position);
+      }
+    }
+    if (mappedIndex >= 0 && hide(mappedIndex)) {
+      removed = true;
+    }
+    return removed;
+  }
+
+  /**
+   * Returns the visible records among the given mapped positions, followed by the saved records
+   * with the given secondary key.
+   *
+   * @param index         the position of the secondary key among those given at creation
+   * @param key           the secondary key the records must have
+   * @param mappedIndexes the positions of the mapped records with this key
+   * @return a new list of the matching records
+   */
+  public List<T> find(int index, String key, int[] mappedIndexes) {
+    NavigableMap<Long, T> bucket = indexes.get(index).get(nullSafe(key));
+    List<T> records = new ArrayList<>(mappedIndexes.length + (bucket == null ? 0 : bucket.size()));
+    for (int mappedIndex : mappedIndexes) {
+      if (!isHidden(mappedIndex)) {
+        records.add(decoder.apply(mappedIndex));
+      }
+    }
+    if (bucket != null) {
+      records.addAll(bucket.values());
+    }
+    return records;
+  }
+
+  /**
+   * Returns a read-only view of all visible records, the mapped ones first.
+   * Mapped records are decoded while the view is iterated.
+   *
+   * @return the visible records
+   */
+  public Collection<T> values() {
+    return new AbstractCollection<>() {
+      @Override
+      public Iterator<T> iterator() {
+        Iterator<T> savedIterator = saved.values().iterator();
+        return new Iterator<>() {
+          private int next = nextVisible(0);
+
+          @Override
+          public boolean hasNext() {
+            return next < mappedCount || savedIterator.hasNext();
+          }
+
+          @Override
+          public T next() {
+            if (next < mappedCount) {
+              T record = decoder.apply(next);
+              next = nextVisible(next + 1);
+              return record;
+            }
+            if (!savedIterator.hasNext()) {
+              throw new NoSuchElementException();
+            }
+            return savedIterator.next();
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return mappedCount - hiddenCount.get() + saved.size();
+      }
+    };
+  }
+
+  /**
+   * Returns a copy of the visible records, in the order of {@link #values()}, that later writes
+   * do not change. Only the hidden positions and the saved records are copied, so the cost is that
+   * of the changes since startup: the mapped records are decoded while the copy is iterated.
+   * Must be called while writes are excluded, for the copy to be consistent.
+   *
+   * @return the copy of the visible records
+   */
+  public Copy<T> copy() {
+    long[] hiddenWords = new long[hidden.length()];
+    for (int i = 0; i < hiddenWords.length; i++) {
+      hiddenWords[i] = hidden.get(i);
+    }
+    return new Copy<>(mappedCount, decoder, hiddenWords, hiddenCount.get(), List.copyOf(saved.values()));
+  }
+
+  /**
+   * Iterates the visible records in the order of {@link #values()}, starting after a position.
+   * Mapped records are at their position in the mapping, saved ones follow; a mapped record
+   * replaced by a saved one therefore moves to the end.
+   *
+   * @param position the position of the last record already read, or -1 to start from the first
+   * @return a weakly consistent iterator over the following records, decoded while iterated
+   */
+  public Iterator<Positioned<T>> iterateAfter(long position) {
+    Iterator<Positioned<T>> savedIterator = saved.iterateAfter(Math.max(-1, position - mappedCount));
+    return new Iterator<>() {
+      private int next = nextVisible((int) Math.min(mappedCount, Math.max(0, position + 1)));
+
+      @Override
+      public boolean hasNext() {
+        return next < mappedCount || savedIterator.hasNext();
+      }
+
+      @Override
+      public Positioned<T> next() {
+        if (next < mappedCount) {
+          Positioned<T> record = new Positioned<>(next, decoder.apply(next));
+          next = nextVisible(next + 1);
+          return record;
+        }
+        Positioned<T> record = savedIterator.next();
+        return new Positioned<>(mappedCount + record.position(), record.value());
+      }
+    };
+  }
+
+  // Private methods for the secondary indexes
+
+  private String indexKey(int index, T record) {
+    return nullSafe(indexKeys.get(index).apply(record));
+  }
+
+  private void unindex(int index, String indexKey, long position) {
+    NavigableMap<Long, T> bucket = indexes.get(index).get(indexKey);
+    if (bucket != null) {
+      bucket.remove(position);
+      if (bucket.isEmpty()) {
+        indexes.get(index).remove(indexKey);
+      }
+    }
+  }
+
+  private static String nullSafe(String key) {
+    // ConcurrentHashMap does not accept null keys
+    return key == null ? "" : key;
+  }
+
+  // Private methods for the hidden positions
+
+  private boolean isHidden(int index) {
+    return (hidden.get(index / Long.SIZE) & (1L << index)) != 0;
+  }
+
+  private boolean hide(int index) {
+    long bit = 1L << index;
+    long word = hidden.getAndUpdate(index / Long.SIZE, value -> value | bit);
+    if ((word & bit) != 0) {
+      return false;
+    }
+    hiddenCount.incrementAndGet();
+    return true;
+  }
+
+  private int nextVisible(int from) {
+    int index = from;
+    while (index < mappedCount && isHidden(index)) {
+      index++;
+    }
+    return index;
+  }
+
+  /**
+   * Read-only copy of the visible records of an overlay, returned by {@link #copy()}.
+   * Iterating it decodes the visible mapped records one at a time, so it can be written out
+   * without holding the dataset on heap; {@link BinarySnapshot} writes it without decoding at all.
+   * Access by index is linear in the number of mapped records once some of them are hidden.
+   *
+   * @param <T> the type of the records
+   */
+  public static final class Copy<T> extends AbstractList<T> {
+
+    private final int mappedCount;
+    private final IntFunction<T> decoder;
+    private final long[] hidden;
+    private final int hiddenCount;
+    private final List<T> saved;
+
+    private Copy(int mappedCount, IntFunction<T> decoder, long[] hidden, int hiddenCount, List<T> saved) {
+      this.mappedCount = mappedCount;
+      this.decoder = decoder;
+      this.hidden = hidden;
+      this.hiddenCount = hiddenCount;
+      this.saved = saved;
+    }
+
+    /**
+     * Returns the number of mapped records, visible or not.
+     *
+     * @return the number of mapped records
+     */
+    public int mappedCount() {
+      return mappedCount;
+    }
+
+    /**
+     * Indicates whether a mapped record is part of the copy, neither replaced nor deleted.
+     *
+     * @param mappedIndex the position of the mapped record
+     * @return true if the mapped record is visible
+     */
+    public boolean isVisible(int mappedIndex) {
+      return (hidden[mappedIndex / Long.SIZE] & (1L << mappedIndex)) == 0;
+    }
+
+    /**
+     * Returns the records saved since startup, which follow the visible mapped records.
+     *
+     * @return the immutable list of the saved records
+     */
+    public List<T> saved() {
+      return saved;
+    }
+
+    @Override
+    public T get(int index) {
+      Objects.checkIndex(index, size());
+      int visibleCount = mappedCount - hiddenCount;
+      if (index >= visibleCount) {
+        return saved.get(index - visibleCount);
+      }
+      if (hiddenCount == 0) {
+        return decoder.apply(index);
+      }
+      int remaining = index;
+      for (int mappedIndex = 0; ; mappedIndex++) {
+        if (isVisible(mappedIndex) && remaining-- == 0) {
+          return decoder.apply(mappedIndex);
+        }
+      }
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+      Iterator<T> savedIterator = saved.iterator();
+      return new Iterator<>() {
+        private int next = nextVisible(0);
+
+        @Override
+        public boolean hasNext() {
+          return next < mappedCount || savedIterator.hasNext();
+        }
+
+        @Override
+        public T next() {
+          if (next < mappedCount) {
+            T record = decoder.apply(next);
+            next = nextVisible(next + 1);
+            return record;
+          }
+          return savedIterator.next();
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return mappedCount - hiddenCount + saved.size();
+    }
+
+    private int nextVisible(int from) {
+      int index = from;
+      while (index < mappedCount && !isVisible(index)) {
+        index++;
+      }
+      return index;
+    }
+  }
+}
@@ -0,0 +1,418 @@
+package com.mr486.safetynet.tools;
+
+import com.mr486.safetynet.dto.request.DataBindingDto;
+import com.mr486.safetynet.model.FireStation;
+import com.mr486.safetynet.model.MedicalRecord;
+import com.mr486.safetynet.model.Person;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Read-only view of a {@link BinarySnapshot} file mapped in memory.
+ * <p>
+ * Persons and medical records are not materialized: only the offset of each string and record
+ * is kept on heap, together with hash chains indexing the records by name, address, last name
+ * and city. Records are decoded from the mapping when they are looked up, so the operating
+ * system page cache holds the dataset instead of the Java heap. Fire stations, which are few,
+ * are decoded once when the file is opened.
+ * </p>
+ */
+public final class MappedSnapshot {
+
+  private static final int NULL = -1;
+  private static final int PERSON_FIELDS = 7;
+  private static final int PERSON_SIZE = PERSON_FIELDS * Integer.BYTES;
+  private static final int FIRST_NAME = 0;
+  private static final int LAST_NAME = 1;
+  private static final int ADDRESS = 2;
+  private static final int CITY = 3;
+
+  private final ByteBuffer buffer;
+  private final int[] stringOffsets;
+  private final int[] stringHashes;
+  private final int personsOffset;
+  private final int personCount;
+  private final int[] medicalRecordOffsets;
+  private final List<FireStation> fireStations;
+  private final HashChains personsByName;
+  private final HashChains personsByAddress;
+  private final HashChains personsByLastName;
+  private final HashChains personsByCity;
+  private final HashChains medicalRecordsByName;
+
+  /**
+   * Maps the given snapshot file in memory and indexes its records.
+   * The file must not be modified while it is mapped; {@link JsonDataUtil} always replaces it
+   * with a new file, leaving the mapped one untouched.
+   *
+   * @param file the snapshot file
+   * @return the mapped snapshot
+   * @throws IOException if the file cannot be read, is not a snapshot, has an unsupported version
+   *                     or is too large to be mapped
+   */
+  public static MappedSnapshot open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("snapshot too large to be mapped: " + file);
+      }
+      ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      try {
+        return new MappedSnapshot(buffer, file);
+      } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+        throw new IOException("truncated snapshot file: " + file, e);
+      }
+    }
+  }
+
+  private MappedSnapshot(ByteBuffer buffer, Path file) throws IOException {
+    this.buffer = buffer;
+    if (buffer.getInt(0) != BinarySnapshot.MAGIC) {
+      throw new IOException("not a snapshot file: " + file);
+    }
+    int version = buffer.getInt(Integer.BYTES);
+    if (version != BinarySnapshot.VERSION) {
+      throw new IOException("unsupported snapshot version " + version + " in " + file);
+    }
+    int position = 2 * Integer.BYTES;
+
+    int stringCount = count(buffer, position, Integer.BYTES, file);
+    position += Integer.BYTES;
+    stringOffsets = new int[stringCount];
+    stringHashes = new int[stringCount];
+    for (int i = 0; i < stringCount; i++) {
+      stringOffsets[i] = position;
+      position += Integer.BYTES + count(buffer, position, 1, file);
+      stringHashes[i] = Objects.hashCode(Keys.normalize(string(i)));
+    }
+
+    personCount = count(buffer, position, PERSON_SIZE, file);
+    personsOffset = position + Integer.BYTES;
+    position = personsOffset + personCount * PERSON_SIZE;
+    for (int ref = personsOffset; ref < position; ref += Integer.BYTES) {
+      checkRef(buffer.getInt(ref), file);
+    }
+
+    int fireStationCount = count(buffer, position, 2 * Integer.BYTES, file);
+    position += Integer.BYTES;
+    fireStations = new ArrayList<>(fireStationCount);
+    for (int i = 0; i < fireStationCount; i++) {
+      int station = buffer.getInt(position + Integer.BYTES);
+      fireStations.add(new FireStation(string(checkRef(buffer.getInt(position), file)), station == NULL ? null : station));
+      position += 2 * Integer.BYTES;
+    }
+
+    int medicalRecordCount = count(buffer, position, 5 * Integer.BYTES, file);
+    position += Integer.BYTES;
+    medicalRecordOffsets = new int[medicalRecordCount];
+    for (int i = 0; i < medicalRecordCount; i++) {
+      medicalRecordOffsets[i] = position;
+      for (int field = 0; field < 3; field++) {
+        checkRef(buffer.getInt(position), file);
+        position += Integer.BYTES;
+      }
+      for (int list = 0; list < 2; list++) {
+        int size = count(buffer, position, Integer.BYTES, file);
+        for (int j = 0; j < size; j++) {
+          position += Integer.BYTES;
+          checkRef(buffer.getInt(position), file);
+        }
+        position += Integer.BYTES;
+      }
+    }
+    if (position != buffer.limit()) {
+      throw new IOException("corrupt snapshot file, unexpected data after the records: " + file);
+    }
+
+    personsByName = new HashChains(personCount,
+            i -> nameHash(personRef(i, FIRST_NAME), personRef(i, LAST_NAME)));
+    personsByAddress = new HashChains(personCount, i -> refHash(personRef(i, ADDRESS)));
+    personsByLastName = new HashChains(personCount, i -> refHash(personRef(i, LAST_NAME)));
+    personsByCity = new HashChains(personCount, i -> refHash(personRef(i, CITY)));
+    medicalRecordsByName = new HashChains(medicalRecordCount,
+            i -> nameHash(medicalRecordRef(i, FIRST_NAME), medicalRecordRef(i, LAST_NAME)));
+  }
+
+  /**
+   * Returns the number of persons in the snapshot.
+   *
+   * @return the number of persons
+   */
+  public int personCount() {
+    return personCount;
+  }
+
+  /**
+   * Decodes the person at the given position.
+   *
+   * @param index the position of the person in the snapshot
+   * @return a new Person instance
+   */
+  public Person person(int index) {
+    Objects.checkIndex(index, personCount);
+    return new Person(
+            string(personRef(index, 0)),
+            string(personRef(index, 1)),
+            string(personRef(index, 2)),
+            string(personRef(index, 3)),
+            string(personRef(index, 4)),
+            string(personRef(index, 5)),
+            string(personRef(index, 6)));
+  }
+
+  /**
+   * Finds the position of the first person with the given name, ignoring case.
+   *
+   * @param firstName the first name of the person
+   * @param lastName  the last name of the person
+   * @return the position of the person, or -1 if there is none
+   */
+  public int personIndex(String firstName, String lastName) {
+    String first = Keys.normalize(firstName);
+    String last = Keys.normalize(lastName);
+    for (int i = personsByName.first(nameHash(first, last)); i != NULL; i = personsByName.next(i)) {
+      if (matches(personRef(i, FIRST_NAME), first) && matches(personRef(i, LAST_NAME), last)) {
+        return i;
+      }
+    }
+    return NULL;
+  }
+
+  /**
+   * Finds the positions of the persons living at the given address, ignoring case.
+   *
+   * @param address the address to search for
+   * @return the positions of the matching persons, in snapshot order
+   */
+  public int[] personsByAddress(String address) {
+    return find(personsByAddress, ADDRESS, address);
+  }
+
+  /**
+   * Finds the positions of the persons with the given last name, ignoring case.
+   *
+   * @param lastName the last name to search for
+   * @return the positions of the matching persons, in snapshot order
+   */
+  public int[] personsByLastName(String lastName) {
+    return find(personsByLastName, LAST_NAME, lastName);
+  }
+
+  /**
+   * Finds the positions of the persons living in the given city, ignoring case.
+   *
+   * @param city the city to search for
+   * @return the positions of the matching persons, in snapshot order
+   */
+  public int[] personsByCity(String city) {
+    return find(personsByCity, CITY, city);
+  }
+
+  /**
+   * Returns the number of medical records in the snapshot.
+   *
+   * @return the number of medical records
+   */
+  public int medicalRecordCount() {
+    return medicalRecordOffsets.length;
+  }
+
+  /**
+   * Decodes the medical record at the given position.
+   *
+   * @param index the position of the medical record in the snapshot
+   * @return a new MedicalRecord instance
+   */
+  public MedicalRecord medicalRecord(int index) {
+    int position = medicalRecordOffsets[index];
+    int medications = position + 3 * Integer.BYTES;
+    int allergies = medications + Integer.BYTES * (1 + buffer.getInt(medications));
+    return new MedicalRecord(
+            string(buffer.getInt(position)),
+            string(buffer.getInt(position + Integer.BYTES)),
+            string(buffer.getInt(position + 2 * Integer.BYTES)),
+            strings(medications),
+            strings(allergies));
+  }
+
+  /**
+   * Finds the position of the first medical record with the given name, ignoring case.
+   *
+   * @param firstName the first name of the person
+   * @param lastName  the last name of the person
+   * @return the position of the medical record, or -1 if there is none
+   */
+  public int medicalRecordIndex(String firstName, String lastName) {
+    String first = Keys.normalize(firstName);
+    String last = Keys.normalize(lastName);
+    for (int i = medicalRecordsByName.first(nameHash(first, last)); i != NULL; i = medicalRecordsByName.next(i)) {
+      if (matches(medicalRecordRef(i, FIRST_NAME), first) && matches(medicalRecordRef(i, LAST_NAME), last)) {
+        return i;
+      }
+    }
+    return NULL;
+  }
+
+  /**
+   * Returns the fire stations of the snapshot.
+   *
+   * @return a new list of the fire stations
+   */
+  public List<FireStation> fireStations() {
+    return new ArrayList<>(fireStations);
+  }
+
+  /**
+   * Returns the snapshot as a dataset whose persons and medical records are read-only lists
+   * decoding each element from the mapping when it is iterated.
+   *
+   * @return the dataset
+   */
+  public DataBindingDto dataset() {
+    return new DataBindingDto(
+            new MappedOverlay<>(personCount, this::person).copy(),
+            fireStations(),
+            new MappedOverlay<>(medicalRecordCount(), this::medicalRecord).copy());
+  }
+
+  // Package-private methods giving BinarySnapshot the encoded records, to copy them without decoding
+
+  int stringCount() {
+    return stringOffsets.length;
+  }
+
+  byte[] stringBytes(int ref) {
+    int position = stringOffsets[ref];
+    byte[] bytes = new byte[buffer.getInt(position)];
+    buffer.get(position + Integer.BYTES, bytes);
+    return bytes;
+  }
+
+  int personRef(int index, int field) {
+    return buffer.getInt(personsOffset + index * PERSON_SIZE + field * Integer.BYTES);
+  }
+
+  int[] medicalRecordInts(int index) {
+    int position = medicalRecordOffsets[index];
+    int medications = position + 3 * Integer.BYTES;
+    int allergies = medications + Integer.BYTES * (1 + buffer.getInt(medications));
+    int[] ints = new int[(allergies - position) / Integer.BYTES + 1 + buffer.getInt(allergies)];
+    for (int i = 0; i < ints.length; i++) {
+      ints[i] = buffer.getInt(position + i * Integer.BYTES);
+    }
+    return ints;
+  }
+
+  // Private methods for decoding
+
+  private int[] find(HashChains chains, int field, String value) {
+    String key = Keys.normalize(value);
+    int[] matches = new int[4];
+    int size = 0;
+    for (int i = chains.first(Objects.hashCode(key)); i != NULL; i = chains.next(i)) {
+      if (matches(personRef(i, field), key)) {
+        if (size == matches.length) {
+          matches = Arrays.copyOf(matches, size * 2);
+        }
+        matches[size++] = i;
+      }
+    }
+    return Arrays.copyOf(matches, size);
+  }
+
+  private boolean matches(int ref, String key) {
+    if (ref == NULL) {
+      return key == null;
+    }
+    return key != null && stringHashes[ref] == key.hashCode() && key.equals(Keys.normalize(string(ref)));
+  }
+
+  private int medicalRecordRef(int index, int field) {
+    return buffer.getInt(medicalRecordOffsets[index] + field * Integer.BYTES);
+  }
+
+  // Reads a count at the given position, at most the number of elements of the given size the file can hold
+  private static int count(ByteBuffer buffer, int position, int elementSize, Path file) throws IOException {
+    int count = buffer.getInt(position);
+    if (count < 0 || (long) count * elementSize > buffer.limit()) {
+      throw new IOException("corrupt snapshot file, invalid count " + count + ": " + file);
+    }
+    return count;
+  }
+
+  private int checkRef(int ref, Path file) throws IOException {
+    if (ref < NULL || ref >= stringOffsets.length) {
+      throw new IOException("corrupt snapshot file, invalid string ref " + ref + ": " + file);
+    }
+    return ref;
+  }
+
+  private int refHash(int ref) {
+    return ref == NULL ? 0 : stringHashes[ref];
+  }
+
+  private int nameHash(int firstRef, int lastRef) {
+    return 31 * refHash(firstRef) + refHash(lastRef);
+  }
+
+  private static int nameHash(String first, String last) {
+    return 31 * Objects.hashCode(first) + Objects.hashCode(last);
+  }
+
+  private String string(int ref) {
+    if (ref == NULL) {
+      return null;
+    }
+    return new String(stringBytes(ref), StandardCharsets.UTF_8);
+  }
+
+  private ArrayList<String> strings(int position) {
+    int size = buffer.getInt(position);
+    ArrayList<String> values = new ArrayList<>(size);
+    for (int i = 1; i <= size; i++) {
+      values.add(string(buffer.getInt(position + i * Integer.BYTES)));
+    }
+    return values;
+  }
+
+  /**
+   * Hash index of record positions: each bucket links the records sharing its hash,
+   * in snapshot order, through an array holding the next position of each record.
+   */
+  private static final class HashChains {
+    private final int[] heads;
+    private final int[] next;
+
+    private HashChains(int count, IntUnaryOperator hash) {
+      heads = new int[Integer.highestOneBit(Math.max(count, 1)) << 1];
+      next = new int[count];
+      for (int i = count - 1; i >= 0; i--) {
+        int bucket = bucket(hash.applyAsInt(i));
+        next[i] = heads[bucket];
+        heads[bucket] = i + 1;
+      }
+    }
+
+    private int first(int hash) {
+      return heads[bucket(hash)] - 1;
+    }
+
+    private int next(int index) {
+      return next[index] - 1;
+    }
+
+    private int bucket(int hash) {
+      return (hash ^ (hash >>> 16)) & (heads.length - 1);
+    }
+  }
+}
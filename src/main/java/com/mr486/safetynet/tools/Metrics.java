@@ -0,0 +1,99 @@
+package com.mr486.safetynet.tools;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Role;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Registry of the metrics of the application: latency histograms, counters and gauges, each
+ * identified by a name such as {@code http.GET /fire} or {@code persistence.flush}.
+ * <p>
+ * Recording never locks: the histograms and counters are lock-free, and looking them up is a
+ * plain read of a concurrent map once they exist; callers with a fixed name keep the instance
+ * they record into. Gauges are read when the metrics are collected, so they cost nothing between
+ * two scrapes.
+ * </p>
+ * <p>
+ * Declared as an infrastructure bean, since the post-processor instrumenting the repositories
+ * depends on it.
+ * </p>
+ */
+@Component
+@Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+public class Metrics {
+
+  private final ConcurrentMap<String, LatencyHistogram> timers = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the latency histogram of a name, created on first use.
+   *
+   * @param name the name of the timer
+   * @return the histogram recording the durations under that name
+   */
+  public LatencyHistogram timer(String name) {
+    LatencyHistogram timer = timers.get(name);
+    return timer != null ? timer : timers.computeIfAbsent(name, ignored -> new LatencyHistogram());
+  }
+
+  /**
+   * Returns the counter of a name, created on first use.
+   *
+   * @param name the name of the counter
+   * @return the counter incremented under that name
+   */
+  public LongAdder counter(String name) {
+    LongAdder counter = counters.get(name);
+    return counter != null ? counter : counters.computeIfAbsent(name, ignored -> new LongAdder());
+  }
+
+  /**
+   * Registers a gauge, replacing any gauge of the same name.
+   *
+   * @param name     the name of the gauge
+   * @param supplier supplies the current value of the gauge, when the metrics are collected
+   */
+  public void gauge(String name, LongSupplier supplier) {
+    gauges.put(name, supplier);
+  }
+
+  /**
+   * Collects the current value of every metric, sorted by name.
+   * A gauge whose supplier fails is reported as -1.
+   *
+   * @return the metrics since startup
+   */
+  public Snapshot snapshot() {
+    SortedMap<String, LatencyHistogram.Summary> timerValues = new TreeMap<>();
+    timers.forEach((name, timer) -> timerValues.put(name, timer.summary()));
+    SortedMap<String, Long> counterValues = new TreeMap<>();
+    counters.forEach((name, counter) -> counterValues.put(name, counter.sum()));
+    SortedMap<String, Long> gaugeValues = new TreeMap<>();
+    gauges.forEach((name, gauge) -> gaugeValues.put(name, read(gauge)));
+    return new Snapshot(timerValues, counterValues, gaugeValues);
+  }
+
+  private static long read(LongSupplier gauge) {
+    try {
+      return gauge.getAsLong();
+    } catch (RuntimeException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * Values of the metrics at the time they were collected; durations are in microseconds.
+   */
+  public record Snapshot(Map<String, LatencyHistogram.Summary> timers, Map<String, Long> counters,
+                         Map<String, Long> gauges) {
+  }
+}
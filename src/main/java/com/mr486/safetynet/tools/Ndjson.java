@@ -0,0 +1,39 @@
+package com.mr486.safetynet.tools;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Iterator;
+
+/**
+ * Utility class writing items as newline-delimited JSON, one object per line.
+ */
+public final class Ndjson {
+
+  private Ndjson() {
+  }
+
+  /**
+   * Builds a response body writing the items as they are iterated, through the buffer of a single
+   * JSON generator, so memory stays constant whatever the number of items.
+   *
+   * @param objectMapper the mapper serializing the items
+   * @param items        the items to write
+   * @return the streaming response body
+   */
+  public static StreamingResponseBody stream(ObjectMapper objectMapper, Iterator<?> items) {
+    ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    return outputStream -> {
+      try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+        generator.setRootValueSeparator(null);
+        while (items.hasNext()) {
+          writer.writeValue(generator, items.next());
+          generator.writeRaw('\n');
+        }
+      }
+    };
+  }
+}
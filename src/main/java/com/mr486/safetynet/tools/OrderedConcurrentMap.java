@@ -0,0 +1,162 @@
+package com.mr486.safetynet.tools;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Map keeping its values in insertion order, safe for any number of readers running
+ * concurrently with writers.
+ * <p>
+ * Values are looked up by key in a {@link ConcurrentHashMap} and iterated in insertion order
+ * through a {@link ConcurrentSkipListMap} keyed by an insertion sequence. Reads never lock and
+ * iterations are weakly consistent: they never throw {@code ConcurrentModificationException}.
+ * Writes are serialized on the map so that both structures always hold the same values.
+ * A null key is handled as the empty string.
+ * </p>
+ *
+ * @param <V> the type of the values
+ */
+public final class OrderedConcurrentMap<V> {
+
+  private final Map<String, Slot<V>> byKey = new ConcurrentHashMap<>();
+  private final NavigableMap<Long, V> inOrder = new ConcurrentSkipListMap<>();
+  private long nextSequence;
+
+  /**
+   * Returns the value mapped to the given key.
+   *
+   * @param key the key
+   * @return the value, or null if there is none
+   */
+  public V get(String key) {
+    Slot<V> slot = byKey.get(nullSafe(key));
+    return slot == null ? null : slot.value();
+  }
+
+  /**
+   * Indicates whether a value is mapped to the given key.
+   *
+   * @param key the key
+   * @return true if a value is mapped to the key
+   */
+  public boolean containsKey(String key) {
+    return byKey.containsKey(nullSafe(key));
+  }
+
+  /**
+   * Returns the position of the value mapped to the given key, as reported by {@link #iterateAfter(long)}.
+   *
+   * @param key the key
+   * @return the position of the value, or -1 if there is none
+   */
+  public long position(String key) {
+    Slot<V> slot = byKey.get(nullSafe(key));
+    return slot == null ? -1 : slot.sequence();
+  }
+
+  /**
+   * Returns the number of values.
+   *
+   * @return the number of values
+   */
+  public int size() {
+    return byKey.size();
+  }
+
+  /**
+   * Maps the value to the given key. A replaced value keeps its position in the iteration order.
+   *
+   * @param key   the key
+   * @param value the value
+   * @return the previous value, or null if there was none
+   */
+  public synchronized V put(String key, V value) {
+    Slot<V> previous = byKey.get(nullSafe(key));
+    long sequence = previous == null ? nextSequence++ : previous.sequence();
+    inOrder.put(sequence, value);
+    byKey.put(nullSafe(key), new Slot<>(sequence, value));
+    return previous == null ? null : previous.value();
+  }
+
+  /**
+   * Maps the value to the given key unless a value is already mapped to it.
+   *
+   * @param key   the key
+   * @param value the value
+   * @return the current value, or null if the given value was added
+   */
+  public synchronized V putIfAbsent(String key, V value) {
+    V current = get(key);
+    if (current == null) {
+      put(key, value);
+    }
+    return current;
+  }
+
+  /**
+   * Removes the value mapped to the given key.
+   *
+   * @param key the key
+   * @return the removed value, or null if there was none
+   */
+  public synchronized V remove(String key) {
+    Slot<V> removed = byKey.remove(nullSafe(key));
+    if (removed == null) {
+      return null;
+    }
+    inOrder.remove(removed.sequence());
+    return removed.value();
+  }
+
+  /**
+   * Removes every value.
+   */
+  public synchronized void clear() {
+    byKey.clear();
+    inOrder.clear();
+  }
+
+  /**
+   * Returns a live, read-only view of the values in insertion order.
+   *
+   * @return the values
+   */
+  public Collection<V> values() {
+    return Collections.unmodifiableCollection(inOrder.values());
+  }
+
+  /**
+   * Iterates the values in insertion order, starting after a position.
+   * The position of a value is kept when it is replaced, and is never reused once it is removed.
+   *
+   * @param position the position of the last value already read, or -1 to start from the first
+   * @return a weakly consistent iterator over the following values
+   */
+  public Iterator<Positioned<V>> iterateAfter(long position) {
+    Iterator<Map.Entry<Long, V>> entries = inOrder.tailMap(position, false).entrySet().iterator();
+    return new Iterator<>() {
+      @Override
+      public boolean hasNext() {
+        return entries.hasNext();
+      }
+
+      @Override
+      public Positioned<V> next() {
+        Map.Entry<Long, V> entry = entries.next();
+        return new Positioned<>(entry.getKey(), entry.getValue());
+      }
+    };
+  }
+
+  private static String nullSafe(String key) {
+    return key == null ? "" : key;
+  }
+
+  private record Slot<V>(long sequence, V value) {
+  }
+}
@@ -0,0 +1,150 @@
+package com.mr486.safetynet.tools;
+
+import com.mr486.safetynet.configuration.AppConfiguation;
+import com.mr486.safetynet.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Page of results, with the opaque cursor of the next page.
+ * <p>
+ * A cursor encodes the position, in the stable iteration order of a repository, of the last item
+ * of a page; the next page starts after it. Clients must treat cursors as opaque strings.
+ * </p>
+ *
+ * @param items      the items of the page
+ * @param nextCursor the cursor of the next page, or null if this page is the last one
+ * @param <T>        the type of the items
+ */
+public record Page<T>(List<T> items, String nextCursor) {
+
+  /**
+   * Response header holding the cursor of the next page.
+   */
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+  private static final String PREFIX = "p:";
+
+  /**
+   * Reads a page from a list, items being positioned by their index, or by the repository positions
+   * of a {@link PositionedList}, whose cursors stay valid when the list is computed again after a change.
+   * The page starts at the cursor without walking the items before it, as long as the list is
+   * {@link java.util.RandomAccess}: collections to page are therefore cached as lists.
+   *
+   * @param items  the items
+   * @param cursor the cursor returned with the previous page, or null for the first page
+   * @param limit  the maximum number of items of the page
+   * @param <T>    the type of the items
+   * @return the page, with a next cursor if more items follow
+   * @throws InvalidRequestException if the cursor or the limit is invalid
+   */
+  public static <T> Page<T> of(List<T> items, String cursor, int limit) {
+    int checkedLimit = checkLimit(limit);
+    if (items instanceof PositionedList<T> positioned) {
+      return read(new Iterator<>() {
+        private int next = positioned.indexAfter(position(cursor));
+
+        @Override
+        public boolean hasNext() {
+          return next < positioned.size();
+        }
+
+        @Override
+        public Positioned<T> next() {
+          Positioned<T> item = new Positioned<>(positioned.position(next), positioned.get(next));
+          next++;
+          return item;
+        }
+      }, checkedLimit);
+    }
+    int first = (int) Math.min(items.size(), position(cursor) + 1);
+    Iterator<T> values = items.listIterator(first);
+    return read(new Iterator<>() {
+      private long position = first;
+
+      @Override
+      public boolean hasNext() {
+        return values.hasNext();
+      }
+
+      @Override
+      public Positioned<T> next() {
+        return new Positioned<>(position++, values.next());
+      }
+    }, checkedLimit);
+  }
+
+  /**
+   * Reads a page from an iterator over positioned items.
+   *
+   * @param iterator the items following the previous page
+   * @param limit    the maximum number of items of the page
+   * @param <T>      the type of the items
+   * @return the page, with a next cursor if more items follow
+   */
+  public static <T> Page<T> read(Iterator<Positioned<T>> iterator, int limit) {
+    List<T> items = new ArrayList<>(Math.min(limit, 64));
+    long last = -1;
+    while (items.size() < limit && iterator.hasNext()) {
+      Positioned<T> item = iterator.next();
+      items.add(item.value());
+      last = item.position();
+    }
+    return new Page<>(items, iterator.hasNext() ? cursor(last) : null);
+  }
+
+  /**
+   * Encodes the position of the last item of a page as a cursor.
+   *
+   * @param position the position of the last item
+   * @return the opaque cursor
+   */
+  public static String cursor(long position) {
+    return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString((PREFIX + position).getBytes(StandardCharsets.US_ASCII));
+  }
+
+  /**
+   * Decodes a cursor into the position the next page starts after.
+   *
+   * @param cursor the cursor, or null for the first page
+   * @return the position of the last item of the previous page, or -1 for the first page
+   * @throws InvalidRequestException if the cursor was not produced by {@link #cursor(long)}
+   */
+  public static long position(String cursor) {
+    if (cursor == null || cursor.isEmpty()) {
+      return -1;
+    }
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+      if (decoded.startsWith(PREFIX)) {
+        long position = Long.parseLong(decoded.substring(PREFIX.length()));
+        if (position >= 0) {
+          return position;
+        }
+      }
+    } catch (IllegalArgumentException e) {
+      // Reported below, NumberFormatException included
+    }
+    throw new InvalidRequestException("Invalid cursor: " + cursor);
+  }
+
+  /**
+   * Checks the requested size of a page.
+   *
+   * @param limit the requested maximum number of items
+   * @return the limit
+   * @throws InvalidRequestException if the limit is not between 1 and {@link AppConfiguation#MAX_PAGE_SIZE}
+   */
+  public static int checkLimit(int limit) {
+    if (limit < 1 || limit > AppConfiguation.MAX_PAGE_SIZE) {
+      throw new InvalidRequestException("Invalid limit: " + limit + ", expected between 1 and "
+              + AppConfiguation.MAX_PAGE_SIZE);
+    }
+    return limit;
+  }
+}
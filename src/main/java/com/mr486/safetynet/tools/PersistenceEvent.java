@@ -0,0 +1,51 @@
+package com.mr486.safetynet.tools;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.nio.file.Path;
+
+/**
+ * Flight Recorder event of one read or write of a dataset file: the JSON file or the binary
+ * snapshot.
+ */
+@Name("com.mr486.safetynet.Persistence")
+@Label("Persistence")
+@Category({"SafetyNet", "Persistence"})
+@Description("Read or write of the JSON file or of the binary snapshot")
+@StackTrace(false)
+public class PersistenceEvent extends Event {
+
+  @Label("Operation")
+  @Description("load, save or map")
+  String operation;
+
+  @Label("Path")
+  String path;
+
+  @Label("Size")
+  @DataAmount
+  long bytes;
+
+  /**
+   * Commits the event, if the recording keeps it.
+   *
+   * @param operation the operation: load, save or map
+   * @param path      the file read or written
+   * @param bytes     the size of the file
+   */
+  public void commit(String operation, Path path, long bytes) {
+    end();
+    if (shouldCommit()) {
+      this.operation = operation;
+      this.path = path.toString();
+      this.bytes = bytes;
+      commit();
+    }
+  }
+}
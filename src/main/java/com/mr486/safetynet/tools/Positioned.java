@@ -0,0 +1,13 @@
+package com.mr486.safetynet.tools;
+
+/**
+ * Value read from a repository with its position in the iteration order of the repository.
+ * Positions never change, so iteration can resume after a position even if values were added or
+ * removed in the meantime.
+ *
+ * @param position the position of the value
+ * @param value    the value
+ * @param <T>      the type of the value
+ */
+public record Positioned<T>(long position, T value) {
+}
@@ -0,0 +1,111 @@
+package com.mr486.safetynet.tools;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Read-only list of values derived from repository items, ordered by the positions of these items.
+ * <p>
+ * It serializes as the plain list of its values, and {@link Page#of} pages it by position rather
+ * than by index: a cursor then stays valid when the list is computed again after a change, as it
+ * does when paging through the repository itself. Values derived from removed items disappear
+ * and values derived from added items come last, without shifting the other ones.
+ * </p>
+ *
+ * @param <T> the type of the values
+ */
+public final class PositionedList<T> extends AbstractList<T> implements RandomAccess {
+
+  private final List<T> values;
+  private final long[] positions;
+
+  private PositionedList(List<T> values, long[] positions) {
+    this.values = values;
+    this.positions = positions;
+  }
+
+  /**
+   * Orders values by the positions of the items they were derived from.
+   * Values whose item is no longer in its repository, with a negative position, are dropped.
+   *
+   * @param items the values with the positions of their items
+   * @param <T>   the type of the values
+   * @return the values, in position order
+   */
+  public static <T> PositionedList<T> sorted(List<Positioned<T>> items) {
+    return collect(items, false);
+  }
+
+  /**
+   * Orders values by the positions of the items they were derived from, keeping each value once,
+   * at the first position it was derived from.
+   * Values whose item is no longer in its repository, with a negative position, are dropped.
+   *
+   * @param items the values with the positions of their items
+   * @param <T>   the type of the values
+   * @return the distinct values, in position order
+   */
+  public static <T> PositionedList<T> distinct(List<Positioned<T>> items) {
+    return collect(items, true);
+  }
+
+  /**
+   * Returns the position of the item the value at the given index was derived from.
+   *
+   * @param index the index of the value
+   * @return the position of its item
+   */
+  public long position(int index) {
+    return positions[index];
+  }
+
+  /**
+   * Returns the index of the first value whose position follows the given one.
+   *
+   * @param position the position, or -1 for the first value
+   * @return the index of the first following value, or the size of the list if there is none
+   */
+  public int indexAfter(long position) {
+    int index = Arrays.binarySearch(positions, position);
+    if (index < 0) {
+      return -index - 1;
+    }
+    // Several values may share the position of one item
+    while (index < positions.length && positions[index] == position) {
+      index++;
+    }
+    return index;
+  }
+
+  @Override
+  public T get(int index) {
+    return values.get(index);
+  }
+
+  @Override
+  public int size() {
+    return values.size();
+  }
+
+  private static <T> PositionedList<T> collect(List<Positioned<T>> items, boolean distinct) {
+    List<Positioned<T>> ordered = new ArrayList<>(items);
+    ordered.sort(Comparator.comparingLong(Positioned::position));
+    Set<T> seen = distinct ? new HashSet<>() : null;
+    List<T> values = new ArrayList<>(ordered.size());
+    long[] positions = new long[ordered.size()];
+    for (Positioned<T> item : ordered) {
+      if (item.position() >= 0 && (seen == null || seen.add(item.value()))) {
+        positions[values.size()] = item.position();
+        values.add(item.value());
+      }
+    }
+    return new PositionedList<>(Collections.unmodifiableList(values), Arrays.copyOf(positions, values.size()));
+  }
+}
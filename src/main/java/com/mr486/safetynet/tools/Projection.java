@@ -0,0 +1,77 @@
+package com.mr486.safetynet.tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.mr486.safetynet.exception.InvalidRequestException;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Projection of the items of a response on the fields a client asked for, such as
+ * {@code fields=firstName,email}. Without requested fields, items are returned as they are.
+ */
+public final class Projection {
+
+  /**
+   * Projection returning the items as they are.
+   */
+  public static final Projection NONE = new Projection(null, List.of());
+
+  private final ObjectMapper objectMapper;
+  private final List<String> fields;
+
+  private Projection(ObjectMapper objectMapper, List<String> fields) {
+    this.objectMapper = objectMapper;
+    this.fields = fields;
+  }
+
+  /**
+   * Parses the requested fields, checking them against the JSON properties of the items.
+   *
+   * @param objectMapper the mapper serializing the items
+   * @param type         the type of the items
+   * @param fields       the comma-separated names of the fields to keep, or null to keep them all
+   * @return the projection
+   * @throws InvalidRequestException if a requested field is not a property of the items
+   */
+  public static Projection of(ObjectMapper objectMapper, Class<?> type, String fields) {
+    if (fields == null || fields.isBlank()) {
+      return NONE;
+    }
+    List<String> requested = Arrays.stream(fields.split(",")).map(String::trim)
+            .filter(field -> !field.isEmpty()).distinct().toList();
+    Set<String> properties = objectMapper.getSerializationConfig()
+            .introspect(objectMapper.constructType(type)).findProperties().stream()
+            .map(BeanPropertyDefinition::getName)
+            .collect(Collectors.toCollection(TreeSet::new));
+    for (String field : requested) {
+      if (!properties.contains(field)) {
+        throw new InvalidRequestException("Unknown field: " + field + ", expected one of " + properties);
+      }
+    }
+    return requested.isEmpty() ? NONE : new Projection(objectMapper, requested);
+  }
+
+  /**
+   * Projects the items on the requested fields.
+   *
+   * @param items the items to project
+   * @return the items themselves without requested fields, the projected JSON objects otherwise
+   */
+  public Collection<?> apply(Collection<?> items) {
+    if (fields.isEmpty()) {
+      return items;
+    }
+    return items.stream().map(item -> {
+      ObjectNode node = objectMapper.valueToTree(item);
+      node.retain(fields);
+      return node;
+    }).toList();
+  }
+}
@@ -0,0 +1,71 @@
+package com.mr486.safetynet.tools;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.Collection;
+
+/**
+ * Flight Recorder event of one call to a repository, with the rows it returned.
+ * Only committed while a recording enabling {@code com.mr486.safetynet.RepositoryLookup} runs.
+ */
+@Name("com.mr486.safetynet.RepositoryLookup")
+@Label("Repository Lookup")
+@Category({"SafetyNet", "Repository"})
+@Description("Call to a repository, with the rows it returned")
+@StackTrace(false)
+public class RepositoryLookupEvent extends Event {
+
+  @Label("Lookup")
+  @Description("Repository and method called, such as PersonRepository.findByAddress")
+  String lookup;
+
+  @Label("Key")
+  @Description("Arguments of the call; entities and collections are reported by type and size")
+  String key;
+
+  @Label("Rows")
+  @Description("Rows returned, -1 when they are read lazily through an iterator")
+  long rows;
+
+  /**
+   * Commits the event, if the recording keeps it.
+   *
+   * @param lookup the repository and method called
+   * @param args   the arguments of the call, described only if the event is kept
+   * @param rows   the rows returned, -1 when they are read lazily
+   */
+  public void commit(String lookup, Object[] args, long rows) {
+    end();
+    if (shouldCommit()) {
+      this.lookup = lookup;
+      this.key = key(args);
+      this.rows = rows;
+      commit();
+    }
+  }
+
+  private static String key(Object[] args) {
+    if (args == null) {
+      return "";
+    }
+    StringBuilder key = new StringBuilder();
+    for (Object arg : args) {
+      if (!key.isEmpty()) {
+        key.append(", ");
+      }
+      if (arg == null || arg instanceof CharSequence || arg instanceof Number || arg instanceof Boolean) {
+        key.append(arg);
+      } else if (arg instanceof Collection<?> collection) {
+        key.append(arg.getClass().getSimpleName()).append('[').append(collection.size()).append(']');
+      } else {
+        key.append(arg.getClass().getSimpleName());
+      }
+    }
+    return key.toString();
+  }
+}
@@ -0,0 +1,346 @@
+package com.mr486.safetynet.tools;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+
+/**
+ * Cache of the responses of the business endpoints, keyed by endpoint and normalized parameters.
+ * <p>
+ * Each response is tagged with the addresses, fire stations, cities and last names it was
+ * computed from (see {@link CacheTags}); the services invalidate the tags touched by every
+ * change. Responses also expire after the TTL of their endpoint,
+ * {@code safetynet.cache.ttl-ms.<endpoint>} or {@code safetynet.cache.ttl-ms} by default, and at
+ * midnight since most of them hold ages.
+ * </p>
+ * <p>
+ * The cache is bounded by the size of the responses serialized as JSON. When full, entries are
+ * evicted in insertion order, except that an entry read since it was last considered gets a
+ * second chance (the CLOCK approximation of least recently used).
+ * </p>
+ * <p>
+ * With {@code safetynet.cache.serialized}, the JSON computed to weigh a response is kept with it,
+ * along with a strong ETag. {@link #cached} returns the response with this JSON as a
+ * {@link Cached} body, which the JSON converter writes as is instead of serializing it again.
+ * </p>
+ * <p>
+ * Reads never lock; writes are serialized on the cache. A response computed while an
+ * invalidation ran is returned but not cached.
+ * </p>
+ */
+@Slf4j
+@Component
+public class ResponseCache {
+
+  private final ObjectMapper objectMapper;
+  private final Environment environment;
+  private final boolean enabled;
+  private final boolean serialized;
+  private final long maxWeight;
+  private final long defaultTtlMillis;
+  private final Clock clock;
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private final Map<String, Long> ttlByEndpoint = new ConcurrentHashMap<>();
+  private final Map<String, Set<Entry>> entriesByTag = new HashMap<>();
+  private final Queue<Entry> evictionQueue = new ArrayDeque<>();
+  private long weight;
+  private long generation;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder expirations = new LongAdder();
+  private final LongAdder invalidations = new LongAdder();
+
+  /**
+   * Creates the cache.
+   *
+   * @param objectMapper     the mapper used to weigh the responses
+   * @param environment      the environment holding the TTL of each endpoint
+   * @param enabled          whether responses are cached at all
+   * @param maxWeight        the maximum total size of the cached responses, in bytes of JSON
+   * @param defaultTtlMillis the TTL of the endpoints without their own, in milliseconds
+   * @param serialized       whether the JSON of the responses is kept to be written as is
+   */
+  @Autowired
+  public ResponseCache(ObjectMapper objectMapper,
+                       Environment environment,
+                       @Value("${safetynet.cache.enabled:true}") boolean enabled,
+                       @Value("${safetynet.cache.max-weight-bytes:67108864}") long maxWeight,
+                       @Value("${safetynet.cache.ttl-ms:60000}") long defaultTtlMillis,
+                       @Value("${safetynet.cache.serialized:true}") boolean serialized) {
+    this(objectMapper, environment, enabled, maxWeight, defaultTtlMillis, serialized, Clock.systemDefaultZone());
+  }
+
+  ResponseCache(ObjectMapper objectMapper, Environment environment, boolean enabled, long maxWeight,
+                long defaultTtlMillis, boolean serialized, Clock clock) {
+    this.objectMapper = objectMapper;
+    this.environment = environment;
+    this.enabled = enabled;
+    this.serialized = serialized;
+    this.maxWeight = maxWeight;
+    this.defaultTtlMillis = defaultTtlMillis;
+    this.clock = clock;
+  }
+
+  /**
+   * Returns the cached response of an endpoint, computing and caching it on a miss.
+   *
+   * @param endpoint the name of the endpoint
+   * @param params   the normalized parameters of the request
+   * @param tags     the tags invalidating the response
+   * @param loader   computes the response
+   * @param <T>      the type of the response
+   * @return the response
+   */
+  public <T> T get(String endpoint, String params, Collection<String> tags, Supplier<T> loader) {
+    return cached(endpoint, params, tags, loader).value();
+  }
+
+  /**
+   * Returns the cached response of an endpoint with its JSON, computing and caching it on a miss.
+   *
+   * @param endpoint the name of the endpoint
+   * @param params   the normalized parameters of the request
+   * @param tags     the tags invalidating the response
+   * @param loader   computes the response
+   * @param <T>      the type of the response
+   * @return the response, with its JSON if kept
+   */
+  @SuppressWarnings("unchecked")
+  public <T> Cached<T> cached(String endpoint, String params, Collection<String> tags, Supplier<T> loader) {
+    if (!enabled) {
+      return new Cached<>(loader.get(), null);
+    }
+    String key = endpoint + '?' + params;
+    long now = clock.millis();
+    int today = Birthdates.today(clock);
+    Entry entry = entries.get(key);
+    if (entry != null && entry.expiresAt > now && entry.day == today) {
+      entry.referenced = true;
+      hits.increment();
+      return new Cached<>((T) entry.value, entry.serialized);
+    }
+    misses.increment();
+
+    long stamp;
+    synchronized (this) {
+      if (entry != null && entries.get(key) == entry) {
+        unlink(entry);
+        expirations.increment();
+      }
+      stamp = generation;
+    }
+    T value = loader.get();
+    byte[] json = serialize(key, value);
+    if (json == null || key.length() + (long) json.length > maxWeight) {
+      return new Cached<>(value, null);
+    }
+    entry = new Entry(key, value, Set.copyOf(tags), now + ttl(endpoint), today, json, serialized);
+    synchronized (this) {
+      if (generation == stamp) {
+        link(entry);
+      }
+    }
+    return new Cached<>(value, entry.serialized);
+  }
+
+  /**
+   * Discards every response tagged with one of the given tags.
+   *
+   * @param tags the tags touched by a change
+   */
+  public synchronized void invalidate(Collection<String> tags) {
+    generation++;
+    for (String tag : tags) {
+      Set<Entry> tagged = entriesByTag.remove(tag);
+      if (tagged == null) {
+        continue;
+      }
+      for (Entry entry : tagged) {
+        if (entries.get(entry.key) == entry) {
+          unlink(entry);
+          invalidations.increment();
+        }
+      }
+    }
+  }
+
+  /**
+   * Discards every response.
+   */
+  public synchronized void invalidateAll() {
+    generation++;
+    invalidations.add(entries.size());
+    entries.clear();
+    entriesByTag.clear();
+    evictionQueue.clear();
+    weight = 0;
+  }
+
+  /**
+   * Returns the statistics of the cache since startup.
+   *
+   * @return the statistics
+   */
+  public Stats stats() {
+    synchronized (this) {
+      return new Stats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), invalidations.sum(),
+              entries.size(), weight, maxWeight);
+    }
+  }
+
+  // Private methods maintaining the entries
+
+  private long ttl(String endpoint) {
+    return ttlByEndpoint.computeIfAbsent(endpoint,
+            name -> environment.getProperty("safetynet.cache.ttl-ms." + name, Long.class, defaultTtlMillis));
+  }
+
+  private byte[] serialize(String key, Object value) {
+    if (value == null) {
+      return null;
+    }
+    try {
+      return objectMapper.writeValueAsBytes(value);
+    } catch (JsonProcessingException e) {
+      log.warn("❌ Error serializing the response of {}, it is not cached", key, e);
+      return null;
+    }
+  }
+
+  private void link(Entry entry) {
+    Entry previous = entries.get(entry.key);
+    if (previous != null) {
+      unlink(previous);
+    }
+    entries.put(entry.key, entry);
+    weight += entry.weight;
+    for (String tag : entry.tags) {
+      entriesByTag.computeIfAbsent(tag, t -> Collections.newSetFromMap(new IdentityHashMap<>())).add(entry);
+    }
+    evictionQueue.add(entry);
+    while (weight > maxWeight) {
+      evictOne();
+    }
+    if (evictionQueue.size() > 2 * entries.size() + 64) {
+      evictionQueue.removeIf(queued -> entries.get(queued.key) != queued);
+    }
+  }
+
+  private void unlink(Entry entry) {
+    entries.remove(entry.key);
+    weight -= entry.weight;
+    for (String tag : entry.tags) {
+      Set<Entry> tagged = entriesByTag.get(tag);
+      if (tagged != null) {
+        tagged.remove(entry);
+        if (tagged.isEmpty()) {
+          entriesByTag.remove(tag);
+        }
+      }
+    }
+  }
+
+  private void evictOne() {
+    Entry entry;
+    while ((entry = evictionQueue.poll()) != null) {
+      if (entries.get(entry.key) != entry) {
+        continue;
+      }
+      if (entry.referenced) {
+        entry.referenced = false;
+        evictionQueue.add(entry);
+        continue;
+      }
+      unlink(entry);
+      evictions.increment();
+      return;
+    }
+  }
+
+  private static final class Entry {
+
+    private final String key;
+    private final Object value;
+    private final Set<String> tags;
+    private final long weight;
+    private final long expiresAt;
+    private final int day;
+    private final Serialized serialized;
+    private volatile boolean referenced;
+
+    private Entry(String key, Object value, Set<String> tags, long expiresAt, int day, byte[] json, boolean keepJson) {
+      this.key = key;
+      this.value = value;
+      this.tags = tags;
+      this.weight = key.length() + (long) json.length;
+      this.expiresAt = expiresAt;
+      this.day = day;
+      this.serialized = keepJson ? new Serialized(json, etag(json)) : null;
+    }
+
+    private static String etag(byte[] json) {
+      CRC32C crc = new CRC32C();
+      crc.update(json);
+      return "\"" + Long.toHexString(crc.getValue()) + '-' + Integer.toHexString(json.length) + '"';
+    }
+  }
+
+  /**
+   * JSON of a cached response, written as is.
+   *
+   * @param json the UTF-8 encoded JSON, which must not be modified
+   * @param etag the strong ETag of the JSON, quoted
+   */
+  public record Serialized(byte[] json, String etag) {
+  }
+
+  /**
+   * Response returned from the cache, with its JSON when kept.
+   * It serializes as the response itself, so that it can be returned as the body of a request.
+   *
+   * @param value      the response
+   * @param serialized the JSON of the response, or null if it must be serialized
+   * @param <T>        the type of the response
+   */
+  public record Cached<T>(@JsonValue T value, @JsonIgnore Serialized serialized) {
+  }
+
+  /**
+   * Statistics of the cache.
+   *
+   * @param hits          the requests served from the cache
+   * @param misses        the requests whose response was computed
+   * @param evictions     the responses discarded to make room
+   * @param expirations   the responses discarded after their TTL or at midnight
+   * @param invalidations the responses discarded by a change
+   * @param size          the number of cached responses
+   * @param weight        the size of the cached responses, in bytes of JSON
+   * @param maxWeight     the maximum size of the cached responses, in bytes of JSON
+   */
+  public record Stats(long hits, long misses, long evictions, long expirations, long invalidations,
+                      int size, long weight, long maxWeight) {
+  }
+}
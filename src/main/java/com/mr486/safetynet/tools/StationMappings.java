@@ -0,0 +1,72 @@
+package com.mr486.safetynet.tools;
+
+import com.mr486.safetynet.model.FireStation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Utility class holding the rules applied to the fire stations of a single address.
+ * <p>
+ * An address may be covered by several stations, such as "112 Steppes Pl" by stations 3 and 4
+ * in the shipped dataset: its mappings are kept together, in their original order, and the
+ * first one is the one answering a lookup by address. The repository and the replay of the
+ * {@link WriteAheadLog} apply the same rules, so a replayed save ends in the same state.
+ * </p>
+ */
+public final class StationMappings {
+
+  private StationMappings() {
+  }
+
+  /**
+   * Adds a mapping to those of its address, unless the address is already mapped to its station.
+   *
+   * @param mappings    the mappings of the address, may be null if it has none
+   * @param fireStation the mapping to add
+   * @return a new immutable list of the mappings, or the given one if the mapping is a duplicate
+   */
+  public static List<FireStation> add(List<FireStation> mappings, FireStation fireStation) {
+    if (mappings == null) {
+      return List.of(fireStation);
+    }
+    if (covers(mappings, fireStation.getStation())) {
+      return mappings;
+    }
+    List<FireStation> added = new ArrayList<>(mappings.size() + 1);
+    added.addAll(mappings);
+    added.add(fireStation);
+    return List.copyOf(added);
+  }
+
+  /**
+   * Saves a mapping of an address: it replaces the first mapping of the address, the others
+   * being kept unless they name the same station.
+   *
+   * @param mappings    the mappings of the address, may be null if it has none
+   * @param fireStation the mapping to save
+   * @return a new immutable list of the mappings, starting with the saved one
+   */
+  public static List<FireStation> save(List<FireStation> mappings, FireStation fireStation) {
+    List<FireStation> saved = new ArrayList<>(mappings == null ? 1 : mappings.size());
+    saved.add(fireStation);
+    if (mappings != null) {
+      for (int i = 1; i < mappings.size(); i++) {
+        if (!Objects.equals(mappings.get(i).getStation(), fireStation.getStation())) {
+          saved.add(mappings.get(i));
+        }
+      }
+    }
+    return List.copyOf(saved);
+  }
+
+  private static boolean covers(List<FireStation> mappings, Integer station) {
+    for (FireStation mapping : mappings) {
+      if (Objects.equals(mapping.getStation(), station)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
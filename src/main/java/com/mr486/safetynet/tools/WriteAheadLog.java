@@ -0,0 +1,359 @@
+package com.mr486.safetynet.tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mr486.safetynet.dto.request.DataBindingDto;
+import com.mr486.safetynet.model.FireStation;
+import com.mr486.safetynet.model.MedicalRecord;
+import com.mr486.safetynet.model.Person;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of the mutations applied to the dataset.
+ * <p>
+ * When the journal is enabled, every save or delete appends one JSON line to the current
+ * segment file, so a mutation costs the size of the record instead of a rewrite of the whole
+ * dataset. Appended lines are forced to disk in batches every sync interval. Before the
+ * write-behind persister writes a snapshot it rotates to a new segment; once the snapshot is
+ * written the older segments are deleted. At startup the remaining segments are replayed
+ * on top of the JSON file.
+ * </p>
+ */
+@Slf4j
+@Component
+public class WriteAheadLog {
+
+  private final ObjectMapper mapper;
+  private final boolean enabled;
+  private final Path directory;
+  private final String prefix;
+  private final ScheduledExecutorService syncExecutor;
+  private FileChannel channel;
+  private long segment;
+  private boolean unsynced;
+
+  /**
+   * Creates the journal.
+   *
+   * @param mapper             the ObjectMapper used to encode the entries
+   * @param enabled            whether mutations are journaled
+   * @param path               the path of the journal, used as prefix of the segment files
+   * @param syncIntervalMillis the delay between two forces of the journal to disk, in milliseconds
+   */
+  public WriteAheadLog(ObjectMapper mapper,
+                       @Value("${safetynet.persistence.journal.enabled:false}") boolean enabled,
+                       @Value("${safetynet.persistence.journal.path:data/data.wal}") String path,
+                       @Value("${safetynet.persistence.journal.sync-interval-ms:50}") long syncIntervalMillis) {
+    this.mapper = mapper;
+    this.enabled = enabled;
+    Path journalPath = Path.of(path).toAbsolutePath();
+    this.directory = journalPath.getParent();
+    this.prefix = journalPath.getFileName() + ".";
+    if (enabled) {
+      this.segment = segments().stream().mapToLong(this::sequence).max().orElse(0) + 1;
+      this.syncExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "json-journal-sync");
+        thread.setDaemon(true);
+        return thread;
+      });
+      syncExecutor.scheduleWithFixedDelay(this::sync, syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+    } else {
+      this.syncExecutor = null;
+    }
+  }
+
+  /**
+   * Indicates whether mutations are journaled.
+   *
+   * @return true if the journal is enabled
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Appends an entry to the current segment.
+   * The entry is handed to the operating system immediately and forced to disk with the next batch.
+   *
+   * @param entry the mutation to record
+   * @throws UncheckedIOException if the entry cannot be written
+   */
+  public synchronized void append(JournalEntry entry) {
+    if (!enabled) {
+      return;
+    }
+    try {
+      byte[] line = mapper.writeValueAsBytes(entry);
+      ByteBuffer buffer = ByteBuffer.allocate(line.length + 1).put(line).put((byte) '\n').flip();
+      FileChannel current = channel();
+      while (buffer.hasRemaining()) {
+        current.write(buffer);
+      }
+      unsynced = true;
+    } catch (IOException e) {
+      throw new UncheckedIOException("❌ Error writing journal segment " + segmentPath(segment), e);
+    }
+  }
+
+  /**
+   * Forces the entries appended since the last batch to disk.
+   */
+  public synchronized void sync() {
+    if (!unsynced || channel == null) {
+      return;
+    }
+    try {
+      channel.force(false);
+      unsynced = false;
+    } catch (IOException e) {
+      log.error("❌ Failed to sync journal segment {}", segmentPath(segment), e);
+    }
+  }
+
+  /**
+   * Closes the current segment and starts a new one.
+   * Every entry appended before this call is covered by a snapshot taken after it.
+   *
+   * @return the sequence of the new current segment
+   */
+  public synchronized long rotate() {
+    if (!enabled) {
+      return 0;
+    }
+    if (channel != null) {
+      sync();
+      closeChannel();
+      segment++;
+    }
+    return segment;
+  }
+
+  /**
+   * Deletes the segments older than the given one, once a snapshot covering them has been written.
+   *
+   * @param sequence the sequence returned by {@link #rotate()} before the snapshot was taken
+   */
+  public void discardBefore(long sequence) {
+    if (!enabled) {
+      return;
+    }
+    for (Path path : segments()) {
+      if (sequence(path) < sequence) {
+        try {
+          Files.deleteIfExists(path);
+        } catch (IOException e) {
+          log.warn("Unable to delete journal segment {}: {}", path, e.getMessage());
+        }
+      }
+    }
+  }
+
+  /**
+   * Indicates whether journal segments are waiting to be replayed.
+   *
+   * @return true if the journal is enabled and a non-empty segment exists
+   */
+  public boolean hasEntries() {
+    if (!enabled) {
+      return false;
+    }
+    for (Path path : segments()) {
+      try {
+        if (Files.size(path) > 0) {
+          return true;
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException("❌ Error reading journal segment " + path, e);
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the size of the journal on disk.
+   *
+   * @return the total size of the segments, in bytes, 0 if the journal is disabled
+   */
+  public long sizeBytes() {
+    if (!enabled) {
+      return 0;
+    }
+    long size = 0;
+    for (Path path : segments()) {
+      try {
+        size += Files.size(path);
+      } catch (IOException e) {
+        // Segment deleted by a concurrent compaction
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Replays the journaled mutations on top of the dataset loaded from the JSON file.
+   * A truncated last line, left by a crash during an append, ends the replay of its segment.
+   *
+   * @param data the dataset loaded from the JSON file, updated in place
+   * @return the number of replayed entries
+   */
+  public int replay(DataBindingDto data) {
+    if (!enabled) {
+      return 0;
+    }
+    Map<String, Person> persons = byKey(data.getPersons(),
+            person -> Keys.nameKey(person.getFirstName(), person.getLastName()));
+    Map<String, List<FireStation>> fireStations = byAddress(data.getFirestations());
+    Map<String, MedicalRecord> medicalRecords = byKey(data.getMedicalrecords(),
+            medicalRecord -> Keys.nameKey(medicalRecord.getFirstName(), medicalRecord.getLastName()));
+    int replayed = 0;
+    for (Path path : segments()) {
+      try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          if (line.isBlank()) {
+            continue;
+          }
+          JournalEntry entry;
+          try {
+            entry = mapper.readValue(line, JournalEntry.class);
+          } catch (IOException e) {
+            log.warn("Truncated entry ignored at the end of journal segment {}", path);
+            break;
+          }
+          apply(entry, persons, fireStations, medicalRecords);
+          replayed++;
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException("❌ Error reading journal segment " + path, e);
+      }
+    }
+    if (replayed > 0) {
+      data.setPersons(new ArrayList<>(persons.values()));
+      List<FireStation> mappings = new ArrayList<>();
+      fireStations.values().forEach(mappings::addAll);
+      data.setFirestations(mappings);
+      data.setMedicalrecords(new ArrayList<>(medicalRecords.values()));
+      log.info("Replayed {} journal entries", replayed);
+    }
+    return replayed;
+  }
+
+  /**
+   * Forces the pending entries to disk and stops the sync thread.
+   */
+  @PreDestroy
+  public synchronized void close() {
+    if (syncExecutor != null) {
+      syncExecutor.shutdown();
+    }
+    sync();
+    closeChannel();
+  }
+
+  // Private methods for segment handling
+
+  private static void apply(JournalEntry entry,
+                            Map<String, Person> persons,
+                            Map<String, List<FireStation>> fireStations,
+                            Map<String, MedicalRecord> medicalRecords) {
+    switch (entry.op()) {
+      case SAVE_PERSON -> persons.put(
+              Keys.nameKey(entry.person().getFirstName(), entry.person().getLastName()), entry.person());
+      case DELETE_PERSON -> persons.remove(Keys.nameKey(entry.key().get(0), entry.key().get(1)));
+      case SAVE_FIRESTATION -> fireStations.compute(Keys.normalize(entry.fireStation().getAddress()),
+              (key, mappings) -> StationMappings.save(mappings, entry.fireStation()));
+      case DELETE_FIRESTATION -> fireStations.remove(Keys.normalize(entry.key().get(0)));
+      case SAVE_MEDICALRECORD -> medicalRecords.put(
+              Keys.nameKey(entry.medicalRecord().getFirstName(), entry.medicalRecord().getLastName()),
+              entry.medicalRecord());
+      case DELETE_MEDICALRECORD -> medicalRecords.remove(Keys.nameKey(entry.key().get(0), entry.key().get(1)));
+    }
+  }
+
+  private static <T> Map<String, T> byKey(List<T> entities, Function<T, String> key) {
+    Map<String, T> map = new LinkedHashMap<>();
+    if (entities != null) {
+      entities.forEach(entity -> map.putIfAbsent(key.apply(entity), entity));
+    }
+    return map;
+  }
+
+  private static Map<String, List<FireStation>> byAddress(List<FireStation> fireStations) {
+    // an address may be covered by several stations, all of them are kept
+    Map<String, List<FireStation>> map = new LinkedHashMap<>();
+    if (fireStations != null) {
+      fireStations.forEach(fireStation -> map.compute(Keys.normalize(fireStation.getAddress()),
+              (key, mappings) -> StationMappings.add(mappings, fireStation)));
+    }
+    return map;
+  }
+
+  private FileChannel channel() throws IOException {
+    if (channel == null) {
+      Files.createDirectories(directory);
+      channel = FileChannel.open(segmentPath(segment),
+              StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+    return channel;
+  }
+
+  private void closeChannel() {
+    if (channel == null) {
+      return;
+    }
+    try {
+      channel.close();
+    } catch (IOException e) {
+      log.warn("Unable to close journal segment {}: {}", segmentPath(segment), e.getMessage());
+    }
+    channel = null;
+  }
+
+  private List<Path> segments() {
+    if (!Files.isDirectory(directory)) {
+      return List.of();
+    }
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+              .filter(path -> path.getFileName().toString().startsWith(prefix))
+              .filter(path -> sequence(path) > 0)
+              .sorted((left, right) -> Long.compare(sequence(left), sequence(right)))
+              .toList();
+    } catch (IOException e) {
+      throw new UncheckedIOException("❌ Error listing journal segments in " + directory, e);
+    }
+  }
+
+  private long sequence(Path path) {
+    try {
+      return Long.parseLong(path.getFileName().toString().substring(prefix.length()));
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  private Path segmentPath(long sequence) {
+    return directory.resolve(prefix + String.format("%06d", sequence));
+  }
+}
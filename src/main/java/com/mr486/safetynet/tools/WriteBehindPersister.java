@@ -0,0 +1,145 @@
+package com.mr486.safetynet.tools;
+
+import com.mr486.safetynet.configuration.AppConfiguation;
+import com.mr486.safetynet.dto.request.DataBindingDto;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Component responsible for writing the dataset back to the JSON file asynchronously.
+ * Mutations coming from the repositories only mark the dataset as dirty; a background thread
+ * writes a single snapshot every flush interval, or as soon as the number of pending mutations
+ * reaches the dirty threshold, so a burst of updates costs a handful of file writes.
+ * Each flush also compacts the write-ahead log: the segments covered by the snapshot are deleted.
+ * The mutations, the duration of the flushes and their failures are recorded in the {@link Metrics},
+ * along with the size of the files written, read when the metrics are collected.
+ */
+@Slf4j
+@Component
+public class WriteBehindPersister {
+
+  private final JsonDataUtil jsonDataUtil;
+  private final WriteAheadLog journal;
+  private final int dirtyThreshold;
+  private final ScheduledExecutorService executor;
+  private final AtomicInteger dirtyCount = new AtomicInteger();
+  private final AtomicBoolean flushQueued = new AtomicBoolean();
+  private final Object flushLock = new Object();
+  private final LongAdder mutations;
+  private final LatencyHistogram flushes;
+  private final LongAdder flushFailures;
+  private volatile Supplier<DataBindingDto> snapshotSupplier;
+
+  /**
+   * Creates the persister and starts the periodic flush.
+   *
+   * @param jsonDataUtil        the utility used to write the JSON file
+   * @param journal             the write-ahead log compacted by each flush
+   * @param metrics             the metrics recording the mutations and the flushes
+   * @param flushIntervalMillis the delay between two periodic flushes, in milliseconds
+   * @param dirtyThreshold      the number of pending mutations that triggers an immediate flush
+   */
+  public WriteBehindPersister(JsonDataUtil jsonDataUtil,
+                              WriteAheadLog journal,
+                              Metrics metrics,
+                              @Value("${safetynet.persistence.flush-interval-ms:1000}") long flushIntervalMillis,
+                              @Value("${safetynet.persistence.dirty-threshold:500}") int dirtyThreshold) {
+    this.jsonDataUtil = jsonDataUtil;
+    this.journal = journal;
+    this.dirtyThreshold = dirtyThreshold;
+    this.mutations = metrics.counter("persistence.mutations");
+    this.flushes = metrics.timer("persistence.flush");
+    this.flushFailures = metrics.counter("persistence.flush.failures");
+    metrics.gauge("persistence.json.bytes", () -> fileSize(AppConfiguation.JSON_FILE_PATH));
+    metrics.gauge("persistence.snapshot.bytes", () -> fileSize(AppConfiguation.SNAPSHOT_FILE_PATH));
+    metrics.gauge("persistence.journal.bytes", journal::sizeBytes);
+    this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "json-write-behind");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Records a mutation of the dataset.
+   * The snapshot supplier is only invoked when the pending mutations are flushed.
+   *
+   * @param snapshotSupplier supplies a consistent copy of the whole dataset, or null if it must not be written
+   */
+  public void markDirty(Supplier<DataBindingDto> snapshotSupplier) {
+    this.snapshotSupplier = snapshotSupplier;
+    mutations.increment();
+    if (dirtyCount.incrementAndGet() >= dirtyThreshold && flushQueued.compareAndSet(false, true)) {
+      executor.execute(() -> {
+        flushQueued.set(false);
+        flush();
+      });
+    }
+  }
+
+  /**
+   * Writes one snapshot of the dataset if mutations are pending.
+   * If the write fails the mutations stay pending and are retried on the next flush.
+   */
+  public void flush() {
+    synchronized (flushLock) {
+      int pending = dirtyCount.getAndSet(0);
+      if (pending == 0) {
+        return;
+      }
+      long start = System.nanoTime();
+      try {
+        long covered = journal.rotate();
+        DataBindingDto snapshot = snapshotSupplier.get();
+        if (snapshot == null) {
+          log.error("❌ Dataset was not loaded, {} pending mutation(s) are not written", pending);
+          return;
+        }
+        jsonDataUtil.saveData(snapshot);
+        journal.discardBefore(covered);
+        flushes.recordSince(start);
+        log.debug("Flushed {} mutation(s) to json file", pending);
+      } catch (Exception e) {
+        dirtyCount.addAndGet(pending);
+        flushFailures.increment();
+        log.error("❌ Failed to flush {} mutation(s) to JSON", pending, e);
+      }
+    }
+  }
+
+  /**
+   * Stops the background thread and writes the pending mutations before shutdown.
+   */
+  @PreDestroy
+  public void close() {
+    executor.shutdown();
+    try {
+      executor.awaitTermination(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    flush();
+  }
+
+  private static long fileSize(String path) {
+    try {
+      return Files.size(Path.of(path));
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+}
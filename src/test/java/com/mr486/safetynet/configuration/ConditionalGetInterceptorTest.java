@@ -0,0 +1,82 @@
+package com.mr486.safetynet.configuration;
+
+import com.mr486.safetynet.controller.BuisnessController;
+import com.mr486.safetynet.controller.PersonController;
+import com.mr486.safetynet.service.business.DatasetVersions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import static com.mr486.safetynet.service.business.DatasetVersions.Dataset.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConditionalGetInterceptorTest {
+
+  private static final String ETAG = "W/\"boot-p1\"";
+
+  @Mock
+  private DatasetVersions datasetVersions;
+
+  @InjectMocks
+  private ConditionalGetInterceptor conditionalGetInterceptor;
+
+  private MockHttpServletRequest request;
+  private MockHttpServletResponse response;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    request = new MockHttpServletRequest("GET", "/communityEmail");
+    response = new MockHttpServletResponse();
+    when(datasetVersions.etag(PERSONS)).thenReturn(ETAG);
+  }
+
+  @Test
+  void preHandle_shouldSetEtag_andCallEndpoint_whenClientHasNoEtag() throws Exception {
+    assertTrue(conditionalGetInterceptor.preHandle(request, response, communityEmails()));
+
+    assertEquals(200, response.getStatus());
+    assertEquals(ETAG, response.getHeader("ETag"));
+  }
+
+  @Test
+  void preHandle_shouldAnswerNotModified_whenClientHasCurrentEtag() throws Exception {
+    request.addHeader("If-None-Match", ETAG);
+
+    assertFalse(conditionalGetInterceptor.preHandle(request, response, communityEmails()));
+
+    assertEquals(304, response.getStatus());
+  }
+
+  @Test
+  void preHandle_shouldCallEndpoint_whenClientHasOutdatedEtag() throws Exception {
+    request.addHeader("If-None-Match", "W/\"boot-p0\"");
+
+    assertTrue(conditionalGetInterceptor.preHandle(request, response, communityEmails()));
+
+    assertEquals(200, response.getStatus());
+    assertEquals(ETAG, response.getHeader("ETag"));
+  }
+
+  @Test
+  void preHandle_shouldIgnoreEndpoints_withoutDatasetEtag() throws Exception {
+    HandlerMethod handler = new HandlerMethod(mock(PersonController.class),
+            PersonController.class.getMethod("getAllPersons", String.class, Integer.class, String.class));
+
+    assertTrue(conditionalGetInterceptor.preHandle(request, response, handler));
+
+    assertNull(response.getHeader("ETag"));
+    verifyNoInteractions(datasetVersions);
+  }
+
+  private static HandlerMethod communityEmails() throws NoSuchMethodException {
+    return new HandlerMethod(mock(BuisnessController.class),
+            BuisnessController.class.getMethod("getCommunityEmails", String.class, String.class, Integer.class));
+  }
+}
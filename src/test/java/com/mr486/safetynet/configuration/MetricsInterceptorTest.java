@@ -0,0 +1,64 @@
+package com.mr486.safetynet.configuration;
+
+import com.mr486.safetynet.tools.Metrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsInterceptorTest {
+
+  private final Metrics metrics = new Metrics();
+  private final MetricsInterceptor metricsInterceptor = new MetricsInterceptor(metrics);
+
+  private MockHttpServletRequest request;
+  private MockHttpServletResponse response;
+
+  @BeforeEach
+  void setUp() {
+    request = new MockHttpServletRequest("GET", "/person/all");
+    request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/person/all");
+    response = new MockHttpServletResponse();
+  }
+
+  @Test
+  void afterCompletion_shouldRecordLatencyUnderEndpointPattern() {
+    assertTrue(metricsInterceptor.preHandle(request, response, null));
+    metricsInterceptor.afterCompletion(request, response, null, null);
+
+    Metrics.Snapshot snapshot = metrics.snapshot();
+    assertEquals(1, snapshot.timers().get("http.GET /person/all").count());
+    assertFalse(snapshot.counters().containsKey("http.GET /person/all.errors"));
+  }
+
+  @Test
+  void afterCompletion_shouldCountErrors() {
+    metricsInterceptor.preHandle(request, response, null);
+    response.setStatus(404);
+    metricsInterceptor.afterCompletion(request, response, null, null);
+    metricsInterceptor.preHandle(request, response, null);
+    metricsInterceptor.afterCompletion(request, response, null, new IllegalStateException("failed"));
+
+    assertEquals(2, metrics.snapshot().counters().get("http.GET /person/all.errors"));
+  }
+
+  @Test
+  void preHandle_shouldKeepStartOfFirstDispatch_whenResponseIsAsynchronous() throws Exception {
+    metricsInterceptor.preHandle(request, response, null);
+    Thread.sleep(5);
+    metricsInterceptor.preHandle(request, response, null);
+    metricsInterceptor.afterCompletion(request, response, null, null);
+
+    assertTrue(metrics.snapshot().timers().get("http.GET /person/all").maxMicros() >= 4_000);
+  }
+
+  @Test
+  void afterCompletion_shouldIgnoreRequestNotStarted() {
+    metricsInterceptor.afterCompletion(request, response, null, null);
+
+    assertTrue(metrics.snapshot().timers().isEmpty());
+  }
+}
@@ -0,0 +1,73 @@
+package com.mr486.safetynet.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mr486.safetynet.tools.ResponseCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PreSerializedJsonConverterTest {
+
+  private PreSerializedJsonConverter converter;
+
+  @BeforeEach
+  void setUp() {
+    converter = new PreSerializedJsonConverter(new ObjectMapper());
+  }
+
+  @Test
+  void write_shouldWriteKeptBytes_whenResponseIsCachedWithItsJson() throws Exception {
+    byte[] json = "[\"kept\"]".getBytes(StandardCharsets.UTF_8);
+    ResponseCache.Cached<List<String>> response = new ResponseCache.Cached<>(List.of("841-874-6512"),
+            new ResponseCache.Serialized(json, "\"1f-8\""));
+    MockHttpOutputMessage message = new MockHttpOutputMessage();
+
+    converter.write(response, MediaType.APPLICATION_JSON, message);
+
+    assertEquals("[\"kept\"]", message.getBodyAsString());
+    assertEquals("\"1f-8\"", message.getHeaders().getETag());
+    assertEquals(json.length, message.getHeaders().getContentLength());
+    assertEquals(MediaType.APPLICATION_JSON, message.getHeaders().getContentType());
+  }
+
+  @Test
+  void write_shouldSerializeValue_whenResponseIsCachedWithoutItsJson() throws Exception {
+    ResponseCache.Cached<List<String>> response = new ResponseCache.Cached<>(List.of("841-874-6512"), null);
+    MockHttpOutputMessage message = new MockHttpOutputMessage();
+
+    converter.write(response, MediaType.APPLICATION_JSON, message);
+
+    assertEquals("[\"841-874-6512\"]", message.getBodyAsString());
+    assertNull(message.getHeaders().getETag());
+  }
+
+  @Test
+  void write_shouldSerialize_whenResponseIsNotCached() throws Exception {
+    Map<String, String> response = Map.of("firstName", "John");
+    MockHttpOutputMessage message = new MockHttpOutputMessage();
+
+    converter.write(response, MediaType.APPLICATION_JSON, message);
+
+    assertEquals("{\"firstName\":\"John\"}", message.getBodyAsString());
+    assertNull(message.getHeaders().getETag());
+  }
+
+  @Test
+  void write_shouldSerialize_whenAnotherCharsetIsRequested() throws Exception {
+    ResponseCache.Cached<List<String>> response = new ResponseCache.Cached<>(List.of("841-874-6512"),
+            new ResponseCache.Serialized("[\"kept\"]".getBytes(StandardCharsets.UTF_8), "\"1f-8\""));
+    MockHttpOutputMessage message = new MockHttpOutputMessage();
+
+    converter.write(response, new MediaType("application", "json", StandardCharsets.UTF_16BE), message);
+
+    assertEquals("[\"841-874-6512\"]", message.getBodyAsString(StandardCharsets.UTF_16BE));
+    assertNull(message.getHeaders().getETag());
+  }
+}
@@ -0,0 +1,103 @@
+package com.mr486.safetynet.configuration;
+
+import com.mr486.safetynet.model.Person;
+import com.mr486.safetynet.repository.PersonRepository;
+import com.mr486.safetynet.tools.Metrics;
+import com.mr486.safetynet.tools.Positioned;
+import com.mr486.safetynet.tools.RepositoryLookupEvent;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RepositoryInstrumentationTest {
+
+  @Mock
+  private PersonRepository personRepository;
+
+  private final Metrics metrics = new Metrics();
+
+  private PersonRepository instrumented;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    instrumented = (PersonRepository) new RepositoryInstrumentation(metrics)
+            .instrument(personRepository, PersonRepository.class);
+  }
+
+  @Test
+  void instrument_shouldCountCallsAndRowsReturned() {
+    Person person = new Person();
+    when(personRepository.findByAddress("1509 Culver St")).thenReturn(List.of(person, person, person));
+    when(personRepository.findByFirstNameAndLastName("John", "Boyd")).thenReturn(Optional.of(person));
+
+    assertEquals(3, instrumented.findByAddress("1509 Culver St").size());
+    instrumented.findByAddress("unknown");
+    instrumented.findByFirstNameAndLastName("John", "Boyd");
+
+    Map<String, Long> counters = metrics.snapshot().counters();
+    assertEquals(2, counters.get("repository.PersonRepository.findByAddress.calls"));
+    assertEquals(3, counters.get("repository.PersonRepository.findByAddress.rows"));
+    assertEquals(1, counters.get("repository.PersonRepository.findByFirstNameAndLastName.rows"));
+    assertEquals(0, counters.get("repository.PersonRepository.exists.calls"));
+  }
+
+  @Test
+  void instrument_shouldCountRowsOfIterator_asTheyAreRead() {
+    Person person = new Person();
+    when(personRepository.iterateAfter(-1))
+            .thenReturn(List.of(new Positioned<>(0, person), new Positioned<>(1, person)).iterator());
+
+    var iterator = instrumented.iterateAfter(-1);
+    iterator.next();
+
+    assertEquals(1, metrics.snapshot().counters().get("repository.PersonRepository.iterateAfter.rows"));
+  }
+
+  @Test
+  void instrument_shouldEmitLookupEvents_whenRecording(@TempDir Path directory) throws Exception {
+    when(personRepository.findByAddress("1509 Culver St")).thenReturn(List.of(new Person(), new Person()));
+    Path dump = directory.resolve("events.jfr");
+
+    try (Recording recording = new Recording()) {
+      recording.enable(RepositoryLookupEvent.class);
+      recording.start();
+      instrumented.findByAddress("1509 Culver St");
+      recording.stop();
+      recording.dump(dump);
+    }
+
+    List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+    assertEquals(1, events.size());
+    assertEquals("PersonRepository.findByAddress", events.get(0).getString("lookup"));
+    assertEquals("1509 Culver St", events.get(0).getString("key"));
+    assertEquals(2, events.get(0).getLong("rows"));
+  }
+
+  @Test
+  void instrument_shouldRethrowRepositoryException() {
+    doThrow(new IllegalStateException("read only")).when(personRepository).delete("John", "Boyd");
+
+    assertThrows(IllegalStateException.class, () -> instrumented.delete("John", "Boyd"));
+  }
+
+  @Test
+  void postProcessAfterInitialization_shouldLeaveOtherBeansUnwrapped() {
+    Object bean = new Object();
+
+    assertSame(bean, new RepositoryInstrumentation(metrics).postProcessAfterInitialization(bean, "bean"));
+  }
+}
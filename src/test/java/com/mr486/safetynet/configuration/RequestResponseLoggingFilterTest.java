@@ -0,0 +1,144 @@
+package com.mr486.safetynet.configuration;
+
+import com.mr486.safetynet.configuration.RequestResponseLoggingFilter.BodyCapturingResponseWrapper;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestResponseLoggingFilterTest {
+
+  private static final String BODY = "{\"households\":[\"1509 Culver St\",\"29 15th St\"]}";
+
+  @Test
+  void doFilter_shouldWriteWholeBodyThrough_andCaptureItsBeginning() throws Exception {
+    RequestResponseLoggingFilter filter = filter(true, 1.0, 8, 16);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    MockFilterChain chain = new MockFilterChain() {
+      @Override
+      public void doFilter(ServletRequest request, ServletResponse response) throws IOException, ServletException {
+        super.doFilter(request, response);
+        response.getOutputStream().write(BODY.getBytes(StandardCharsets.UTF_8));
+      }
+    };
+
+    filter.doFilter(new MockHttpServletRequest("GET", "/flood/stations"), response, chain);
+
+    BodyCapturingResponseWrapper wrapper = (BodyCapturingResponseWrapper) chain.getResponse();
+    assertEquals(BODY, response.getContentAsString());
+    assertEquals("{\"househ", new String(wrapper.getCapturedBody(), StandardCharsets.UTF_8));
+    assertEquals(BODY.length(), wrapper.getBodyLength());
+    assertEquals(1, filter.pendingCount());
+    assertTrue(filter.logNext());
+    assertEquals(0, filter.pendingCount());
+  }
+
+  @Test
+  void doFilter_shouldFlushWriter_intoResponse() throws Exception {
+    RequestResponseLoggingFilter filter = filter(true, 1.0, 2048, 16);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    filter.doFilter(new MockHttpServletRequest("GET", "/fire"), response, writing(BODY));
+
+    assertEquals(BODY, response.getContentAsString());
+  }
+
+  @Test
+  void doFilter_shouldNotWrapNorLog_whenRequestIsNotSampled() throws Exception {
+    RequestResponseLoggingFilter filter = filter(true, 0.0, 2048, 16);
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/fire");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    MockFilterChain chain = writing(BODY);
+
+    filter.doFilter(request, response, chain);
+
+    assertSame(response, chain.getResponse());
+    assertEquals(0, filter.pendingCount());
+  }
+
+  @Test
+  void doFilter_shouldLogFailure_whenRequestIsNotSampled() throws Exception {
+    RequestResponseLoggingFilter filter = filter(true, 0.0, 2048, 16);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+
+    filter.doFilter(new MockHttpServletRequest("GET", "/fire"), response, new MockFilterChain());
+
+    assertEquals(1, filter.pendingCount());
+  }
+
+  @Test
+  void doFilter_shouldSkipExcludedPaths() throws Exception {
+    RequestResponseLoggingFilter filter = new RequestResponseLoggingFilter(true, 1.0, 2048,
+            new String[]{" /cache ", ""}, 16);
+    MockFilterChain chain = writing(BODY);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    filter.doFilter(new MockHttpServletRequest("GET", "/cache/stats"), response, chain);
+
+    assertSame(response, chain.getResponse());
+    assertEquals(0, filter.pendingCount());
+  }
+
+  @Test
+  void doFilter_shouldDropExchanges_whenQueueIsFull() throws Exception {
+    RequestResponseLoggingFilter filter = filter(true, 1.0, 2048, 2);
+
+    for (int i = 0; i < 5; i++) {
+      filter.doFilter(new MockHttpServletRequest("GET", "/fire"), new MockHttpServletResponse(), writing(BODY));
+    }
+
+    assertEquals(2, filter.pendingCount());
+    filter.close();
+    assertEquals(0, filter.pendingCount());
+  }
+
+  @Test
+  void doFilter_shouldLogOnRequestThread_whenSynchronous() throws Exception {
+    RequestResponseLoggingFilter filter = filter(false, 1.0, 2048, 2);
+
+    filter.doFilter(new MockHttpServletRequest("GET", "/fire"), new MockHttpServletResponse(), writing(BODY));
+
+    assertEquals(0, filter.pendingCount());
+  }
+
+  @Test
+  void start_shouldLogExchangesInBackground() throws Exception {
+    RequestResponseLoggingFilter filter = filter(true, 1.0, 2048, 16);
+    filter.start();
+    try {
+      filter.doFilter(new MockHttpServletRequest("GET", "/fire"), new MockHttpServletResponse(), writing(BODY));
+
+      for (int i = 0; i < 100 && filter.pendingCount() > 0; i++) {
+        Thread.sleep(10);
+      }
+      assertEquals(0, filter.pendingCount());
+    } finally {
+      filter.close();
+    }
+  }
+
+  private static RequestResponseLoggingFilter filter(boolean async, double sampleRate, int maxBodyBytes, int queueCapacity) {
+    return new RequestResponseLoggingFilter(async, sampleRate, maxBodyBytes, new String[0], queueCapacity);
+  }
+
+  private static MockFilterChain writing(String body) {
+    return new MockFilterChain() {
+      @Override
+      public void doFilter(ServletRequest request, ServletResponse response) throws IOException, ServletException {
+        super.doFilter(request, response);
+        response.setContentType("application/json;charset=UTF-8");
+        response.getWriter().write(body);
+      }
+    };
+  }
+}
@@ -1,24 +1,39 @@
 package com.mr486.safetynet.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mr486.safetynet.dto.request.ChildAlertDto;
 import com.mr486.safetynet.dto.request.PersonInfoDto;
 import com.mr486.safetynet.dto.response.ChildAlertResponseDto;
 import com.mr486.safetynet.dto.response.CoverageResponseDto;
 import com.mr486.safetynet.dto.response.FireResponseDto;
 import com.mr486.safetynet.dto.response.FloodStationsResponseDto;
+import com.mr486.safetynet.exception.InvalidRequestException;
 import com.mr486.safetynet.service.business.*;
+import com.mr486.safetynet.tools.CacheTags;
+import com.mr486.safetynet.tools.Page;
+import com.mr486.safetynet.tools.Positioned;
+import com.mr486.safetynet.tools.PositionedList;
+import com.mr486.safetynet.tools.ResponseCache;
+import com.mr486.safetynet.tools.ResponseCache.Cached;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.core.env.StandardEnvironment;
 import org.springframework.http.ResponseEntity;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class BuisnessControllerTest {
@@ -44,6 +59,12 @@ class BuisnessControllerTest {
   @Mock
   CommunityEmailService communityEmailService;
 
+  @Spy
+  ResponseCache responseCache = new ResponseCache(new ObjectMapper(), new StandardEnvironment(), true, 1 << 20, 60_000, true);
+
+  @Spy
+  ObjectMapper objectMapper = new ObjectMapper();
+
   @InjectMocks
   private BuisnessController buisnessControllerTest;
 
@@ -63,8 +84,8 @@ class BuisnessControllerTest {
     coverageResponse.setPersons(persons);
     // Mock the service call to return the coverage response
     when(fireStationConverageService.getCoverageByStationNumber(stationNumber)).thenReturn(coverageResponse);
-    ResponseEntity<CoverageResponseDto> response = buisnessControllerTest.getCoverage(stationNumber);
-    assertEquals(coverageResponse, response.getBody());
+    ResponseEntity<Cached<CoverageResponseDto>> response = buisnessControllerTest.getCoverage(stationNumber);
+    assertEquals(coverageResponse, response.getBody().value());
     assertEquals(200, response.getStatusCodeValue());
   }
 
@@ -73,7 +94,7 @@ class BuisnessControllerTest {
     int stationNumber = 1;
     // Mock the service call to return an empty coverage response
     when(fireStationConverageService.getCoverageByStationNumber(stationNumber)).thenReturn(new CoverageResponseDto());
-    ResponseEntity<CoverageResponseDto> response = buisnessControllerTest.getCoverage(stationNumber);
+    ResponseEntity<Cached<CoverageResponseDto>> response = buisnessControllerTest.getCoverage(stationNumber);
     assertEquals(404, response.getStatusCodeValue());
   }
 
@@ -86,23 +107,23 @@ class BuisnessControllerTest {
 
     when(childAlertService.getChildrenByAddress(address)).thenReturn(responseDto);
 
-    ResponseEntity<ChildAlertResponseDto> response = buisnessControllerTest.getChildrenByAddress(address);
+    ResponseEntity<Cached<ChildAlertResponseDto>> response = buisnessControllerTest.getChildrenByAddress(address);
 
     assertEquals(200, response.getStatusCodeValue());
-    assertEquals(responseDto, response.getBody());
+    assertEquals(responseDto, response.getBody().value());
   }
 
   @Test
   void getPhonesByStationReturnsOkWithPhones() {
     int firestation = 3;
-    Set<String> phones = Set.of("0102030405", "0607080910");
+    PositionedList<String> phones = positioned("0102030405", "0607080910");
 
     when(phoneAlertService.getPhonesByStation(firestation)).thenReturn(phones);
 
-    ResponseEntity<Set<String>> response = buisnessControllerTest.getPhonesByStation(firestation);
+    ResponseEntity<?> response = buisnessControllerTest.getPhonesByStation(firestation, null, null);
 
     assertEquals(200, response.getStatusCodeValue());
-    assertEquals(phones, response.getBody());
+    assertEquals(phones, ((Cached<?>) response.getBody()).value());
   }
 
   @Test
@@ -112,10 +133,10 @@ class BuisnessControllerTest {
 
     when(fireService.getFireInfoByAddress(address)).thenReturn(responseDto);
 
-    ResponseEntity<FireResponseDto> response = buisnessControllerTest.getFireInfo(address);
+    ResponseEntity<Cached<FireResponseDto>> response = buisnessControllerTest.getFireInfo(address);
 
     assertEquals(200, response.getStatusCodeValue());
-    assertEquals(responseDto, response.getBody());
+    assertEquals(responseDto, response.getBody().value());
   }
 
   @Test
@@ -125,39 +146,108 @@ class BuisnessControllerTest {
 
     when(floodService.getHouseholdsByStations(stations)).thenReturn(responseDto);
 
-    ResponseEntity<FloodStationsResponseDto> response = buisnessControllerTest.getFloodInfo(stations);
+    ResponseEntity<Cached<FloodStationsResponseDto>> response = buisnessControllerTest.getFloodInfo(stations);
 
     assertEquals(200, response.getStatusCodeValue());
-    assertEquals(responseDto, response.getBody());
+    assertEquals(responseDto, response.getBody().value());
   }
 
   @Test
   void getPersonInfoReturnsOkWithPersons() {
     String lastName = "Dupont";
-    List<PersonInfoDto> persons = List.of(new PersonInfoDto());
+    PositionedList<PersonInfoDto> persons = positioned(new PersonInfoDto());
 
     when(personInfoService.getPersonInfoByLastName(lastName)).thenReturn(persons);
 
-    ResponseEntity<List<PersonInfoDto>> response = buisnessControllerTest.getPersonInfo(lastName);
+    ResponseEntity<?> response = buisnessControllerTest.getPersonInfo(lastName, null, null, null);
 
     assertEquals(200, response.getStatusCodeValue());
-    assertEquals(persons, response.getBody());
+    assertEquals(persons, ((Cached<?>) response.getBody()).value());
   }
 
   @Test
   void getCommunityEmailsReturnsOkWithEmails() {
     String city = "Paris";
-    Set<String> emails = Set.of("a@b.com", "c@d.com");
+    PositionedList<String> emails = positioned("a@b.com", "c@d.com");
 
     when(communityEmailService.getEmailsByCity(city)).thenReturn(emails);
 
-    ResponseEntity<Set<String>> response = buisnessControllerTest.getCommunityEmails(city);
+    ResponseEntity<?> response = buisnessControllerTest.getCommunityEmails(city, null, null);
 
     assertEquals(200, response.getStatusCodeValue());
-    assertEquals(emails, response.getBody());
+    assertEquals(emails, ((Cached<?>) response.getBody()).value());
+    assertArrayEquals("[\"a@b.com\",\"c@d.com\"]".getBytes(StandardCharsets.UTF_8),
+            ((Cached<?>) response.getBody()).serialized().json());
   }
 
+  @Test
+  void getCommunityEmails_shouldPageCachedEmails_withNextCursor() {
+    String city = "Paris";
+    PositionedList<String> emails = positioned("a@b.com", "c@d.com", "e@f.com");
+    when(communityEmailService.getEmailsByCity(city)).thenReturn(emails);
+
+    ResponseEntity<?> first = buisnessControllerTest.getCommunityEmails(city, null, 2);
+    String cursor = first.getHeaders().getFirst(Page.NEXT_CURSOR_HEADER);
+    ResponseEntity<?> second = buisnessControllerTest.getCommunityEmails(city, cursor, 2);
 
+    assertEquals(List.of("a@b.com", "c@d.com"), first.getBody());
+    assertEquals(List.of("e@f.com"), second.getBody());
+    assertNull(second.getHeaders().getFirst(Page.NEXT_CURSOR_HEADER));
+    verify(communityEmailService, times(1)).getEmailsByCity(city);
+  }
 
+  @Test
+  void getCommunityEmails_shouldResumeAfterCursor_whenEmailsAreComputedAgainAfterAChange() {
+    String city = "Paris";
+    when(communityEmailService.getEmailsByCity(city)).thenReturn(PositionedList.sorted(List.of(
+            new Positioned<>(0, "a@b.com"), new Positioned<>(1, "c@d.com"), new Positioned<>(2, "e@f.com"))));
+    ResponseEntity<?> first = buisnessControllerTest.getCommunityEmails(city, null, 2);
+    String cursor = first.getHeaders().getFirst(Page.NEXT_CURSOR_HEADER);
+
+    // The first person is deleted and another one is added, then the response is computed again
+    when(communityEmailService.getEmailsByCity(city)).thenReturn(PositionedList.sorted(List.of(
+            new Positioned<>(1, "c@d.com"), new Positioned<>(2, "e@f.com"), new Positioned<>(3, "g@h.com"))));
+    responseCache.invalidate(List.of(CacheTags.city(city)));
+    ResponseEntity<?> second = buisnessControllerTest.getCommunityEmails(city, cursor, 2);
+
+    assertEquals(List.of("a@b.com", "c@d.com"), first.getBody());
+    assertEquals(List.of("e@f.com", "g@h.com"), second.getBody());
+    verify(communityEmailService, times(2)).getEmailsByCity(city);
+  }
 
-}
\ No newline at end of file
+  @Test
+  void getPersonInfo_shouldProjectPersonsOnRequestedFields() {
+    String lastName = "Dupont";
+    when(personInfoService.getPersonInfoByLastName(lastName))
+            .thenReturn(positioned(new PersonInfoDto("Jean", lastName, "1 rue", 42, "jean@ex.com")));
+
+    ResponseEntity<?> response = buisnessControllerTest.getPersonInfo(lastName, null, null, "age,firstName");
+
+    assertEquals("[{\"firstName\":\"Jean\",\"age\":42}]", response.getBody().toString());
+    assertThrows(InvalidRequestException.class,
+            () -> buisnessControllerTest.getPersonInfo(lastName, null, null, "phone"));
+  }
+
+  @Test
+  void getCoverage_shouldServeRepeatedRequestsFromCache_untilStationIsInvalidated() {
+    CoverageResponseDto coverageResponse = new CoverageResponseDto();
+    coverageResponse.getPersons().add(new CoverageResponseDto.PersonInfo("John", "Doe", "123 Main St", "555-1234"));
+    when(fireStationConverageService.getCoverageByStationNumber(1)).thenReturn(coverageResponse);
+
+    buisnessControllerTest.getCoverage(1);
+    buisnessControllerTest.getCoverage(1);
+    responseCache.invalidate(List.of(CacheTags.station(1)));
+    buisnessControllerTest.getCoverage(1);
+
+    verify(fireStationConverageService, times(2)).getCoverageByStationNumber(1);
+  }
+
+  @SafeVarargs
+  private static <T> PositionedList<T> positioned(T... values) {
+    List<Positioned<T>> items = new ArrayList<>();
+    for (T value : values) {
+      items.add(new Positioned<>(items.size(), value));
+    }
+    return PositionedList.sorted(items);
+  }
+}
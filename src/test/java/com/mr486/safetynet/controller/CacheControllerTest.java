@@ -0,0 +1,33 @@
+package com.mr486.safetynet.controller;
+
+import com.mr486.safetynet.tools.ResponseCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.when;
+
+class CacheControllerTest {
+
+  @Mock
+  private ResponseCache responseCache;
+
+  @InjectMocks
+  private CacheController cacheController;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+  }
+
+  @Test
+  void getStats_shouldReturnCacheStatistics() {
+    ResponseCache.Stats stats = new ResponseCache.Stats(3, 1, 0, 0, 2, 1, 120, 1024);
+    when(responseCache.stats()).thenReturn(stats);
+
+    assertSame(stats, cacheController.getStats());
+  }
+}
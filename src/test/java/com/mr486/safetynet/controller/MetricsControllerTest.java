@@ -0,0 +1,35 @@
+package com.mr486.safetynet.controller;
+
+import com.mr486.safetynet.tools.Metrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.when;
+
+class MetricsControllerTest {
+
+  @Mock
+  private Metrics metrics;
+
+  @InjectMocks
+  private MetricsController metricsController;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+  }
+
+  @Test
+  void getMetrics_shouldReturnMetricsSnapshot() {
+    Metrics.Snapshot snapshot = new Metrics.Snapshot(Map.of(), Map.of("persistence.mutations", 3L), Map.of());
+    when(metrics.snapshot()).thenReturn(snapshot);
+
+    assertSame(snapshot, metricsController.getMetrics());
+  }
+}
@@ -1,15 +1,24 @@
 package com.mr486.safetynet.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mr486.safetynet.dto.request.PersonDto;
+import com.mr486.safetynet.exception.InvalidRequestException;
 import com.mr486.safetynet.model.Person;
 import com.mr486.safetynet.service.PersonService;
+import com.mr486.safetynet.tools.Page;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -21,6 +30,9 @@ class PersonControllerTest {
   @Mock
   private PersonService personService;
 
+  @Spy
+  private ObjectMapper objectMapper = new ObjectMapper();
+
   @InjectMocks
   private PersonController personController;
 
@@ -43,7 +55,7 @@ class PersonControllerTest {
 
   @Test
   void testGetAllPersons() {
-    List<Person> persons = (List<Person>) personController.getAllPersons().getBody();
+    List<Person> persons = (List<Person>) personController.getAllPersons(null, null, null).getBody();
     assertNotNull(persons);
     assertFalse(persons.isEmpty());
     assertEquals(1, persons.size());
@@ -52,6 +64,48 @@ class PersonControllerTest {
 
   }
 
+  @Test
+  void testGetPageOfPersons_projectedOnFields() {
+    Person jane = new Person("Jane", "Doe", "456 Elm St", "Lyon", "69000", "0607080910", "jane@test.com");
+    when(personService.findPage(null, 1)).thenReturn(new Page<>(List.of(jane), "next"));
+
+    ResponseEntity<Collection<?>> response = personController.getAllPersons(null, 1, "firstName, email");
+
+    assertEquals("next", response.getHeaders().getFirst(Page.NEXT_CURSOR_HEADER));
+    assertEquals("[{\"firstName\":\"Jane\",\"email\":\"jane@test.com\"}]", response.getBody().toString());
+  }
+
+  @Test
+  void testGetAllPersons_shouldRejectUnknownField() {
+    assertThrows(InvalidRequestException.class, () -> personController.getAllPersons(null, null, "password"));
+  }
+
+  @Test
+  void testStreamAllPersons() throws Exception {
+    List<Person> persons = personService.findAll();
+    when(personService.iterateAll()).thenReturn(persons.iterator());
+
+    ResponseEntity<StreamingResponseBody> response = personController.streamPersons(null, null);
+
+    assertNull(response.getHeaders().getFirst(Page.NEXT_CURSOR_HEADER));
+    String[] lines = written(response).split("\n");
+    assertEquals(1, lines.length);
+    assertEquals("Doe", objectMapper.readTree(lines[0]).get("lastName").asText());
+  }
+
+  @Test
+  void testStreamPageOfPersons() throws Exception {
+    Person jane = new Person("Jane", "Doe", "456 Elm St", "Lyon", "69000", "0607080910", "jane@test.com");
+    when(personService.findPage("cursor", 1)).thenReturn(new Page<>(List.of(jane), "next"));
+
+    ResponseEntity<StreamingResponseBody> response = personController.streamPersons("cursor", 1);
+
+    assertEquals("next", response.getHeaders().getFirst(Page.NEXT_CURSOR_HEADER));
+    String written = written(response);
+    assertTrue(written.startsWith("{\"firstName\":\"Jane\""));
+    assertTrue(written.endsWith("}\n"));
+  }
+
   @Test
   void testGetPersonByName() {
     Person person = personController.getPersonByName("John", "Doe").getBody();
@@ -119,5 +173,9 @@ class PersonControllerTest {
 
   }
 
-
-}
\ No newline at end of file
+  private static String written(ResponseEntity<StreamingResponseBody> response) throws Exception {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    response.getBody().writeTo(output);
+    return output.toString(StandardCharsets.UTF_8);
+  }
+}
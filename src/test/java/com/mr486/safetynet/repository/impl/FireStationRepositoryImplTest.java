@@ -1,6 +1,8 @@
 package com.mr486.safetynet.repository.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mr486.safetynet.model.FireStation;
+import com.mr486.safetynet.tools.JsonDataUtil;
 import com.mr486.safetynet.tools.JsonService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,10 +10,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
 
 class FireStationRepositoryImplTest {
 
@@ -61,7 +67,20 @@ class FireStationRepositoryImplTest {
     FireStation result = fireStationRepositoryImpl.save(updatedFireStation);
 
     assertEquals(updatedFireStation, result);
-    assertEquals(2, existingFireStation.getStation());
+    assertEquals(1, existingFireStation.getStation());
+    assertEquals(2, fireStationRepositoryImpl.findByAddress("123 Main St").orElseThrow().getStation());
+  }
+
+  @Test
+  void version_shouldBeIncrementedBySaveAndDelete_notByMissingDelete() {
+    long initial = fireStationRepositoryImpl.version();
+
+    fireStationRepositoryImpl.save(new FireStation("123 Main St", 1));
+    fireStationRepositoryImpl.save(new FireStation("123 Main St", 2));
+    fireStationRepositoryImpl.delete("Nowhere");
+    fireStationRepositoryImpl.delete("123 Main St");
+
+    assertEquals(initial + 3, fireStationRepositoryImpl.version());
   }
 
   @Test
@@ -158,4 +177,103 @@ class FireStationRepositoryImplTest {
 
     assertTrue(result.isEmpty());
   }
-}
\ No newline at end of file
+
+  @Test
+  void save_shouldMoveFireStationBetweenStationNumbers_whenStationIsUpdated() {
+    fireStationRepositoryImpl.save(new FireStation("123 Main St", 1));
+    fireStationRepositoryImpl.save(new FireStation("456 Oak St", 1));
+
+    fireStationRepositoryImpl.save(new FireStation("123 MAIN ST", 3));
+
+    assertEquals(List.of("456 Oak St"), fireStationRepositoryImpl.findByStationNumber(1).stream()
+            .map(FireStation::getAddress).toList());
+    assertEquals(List.of("123 Main St"), fireStationRepositoryImpl.findByStationNumber(3).stream()
+            .map(FireStation::getAddress).toList());
+  }
+
+  @Test
+  void findByStationNumber_shouldListAddressesInRepositoryOrder_whenAnAddressComesBackToAStation() {
+    fireStationRepositoryImpl.save(new FireStation("1 Main St", 1));
+    fireStationRepositoryImpl.save(new FireStation("2 Main St", 1));
+    fireStationRepositoryImpl.save(new FireStation("3 Main St", 1));
+
+    fireStationRepositoryImpl.save(new FireStation("1 Main St", 2));
+    fireStationRepositoryImpl.save(new FireStation("1 Main St", 1));
+
+    assertEquals(List.of("1 Main St", "2 Main St", "3 Main St"), addresses(fireStationRepositoryImpl.findByStationNumber(1)));
+    assertTrue(fireStationRepositoryImpl.findByStationNumber(2).isEmpty());
+  }
+
+  @Test
+  void delete_shouldRemoveFireStationFromStationNumber() {
+    fireStationRepositoryImpl.save(new FireStation("123 Main St", 1));
+
+    fireStationRepositoryImpl.delete("123 main st");
+
+    assertTrue(fireStationRepositoryImpl.findByStationNumber(1).isEmpty());
+  }
+
+  @Test
+  void init_shouldIndexLoadedFireStationsByStationNumber() {
+    when(jsonService.loadFireStations(any())).thenReturn(new ArrayList<>(List.of(
+            new FireStation("1 Main St", 1),
+            new FireStation("2 Main St", 2),
+            new FireStation("3 Main St", 1),
+            new FireStation("4 Main St", null))));
+
+    fireStationRepositoryImpl.init();
+
+    assertEquals(2, fireStationRepositoryImpl.findByStationNumber(1).size());
+    assertEquals(1, fireStationRepositoryImpl.findByStationNumber(2).size());
+    assertTrue(fireStationRepositoryImpl.findByAddress("4 main st").isPresent());
+    assertEquals(4, fireStationRepositoryImpl.findAll().size());
+  }
+
+  @Test
+  void init_shouldKeepEveryStationOfAnAddress_whenLoadingShippedData() {
+    when(jsonService.loadFireStations(any())).thenReturn(
+            new JsonDataUtil(new ObjectMapper()).loadData(new File("data/data.json.dist")).getFirestations());
+
+    fireStationRepositoryImpl.init();
+
+    assertTrue(addresses(fireStationRepositoryImpl.findByStationNumber(3)).contains("112 Steppes Pl"));
+    assertTrue(addresses(fireStationRepositoryImpl.findByStationNumber(4)).contains("112 Steppes Pl"));
+    assertEquals(3, fireStationRepositoryImpl.findByAddress("112 steppes pl").orElseThrow().getStation());
+    assertEquals(List.of(new FireStation("112 Steppes Pl", 3), new FireStation("112 Steppes Pl", 4)),
+            fireStationRepositoryImpl.findAllByAddress("112 Steppes Pl"));
+  }
+
+  @Test
+  void save_shouldReplaceFirstStationOnly_whenAddressIsCoveredBySeveral() {
+    when(jsonService.loadFireStations(any())).thenReturn(new ArrayList<>(List.of(
+            new FireStation("112 Steppes Pl", 3),
+            new FireStation("112 Steppes Pl", 4))));
+    fireStationRepositoryImpl.init();
+
+    fireStationRepositoryImpl.save(new FireStation("112 Steppes Pl", 2));
+
+    assertEquals(List.of(new FireStation("112 Steppes Pl", 2), new FireStation("112 Steppes Pl", 4)),
+            fireStationRepositoryImpl.findAll());
+    assertTrue(fireStationRepositoryImpl.findByStationNumber(3).isEmpty());
+    assertEquals(1, fireStationRepositoryImpl.findByStationNumber(4).size());
+  }
+
+  @Test
+  void delete_shouldRemoveEveryStationOfAnAddress() {
+    when(jsonService.loadFireStations(any())).thenReturn(new ArrayList<>(List.of(
+            new FireStation("112 Steppes Pl", 3),
+            new FireStation("112 Steppes Pl", 4),
+            new FireStation("112 Steppes Pl", 4))));
+    fireStationRepositoryImpl.init();
+
+    fireStationRepositoryImpl.delete("112 Steppes Pl");
+
+    assertTrue(fireStationRepositoryImpl.findAll().isEmpty());
+    assertTrue(fireStationRepositoryImpl.findByStationNumber(3).isEmpty());
+    assertTrue(fireStationRepositoryImpl.findByStationNumber(4).isEmpty());
+  }
+
+  private static List<String> addresses(List<FireStation> fireStations) {
+    return fireStations.stream().map(FireStation::getAddress).toList();
+  }
+}
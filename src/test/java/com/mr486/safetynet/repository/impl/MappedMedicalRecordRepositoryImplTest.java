@@ -0,0 +1,107 @@
+package com.mr486.safetynet.repository.impl;
+
+import com.mr486.safetynet.dto.request.DataBindingDto;
+import com.mr486.safetynet.model.MedicalRecord;
+import com.mr486.safetynet.model.Person;
+import com.mr486.safetynet.tools.BinarySnapshot;
+import com.mr486.safetynet.tools.JsonService;
+import com.mr486.safetynet.tools.MappedSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MappedMedicalRecordRepositoryImplTest {
+
+  @TempDir
+  Path directory;
+
+  @Mock
+  private JsonService jsonService;
+
+  @InjectMocks
+  private MappedMedicalRecordRepositoryImpl mappedMedicalRecordRepositoryImpl;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    MockitoAnnotations.openMocks(this);
+    List<MedicalRecord> medicalRecords = List.of(
+            new MedicalRecord("John", "Doe", "01/01/2000",
+                    new ArrayList<>(List.of("Aspirin")), new ArrayList<>(List.of("Peanuts"))),
+            new MedicalRecord("Jane", "Doe", "01/01/2010", new ArrayList<>(), new ArrayList<>()));
+    Path file = directory.resolve("data.snapshot");
+    BinarySnapshot.write(new DataBindingDto(List.of(), List.of(), medicalRecords), file);
+    when(jsonService.mappedSnapshot()).thenReturn(MappedSnapshot.open(file));
+    mappedMedicalRecordRepositoryImpl.init();
+  }
+
+  @Test
+  void findByFirstNameAndLastName_shouldReturnMappedRecord_ignoringCase() {
+    MedicalRecord result = mappedMedicalRecordRepositoryImpl.findByFirstNameAndLastName("john", "DOE").orElseThrow();
+
+    assertEquals(List.of("Aspirin"), result.getMedications());
+    assertTrue(mappedMedicalRecordRepositoryImpl.findByFirstNameAndLastName("Jim", "Doe").isEmpty());
+  }
+
+  @Test
+  void save_shouldReplaceMappedRecord() {
+    MedicalRecord update = new MedicalRecord("John", "Doe", "02/02/2002", new ArrayList<>(), new ArrayList<>());
+
+    mappedMedicalRecordRepositoryImpl.save(update);
+
+    assertEquals("02/02/2002", mappedMedicalRecordRepositoryImpl.findByFirstNameAndLastName("John", "Doe")
+            .orElseThrow().getBirthdate());
+    assertEquals(2, mappedMedicalRecordRepositoryImpl.findAll().size());
+    verify(jsonService).journal(any());
+    verify(jsonService).saveMedicalRecords(any());
+  }
+
+  @Test
+  void delete_shouldHideMappedRecord() {
+    mappedMedicalRecordRepositoryImpl.delete("Jane", "Doe");
+
+    assertFalse(mappedMedicalRecordRepositoryImpl.exists("Jane", "Doe"));
+    assertEquals(1, mappedMedicalRecordRepositoryImpl.findAll().size());
+    verify(jsonService).journal(any());
+  }
+
+  @Test
+  void version_shouldBeIncrementedBySave() {
+    long initial = mappedMedicalRecordRepositoryImpl.version();
+
+    mappedMedicalRecordRepositoryImpl.save(new MedicalRecord("John", "Doe", "02/02/2002", new ArrayList<>(), new ArrayList<>()));
+
+    assertEquals(initial + 1, mappedMedicalRecordRepositoryImpl.version());
+  }
+
+  @Test
+  void delete_shouldNotJournal_whenRecordDoesNotExist() {
+    mappedMedicalRecordRepositoryImpl.delete("Jim", "Doe");
+
+    verify(jsonService, never()).journal(any());
+  }
+
+  @Test
+  void findByPersons_shouldReturnRecordsInPersonOrder_withNullForMissingRecords() {
+    List<Person> persons = List.of(
+            new Person("Jim", "Doe", "address", "city", "zip", "phone", "email"),
+            new Person("JOHN", "doe", "address", "city", "zip", "phone", "email"));
+
+    List<MedicalRecord> result = mappedMedicalRecordRepositoryImpl.findByPersons(persons);
+
+    assertEquals(2, result.size());
+    assertNull(result.get(0));
+    assertEquals("01/01/2000", result.get(1).getBirthdate());
+  }
+}
@@ -0,0 +1,194 @@
+package com.mr486.safetynet.repository.impl;
+
+import com.mr486.safetynet.dto.request.DataBindingDto;
+import com.mr486.safetynet.model.Person;
+import com.mr486.safetynet.tools.BinarySnapshot;
+import com.mr486.safetynet.tools.JsonService;
+import com.mr486.safetynet.tools.MappedSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MappedPersonRepositoryImplTest {
+
+  @TempDir
+  Path directory;
+
+  @Mock
+  private JsonService jsonService;
+
+  @InjectMocks
+  private MappedPersonRepositoryImpl mappedPersonRepositoryImpl;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    MockitoAnnotations.openMocks(this);
+    List<Person> persons = List.of(
+            new Person("John", "Doe", "123 Street", "City", "12345", "123-456-7890", "john@email.com"),
+            new Person("Jane", "Doe", "123 Street", "City", "12345", "123-456-7891", "jane@email.com"),
+            new Person("Bob", "Smith", "9 Avenue", "Town", "54321", "123-456-7892", "bob@email.com"));
+    Path file = directory.resolve("data.snapshot");
+    BinarySnapshot.write(new DataBindingDto(persons, List.of(), List.of()), file);
+    when(jsonService.mappedSnapshot()).thenReturn(MappedSnapshot.open(file));
+    mappedPersonRepositoryImpl.init();
+  }
+
+  @Test
+  void findByFirstNameAndLastName_shouldReturnMappedPerson_ignoringCase() {
+    assertEquals("123-456-7891", mappedPersonRepositoryImpl.findByFirstNameAndLastName("JANE", "doe")
+            .orElseThrow().getPhone());
+    assertTrue(mappedPersonRepositoryImpl.findByFirstNameAndLastName("Jim", "Doe").isEmpty());
+  }
+
+  @Test
+  void save_shouldUpdateMappedPerson_andMoveItBetweenIndexes() {
+    Person update = new Person("John", "Doe", "9 Avenue", "Town", "54321", null, null);
+
+    mappedPersonRepositoryImpl.save(update);
+
+    Person saved = mappedPersonRepositoryImpl.findByFirstNameAndLastName("John", "Doe").orElseThrow();
+    assertEquals("9 Avenue", saved.getAddress());
+    assertEquals("123-456-7890", saved.getPhone());
+    assertEquals(List.of("Jane"), mappedPersonRepositoryImpl.findByAddress("123 Street").stream()
+            .map(Person::getFirstName).toList());
+    assertEquals(List.of("Bob", "John"), mappedPersonRepositoryImpl.findByCity("town").stream()
+            .map(Person::getFirstName).toList());
+    assertEquals(3, mappedPersonRepositoryImpl.findAll().size());
+  }
+
+  @Test
+  void save_shouldAddNewPerson_andPassAllPersonsToJsonService() {
+    Person person = new Person("Alice", "Doe", "5 Road", "City", "12345", "123-456-7893", "alice@email.com");
+
+    mappedPersonRepositoryImpl.save(person);
+
+    assertTrue(mappedPersonRepositoryImpl.exists("alice", "doe"));
+    assertEquals(3, mappedPersonRepositoryImpl.findByLastName("Doe").size());
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<Supplier<List<Person>>> captor = ArgumentCaptor.forClass(Supplier.class);
+    verify(jsonService).savePersons(captor.capture());
+    assertEquals(4, captor.getValue().get().size());
+    verify(jsonService).journal(any());
+  }
+
+  @Test
+  void save_shouldReplaceSavedPerson_withoutModifyingIt() {
+    mappedPersonRepositoryImpl.save(new Person("John", "Doe", "9 Avenue", "Town", "54321", null, null));
+    Person before = mappedPersonRepositoryImpl.findByFirstNameAndLastName("John", "Doe").orElseThrow();
+
+    mappedPersonRepositoryImpl.save(new Person("John", "Doe", "1 Square", "Village", "11111", null, null));
+
+    assertEquals("9 Avenue", before.getAddress());
+    assertEquals("Town", before.getCity());
+    assertEquals("1 Square", mappedPersonRepositoryImpl.findByFirstNameAndLastName("John", "Doe")
+            .orElseThrow().getAddress());
+    assertTrue(mappedPersonRepositoryImpl.findByAddress("9 Avenue").stream()
+            .noneMatch(person -> person.getFirstName().equals("John")));
+  }
+
+  @Test
+  void lookups_shouldStayFlat_withManyPersonsSavedSinceStartup() {
+    for (int i = 0; i < 100_000; i++) {
+      mappedPersonRepositoryImpl.save(new Person("First" + i, "Last" + i % 1000, "Street " + i % 25_000, "City" + i % 10,
+              "zip", "phone", "email"));
+    }
+
+    // 10k lookups of each kind would scan 100k saved persons each without an index on the overlay
+    assertTimeout(Duration.ofSeconds(5), () -> {
+      for (int i = 0; i < 10_000; i++) {
+        assertEquals(4, mappedPersonRepositoryImpl.findByAddress("street " + i % 25_000).size());
+        assertEquals(100, mappedPersonRepositoryImpl.findByLastName("LAST" + i % 1000).size());
+      }
+    });
+    mappedPersonRepositoryImpl.delete("First0", "Last0");
+    assertEquals(99, mappedPersonRepositoryImpl.findByLastName("last0").size());
+    assertEquals(2, mappedPersonRepositoryImpl.findByAddress("123 Street").size());
+  }
+
+  @Test
+  void delete_shouldHideMappedPerson() {
+    mappedPersonRepositoryImpl.delete("Bob", "Smith");
+
+    assertFalse(mappedPersonRepositoryImpl.exists("Bob", "Smith"));
+    assertTrue(mappedPersonRepositoryImpl.findByCity("Town").isEmpty());
+    assertEquals(2, mappedPersonRepositoryImpl.findAll().size());
+    verify(jsonService).journal(any());
+  }
+
+  @Test
+  void version_shouldBeIncrementedByDelete_onlyWhenPersonExists() {
+    long initial = mappedPersonRepositoryImpl.version();
+
+    mappedPersonRepositoryImpl.delete("Jim", "Doe");
+    mappedPersonRepositoryImpl.delete("Bob", "Smith");
+
+    assertEquals(initial + 1, mappedPersonRepositoryImpl.version());
+  }
+
+  @Test
+  void delete_shouldNotJournal_whenPersonDoesNotExist() {
+    mappedPersonRepositoryImpl.delete("Jim", "Doe");
+
+    verify(jsonService, never()).journal(any());
+    verify(jsonService).savePersons(any());
+  }
+
+  @Test
+  void save_shouldRestoreDeletedMappedPerson() {
+    mappedPersonRepositoryImpl.delete("Bob", "Smith");
+
+    mappedPersonRepositoryImpl.save(new Person("Bob", "Smith", "1 Lane", "Village", "11111", null, null));
+
+    assertEquals("1 Lane", mappedPersonRepositoryImpl.findByFirstNameAndLastName("Bob", "Smith")
+            .orElseThrow().getAddress());
+    assertEquals(1, mappedPersonRepositoryImpl.findByCity("Village").size());
+    assertEquals(3, mappedPersonRepositoryImpl.findAll().size());
+  }
+
+  @Test
+  void iterateAfter_shouldIterateMappedPersons_thenSavedOnes() {
+    mappedPersonRepositoryImpl.save(new Person("Alice", "Doe", "5 Road", "City", "12345", null, null));
+    mappedPersonRepositoryImpl.save(new Person("John", "Doe", "9 Avenue", "Town", "54321", null, null));
+
+    List<String> names = new ArrayList<>();
+    long last = -1;
+    for (var persons = mappedPersonRepositoryImpl.iterateAfter(-1); persons.hasNext(); ) {
+      var person = persons.next();
+      assertTrue(person.position() > last);
+      last = person.position();
+      names.add(person.value().getFirstName());
+    }
+    assertEquals(List.of("Jane", "Bob", "Alice", "John"), names);
+    assertEquals("Alice", mappedPersonRepositoryImpl.iterateAfter(2).next().value().getFirstName());
+  }
+
+  @Test
+  void position_shouldMatchIterationOrder_forMappedAndSavedPersons() {
+    mappedPersonRepositoryImpl.save(new Person("Alice", "Doe", "5 Road", "City", "12345", null, null));
+    mappedPersonRepositoryImpl.save(new Person("John", "Doe", "9 Avenue", "Town", "54321", null, null));
+
+    for (var persons = mappedPersonRepositoryImpl.iterateAfter(-1); persons.hasNext(); ) {
+      var person = persons.next();
+      assertEquals(person.position(),
+              mappedPersonRepositoryImpl.position(person.value().getFirstName(), person.value().getLastName()));
+    }
+    mappedPersonRepositoryImpl.delete("Jane", "Doe");
+    assertEquals(-1, mappedPersonRepositoryImpl.position("Jane", "Doe"));
+    assertEquals(-1, mappedPersonRepositoryImpl.position("Nobody", "Doe"));
+  }
+}
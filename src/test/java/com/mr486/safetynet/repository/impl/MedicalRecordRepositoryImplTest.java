@@ -1,6 +1,7 @@
 package com.mr486.safetynet.repository.impl;
 
 import com.mr486.safetynet.model.MedicalRecord;
+import com.mr486.safetynet.model.Person;
 import com.mr486.safetynet.tools.JsonService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,6 +14,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 
 class MedicalRecordRepositoryImplTest {
@@ -34,7 +36,7 @@ class MedicalRecordRepositoryImplTest {
             new ArrayList<>(List.of("Aspirin")),
             new ArrayList<>(List.of("Peanuts"))
     ));
-    when(jsonService.loadMedicalRecords()).thenReturn(initialRecords);
+    when(jsonService.loadMedicalRecords(any())).thenReturn(initialRecords);
     medicalRecordRepositoryImpl.init();
   }
 
@@ -96,6 +98,16 @@ class MedicalRecordRepositoryImplTest {
     assertEquals(initialSize, medicalRecordRepositoryImpl.findAll().size());
   }
 
+  @Test
+  void version_isIncrementedBySaveAndDelete_notByMissingDelete() {
+    long initial = medicalRecordRepositoryImpl.version();
+    medicalRecordRepositoryImpl.save(new MedicalRecord("Alice", "Wonderland", "02/02/1990", new ArrayList<>(), new ArrayList<>()));
+    medicalRecordRepositoryImpl.delete("Jane", "Smith");
+    assertEquals(initial + 1, medicalRecordRepositoryImpl.version());
+    medicalRecordRepositoryImpl.delete("Alice", "Wonderland");
+    assertEquals(initial + 2, medicalRecordRepositoryImpl.version());
+  }
+
   @Test
   void exists_returnsTrue_whenMedicalRecordExists_caseInsensitive() {
     assertTrue(medicalRecordRepositoryImpl.exists("JOHN", "doe"));
@@ -113,4 +125,16 @@ class MedicalRecordRepositoryImplTest {
     assertEquals("John", all.get(0).getFirstName());
   }
 
-}
\ No newline at end of file
+  @Test
+  void findByPersons_shouldReturnRecordsInPersonOrder_withNullForMissingRecords() {
+    List<Person> persons = List.of(
+            new Person("Jim", "Doe", "address", "city", "zip", "phone", "email"),
+            new Person("JOHN", "doe", "address", "city", "zip", "phone", "email"));
+
+    List<MedicalRecord> result = medicalRecordRepositoryImpl.findByPersons(persons);
+
+    assertEquals(2, result.size());
+    assertNull(result.get(0));
+    assertEquals("01/01/2000", result.get(1).getBirthdate());
+  }
+}
@@ -13,6 +13,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 
 class PersonRepositoryImplTest {
@@ -35,7 +36,7 @@ class PersonRepositoryImplTest {
             "zip",
             "phone",
             "email"));
-    when(jsonService.loadPersons()).thenReturn(initialPersons);
+    when(jsonService.loadPersons(any())).thenReturn(initialPersons);
     personRepositoryImpl.init();
   }
 
@@ -108,6 +109,17 @@ class PersonRepositoryImplTest {
     assertEquals("Wonderland", result.get().getLastName());
   }
 
+  @Test
+  void version_shouldBeIncrementedBySaveAndDelete_notByMissingDelete() {
+    long initial = personRepositoryImpl.version();
+
+    personRepositoryImpl.save(new Person("Jane", "Roe", "street", "city", "zip", "phone", "email"));
+    personRepositoryImpl.delete("Nobody", "Here");
+    personRepositoryImpl.delete("Jane", "Roe");
+
+    assertEquals(initial + 2, personRepositoryImpl.version());
+  }
+
   @Test
   void delete_shouldRemovePerson_whenPersonExists() {
     personRepositoryImpl.delete("John", "Doe");
@@ -169,7 +181,7 @@ class PersonRepositoryImplTest {
                     "phone",
                     "email")
     );
-    when(jsonService.loadPersons()).thenReturn(loaded);
+    when(jsonService.loadPersons(any())).thenReturn(loaded);
 
     personRepositoryImpl.init();
 
@@ -228,4 +240,119 @@ class PersonRepositoryImplTest {
     assertTrue(result.isPresent());
     assertEquals("Doe", result.get().getLastName());
   }
-}
\ No newline at end of file
+
+  @Test
+  void save_shouldMoveUpdatedPersonBetweenAddressIndexes() {
+    Person moved = new Person(
+            "John",
+            "Doe",
+            "Other Street",
+            "Other City",
+            "zip",
+            "phone",
+            "email");
+    personRepositoryImpl.save(moved);
+
+    assertTrue(personRepositoryImpl.findByAddress("address").isEmpty());
+    assertTrue(personRepositoryImpl.findByCity("city").isEmpty());
+    assertEquals(1, personRepositoryImpl.findByAddress("other street").size());
+    assertEquals(1, personRepositoryImpl.findByCity("OTHER CITY").size());
+  }
+
+  @Test
+  void save_shouldKeepUpdatedPersonPosition_inItsBuckets() {
+    personRepositoryImpl.save(new Person("Jane", "Doe", "address", "city", "zip", "phone", "email"));
+
+    personRepositoryImpl.save(new Person("John", "Doe", "Other Street", "city", "zip", "phone", "email"));
+
+    assertEquals(List.of("John", "Jane"), personRepositoryImpl.findByCity("city").stream()
+            .map(Person::getFirstName).toList());
+    assertEquals("Other Street", personRepositoryImpl.findByCity("city").get(0).getAddress());
+    assertEquals(List.of("Jane"), personRepositoryImpl.findByAddress("address").stream()
+            .map(Person::getFirstName).toList());
+
+    personRepositoryImpl.save(new Person("John", "Doe", "address", "city", "zip", "phone", "email"));
+
+    assertEquals(List.of("John", "Jane"), personRepositoryImpl.findByAddress("address").stream()
+            .map(Person::getFirstName).toList());
+  }
+
+  @Test
+  void save_shouldReplaceOnlyTheSavedPerson_inTheBucketsItShares() {
+    personRepositoryImpl.save(new Person("Jane", "Roe", "address", "city", "zip", "phone", "email"));
+    personRepositoryImpl.save(new Person("Bob", "Smith", "address", "city", "zip", "phone", "email"));
+    List<Person> before = personRepositoryImpl.findByCity("city");
+
+    personRepositoryImpl.save(new Person("Jane", "Roe", "Other Street", "city", "zip", "phone", "email"));
+    List<Person> after = personRepositoryImpl.findByCity("city");
+
+    assertEquals(3, after.size());
+    assertSame(before.get(0), after.get(0));
+    assertNotSame(before.get(1), after.get(1));
+    assertSame(before.get(2), after.get(2));
+    assertEquals("address", before.get(1).getAddress());
+    assertEquals("Other Street", after.get(1).getAddress());
+  }
+
+  @Test
+  void delete_shouldRemovePersonFromSecondaryIndexes() {
+    personRepositoryImpl.delete("john", "DOE");
+
+    assertTrue(personRepositoryImpl.findByAddress("address").isEmpty());
+    assertTrue(personRepositoryImpl.findByLastName("Doe").isEmpty());
+    assertTrue(personRepositoryImpl.findByCity("city").isEmpty());
+  }
+
+  @Test
+  void findByLastNameAndCity_shouldIgnoreCase() {
+    assertEquals(1, personRepositoryImpl.findByLastName("dOe").size());
+    assertEquals(1, personRepositoryImpl.findByCity("CITY").size());
+  }
+
+  @Test
+  void init_shouldIndexLoadedPersons_byCaseFoldedKeys() {
+    when(jsonService.loadPersons(any())).thenReturn(new ArrayList<>(List.of(
+            new Person("Jane", "Roe", "1 Main St", "Culver", "zip", "phone", "email"),
+            new Person("Bob", "Roe", "1 MAIN ST", "culver", "zip", "phone", "email"),
+            new Person("jane", "ROE", "2 Main St", "Culver", "zip", "phone", "email"),
+            new Person("Ann", "Smith", "2 Main St", "Springfield", "zip", "phone", "email"))));
+
+    personRepositoryImpl.init();
+
+    assertEquals(3, personRepositoryImpl.findAll().size());
+    assertTrue(personRepositoryImpl.exists("JANE", "roe"));
+    assertEquals("1 Main St", personRepositoryImpl.findByFirstNameAndLastName("jAnE", "rOe").orElseThrow().getAddress());
+    assertEquals(List.of("Jane", "Bob"), personRepositoryImpl.findByAddress("1 main st").stream()
+            .map(Person::getFirstName).toList());
+    assertEquals(List.of("Ann"), personRepositoryImpl.findByAddress("2 MAIN ST").stream()
+            .map(Person::getFirstName).toList());
+    assertEquals(2, personRepositoryImpl.findByLastName("roe").size());
+    assertEquals(2, personRepositoryImpl.findByCity("CULVER").size());
+    assertTrue(personRepositoryImpl.findByCity("Other").isEmpty());
+  }
+
+  @Test
+  void iterateAfter_shouldKeepPositions_whenPersonsAreUpdatedAndDeleted() {
+    personRepositoryImpl.save(new Person("Jane", "Roe", "street", "city", "zip", "phone", "email"));
+    personRepositoryImpl.save(new Person("Bob", "Smith", "street", "city", "zip", "phone", "email"));
+    long janePosition = personRepositoryImpl.iterateAfter(0).next().position();
+
+    personRepositoryImpl.save(new Person("John", "Doe", "newAddress", "city", "zip", "phone", "email"));
+    personRepositoryImpl.delete("Jane", "Roe");
+
+    List<String> names = new ArrayList<>();
+    personRepositoryImpl.iterateAfter(-1).forEachRemaining(person -> names.add(person.value().getFirstName()));
+    assertEquals(List.of("John", "Bob"), names);
+    assertEquals("Bob", personRepositoryImpl.iterateAfter(janePosition).next().value().getFirstName());
+  }
+
+  @Test
+  void position_shouldMatchIterationOrder_untilPersonIsDeleted() {
+    personRepositoryImpl.save(new Person("Jane", "Roe", "street", "city", "zip", "phone", "email"));
+    long janePosition = personRepositoryImpl.iterateAfter(0).next().position();
+
+    assertEquals(janePosition, personRepositoryImpl.position("JANE", "roe"));
+    personRepositoryImpl.delete("Jane", "Roe");
+    assertEquals(-1, personRepositoryImpl.position("Jane", "Roe"));
+  }
+}
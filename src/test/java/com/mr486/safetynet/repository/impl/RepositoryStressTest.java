@@ -0,0 +1,260 @@
+package com.mr486.safetynet.repository.impl;
+
+import com.mr486.safetynet.dto.request.MedicalRecordDto;
+import com.mr486.safetynet.model.FireStation;
+import com.mr486.safetynet.model.MedicalRecord;
+import com.mr486.safetynet.model.Person;
+import com.mr486.safetynet.service.business.ChildAlertView;
+import com.mr486.safetynet.service.business.ComingOfAgeScheduler;
+import com.mr486.safetynet.service.business.ResponseCacheInvalidator;
+import com.mr486.safetynet.service.business.StationDemographics;
+import com.mr486.safetynet.service.impl.MedicalRecordServiceImpl;
+import com.mr486.safetynet.tools.JsonService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Stress harness running request-like readers against the repositories while a writer
+ * keeps saving, updating and deleting entities.
+ */
+class RepositoryStressTest {
+
+  private static final int READERS = 4;
+  private static final long DURATION_MILLIS = 500;
+
+  @Mock
+  private JsonService jsonService;
+
+  private PersonRepositoryImpl personRepository;
+  private FireStationRepositoryImpl fireStationRepository;
+  private MedicalRecordRepositoryImpl medicalRecordRepository;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    List<Person> persons = new ArrayList<>();
+    List<FireStation> fireStations = new ArrayList<>();
+    List<MedicalRecord> medicalRecords = new ArrayList<>();
+    for (int i = 0; i < 1_000; i++) {
+      persons.add(new Person("First" + i, "Last" + i % 10, "Street " + i % 100, "City" + i % 5, "zip", "phone", "email"));
+      medicalRecords.add(new MedicalRecord("First" + i, "Last" + i % 10, "01/01/2000", new ArrayList<>(), new ArrayList<>()));
+    }
+    for (int i = 0; i < 100; i++) {
+      fireStations.add(new FireStation("Street " + i, i % 4 + 1));
+    }
+    when(jsonService.loadPersons(any())).thenReturn(persons);
+    when(jsonService.loadFireStations(any())).thenReturn(fireStations);
+    when(jsonService.loadMedicalRecords(any())).thenReturn(medicalRecords);
+    // the write-behind persister copies the saved sections on another thread
+    doAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get())
+            .when(jsonService).savePersons(any());
+    personRepository = new PersonRepositoryImpl(jsonService);
+    fireStationRepository = new FireStationRepositoryImpl(jsonService);
+    medicalRecordRepository = new MedicalRecordRepositoryImpl(jsonService);
+    personRepository.init();
+    fireStationRepository.init();
+    medicalRecordRepository.init();
+  }
+
+  @Test
+  void personRepository_shouldServeConsistentReads_whileBeingWritten() throws InterruptedException {
+    Result result = hammer(
+            i -> {
+              Person person = new Person("Writer" + i % 50, "Last" + i % 10, "Street " + i % 100, "City" + i % 5,
+                      "zip", "phone", "email");
+              personRepository.save(person);
+              personRepository.save(new Person(person.getFirstName(), person.getLastName(), "Street " + (i + 1) % 100,
+                      "City" + (i + 1) % 5, "zip", null, null));
+              personRepository.delete("First" + i % 1_000, "Last" + i % 10);
+              personRepository.save(new Person("First" + i % 1_000, "Last" + i % 10, "Street " + i % 100,
+                      "City" + i % 5, "zip", "phone", "email"));
+            },
+            i -> {
+              for (Person person : personRepository.findByAddress("street " + i % 100)) {
+                assertEquals("street " + i % 100, person.getAddress().toLowerCase());
+              }
+              assertTrue(personRepository.findAll().stream().allMatch(person -> person.getAddress() != null));
+              personRepository.findByCity("city" + i % 5).forEach(person -> assertNotNull(person.getFirstName()));
+              personRepository.findByLastName("last" + i % 10).size();
+              personRepository.exists("First" + i % 1_000, "Last" + i % 10);
+            });
+
+    result.assertHealthy();
+    assertEquals(1_000 + Math.min(result.writes(), 50), personRepository.findAll().size());
+  }
+
+  @Test
+  void fireStationRepository_shouldServeConsistentReads_whileBeingWritten() throws InterruptedException {
+    Result result = hammer(
+            i -> {
+              fireStationRepository.save(new FireStation("Writer " + i % 20, i % 4 + 1));
+              fireStationRepository.delete("Writer " + (i + 10) % 20);
+              fireStationRepository.save(new FireStation("Street " + i % 100, i % 4 + 1));
+            },
+            i -> {
+              fireStationRepository.findByStationNumber(i % 4 + 1).forEach(fireStation -> assertNotNull(fireStation.getAddress()));
+              fireStationRepository.findByAddress("street " + i % 100).orElseThrow();
+              fireStationRepository.findAll().size();
+            });
+
+    result.assertHealthy();
+  }
+
+  @Test
+  void medicalRecordRepository_shouldServeConsistentReads_whileBeingWritten() throws InterruptedException {
+    Result result = hammer(
+            i -> {
+              medicalRecordRepository.delete("First" + i % 1_000, "Last" + i % 10);
+              medicalRecordRepository.save(new MedicalRecord("First" + i % 1_000, "Last" + i % 10, "02/02/2002",
+                      new ArrayList<>(), new ArrayList<>()));
+            },
+            i -> {
+              medicalRecordRepository.findAll().stream().forEach(medicalRecord -> assertNotNull(medicalRecord.getBirthdate()));
+              medicalRecordRepository.findByFirstNameAndLastName("First" + i % 1_000, "Last" + i % 10);
+            });
+
+    result.assertHealthy();
+    assertEquals(1_000, medicalRecordRepository.findAll().size());
+  }
+
+  @Test
+  void medicalRecordService_shouldNeverServeHalfUpdatedRecords_whileUpdatingThem() throws InterruptedException {
+    AtomicReference<Supplier<List<MedicalRecord>>> persisted = new AtomicReference<>(List::of);
+    doAnswer(invocation -> {
+      persisted.set(invocation.getArgument(0));
+      return null;
+    }).when(jsonService).saveMedicalRecords(any());
+    MedicalRecordServiceImpl medicalRecordService = new MedicalRecordServiceImpl(medicalRecordRepository,
+            personRepository, mock(StationDemographics.class, withSettings().stubOnly()),
+            mock(ComingOfAgeScheduler.class, withSettings().stubOnly()),
+            mock(ChildAlertView.class, withSettings().stubOnly()),
+            mock(ResponseCacheInvalidator.class, withSettings().stubOnly()));
+
+    Result result = hammer(
+            i -> {
+              // Even updates pair the 2002 birthdate with the "new" medication, odd ones the 2000 one with "old"
+              MedicalRecordDto medicalRecordDto = new MedicalRecordDto();
+              medicalRecordDto.setBirthdate(i % 2 == 0 ? "02/02/2002" : "01/01/2000");
+              medicalRecordDto.setMedications(new ArrayList<>(List.of(i % 2 == 0 ? "new" : "old")));
+              medicalRecordDto.setAllergies(new ArrayList<>());
+              medicalRecordService.update("First" + i / 2 % 1_000, "Last" + i / 2 % 10, medicalRecordDto);
+            },
+            i -> {
+              MedicalRecord read = medicalRecordRepository.findByFirstNameAndLastName("First" + i % 1_000,
+                      "Last" + i % 10).orElseThrow();
+              String birthdate = read.getBirthdate();
+              List<String> medications = read.getMedications();
+              assertConsistent(read);
+              // A record once read is never modified, whatever the writer does meanwhile
+              Thread.yield();
+              assertSame(birthdate, read.getBirthdate());
+              assertSame(medications, read.getMedications());
+              persisted.get().get().forEach(RepositoryStressTest::assertConsistent);
+            });
+
+    result.assertHealthy();
+    assertEquals(1_000, medicalRecordRepository.findAll().size());
+  }
+
+  @Test
+  void readers_shouldNotBlock_whileWriterHoldsTheRepositories() throws InterruptedException {
+    CountDownLatch done = new CountDownLatch(1);
+    Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+    synchronized (personRepository) {
+      synchronized (fireStationRepository) {
+        synchronized (medicalRecordRepository) {
+          Thread reader = new Thread(() -> {
+            try {
+              for (int i = 0; i < 1_000; i++) {
+                personRepository.findByAddress("Street " + i % 100);
+                personRepository.findAll();
+                fireStationRepository.findByStationNumber(i % 4 + 1);
+                medicalRecordRepository.exists("First" + i, "Last" + i % 10);
+              }
+            } catch (Throwable t) {
+              failures.add(t);
+            } finally {
+              done.countDown();
+            }
+          });
+          reader.start();
+          assertTrue(done.await(10, TimeUnit.SECONDS), "readers were blocked by the writer lock");
+        }
+      }
+    }
+    assertTrue(failures.isEmpty(), () -> "reader failed: " + failures.peek());
+  }
+
+  // Harness
+
+  private static void assertConsistent(MedicalRecord medicalRecord) {
+    List<String> medications = medicalRecord.getMedications();
+    assertEquals(medicalRecord.getBirthdate().equals("02/02/2002"), medications.contains("new"),
+            () -> "half-updated record: " + medicalRecord.getBirthdate() + " " + medications);
+  }
+
+  private Result hammer(Step writer, Step reader) throws InterruptedException {
+    AtomicBoolean running = new AtomicBoolean(true);
+    AtomicLong reads = new AtomicLong();
+    AtomicLong writes = new AtomicLong();
+    Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+    List<Thread> threads = new ArrayList<>();
+    threads.add(new Thread(() -> loop(writer, running, writes, failures), "stress-writer"));
+    for (int r = 0; r < READERS; r++) {
+      threads.add(new Thread(() -> loop(reader, running, reads, failures), "stress-reader-" + r));
+    }
+    threads.forEach(Thread::start);
+    Thread.sleep(DURATION_MILLIS);
+    running.set(false);
+    for (Thread thread : threads) {
+      thread.join(10_000);
+    }
+    return new Result(reads.get(), writes.get(), failures);
+  }
+
+  private static void loop(Step step, AtomicBoolean running, AtomicLong counter, Queue<Throwable> failures) {
+    int i = 0;
+    while (running.get()) {
+      try {
+        step.run(i++);
+        counter.incrementAndGet();
+      } catch (Throwable t) {
+        failures.add(t);
+        return;
+      }
+    }
+  }
+
+  @FunctionalInterface
+  private interface Step {
+    void run(int iteration);
+  }
+
+  private record Result(long reads, long writes, Queue<Throwable> failures) {
+    void assertHealthy() {
+      assertTrue(failures.isEmpty(), () -> "concurrent access failed: " + failures.peek());
+      assertTrue(reads > 0, "no read completed");
+      assertTrue(writes > 0, "no write completed");
+    }
+  }
+}
@@ -14,6 +14,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -25,6 +26,8 @@ class ChildAlertServiceTest {
   private PersonService personService;
   @Mock
   private MedicalRecordService medicalRecordService;
+  @Mock
+  private ChildAlertView childAlertView;
 
   @InjectMocks
   private ChildAlertService childAlertService;
@@ -43,8 +46,7 @@ class ChildAlertServiceTest {
     MedicalRecord adultRecord = mock(MedicalRecord.class);
 
     when(personService.findByAddress(address)).thenReturn(List.of(child, adult));
-    when(medicalRecordService.findByFirstNameAndLastName("Jean", "Dupont")).thenReturn(childRecord);
-    when(medicalRecordService.findByFirstNameAndLastName("Marie", "Dupont")).thenReturn(adultRecord);
+    when(medicalRecordService.findByPersons(List.of(child, adult))).thenReturn(List.of(childRecord, adultRecord));
     when(medicalRecordService.isAdult(childRecord)).thenReturn(false);
     when(medicalRecordService.isAdult(adultRecord)).thenReturn(true);
     when(medicalRecordService.getAge(childRecord)).thenReturn(10);
@@ -61,6 +63,17 @@ class ChildAlertServiceTest {
     assertEquals("Marie", member.getFirstName());
   }
 
+  @Test
+  void getChildrenByAddress_returnsView_whenAddressIsMaterialized() {
+    ChildAlertResponseDto view = new ChildAlertResponseDto(List.of(new ChildAlertDto("Jean", "Dupont", 10)));
+    when(childAlertView.findByAddress("1 rue de Paris")).thenReturn(view);
+
+    ChildAlertResponseDto response = childAlertService.getChildrenByAddress("1 rue de Paris");
+
+    assertSame(view, response);
+    verifyNoInteractions(personService, medicalRecordService);
+  }
+
   @Test
   void getChildrenByAddress_returnsEmptyList_whenNoChildren() {
     String address = "2 rue vide";
@@ -68,7 +81,7 @@ class ChildAlertServiceTest {
     MedicalRecord adultRecord = mock(MedicalRecord.class);
 
     when(personService.findByAddress(address)).thenReturn(List.of(adult));
-    when(medicalRecordService.findByFirstNameAndLastName("Paul", "Martin")).thenReturn(adultRecord);
+    when(medicalRecordService.findByPersons(List.of(adult))).thenReturn(List.of(adultRecord));
     when(medicalRecordService.isAdult(adultRecord)).thenReturn(true);
 
     ChildAlertResponseDto response = childAlertService.getChildrenByAddress(address);
@@ -83,7 +96,7 @@ class ChildAlertServiceTest {
     Person unknown = new Person("Inconnu", "SansDossier", address, "Paris", "75000", "0102030408", "inconnu@test.com");
 
     when(personService.findByAddress(address)).thenReturn(List.of(unknown));
-    when(medicalRecordService.findByFirstNameAndLastName("Inconnu", "SansDossier")).thenReturn(null);
+    when(medicalRecordService.findByPersons(List.of(unknown))).thenReturn(Collections.singletonList(null));
 
     ChildAlertResponseDto response = childAlertService.getChildrenByAddress(address);
 
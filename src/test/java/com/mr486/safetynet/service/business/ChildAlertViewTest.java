@@ -0,0 +1,166 @@
+package com.mr486.safetynet.service.business;
+
+import com.mr486.safetynet.dto.request.ChildAlertDto;
+import com.mr486.safetynet.dto.request.HouseholdMemberDto;
+import com.mr486.safetynet.dto.response.ChildAlertResponseDto;
+import com.mr486.safetynet.model.MedicalRecord;
+import com.mr486.safetynet.model.Person;
+import com.mr486.safetynet.repository.MedicalRecordRepository;
+import com.mr486.safetynet.repository.PersonRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ChildAlertViewTest {
+
+  private static final String ADDRESS = "1509 Culver St";
+
+  @Mock
+  private PersonRepository personRepository;
+  @Mock
+  private MedicalRecordRepository medicalRecordRepository;
+
+  private MutableClock clock;
+  private ChildAlertView childAlertView;
+  private final Person john = person("John", "Boyd");
+  private final Person tenley = person("Tenley", "Boyd");
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    clock = new MutableClock(LocalDate.of(2024, 6, 1));
+    when(personRepository.findByAddress(ADDRESS)).thenReturn(List.of(john, tenley));
+    when(medicalRecordRepository.findByPersons(List.of(john, tenley))).thenReturn(List.of(
+            record("John", "Boyd", "03/06/1984"),
+            record("Tenley", "Boyd", "06/02/2012")));
+    childAlertView = new ChildAlertView(personRepository, medicalRecordRepository, clock);
+  }
+
+  @Test
+  void findByAddress_shouldListChildrenWithOtherHouseholdMembers() {
+    ChildAlertResponseDto response = childAlertView.findByAddress(ADDRESS);
+
+    assertEquals(List.of(new ChildAlertDto("Tenley", "Boyd", 11, List.of(new HouseholdMemberDto("John", "Boyd")))),
+            response.getChildren());
+  }
+
+  @Test
+  void findByAddress_shouldServeCachedResponse_untilInvalidated() {
+    ChildAlertResponseDto first = childAlertView.findByAddress(ADDRESS);
+
+    assertSame(first, childAlertView.findByAddress("1509 CULVER ST"));
+    verify(personRepository, times(1)).findByAddress(anyString());
+
+    childAlertView.invalidate("1509 culver st");
+
+    assertNotSame(first, childAlertView.findByAddress(ADDRESS));
+    verify(personRepository, times(2)).findByAddress(anyString());
+  }
+
+  @Test
+  void findByAddress_shouldRebuildResponseWithChildren_afterMidnight() {
+    childAlertView.findByAddress(ADDRESS);
+
+    clock.set(LocalDate.of(2024, 6, 2));
+
+    assertEquals(12, childAlertView.findByAddress(ADDRESS).getChildren().get(0).getAge());
+  }
+
+  @Test
+  void findByAddress_shouldKeepResponseWithoutChildren_acrossDays() {
+    Person adult = person("Jacob", "Boyd");
+    when(personRepository.findByAddress("29 15th St")).thenReturn(List.of(adult));
+    when(medicalRecordRepository.findByPersons(List.of(adult))).thenReturn(List.of(record("Jacob", "Boyd", "03/06/1989")));
+    ChildAlertResponseDto first = childAlertView.findByAddress("29 15th St");
+
+    clock.set(LocalDate.of(2030, 1, 1));
+
+    assertSame(first, childAlertView.findByAddress("29 15th St"));
+    assertTrue(first.getChildren().isEmpty());
+  }
+
+  @Test
+  void findByAddress_shouldReturnNull_whenAResidentHasNoMedicalRecord() {
+    Person unknown = person("Unknown", "Boyd");
+    when(personRepository.findByAddress("29 15th St")).thenReturn(List.of(unknown));
+    when(medicalRecordRepository.findByPersons(List.of(unknown))).thenReturn(Arrays.asList((MedicalRecord) null));
+
+    assertNull(childAlertView.findByAddress("29 15th St"));
+    assertNull(childAlertView.findByAddress("29 15th St"));
+    verify(personRepository, times(2)).findByAddress("29 15th St");
+  }
+
+  @Test
+  void findByAddress_shouldNotCacheUnknownAddresses() {
+    when(personRepository.findByAddress("nowhere")).thenReturn(List.of());
+
+    assertTrue(childAlertView.findByAddress("nowhere").getChildren().isEmpty());
+    childAlertView.findByAddress("nowhere");
+
+    verify(personRepository, times(2)).findByAddress("nowhere");
+    verify(medicalRecordRepository, never()).findByPersons(anyList());
+  }
+
+  @Test
+  void findByAddress_shouldNotCacheResponse_builtWhileInvalidated() {
+    when(personRepository.findByAddress(ADDRESS)).thenAnswer(invocation -> {
+      childAlertView.invalidate(ADDRESS);
+      return List.of(john, tenley);
+    });
+
+    childAlertView.findByAddress(ADDRESS);
+    childAlertView.findByAddress(ADDRESS);
+
+    verify(personRepository, times(2)).findByAddress(ADDRESS);
+  }
+
+  private static Person person(String firstName, String lastName) {
+    return new Person(firstName, lastName, ADDRESS, "Culver", "97451", "841-874-6512", "mail@email.com");
+  }
+
+  private static MedicalRecord record(String firstName, String lastName, String birthdate) {
+    return new MedicalRecord(firstName, lastName, birthdate, new ArrayList<>(), new ArrayList<>());
+  }
+
+  private static final class MutableClock extends Clock {
+
+    private Instant instant;
+
+    MutableClock(LocalDate date) {
+      set(date);
+    }
+
+    void set(LocalDate date) {
+      instant = date.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Instant instant() {
+      return instant;
+    }
+  }
+}
@@ -0,0 +1,166 @@
+package com.mr486.safetynet.service.business;
+
+import com.mr486.safetynet.model.MedicalRecord;
+import com.mr486.safetynet.repository.MedicalRecordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ComingOfAgeSchedulerTest {
+
+  @Mock
+  private MedicalRecordRepository medicalRecordRepository;
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
+  private MutableClock clock;
+  private ComingOfAgeScheduler scheduler;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    clock = new MutableClock(LocalDate.of(2024, 6, 1));
+    when(medicalRecordRepository.findAll()).thenReturn(List.of(
+            record("John", "Boyd", "03/06/1984"),
+            record("Tenley", "Boyd", "06/02/2006"),
+            record("Roger", "Boyd", "09/06/2017"),
+            record("Eric", "Cadigan", "not a date")));
+    scheduler = new ComingOfAgeScheduler(medicalRecordRepository, eventPublisher, clock);
+    scheduler.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    scheduler.close();
+  }
+
+  @Test
+  void start_shouldQueueChildrenOnly() {
+    assertEquals(2, scheduler.pendingCount());
+  }
+
+  @Test
+  void fireDue_shouldPublishNothing_beforeBirthday() {
+    scheduler.fireDue();
+
+    verifyNoInteractions(eventPublisher);
+    assertEquals(2, scheduler.pendingCount());
+  }
+
+  @Test
+  void fireDue_shouldPublishEvent_onEighteenthBirthday() {
+    clock.set(LocalDate.of(2024, 6, 2));
+
+    scheduler.fireDue();
+
+    verify(eventPublisher).publishEvent(new ComingOfAgeEvent(20240602, List.of("tenley\u0000boyd")));
+    assertEquals(1, scheduler.pendingCount());
+  }
+
+  @Test
+  void fireDue_shouldPublishEveryoneDue_inOneEvent() {
+    clock.set(LocalDate.of(2035, 9, 6));
+
+    scheduler.fireDue();
+    scheduler.fireDue();
+
+    verify(eventPublisher, times(1)).publishEvent(
+            new ComingOfAgeEvent(20350906, List.of("tenley\u0000boyd", "roger\u0000boyd")));
+    assertEquals(0, scheduler.pendingCount());
+  }
+
+  @Test
+  void medicalRecordSaved_shouldReplaceQueuedBirthday() {
+    scheduler.medicalRecordSaved(record("Tenley", "Boyd", "06/02/2010"));
+    clock.set(LocalDate.of(2024, 6, 2));
+
+    scheduler.fireDue();
+
+    verifyNoInteractions(eventPublisher);
+    assertEquals(2, scheduler.pendingCount());
+  }
+
+  @Test
+  void medicalRecordSaved_shouldQueueNewChild() {
+    scheduler.medicalRecordSaved(record("Baby", "Boyd", "06/01/2024"));
+
+    assertEquals(3, scheduler.pendingCount());
+  }
+
+  @Test
+  void medicalRecordDeleted_shouldDropQueuedBirthday() {
+    scheduler.medicalRecordDeleted("TENLEY", "boyd");
+    clock.set(LocalDate.of(2024, 6, 2));
+
+    scheduler.fireDue();
+
+    verifyNoInteractions(eventPublisher);
+    assertEquals(1, scheduler.pendingCount());
+  }
+
+  @Test
+  void scheduler_shouldWakeUpOnItsOwn_atMidnight() {
+    when(medicalRecordRepository.findAll()).thenReturn(List.of());
+    clock.set(LocalDate.of(2024, 6, 2).atStartOfDay(ZoneOffset.UTC).toInstant().minusMillis(100));
+    ComingOfAgeScheduler midnightScheduler = new ComingOfAgeScheduler(medicalRecordRepository, eventPublisher, clock);
+    try {
+      midnightScheduler.start();
+      midnightScheduler.medicalRecordSaved(record("Tenley", "Boyd", "06/02/2006"));
+      clock.set(LocalDate.of(2024, 6, 2));
+
+      verify(eventPublisher, timeout(5_000)).publishEvent(new ComingOfAgeEvent(20240602, List.of("tenley\u0000boyd")));
+    } finally {
+      midnightScheduler.close();
+    }
+  }
+
+  private static MedicalRecord record(String firstName, String lastName, String birthdate) {
+    return new MedicalRecord(firstName, lastName, birthdate, new ArrayList<>(), new ArrayList<>());
+  }
+
+  private static final class MutableClock extends Clock {
+
+    private volatile Instant instant;
+
+    MutableClock(LocalDate date) {
+      set(date);
+    }
+
+    void set(LocalDate date) {
+      set(date.atStartOfDay(ZoneOffset.UTC).toInstant());
+    }
+
+    void set(Instant instant) {
+      this.instant = instant;
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Instant instant() {
+      return instant;
+    }
+  }
+}
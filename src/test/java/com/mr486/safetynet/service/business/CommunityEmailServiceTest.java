@@ -2,6 +2,7 @@ package com.mr486.safetynet.service.business;
 
 import com.mr486.safetynet.model.Person;
 import com.mr486.safetynet.service.PersonService;
+import com.mr486.safetynet.tools.PositionedList;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -9,7 +10,6 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.util.List;
-import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -34,19 +34,49 @@ class CommunityEmailServiceTest {
     Person p2 = new Person("Marie", "Martin", "2 rue", city, "75000", "0102030406", "marie@ex.com");
     when(personService.findByCity(city)).thenReturn(List.of(p1, p2));
 
-    Set<String> emails = communityEmailService.getEmailsByCity(city);
+    List<String> emails = communityEmailService.getEmailsByCity(city);
 
     assertEquals(2, emails.size());
     assertTrue(emails.contains("jean@ex.com"));
     assertTrue(emails.contains("marie@ex.com"));
   }
 
+  @Test
+  void getEmailsByCity_keepsRepositoryOrder_withoutDuplicates() {
+    String city = "Paris";
+    Person p1 = new Person("Zoe", "Dupont", "1 rue", city, "75000", "0102030405", "zoe@ex.com");
+    Person p2 = new Person("Jean", "Dupont", "1 rue", city, "75000", "0102030405", "zoe@ex.com");
+    Person p3 = new Person("Adam", "Martin", "2 rue", city, "75000", "0102030406", "adam@ex.com");
+    when(personService.findByCity(city)).thenReturn(List.of(p1, p2, p3));
+
+    List<String> emails = communityEmailService.getEmailsByCity(city);
+
+    assertEquals(List.of("zoe@ex.com", "adam@ex.com"), emails);
+  }
+
+  @Test
+  void getEmailsByCity_ordersEmailsByPersonPosition_droppingRemovedPersons() {
+    String city = "Paris";
+    Person p1 = new Person("Zoe", "Dupont", "1 rue", city, "75000", "0102030405", "zoe@ex.com");
+    Person p2 = new Person("Jean", "Dupont", "1 rue", city, "75000", "0102030405", "jean@ex.com");
+    Person p3 = new Person("Adam", "Martin", "2 rue", city, "75000", "0102030406", "adam@ex.com");
+    when(personService.findByCity(city)).thenReturn(List.of(p1, p2, p3));
+    when(personService.position(p1)).thenReturn(7L);
+    when(personService.position(p2)).thenReturn(-1L);
+    when(personService.position(p3)).thenReturn(2L);
+
+    PositionedList<String> emails = communityEmailService.getEmailsByCity(city);
+
+    assertEquals(List.of("adam@ex.com", "zoe@ex.com"), emails);
+    assertEquals(7L, emails.position(1));
+  }
+
   @Test
   void getEmailsByCity_returnsEmptyWhenNoPersons() {
     String city = "Lyon";
     when(personService.findByCity(city)).thenReturn(List.of());
 
-    Set<String> emails = communityEmailService.getEmailsByCity(city);
+    List<String> emails = communityEmailService.getEmailsByCity(city);
 
     assertTrue(emails.isEmpty());
   }
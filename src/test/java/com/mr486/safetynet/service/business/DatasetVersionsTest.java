@@ -0,0 +1,121 @@
+package com.mr486.safetynet.service.business;
+
+import com.mr486.safetynet.repository.FireStationRepository;
+import com.mr486.safetynet.repository.MedicalRecordRepository;
+import com.mr486.safetynet.repository.PersonRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static com.mr486.safetynet.service.business.DatasetVersions.Dataset.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class DatasetVersionsTest {
+
+  @Mock
+  private PersonRepository personRepository;
+  @Mock
+  private MedicalRecordRepository medicalRecordRepository;
+  @Mock
+  private FireStationRepository fireStationRepository;
+
+  private MutableClock clock;
+  private DatasetVersions datasetVersions;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    clock = new MutableClock(LocalDate.of(2024, 6, 1));
+    datasetVersions = new DatasetVersions(personRepository, medicalRecordRepository, fireStationRepository, clock);
+  }
+
+  @Test
+  void etag_shouldBeWeakAndStable_whileNothingIsPublished() {
+    String etag = datasetVersions.etag(FIRE_STATIONS, PERSONS, MEDICAL_RECORDS);
+
+    when(personRepository.version()).thenReturn(1L);
+
+    assertTrue(etag.startsWith("W/\"") && etag.endsWith("\""));
+    assertEquals(etag, datasetVersions.etag(FIRE_STATIONS, PERSONS, MEDICAL_RECORDS));
+  }
+
+  @Test
+  void etag_shouldChange_onlyWhenADatasetReadIsPublished() {
+    String emails = datasetVersions.etag(PERSONS);
+    String coverage = datasetVersions.etag(FIRE_STATIONS, PERSONS, MEDICAL_RECORDS);
+
+    when(medicalRecordRepository.version()).thenReturn(1L);
+    datasetVersions.publish();
+
+    assertEquals(emails, datasetVersions.etag(PERSONS));
+    assertNotEquals(coverage, datasetVersions.etag(FIRE_STATIONS, PERSONS, MEDICAL_RECORDS));
+  }
+
+  @Test
+  void etag_shouldChangeWithTheDay_onlyForMedicalRecords() {
+    String phones = datasetVersions.etag(FIRE_STATIONS, PERSONS);
+    String children = datasetVersions.etag(PERSONS, MEDICAL_RECORDS);
+
+    clock.set(LocalDate.of(2024, 6, 2));
+
+    assertEquals(phones, datasetVersions.etag(FIRE_STATIONS, PERSONS));
+    assertNotEquals(children, datasetVersions.etag(PERSONS, MEDICAL_RECORDS));
+  }
+
+  @Test
+  void publishComingOfAge_shouldChangeEtag_ofMedicalRecordsOnly() {
+    String phones = datasetVersions.etag(FIRE_STATIONS, PERSONS);
+    String children = datasetVersions.etag(PERSONS, MEDICAL_RECORDS);
+
+    datasetVersions.publishComingOfAge();
+
+    assertEquals(phones, datasetVersions.etag(FIRE_STATIONS, PERSONS));
+    assertNotEquals(children, datasetVersions.etag(PERSONS, MEDICAL_RECORDS));
+  }
+
+  @Test
+  void etag_shouldDiffer_betweenRuns() {
+    String etag = datasetVersions.etag(PERSONS);
+
+    clock.set(LocalDate.of(2024, 6, 2));
+    DatasetVersions restarted = new DatasetVersions(personRepository, medicalRecordRepository, fireStationRepository, clock);
+
+    assertNotEquals(etag, restarted.etag(PERSONS));
+  }
+
+  private static final class MutableClock extends Clock {
+
+    private Instant instant;
+
+    MutableClock(LocalDate date) {
+      set(date);
+    }
+
+    void set(LocalDate date) {
+      instant = date.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Instant instant() {
+      return instant;
+    }
+  }
+}
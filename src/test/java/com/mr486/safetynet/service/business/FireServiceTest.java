@@ -46,7 +46,7 @@ class FireServiceTest {
     when(fireStation.getStation()).thenReturn(1);
     when(fireStationService.findByAddress(address)).thenReturn(fireStation);
     when(personService.findByAddress(address)).thenReturn(List.of(person));
-    when(medicalRecordService.findByFirstNameAndLastName("John", "Doe")).thenReturn(record);
+    when(medicalRecordService.findByPersons(List.of(person))).thenReturn(List.of(record));
     when(medicalRecordService.getAge(record)).thenReturn(35);
     ArrayList<String> medications = new ArrayList<>();
     medications.add("med1");
@@ -1,5 +1,6 @@
 package com.mr486.safetynet.service.business;
 
+import com.mr486.safetynet.exception.EntityNotFoundException;
 import com.mr486.safetynet.model.FireStation;
 import com.mr486.safetynet.model.Person;
 import com.mr486.safetynet.service.FireStationService;
@@ -11,6 +12,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -24,6 +26,8 @@ class FireStationConverageServiceTest {
   private MedicalRecordService medicalRecordService;
   @Mock
   private FireStationService fireStationService;
+  @Mock
+  private StationDemographics stationDemographics;
 
   @InjectMocks
   private FireStationConverageService fireStationConverageService;
@@ -31,6 +35,7 @@ class FireStationConverageServiceTest {
   @BeforeEach
   void setUp() {
     MockitoAnnotations.openMocks(this);
+    when(stationDemographics.countsByStation(anyInt())).thenReturn(StationDemographics.Counts.EMPTY);
   }
 
   @Test
@@ -42,8 +47,7 @@ class FireStationConverageServiceTest {
     );
     when(fireStationService.findByStationNumber(stationNumber)).thenReturn(List.of());
     when(personService.findByAddress("123 Main St")).thenReturn(persons);
-    when(medicalRecordService.findByFirstNameAndLastName("John", "Doe")).thenReturn(null);
-    when(medicalRecordService.findByFirstNameAndLastName("Jane", "Doe")).thenReturn(null);
+    when(medicalRecordService.findByPersons(persons)).thenReturn(Collections.nCopies(2, null));
 
     var response = fireStationConverageService.getCoverageByStationNumber(stationNumber);
     assertNotNull(response);
@@ -71,14 +75,32 @@ class FireStationConverageServiceTest {
     FireStation fireStation = new FireStation(address, stationNumber);
     when(fireStationService.findByStationNumber(stationNumber)).thenReturn(List.of(fireStation));
     when(personService.findByAddress(address)).thenReturn(persons);
-    when(medicalRecordService.findByFirstNameAndLastName("Alice", "Smith")).thenReturn(null);
-    when(medicalRecordService.findByFirstNameAndLastName("Bob", "Johnson")).thenReturn(null);
+    when(stationDemographics.countsByStation(stationNumber)).thenReturn(new StationDemographics.Counts(1, 1, 0));
 
     var response = fireStationConverageService.getCoverageByStationNumber(stationNumber);
     assertNotNull(response);
     assertEquals(2, response.getPersons().size(), "Expected two persons in the response");
     assertEquals("Alice", response.getPersons().get(0).getFirstName(), "Expected first person to be Alice");
     assertEquals("Bob", response.getPersons().get(1).getFirstName(), "Expected second person to be Bob");
+    assertEquals(1, response.getAdultCount());
+    assertEquals(1, response.getChildCount());
+    verifyNoInteractions(medicalRecordService);
+  }
+
+  @Test
+  void getCoverageByStationNumber_withResidentsWithoutRecord_looksUpMedicalRecords() {
+    int stationNumber = 2;
+    String address = "456 Elm St";
+    List<Person> persons = List.of(
+            new Person("Alice", "Smith", address, "City", "67890", "555-9876", "mail@test.com"));
+    when(fireStationService.findByStationNumber(stationNumber)).thenReturn(List.of(new FireStation(address, stationNumber)));
+    when(personService.findByAddress(address)).thenReturn(persons);
+    when(stationDemographics.countsByStation(stationNumber)).thenReturn(new StationDemographics.Counts(0, 0, 1));
+    when(medicalRecordService.findByPersons(persons))
+            .thenThrow(new EntityNotFoundException("Medical record not found for Alice Smith"));
+
+    assertThrows(EntityNotFoundException.class,
+            () -> fireStationConverageService.getCoverageByStationNumber(stationNumber));
   }
 
   @Test
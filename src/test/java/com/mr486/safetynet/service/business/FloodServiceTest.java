@@ -1,5 +1,7 @@
 package com.mr486.safetynet.service.business;
 
+import com.mr486.safetynet.dto.request.FloodHouseholdDto;
+import com.mr486.safetynet.dto.request.FloodPersonDto;
 import com.mr486.safetynet.dto.response.FloodStationsResponseDto;
 import com.mr486.safetynet.model.FireStation;
 import com.mr486.safetynet.model.MedicalRecord;
@@ -7,9 +9,9 @@ import com.mr486.safetynet.model.Person;
 import com.mr486.safetynet.service.FireStationService;
 import com.mr486.safetynet.service.MedicalRecordService;
 import com.mr486.safetynet.service.PersonService;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
@@ -17,8 +19,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
 
 class FloodServiceTest {
 
@@ -29,12 +32,17 @@ class FloodServiceTest {
   @Mock
   private FireStationService fireStationService;
 
-  @InjectMocks
   private FloodService floodService;
 
   @BeforeEach
   void setUp() {
     MockitoAnnotations.openMocks(this);
+    floodService = new FloodService(fireStationService, personService, medicalRecordService, 1, 1000);
+  }
+
+  @AfterEach
+  void tearDown() {
+    floodService.close();
   }
 
   @Test
@@ -53,8 +61,8 @@ class FloodServiceTest {
     when(fireStationService.findByStationNumber(2)).thenReturn(List.of(station2));
     when(personService.findByAddress("10 Main St")).thenReturn(List.of(person1));
     when(personService.findByAddress("20 Oak St")).thenReturn(List.of(person2));
-    when(medicalRecordService.findByFirstNameAndLastName("John", "Doe")).thenReturn(record1);
-    when(medicalRecordService.findByFirstNameAndLastName("Jane", "Smith")).thenReturn(record2);
+    when(medicalRecordService.findByPersons(anyList())).thenAnswer(invocation -> invocation.<List<Person>>getArgument(0)
+            .stream().map(person -> person == person1 ? record1 : record2).toList());
     when(medicalRecordService.getAge(record1)).thenReturn(40);
     when(medicalRecordService.getAge(record2)).thenReturn(8);
     ArrayList<String> medications1 = new ArrayList<>();
@@ -72,6 +80,8 @@ class FloodServiceTest {
     assertEquals(40, result.getHouseholds().stream().filter(h -> h.getAddress().equals("10 Main St")).findFirst().get().getResidents().get(0).getAge());
     assertEquals("Jane", result.getHouseholds().stream().filter(h -> h.getAddress().equals("20 Oak St")).findFirst().get().getResidents().get(0).getFirstName());
     assertEquals(8, result.getHouseholds().stream().filter(h -> h.getAddress().equals("20 Oak St")).findFirst().get().getResidents().get(0).getAge());
+    verify(medicalRecordService, times(1)).findByPersons(anyList());
+    verify(medicalRecordService, never()).findByFirstNameAndLastName(anyString(), anyString());
   }
 
   @Test
@@ -114,4 +124,65 @@ class FloodServiceTest {
 
     assertTrue(exception.getMessage().contains("Invalid station number"));
   }
-}
\ No newline at end of file
+
+  @Test
+  void getHouseholdsByStations_shouldSortHouseholdsByAddress() {
+    when(fireStationService.findByStationNumber(1)).thenReturn(List.of(
+            new FireStation("30 Pine St", 1), new FireStation("10 Main St", 1)));
+    when(fireStationService.findByStationNumber(2)).thenReturn(List.of(
+            new FireStation("20 Oak St", 2), new FireStation("10 Main St", 2)));
+    when(personService.findByAddress(anyString())).thenReturn(List.of());
+    when(medicalRecordService.findByPersons(anyList())).thenReturn(List.of());
+
+    FloodStationsResponseDto result = floodService.getHouseholdsByStations(List.of(1, 2));
+
+    assertEquals(List.of("10 Main St", "20 Oak St", "30 Pine St"),
+            result.getHouseholds().stream().map(FloodHouseholdDto::getAddress).toList());
+  }
+
+  @Test
+  void getHouseholdsByStations_shouldAssembleInParallel_inAddressOrder_whenAboveThreshold() {
+    floodService.close();
+    floodService = new FloodService(fireStationService, personService, medicalRecordService, 4, 100);
+    List<FireStation> stations = new ArrayList<>();
+    for (int i = 999; i >= 0; i--) {
+      String address = String.format("%04d Flood St", i);
+      stations.add(new FireStation(address, 7));
+      when(personService.findByAddress(address)).thenReturn(List.of(
+              new Person("Ann", "Resident" + i, address, "City", "12345", "phone", "ann@ex.com"),
+              new Person("Bob", "Resident" + i, address, "City", "12345", "phone", "bob@ex.com")));
+    }
+    when(fireStationService.findByStationNumber(7)).thenReturn(stations);
+    MedicalRecord record = mock(MedicalRecord.class);
+    when(medicalRecordService.findByPersons(anyList())).thenAnswer(invocation -> invocation.<List<Person>>getArgument(0)
+            .stream().map(person -> record).toList());
+    when(medicalRecordService.getAge(record)).thenReturn(30);
+
+    FloodStationsResponseDto result = floodService.getHouseholdsByStations(List.of(7));
+
+    assertEquals(1000, result.getHouseholds().size());
+    for (int i = 0; i < 1000; i++) {
+      FloodHouseholdDto household = result.getHouseholds().get(i);
+      assertEquals(String.format("%04d Flood St", i), household.getAddress());
+      assertEquals(List.of("Ann", "Bob"), household.getResidents().stream().map(FloodPersonDto::getFirstName).toList());
+      assertEquals("Resident" + i, household.getResidents().get(1).getLastName());
+    }
+    verify(medicalRecordService, atLeast(2)).findByPersons(anyList());
+  }
+
+  @Test
+  void getHouseholdsByStations_shouldStaySequential_whenBelowThreshold() {
+    floodService.close();
+    floodService = new FloodService(fireStationService, personService, medicalRecordService, 4, 100);
+    List<FireStation> stations = new ArrayList<>();
+    for (int i = 0; i < 99; i++) {
+      stations.add(new FireStation(i + " Small St", 8));
+    }
+    when(fireStationService.findByStationNumber(8)).thenReturn(stations);
+    when(personService.findByAddress(anyString())).thenReturn(List.of());
+    when(medicalRecordService.findByPersons(anyList())).thenReturn(List.of());
+
+    assertEquals(99, floodService.getHouseholdsByStations(List.of(8)).getHouseholds().size());
+    verify(medicalRecordService, times(1)).findByPersons(anyList());
+  }
+}
@@ -4,14 +4,20 @@ import com.mr486.safetynet.model.FireStation;
 import com.mr486.safetynet.model.Person;
 import com.mr486.safetynet.service.FireStationService;
 import com.mr486.safetynet.service.PersonService;
+import com.mr486.safetynet.tools.BusinessJoinEvent;
+import com.mr486.safetynet.tools.PositionedList;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.nio.file.Path;
 import java.util.List;
-import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -42,7 +48,7 @@ class PhoneAlertServiceTest {
     when(fireStationService.findByStationNumber(stationNumber)).thenReturn(List.of(station));
     when(personService.findByAddress(address)).thenReturn(List.of(person1, person2));
 
-    Set<String> phones = phoneAlertService.getPhonesByStation(stationNumber);
+    List<String> phones = phoneAlertService.getPhonesByStation(stationNumber);
 
     assertNotNull(phones);
     assertEquals(2, phones.size());
@@ -50,6 +56,25 @@ class PhoneAlertServiceTest {
     assertTrue(phones.contains("0102030406"));
   }
 
+  @Test
+  void getPhonesByStationNumber_ordersPhonesByFirstPersonPosition_acrossAddresses() {
+    Person first = new Person("John", "Doe", "10 Main St", "City", "12345", "0102030405", "john@ex.com");
+    Person second = new Person("Jim", "Smith", "20 Oak St", "City", "12345", "0102030406", "jim@ex.com");
+    Person third = new Person("Jane", "Doe", "10 Main St", "City", "12345", "0102030406", "jane@ex.com");
+    when(fireStationService.findByStationNumber(4))
+            .thenReturn(List.of(new FireStation("10 Main St", 4), new FireStation("20 Oak St", 4)));
+    when(personService.findByAddress("10 Main St")).thenReturn(List.of(first, third));
+    when(personService.findByAddress("20 Oak St")).thenReturn(List.of(second));
+    when(personService.position(first)).thenReturn(5L);
+    when(personService.position(second)).thenReturn(1L);
+    when(personService.position(third)).thenReturn(3L);
+
+    PositionedList<String> phones = phoneAlertService.getPhonesByStation(4);
+
+    assertEquals(List.of("0102030406", "0102030405"), phones);
+    assertEquals(1L, phones.position(0));
+  }
+
   @Test
   void getPhonesByStationNumber_returnsEmpty_whenNoPersons() {
     int stationNumber = 2;
@@ -59,7 +84,7 @@ class PhoneAlertServiceTest {
     when(fireStationService.findByStationNumber(stationNumber)).thenReturn(List.of(station));
     when(personService.findByAddress(address)).thenReturn(List.of());
 
-    Set<String> phones = phoneAlertService.getPhonesByStation(stationNumber);
+    List<String> phones = phoneAlertService.getPhonesByStation(stationNumber);
 
     assertNotNull(phones);
     assertTrue(phones.isEmpty());
@@ -70,9 +95,37 @@ class PhoneAlertServiceTest {
     int stationNumber = 3;
     when(fireStationService.findByStationNumber(stationNumber)).thenReturn(List.of());
 
-    Set<String> phones = phoneAlertService.getPhonesByStation(stationNumber);
+    List<String> phones = phoneAlertService.getPhonesByStation(stationNumber);
 
     assertNotNull(phones);
     assertTrue(phones.isEmpty());
   }
-}
\ No newline at end of file
+
+  @Test
+  void getPhonesByStationNumber_shouldEmitJoinEvent_whenRecording(@TempDir Path directory) throws Exception {
+    FireStation first = new FireStation("10 Main St", 4);
+    FireStation second = new FireStation("20 Oak St", 4);
+    when(fireStationService.findByStationNumber(4)).thenReturn(List.of(first, second));
+    when(personService.findByAddress("10 Main St")).thenReturn(List.of(
+            new Person("John", "Doe", "10 Main St", "City", "12345", "0102030405", "john@ex.com"),
+            new Person("Jane", "Doe", "10 Main St", "City", "12345", "0102030405", "jane@ex.com")));
+    when(personService.findByAddress("20 Oak St")).thenReturn(List.of(
+            new Person("Jim", "Smith", "20 Oak St", "City", "12345", "0102030406", "jim@ex.com")));
+    Path dump = directory.resolve("events.jfr");
+
+    try (Recording recording = new Recording()) {
+      recording.enable(BusinessJoinEvent.class);
+      recording.start();
+      assertEquals(List.of("0102030405", "0102030406"), phoneAlertService.getPhonesByStation(4));
+      recording.stop();
+      recording.dump(dump);
+    }
+
+    List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+    assertEquals(1, events.size());
+    assertEquals("phoneAlert", events.get(0).getString("operation"));
+    assertEquals("4", events.get(0).getString("key"));
+    assertEquals(2, events.get(0).getInt("addresses"));
+    assertEquals(3, events.get(0).getInt("residents"));
+  }
+}
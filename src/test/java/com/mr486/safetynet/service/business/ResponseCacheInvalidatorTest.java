@@ -0,0 +1,98 @@
+package com.mr486.safetynet.service.business;
+
+import com.mr486.safetynet.model.FireStation;
+import com.mr486.safetynet.model.Person;
+import com.mr486.safetynet.repository.FireStationRepository;
+import com.mr486.safetynet.tools.ResponseCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+class ResponseCacheInvalidatorTest {
+
+  @Mock
+  private ResponseCache responseCache;
+  @Mock
+  private FireStationRepository fireStationRepository;
+  @Mock
+  private DatasetVersions datasetVersions;
+
+  @InjectMocks
+  private ResponseCacheInvalidator responseCacheInvalidator;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+  }
+
+  @Test
+  void personChanged_shouldInvalidateAddressCityLastNameAndStation() {
+    Person person = new Person("John", "Boyd", "1509 Culver St", "Culver", "97451", "841-874-6512", "jaboyd@email.com");
+    when(fireStationRepository.findAllByAddress("1509 Culver St")).thenReturn(List.of(new FireStation("1509 Culver St", 3)));
+
+    responseCacheInvalidator.personChanged(person);
+
+    verify(responseCache).invalidate(List.of("address:1509 culver st", "city:culver", "lastName:boyd", "station:3"));
+  }
+
+  @Test
+  void personChanged_shouldInvalidateEveryPersonAtOnce_thenPublishVersions() {
+    Person before = new Person("John", "Boyd", "1509 Culver St", "Culver", "97451", "841-874-6512", "jaboyd@email.com");
+    Person after = new Person("John", "Boyd", "Nowhere", "Culver", "97451", "841-874-6512", "jaboyd@email.com");
+    when(fireStationRepository.findAllByAddress("1509 Culver St")).thenReturn(List.of(new FireStation("1509 Culver St", 3)));
+    when(fireStationRepository.findAllByAddress("Nowhere")).thenReturn(List.of());
+
+    responseCacheInvalidator.personChanged(before, after);
+
+    InOrder inOrder = inOrder(responseCache, datasetVersions);
+    inOrder.verify(responseCache).invalidate(List.of("address:1509 culver st", "city:culver", "lastName:boyd",
+            "station:3", "address:nowhere", "city:culver", "lastName:boyd"));
+    inOrder.verify(datasetVersions).publish();
+  }
+
+  @Test
+  void personChanged_shouldInvalidateEveryStation_whenAddressIsCoveredBySeveral() {
+    Person person = new Person("Tony", "Cooper", "112 Steppes Pl", "Culver", "97451", "841-874-6874", "tcoop@ymail.com");
+    when(fireStationRepository.findAllByAddress("112 Steppes Pl")).thenReturn(List.of(
+            new FireStation("112 Steppes Pl", 3), new FireStation("112 Steppes Pl", 4)));
+
+    responseCacheInvalidator.personChanged(person);
+
+    verify(responseCache).invalidate(List.of("address:112 steppes pl", "city:culver", "lastName:cooper",
+            "station:3", "station:4"));
+  }
+
+  @Test
+  void personChanged_shouldSkipStation_whenAddressIsNotCovered() {
+    Person person = new Person("John", "Boyd", "Nowhere", "Culver", "97451", "841-874-6512", "jaboyd@email.com");
+    when(fireStationRepository.findAllByAddress("Nowhere")).thenReturn(List.of());
+
+    responseCacheInvalidator.personChanged(person);
+
+    verify(responseCache).invalidate(List.of("address:nowhere", "city:culver", "lastName:boyd"));
+  }
+
+  @Test
+  void fireStationChanged_shouldInvalidateAddressAndStations() {
+    responseCacheInvalidator.fireStationChanged("1509 Culver St", 3, 4);
+
+    verify(responseCache).invalidate(List.of("address:1509 culver st", "station:3", "station:4"));
+    verify(datasetVersions).publish();
+  }
+
+  @Test
+  void onComingOfAge_shouldInvalidateEverything_thenPublish() {
+    responseCacheInvalidator.onComingOfAge(new ComingOfAgeEvent(20240601, List.of("john|boyd")));
+
+    InOrder inOrder = inOrder(responseCache, datasetVersions);
+    inOrder.verify(responseCache).invalidateAll();
+    inOrder.verify(datasetVersions).publishComingOfAge();
+  }
+}
@@ -0,0 +1,255 @@
+package com.mr486.safetynet.service.business;
+
+import com.mr486.safetynet.model.FireStation;
+import com.mr486.safetynet.model.MedicalRecord;
+import com.mr486.safetynet.model.Person;
+import com.mr486.safetynet.repository.FireStationRepository;
+import com.mr486.safetynet.repository.MedicalRecordRepository;
+import com.mr486.safetynet.repository.PersonRepository;
+import com.mr486.safetynet.repository.impl.FireStationRepositoryImpl;
+import com.mr486.safetynet.repository.impl.MedicalRecordRepositoryImpl;
+import com.mr486.safetynet.repository.impl.PersonRepositoryImpl;
+import com.mr486.safetynet.tools.JsonService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class StationDemographicsTest {
+
+  @Mock
+  private JsonService jsonService;
+
+  private PersonRepository personRepository;
+  private MedicalRecordRepository medicalRecordRepository;
+  private FireStationRepository fireStationRepository;
+  private MutableClock clock;
+  private StationDemographics stationDemographics;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    clock = new MutableClock(LocalDate.of(2024, 6, 1));
+    when(jsonService.loadFireStations(any())).thenReturn(new ArrayList<>(List.of(
+            new FireStation("1509 Culver St", 3),
+            new FireStation("29 15th St", 2))));
+    when(jsonService.loadPersons(any())).thenReturn(new ArrayList<>(List.of(
+            person("John", "Boyd", "1509 Culver St"),
+            person("Tenley", "Boyd", "1509 Culver St"),
+            person("Jonanathan", "Marrack", "29 15th St"),
+            person("Eric", "Cadigan", "951 LoneTree Rd"))));
+    when(jsonService.loadMedicalRecords(any())).thenReturn(new ArrayList<>(List.of(
+            record("John", "Boyd", "03/06/1984"),
+            record("Tenley", "Boyd", "06/02/2006"),
+            record("Jonanathan", "Marrack", "01/03/1989"),
+            record("Eric", "Cadigan", "08/06/1945"))));
+    personRepository = spy(new PersonRepositoryImpl(jsonService));
+    medicalRecordRepository = spy(new MedicalRecordRepositoryImpl(jsonService));
+    fireStationRepository = spy(new FireStationRepositoryImpl(jsonService));
+    ((PersonRepositoryImpl) personRepository).init();
+    ((MedicalRecordRepositoryImpl) medicalRecordRepository).init();
+    ((FireStationRepositoryImpl) fireStationRepository).init();
+    stationDemographics = new StationDemographics(personRepository, medicalRecordRepository, fireStationRepository, clock);
+  }
+
+  @Test
+  void countsByStation_shouldBuildCountsFromRepositories() {
+    assertEquals(new StationDemographics.Counts(1, 1, 0), stationDemographics.countsByStation(3));
+    assertEquals(new StationDemographics.Counts(1, 0, 0), stationDemographics.countsByStation(2));
+    assertEquals(StationDemographics.Counts.EMPTY, stationDemographics.countsByStation(42));
+  }
+
+  @Test
+  void countsByStation_shouldBuildOnce() {
+    stationDemographics.countsByStation(3);
+    stationDemographics.countsByStation(2);
+
+    verify(fireStationRepository, times(1)).findAll();
+  }
+
+  @Test
+  void countsByStation_shouldCountCoveredAddresses_withoutCopyingPersonsOrMedicalRecords() {
+    stationDemographics.countsByStation(3);
+
+    verify(personRepository, never()).findAll();
+    verify(medicalRecordRepository, never()).findAll();
+    verify(personRepository, never()).findByAddress("951 lonetree rd");
+  }
+
+  @Test
+  void onComingOfAge_shouldMoveChildToAdults() {
+    assertEquals(new StationDemographics.Counts(1, 1, 0), stationDemographics.countsByStation(3));
+
+    clock.set(LocalDate.of(2024, 6, 2));
+    stationDemographics.onComingOfAge(new ComingOfAgeEvent(20240602, List.of("tenley\u0000boyd", "ghost\u0000person")));
+
+    assertEquals(new StationDemographics.Counts(2, 0, 0), stationDemographics.countsByStation(3));
+  }
+
+  @Test
+  void personChanged_shouldMoveResident_whenAddressChanges() {
+    stationDemographics.countsByStation(3);
+    Person previous = personRepository.findByFirstNameAndLastName("Tenley", "Boyd").orElseThrow();
+    Person moved = person("Tenley", "Boyd", "29 15th St");
+    personRepository.save(moved);
+
+    stationDemographics.personChanged(previous, moved);
+
+    assertEquals(new StationDemographics.Counts(1, 0, 0), stationDemographics.countsByStation(3));
+    assertEquals(new StationDemographics.Counts(1, 1, 0), stationDemographics.countsByStation(2));
+  }
+
+  @Test
+  void personChanged_shouldCountUnknown_untilMedicalRecordIsSaved() {
+    stationDemographics.countsByStation(3);
+
+    Person roger = person("Roger", "Boyd", "1509 Culver St");
+    personRepository.save(roger);
+    stationDemographics.personChanged(roger);
+    assertEquals(new StationDemographics.Counts(1, 1, 1), stationDemographics.countsByStation(3));
+
+    MedicalRecord record = record("Roger", "Boyd", "09/06/2017");
+    medicalRecordRepository.save(record);
+    stationDemographics.medicalRecordSaved(record);
+    assertEquals(new StationDemographics.Counts(1, 2, 0), stationDemographics.countsByStation(3));
+  }
+
+  @Test
+  void personChanged_shouldRemoveResident_whenDeleted() {
+    stationDemographics.countsByStation(3);
+    Person tenley = personRepository.findByFirstNameAndLastName("Tenley", "Boyd").orElseThrow();
+    personRepository.delete("tenley", "BOYD");
+
+    stationDemographics.personChanged(tenley);
+    stationDemographics.personChanged(tenley);
+
+    assertEquals(new StationDemographics.Counts(1, 0, 0), stationDemographics.countsByStation(3));
+  }
+
+  @Test
+  void medicalRecordSaved_shouldReclassifyResident_whenBirthdateChanges() {
+    stationDemographics.countsByStation(3);
+    MedicalRecord record = record("John", "Boyd", "03/06/2014");
+    medicalRecordRepository.save(record);
+
+    stationDemographics.medicalRecordSaved(record);
+
+    assertEquals(new StationDemographics.Counts(0, 2, 0), stationDemographics.countsByStation(3));
+  }
+
+  @Test
+  void medicalRecordDeleted_shouldCountResidentAsUnknown() {
+    stationDemographics.countsByStation(3);
+    medicalRecordRepository.delete("John", "Boyd");
+
+    stationDemographics.medicalRecordDeleted("John", "Boyd");
+
+    assertEquals(new StationDemographics.Counts(0, 1, 1), stationDemographics.countsByStation(3));
+  }
+
+  @Test
+  void fireStationSaved_shouldMoveAddressResidents_toNewStation() {
+    stationDemographics.countsByStation(3);
+    fireStationRepository.save(new FireStation("1509 Culver St", 2));
+
+    stationDemographics.fireStationSaved(new FireStation("1509 Culver St", 2));
+
+    assertEquals(StationDemographics.Counts.EMPTY, stationDemographics.countsByStation(3));
+    assertEquals(new StationDemographics.Counts(2, 1, 0), stationDemographics.countsByStation(2));
+  }
+
+  @Test
+  void fireStationSaved_shouldCountResidents_ofANewlyCoveredAddress() {
+    stationDemographics.countsByStation(1);
+    fireStationRepository.save(new FireStation("951 LoneTree Rd", 1));
+
+    stationDemographics.fireStationSaved(new FireStation("951 LoneTree Rd", 1));
+
+    assertEquals(new StationDemographics.Counts(1, 0, 0), stationDemographics.countsByStation(1));
+  }
+
+  @Test
+  void countsByStation_shouldCountResidents_inEveryStationCoveringTheirAddress() {
+    doReturn(List.of(
+            new FireStation("1509 Culver St", 3),
+            new FireStation("1509 Culver St", 4),
+            new FireStation("29 15th St", 2))).when(fireStationRepository).findAll();
+
+    assertEquals(new StationDemographics.Counts(1, 1, 0), stationDemographics.countsByStation(3));
+    assertEquals(new StationDemographics.Counts(1, 1, 0), stationDemographics.countsByStation(4));
+
+    fireStationRepository.delete("1509 Culver St");
+    stationDemographics.fireStationDeleted("1509 Culver St");
+
+    assertEquals(StationDemographics.Counts.EMPTY, stationDemographics.countsByStation(3));
+    assertEquals(StationDemographics.Counts.EMPTY, stationDemographics.countsByStation(4));
+  }
+
+  @Test
+  void fireStationDeleted_shouldRemoveAddressResidents_fromStation() {
+    stationDemographics.countsByStation(3);
+    fireStationRepository.delete("1509 CULVER ST");
+
+    stationDemographics.fireStationDeleted("1509 CULVER ST");
+
+    assertEquals(StationDemographics.Counts.EMPTY, stationDemographics.countsByStation(3));
+  }
+
+  @Test
+  void changes_shouldBeCounted_whenAppliedBeforeCountsAreBuilt() {
+    Person john = personRepository.findByFirstNameAndLastName("John", "Boyd").orElseThrow();
+    personRepository.delete("John", "Boyd");
+    stationDemographics.personChanged(john);
+    stationDemographics.onComingOfAge(new ComingOfAgeEvent(20240601, List.of("tenley\u0000boyd")));
+
+    assertEquals(new StationDemographics.Counts(0, 1, 0), stationDemographics.countsByStation(3));
+  }
+
+  private static Person person(String firstName, String lastName, String address) {
+    return new Person(firstName, lastName, address, "Culver", "97451", "841-874-6512", "mail@email.com");
+  }
+
+  private static MedicalRecord record(String firstName, String lastName, String birthdate) {
+    return new MedicalRecord(firstName, lastName, birthdate, new ArrayList<>(), new ArrayList<>());
+  }
+
+  private static final class MutableClock extends Clock {
+
+    private Instant instant;
+
+    MutableClock(LocalDate date) {
+      set(date);
+    }
+
+    void set(LocalDate date) {
+      instant = date.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Instant instant() {
+      return instant;
+    }
+  }
+}
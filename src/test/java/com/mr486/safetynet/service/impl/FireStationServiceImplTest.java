@@ -5,6 +5,8 @@ import com.mr486.safetynet.exception.EntityAlreadyExistsException;
 import com.mr486.safetynet.exception.EntityNotFoundException;
 import com.mr486.safetynet.model.FireStation;
 import com.mr486.safetynet.repository.FireStationRepository;
+import com.mr486.safetynet.service.business.StationDemographics;
+import com.mr486.safetynet.service.business.ResponseCacheInvalidator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -22,6 +24,12 @@ class FireStationServiceImplTest {
   @Mock
   private FireStationRepository fireStationRepository;
 
+  @Mock
+  private StationDemographics stationDemographics;
+
+  @Mock
+  private ResponseCacheInvalidator responseCacheInvalidator;
+
   @InjectMocks
   private FireStationServiceImpl fireStationServiceImpl;
 
@@ -81,6 +89,18 @@ class FireStationServiceImplTest {
     fireStationServiceImpl.delete("123 Main St");
 
     verify(fireStationRepository).delete("123 Main St");
+    verify(stationDemographics).fireStationDeleted("123 Main St");
+  }
+
+  @Test
+  void delete_shouldInvalidateEveryStation_whenAddressIsCoveredBySeveral() {
+    when(fireStationRepository.exists("112 Steppes Pl")).thenReturn(true);
+    when(fireStationRepository.findAllByAddress("112 Steppes Pl")).thenReturn(List.of(
+            new FireStation("112 Steppes Pl", 3), new FireStation("112 Steppes Pl", 4)));
+
+    fireStationServiceImpl.delete("112 Steppes Pl");
+
+    verify(responseCacheInvalidator).fireStationChanged("112 Steppes Pl", 3, 4);
   }
 
   @Test
@@ -107,6 +127,7 @@ class FireStationServiceImplTest {
 
     assertEquals("123 Main St", result.getAddress());
     assertEquals(2, result.getStation());
+    verify(responseCacheInvalidator).fireStationChanged("123 Main St", 1, 2);
   }
 
   @Test
@@ -8,6 +8,10 @@ import com.mr486.safetynet.model.MedicalRecord;
 import com.mr486.safetynet.model.Person;
 import com.mr486.safetynet.repository.PersonRepository;
 import com.mr486.safetynet.repository.impl.MedicalRecordRepositoryImpl;
+import com.mr486.safetynet.service.business.ChildAlertView;
+import com.mr486.safetynet.service.business.ComingOfAgeScheduler;
+import com.mr486.safetynet.service.business.ResponseCacheInvalidator;
+import com.mr486.safetynet.service.business.StationDemographics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -17,6 +21,7 @@ import org.mockito.MockitoAnnotations;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,6 +36,18 @@ class MedicalRecordServiceImplTest {
   @Mock
   private PersonRepository personRepository;
 
+  @Mock
+  private StationDemographics stationDemographics;
+
+  @Mock
+  private ComingOfAgeScheduler comingOfAgeScheduler;
+
+  @Mock
+  private ChildAlertView childAlertView;
+
+  @Mock
+  private ResponseCacheInvalidator responseCacheInvalidator;
+
   @InjectMocks
   private MedicalRecordServiceImpl medicalRecordService;
 
@@ -70,6 +87,27 @@ class MedicalRecordServiceImplTest {
     verify(medicalRecordRepository, times(1)).findByFirstNameAndLastName("John", "Doe");
   }
 
+  @Test
+  void testFindByPersons() {
+    Person john = new Person("John", "Doe", "address", "city", "zip", "phone", "email");
+    MedicalRecord record = new MedicalRecord("John", "Doe", "01/01/2000", new ArrayList<>(), new ArrayList<>());
+    when(medicalRecordRepository.findByPersons(List.of(john))).thenReturn(List.of(record));
+
+    List<MedicalRecord> result = medicalRecordService.findByPersons(List.of(john));
+
+    assertEquals(List.of(record), result);
+  }
+
+  @Test
+  void testFindByPersons_shouldThrowException_whenAPersonHasNoRecord() {
+    Person jane = new Person("Jane", "Smith", "address", "city", "zip", "phone", "email");
+    when(medicalRecordRepository.findByPersons(List.of(jane))).thenReturn(Collections.singletonList(null));
+
+    EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () ->
+            medicalRecordService.findByPersons(List.of(jane)));
+    assertTrue(exception.getMessage().contains("Jane Smith"));
+  }
+
   @Test
   void testSave() {
     String firstName = "John";
@@ -91,6 +129,8 @@ class MedicalRecordServiceImplTest {
     medicalRecordService.save(firstName, lastName, medicalRecordDto);
 
     verify(medicalRecordRepository, times(1)).save(any(MedicalRecord.class));
+    verify(stationDemographics, times(1)).medicalRecordSaved(any(MedicalRecord.class));
+    verify(comingOfAgeScheduler, times(1)).medicalRecordSaved(any(MedicalRecord.class));
     verify(personRepository, times(1)).exists(firstName, lastName);
     verify(medicalRecordRepository, times(1)).exists(firstName, lastName);
 
@@ -154,6 +194,9 @@ class MedicalRecordServiceImplTest {
     assertEquals("02/02/1990", updated.getBirthdate());
     assertEquals(List.of("Ibuprofen"), updated.getMedications());
     assertEquals(List.of("None"), updated.getAllergies());
+    assertNotSame(existing, updated);
+    assertEquals("01/01/2000", existing.getBirthdate());
+    assertEquals(List.of("Aspirin"), existing.getMedications());
   }
 
   @Test
@@ -173,10 +216,15 @@ class MedicalRecordServiceImplTest {
     String firstName = "John";
     String lastName = "Doe";
     when(medicalRecordRepository.exists(firstName, lastName)).thenReturn(true);
+    when(personRepository.findByFirstNameAndLastName(firstName, lastName))
+            .thenReturn(Optional.of(new Person(firstName, lastName, "address", "city", "zip", "phone", "email")));
 
     medicalRecordService.delete(firstName, lastName);
 
     verify(medicalRecordRepository, times(1)).delete(firstName, lastName);
+    verify(stationDemographics, times(1)).medicalRecordDeleted(firstName, lastName);
+    verify(comingOfAgeScheduler, times(1)).medicalRecordDeleted(firstName, lastName);
+    verify(childAlertView, times(1)).invalidate("address");
   }
 
   @Test
@@ -1,16 +1,31 @@
 package com.mr486.safetynet.service.impl;
 
+import com.mr486.safetynet.dto.request.DataBindingDto;
 import com.mr486.safetynet.dto.request.PersonDto;
 import com.mr486.safetynet.exception.EntityAlreadyExistsException;
 import com.mr486.safetynet.exception.EntityNotFoundException;
+import com.mr486.safetynet.exception.InvalidRequestException;
 import com.mr486.safetynet.model.Person;
 import com.mr486.safetynet.repository.PersonRepository;
+import com.mr486.safetynet.repository.impl.MappedPersonRepositoryImpl;
+import com.mr486.safetynet.service.business.ChildAlertView;
+import com.mr486.safetynet.service.business.ResponseCacheInvalidator;
+import com.mr486.safetynet.service.business.StationDemographics;
+import com.mr486.safetynet.tools.BinarySnapshot;
+import com.mr486.safetynet.tools.JsonService;
+import com.mr486.safetynet.tools.MappedSnapshot;
+import com.mr486.safetynet.tools.Page;
+import com.mr486.safetynet.tools.Positioned;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +37,15 @@ class PersonServiceImplTest {
   @Mock
   private PersonRepository personRepository;
 
+  @Mock
+  private StationDemographics stationDemographics;
+
+  @Mock
+  private ChildAlertView childAlertView;
+
+  @Mock
+  private ResponseCacheInvalidator responseCacheInvalidator;
+
   @InjectMocks
   private PersonServiceImpl personServiceImpl;
 
@@ -76,10 +100,14 @@ class PersonServiceImplTest {
 
   @Test
   void delete_shouldRemovePerson_whenExists() {
+    Person person = new Person("John", "Doe", "address", "city", "zip", "phone", "email");
     when(personRepository.exists("John", "Doe")).thenReturn(true);
+    when(personRepository.findByFirstNameAndLastName("John", "Doe")).thenReturn(Optional.of(person));
 
     personServiceImpl.delete("John", "Doe");
     verify(personRepository, times(1)).delete("John", "Doe");
+    verify(stationDemographics, times(1)).personChanged(person);
+    verify(childAlertView, times(1)).invalidate("address");
   }
 
   @Test
@@ -109,6 +137,33 @@ class PersonServiceImplTest {
     assertEquals("newZip", result.getZip());
     assertEquals("newPhone", result.getPhone());
     assertEquals("newEmail", result.getEmail());
+    verify(stationDemographics, times(1)).personChanged(existing, updated);
+    verify(childAlertView, times(1)).invalidate("address");
+    verify(childAlertView, times(1)).invalidate("newAddress");
+    verify(responseCacheInvalidator, times(1)).personChanged(existing, updated);
+  }
+
+  @Test
+  void update_shouldInvalidatePreviousAddress_whenUpdatedTwiceInMappedMode(@TempDir Path directory) throws IOException {
+    Path file = directory.resolve("data.snapshot");
+    BinarySnapshot.write(new DataBindingDto(
+            List.of(new Person("John", "Doe", "address", "city", "zip", "phone", "email")), List.of(), List.of()), file);
+    JsonService jsonService = mock(JsonService.class);
+    when(jsonService.mappedSnapshot()).thenReturn(MappedSnapshot.open(file));
+    MappedPersonRepositoryImpl mappedRepository = new MappedPersonRepositoryImpl(jsonService);
+    mappedRepository.init();
+    PersonServiceImpl mappedService = new PersonServiceImpl(mappedRepository, stationDemographics, childAlertView,
+            responseCacheInvalidator);
+
+    mappedService.update("John", "Doe", new PersonDto("firstMove", "city", "zip", "phone", "email"));
+    mappedService.update("John", "Doe", new PersonDto("secondMove", "city", "zip", "phone", "email"));
+
+    verify(childAlertView, times(1)).invalidate("address");
+    verify(childAlertView, times(2)).invalidate("firstMove");
+    verify(childAlertView, times(1)).invalidate("secondMove");
+    verify(responseCacheInvalidator).personChanged(
+            argThat(person -> person.getAddress().equals("firstMove")),
+            argThat(person -> person.getAddress().equals("secondMove")));
   }
 
   @Test
@@ -156,4 +211,33 @@ class PersonServiceImplTest {
 
     assertTrue(result.isEmpty());
   }
-}
\ No newline at end of file
+
+  @Test
+  void findPage_shouldReadPageAfterCursorPosition() {
+    Person jane = new Person("Jane", "Doe", "address", "city", "zip", "phone", "email");
+    Person bob = new Person("Bob", "Smith", "address", "city", "zip", "phone", "email");
+    when(personRepository.iterateAfter(4)).thenReturn(List.of(new Positioned<>(5, jane), new Positioned<>(7, bob)).iterator());
+
+    Page<Person> page = personServiceImpl.findPage(Page.cursor(4), 1);
+
+    assertEquals(List.of(jane), page.items());
+    assertEquals(Page.cursor(5), page.nextCursor());
+  }
+
+  @Test
+  void findPage_shouldThrowException_whenLimitIsInvalid() {
+    assertThrows(InvalidRequestException.class, () -> personServiceImpl.findPage(null, 0));
+    verifyNoInteractions(personRepository);
+  }
+
+  @Test
+  void iterateAll_shouldIterateAllPersons_fromFirstPosition() {
+    Person john = new Person("John", "Doe", "address", "city", "zip", "phone", "email");
+    when(personRepository.iterateAfter(-1)).thenReturn(List.of(new Positioned<>(0, john)).iterator());
+
+    Iterator<Person> persons = personServiceImpl.iterateAll();
+
+    assertSame(john, persons.next());
+    assertFalse(persons.hasNext());
+  }
+}
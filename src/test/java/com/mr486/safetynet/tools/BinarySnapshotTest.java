@@ -0,0 +1,186 @@
+package com.mr486.safetynet.tools;
+
+import com.mr486.safetynet.dto.request.DataBindingDto;
+import com.mr486.safetynet.model.FireStation;
+import com.mr486.safetynet.model.MedicalRecord;
+import com.mr486.safetynet.model.Person;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinarySnapshotTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void read_shouldReturnWrittenDataset() throws IOException {
+    DataBindingDto data = dataset();
+    Path file = directory.resolve("data.snapshot");
+
+    BinarySnapshot.write(data, file);
+    DataBindingDto result = BinarySnapshot.read(file);
+
+    assertEquals(data, result);
+  }
+
+  @Test
+  void read_shouldShareRepeatedStrings() throws IOException {
+    Path file = directory.resolve("data.snapshot");
+
+    BinarySnapshot.write(dataset(), file);
+    DataBindingDto result = BinarySnapshot.read(file);
+
+    assertSame(result.getPersons().get(0).getAddress(), result.getPersons().get(1).getAddress());
+    assertSame(result.getPersons().get(0).getAddress(), result.getFirestations().get(0).getAddress());
+  }
+
+  @Test
+  void read_shouldKeepNullFields() throws IOException {
+    Person person = new Person("John", "Doe", null, null, null, null, null);
+    FireStation fireStation = new FireStation("1 Main St", null);
+    MedicalRecord medicalRecord = new MedicalRecord("John", "Doe", null, null, null);
+    Path file = directory.resolve("data.snapshot");
+
+    BinarySnapshot.write(new DataBindingDto(List.of(person), List.of(fireStation), List.of(medicalRecord)), file);
+    DataBindingDto result = BinarySnapshot.read(file);
+
+    assertEquals(person, result.getPersons().get(0));
+    assertEquals(fireStation, result.getFirestations().get(0));
+    assertTrue(result.getMedicalrecords().get(0).getMedications().isEmpty());
+  }
+
+  @Test
+  void read_shouldThrowIOException_whenFileIsNotASnapshot() throws IOException {
+    Path file = directory.resolve("data.snapshot");
+    Files.writeString(file, "{ \"persons\": [] }");
+
+    assertThrows(IOException.class, () -> BinarySnapshot.read(file));
+  }
+
+  @Test
+  void read_shouldThrowIOException_whenVersionIsUnsupported() throws IOException {
+    Path file = directory.resolve("data.snapshot");
+    try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+      out.writeInt(BinarySnapshot.MAGIC);
+      out.writeInt(BinarySnapshot.VERSION + 1);
+    }
+
+    IOException exception = assertThrows(IOException.class, () -> BinarySnapshot.read(file));
+    assertTrue(exception.getMessage().contains("unsupported snapshot version"));
+  }
+
+  @Test
+  void read_shouldThrowIOException_whenFileIsTruncatedAnywhere() throws IOException {
+    Path file = directory.resolve("data.snapshot");
+    BinarySnapshot.write(dataset(), file);
+    byte[] bytes = Files.readAllBytes(file);
+    Path truncated = directory.resolve("truncated.snapshot");
+
+    for (int length = 0; length < bytes.length; length++) {
+      Files.write(truncated, Arrays.copyOf(bytes, length));
+      assertThrows(IOException.class, () -> BinarySnapshot.read(truncated), "truncated at " + length);
+    }
+  }
+
+  @Test
+  void read_shouldThrowOnlyIOException_whenAnyIntIsCorrupt() throws IOException {
+    Path file = directory.resolve("data.snapshot");
+    BinarySnapshot.write(dataset(), file);
+    byte[] bytes = Files.readAllBytes(file);
+    Path corrupt = directory.resolve("corrupt.snapshot");
+
+    for (int position = 0; position + Integer.BYTES <= bytes.length; position++) {
+      for (int value : new int[]{Integer.MAX_VALUE, Integer.MIN_VALUE, -2, 1 << 20}) {
+        Files.write(corrupt, ByteBuffer.allocate(bytes.length).put(bytes).putInt(position, value).array());
+        try {
+          BinarySnapshot.read(corrupt);
+        } catch (Exception e) {
+          assertInstanceOf(IOException.class, e, value + " at " + position);
+        }
+      }
+    }
+  }
+
+  @Test
+  void read_shouldThrowIOException_whenDataFollowsTheRecords() throws IOException {
+    Path file = directory.resolve("data.snapshot");
+    BinarySnapshot.write(dataset(), file);
+    Files.write(file, new byte[]{0}, StandardOpenOption.APPEND);
+
+    assertThrows(IOException.class, () -> BinarySnapshot.read(file));
+  }
+
+  @Test
+  void write_shouldCopyVisibleMappedRecords_thenSavedOnes() throws IOException {
+    Path mapped = directory.resolve("mapped.snapshot");
+    BinarySnapshot.write(dataset(), mapped);
+    MappedSnapshot source = MappedSnapshot.open(mapped);
+    MappedOverlay<Person> persons = new MappedOverlay<>(source.personCount(), source::person);
+    Person moved = new Person("John", "Boyd", "29 15th St", "Culver", "97451", "841-874-6512", "jaboyd@email.com");
+    persons.put(Keys.nameKey("John", "Boyd"), 0, moved);
+    MappedOverlay<MedicalRecord> medicalRecords = new MappedOverlay<>(source.medicalRecordCount(), source::medicalRecord);
+    List<FireStation> fireStations = List.of(new FireStation("29 15th St", 2));
+    Path file = directory.resolve("data.snapshot");
+
+    BinarySnapshot.write(source, persons.copy(), fireStations, medicalRecords.copy(), file);
+    DataBindingDto result = BinarySnapshot.read(file);
+
+    assertEquals(List.of(dataset().getPersons().get(1), moved), result.getPersons());
+    assertEquals(fireStations, result.getFirestations());
+    assertEquals(dataset().getMedicalrecords(), result.getMedicalrecords());
+  }
+
+  @Test
+  void write_shouldDropMappedStrings_noLongerReferenced() throws IOException {
+    Path mapped = directory.resolve("mapped.snapshot");
+    BinarySnapshot.write(dataset(), mapped);
+    MappedSnapshot source = MappedSnapshot.open(mapped);
+    MappedOverlay<Person> persons = new MappedOverlay<>(source.personCount(), source::person);
+    persons.remove(Keys.nameKey("John", "Boyd"), 0);
+    MappedOverlay<MedicalRecord> medicalRecords = new MappedOverlay<>(source.medicalRecordCount(), source::medicalRecord);
+    medicalRecords.remove(Keys.nameKey("John", "Boyd"), 0);
+    Path file = directory.resolve("data.snapshot");
+
+    BinarySnapshot.write(source, persons.copy(), List.of(), medicalRecords.copy(), file);
+    MappedSnapshot result = MappedSnapshot.open(file);
+
+    assertEquals(List.of(dataset().getPersons().get(1)), new ArrayList<>(result.dataset().getPersons()));
+    assertEquals(0, result.medicalRecordCount());
+    assertEquals(7, result.stringCount());
+  }
+
+  @Test
+  void write_shouldRejectRecords_copiedFromAnotherSnapshot() throws IOException {
+    Path mapped = directory.resolve("mapped.snapshot");
+    BinarySnapshot.write(dataset(), mapped);
+    MappedSnapshot source = MappedSnapshot.open(mapped);
+    MappedOverlay.Copy<Person> persons = new MappedOverlay<Person>(0, index -> null).copy();
+    MappedOverlay.Copy<MedicalRecord> medicalRecords = new MappedOverlay<>(source.medicalRecordCount(), source::medicalRecord).copy();
+
+    assertThrows(IllegalArgumentException.class,
+            () -> BinarySnapshot.write(source, persons, List.of(), medicalRecords, directory.resolve("data.snapshot")));
+  }
+
+  private static DataBindingDto dataset() {
+    return new DataBindingDto(
+            List.of(
+                    new Person("John", "Boyd", new String("1509 Culver St"), "Culver", "97451", "841-874-6512", "jaboyd@email.com"),
+                    new Person("Jacob", "Boyd", new String("1509 Culver St"), "Culver", "97451", "841-874-6513", "drk@email.com")),
+            List.of(new FireStation(new String("1509 Culver St"), 3)),
+            List.of(new MedicalRecord("John", "Boyd", "03/06/1984",
+                    new ArrayList<>(List.of("aznol:350mg", "hydrapermazol:100mg")),
+                    new ArrayList<>(List.of("nillacilan")))));
+  }
+}
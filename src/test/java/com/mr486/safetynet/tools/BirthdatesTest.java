@@ -0,0 +1,71 @@
+package com.mr486.safetynet.tools;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BirthdatesTest {
+
+  private static final ZoneId ZONE = ZoneOffset.UTC;
+
+  @Test
+  void parse_shouldReturnYearMonthDay() {
+    assertEquals(19840306, Birthdates.parse("03/06/1984"));
+    assertEquals(Birthdates.parse("03/06/1984"), Birthdates.parse("03/06/1984"));
+  }
+
+  @Test
+  void parse_shouldThrowException_whenFormatIsInvalid() {
+    assertThrows(IllegalArgumentException.class, () -> Birthdates.parse("1984-03-06"));
+    assertThrows(IllegalArgumentException.class, () -> Birthdates.parse(null));
+  }
+
+  @Test
+  void age_shouldCountFullYears_aroundBirthday() {
+    assertEquals(39, Birthdates.age("03/06/1984", clockAt(2024, 3, 5)));
+    assertEquals(40, Birthdates.age("03/06/1984", clockAt(2024, 3, 6)));
+    assertEquals(0, Birthdates.age("02/29/2000", clockAt(2001, 2, 28)));
+    assertEquals(1, Birthdates.age("02/29/2000", clockAt(2001, 3, 1)));
+  }
+
+  @Test
+  void age_shouldMatchPeriodBetween_forEveryDayOfTheYear() {
+    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+    LocalDate now = LocalDate.of(2024, 2, 29);
+    Clock clock = clockAt(now.getYear(), now.getMonthValue(), now.getDayOfMonth());
+    for (LocalDate birthdate = LocalDate.of(1999, 1, 1); birthdate.isBefore(now); birthdate = birthdate.plusDays(1)) {
+      assertEquals(Period.between(birthdate, now).getYears(), Birthdates.age(birthdate.format(formatter), clock),
+              birthdate.toString());
+    }
+  }
+
+  @Test
+  void today_shouldRollOver_atMidnight() {
+    Clock beforeMidnight = Clock.fixed(LocalDateTime.of(2024, 12, 31, 23, 59, 59).toInstant(ZoneOffset.UTC), ZONE);
+    Clock afterMidnight = Clock.fixed(LocalDateTime.of(2025, 1, 1, 0, 0).toInstant(ZoneOffset.UTC), ZONE);
+
+    assertEquals(20241231, Birthdates.today(beforeMidnight));
+    assertEquals(20250101, Birthdates.today(afterMidnight));
+    assertEquals(20241231, Birthdates.today(beforeMidnight));
+  }
+
+  @Test
+  void today_shouldFollowTimeZone() {
+    Clock utc = Clock.fixed(LocalDateTime.of(2024, 12, 31, 23, 0).toInstant(ZoneOffset.UTC), ZONE);
+
+    assertEquals(20241231, Birthdates.today(utc));
+    assertEquals(20250101, Birthdates.today(utc.withZone(ZoneOffset.ofHours(2))));
+  }
+
+  private static Clock clockAt(int year, int month, int day) {
+    return Clock.fixed(LocalDate.of(year, month, day).atStartOfDay(ZONE).toInstant(), ZONE);
+  }
+}
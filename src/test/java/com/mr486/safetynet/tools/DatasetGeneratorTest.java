@@ -0,0 +1,112 @@
+package com.mr486.safetynet.tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mr486.safetynet.dto.request.DataBindingDto;
+import com.mr486.safetynet.model.MedicalRecord;
+import com.mr486.safetynet.model.Person;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatasetGeneratorTest {
+
+  private static final LocalDate TODAY = LocalDate.of(2026, 10, 18);
+  private static final Clock CLOCK = Clock.fixed(TODAY.atStartOfDay(ZoneOffset.UTC).toInstant(), ZoneOffset.UTC);
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void build_shouldBeDeterministic_forSameOptions() {
+    DatasetGenerator.Options options = options(200).build();
+
+    assertEquals(new DatasetGenerator(options).build(), new DatasetGenerator(options).build());
+    assertNotEquals(new DatasetGenerator(options).build(),
+            new DatasetGenerator(options(200).seed(7).build()).build());
+  }
+
+  @Test
+  void build_shouldGroupPersonsInHouseholdsAndAddresses() {
+    DataBindingDto data = new DatasetGenerator(options(100).personsPerHousehold(4).householdsPerAddress(5)
+            .stations(3).build()).build();
+
+    assertEquals(100, data.getPersons().size());
+    assertEquals(100, data.getMedicalrecords().size());
+    assertEquals(5, data.getFirestations().size());
+    Person first = data.getPersons().get(0);
+    assertEquals(first.getLastName(), data.getPersons().get(3).getLastName());
+    assertNotEquals(first.getLastName(), data.getPersons().get(4).getLastName());
+    assertEquals(first.getAddress(), data.getPersons().get(19).getAddress());
+    assertNotEquals(first.getAddress(), data.getPersons().get(20).getAddress());
+    assertEquals(3, data.getFirestations().get(2).getStation());
+    assertEquals(1, data.getFirestations().get(3).getStation());
+    Set<String> names = new HashSet<>();
+    data.getPersons().forEach(person -> assertTrue(names.add(person.getFirstName() + " " + person.getLastName())));
+  }
+
+  @Test
+  void build_shouldFollowChildrenRatioAndItemMeans() {
+    DatasetGenerator generator = new DatasetGenerator(options(10_000).childrenRatio(0.3)
+            .medicationsPerRecord(1.0).allergiesPerRecord(0).build());
+
+    int children = 0;
+    int medications = 0;
+    for (int i = 0; i < 10_000; i++) {
+      MedicalRecord medicalRecord = generator.medicalRecord(i);
+      if (Birthdates.age(medicalRecord.getBirthdate(), CLOCK) < 18) {
+        children++;
+      }
+      medications += medicalRecord.getMedications().size();
+      assertTrue(medicalRecord.getAllergies().isEmpty());
+    }
+    assertEquals(0.3, children / 10_000.0, 0.02);
+    assertEquals(1.0, medications / 10_000.0, 0.05);
+  }
+
+  @Test
+  void medicalRecord_shouldDrawDistinctItemsWithConfiguredMean_whenMeanIsHigh() {
+    DatasetGenerator generator = new DatasetGenerator(options(10_000).allergiesPerRecord(4).build());
+
+    int allergies = 0;
+    for (int i = 0; i < 10_000; i++) {
+      List<String> drawn = generator.medicalRecord(i).getAllergies();
+      assertEquals(drawn.size(), new HashSet<>(drawn).size());
+      allergies += drawn.size();
+    }
+    assertEquals(4.0, allergies / 10_000.0, 0.05);
+  }
+
+  @Test
+  void writeJson_shouldStreamTheBuiltDataset() throws IOException {
+    DatasetGenerator generator = new DatasetGenerator(options(50).build());
+    Path file = directory.resolve("data.json");
+
+    generator.writeJson(new ObjectMapper(), file);
+
+    assertEquals(generator.build(), new JsonDataUtil(new ObjectMapper()).loadData(file.toFile()));
+  }
+
+  @Test
+  void constructor_shouldRejectInvalidOptions() {
+    assertThrows(IllegalArgumentException.class,
+            () -> new DatasetGenerator(options(10).personsPerHousehold(0).build()));
+    assertThrows(IllegalArgumentException.class,
+            () -> new DatasetGenerator(options(10).childrenRatio(1.5).build()));
+    assertThrows(IllegalArgumentException.class,
+            () -> new DatasetGenerator(options(10).allergiesPerRecord(6).build()));
+  }
+
+  private static DatasetGenerator.Options.OptionsBuilder options(int persons) {
+    return DatasetGenerator.Options.builder().persons(persons).referenceDate(TODAY);
+  }
+}
@@ -0,0 +1,69 @@
+package com.mr486.safetynet.tools;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntObjectMapTest {
+
+  @Test
+  void get_shouldReturnNull_whenMapIsEmpty() {
+    assertNull(IntObjectMap.empty().get(1));
+    assertEquals(0, IntObjectMap.empty().size());
+  }
+
+  @Test
+  void with_shouldReturnNewMap_leavingOriginalUnchanged() {
+    IntObjectMap<String> original = IntObjectMap.<String>empty().with(1, "one");
+
+    IntObjectMap<String> updated = original.with(2, "two").with(1, "uno");
+
+    assertEquals("one", original.get(1));
+    assertNull(original.get(2));
+    assertEquals("uno", updated.get(1));
+    assertEquals("two", updated.get(2));
+    assertEquals(2, updated.size());
+  }
+
+  @Test
+  void without_shouldRemoveKey() {
+    IntObjectMap<String> map = IntObjectMap.<String>empty().with(1, "one").with(2, "two");
+
+    IntObjectMap<String> result = map.without(1);
+
+    assertNull(result.get(1));
+    assertEquals("two", result.get(2));
+    assertEquals(1, result.size());
+    assertSame(result, result.without(42));
+  }
+
+  @Test
+  void compute_shouldRemoveKey_whenFunctionReturnsNull() {
+    IntObjectMap<String> map = IntObjectMap.<String>empty().with(3, "three");
+
+    assertEquals("three!", map.compute(3, value -> value + "!").get(3));
+    assertEquals("new", map.compute(4, value -> value == null ? "new" : value).get(4));
+    assertEquals(0, map.compute(3, value -> null).size());
+  }
+
+  @Test
+  void with_shouldKeepEveryKey_whenKeysCollide() {
+    IntObjectMap<Integer> map = IntObjectMap.empty();
+    for (int key = -500; key < 500; key++) {
+      map = map.with(key * 1024, key);
+    }
+
+    assertEquals(1_000, map.size());
+    for (int key = -500; key < 500; key++) {
+      assertEquals(key, map.get(key * 1024));
+    }
+    assertNull(map.get(7));
+  }
+
+  @Test
+  void with_shouldRejectNullValues() {
+    IntObjectMap<String> map = IntObjectMap.empty();
+
+    assertThrows(IllegalArgumentException.class, () -> map.with(1, null));
+  }
+}
@@ -2,51 +2,254 @@ package com.mr486.safetynet.tools;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mr486.safetynet.dto.request.DataBindingDto;
+import com.mr486.safetynet.model.FireStation;
+import com.mr486.safetynet.model.Person;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.*;
 
 class JsonDataUtilTest {
 
-  private ObjectMapper objectMapper;
+  private static final String DATA = """
+          {
+            "persons": [
+              { "firstName":"John", "lastName":"Boyd", "address":"1509 Culver St", "city":"Culver", "zip":"97451", "phone":"841-874-6512", "email":"jaboyd@email.com" },
+              { "firstName":"Jacob", "lastName":"Boyd", "address":"1509 Culver St", "city":"Culver", "zip":"97451", "phone":"841-874-6513", "email":"drk@email.com" }
+            ],
+            "comment": { "ignored": [1, 2, 3] },
+            "firestations": [
+              { "address":"1509 Culver St", "station":"3" }
+            ],
+            "medicalrecords": [
+              { "firstName":"John", "lastName":"Boyd", "birthdate":"03/06/1984", "medications":["aznol:350mg"], "allergies":["nillacilan"] }
+            ]
+          }
+          """;
+
+  @TempDir
+  Path directory;
+
   private JsonDataUtil jsonDataUtil;
 
   @BeforeEach
   void setUp() {
-    objectMapper = mock(ObjectMapper.class);
-    jsonDataUtil = new JsonDataUtil(objectMapper);
+    jsonDataUtil = new JsonDataUtil(new ObjectMapper());
   }
 
   @Test
-  void loadData_shouldReturnDataBinding_whenJsonIsValid() throws Exception {
-    DataBindingDto mockData = new DataBindingDto();
-    String testPath = "src/test/resources/data.json";
+  void loadData_shouldReturnDataBinding_whenJsonIsValid() throws IOException {
+    DataBindingDto result = jsonDataUtil.loadData(write(DATA));
 
-    File file = new File(testPath);
-    when(objectMapper.readValue(any(File.class), eq(DataBindingDto.class))).thenReturn(mockData);
+    assertNotNull(result);
+    assertEquals(2, result.getPersons().size());
+    assertEquals("Jacob", result.getPersons().get(1).getFirstName());
+    assertEquals(List.of(new FireStation("1509 Culver St", 3)), result.getFirestations());
+    assertEquals(1, result.getMedicalrecords().size());
+    assertEquals(List.of("aznol:350mg"), result.getMedicalrecords().get(0).getMedications());
+  }
 
-    DataBindingDto result = jsonDataUtil.loadData();
+  @Test
+  void loadData_shouldShareRepeatedStrings() throws IOException {
+    DataBindingDto result = jsonDataUtil.loadData(write(DATA));
 
-    assertNotNull(result);
-    verify(objectMapper, times(1)).readValue(any(File.class), eq(DataBindingDto.class));
+    assertSame(result.getPersons().get(0).getAddress(), result.getPersons().get(1).getAddress());
+    assertSame(result.getPersons().get(0).getCity(), result.getPersons().get(1).getCity());
+    assertSame(result.getPersons().get(0).getAddress(), result.getFirestations().get(0).getAddress());
+  }
+
+  @Test
+  void loadData_shouldReturnEmptyLists_whenSectionsAreMissingOrNull() throws IOException {
+    DataBindingDto result = jsonDataUtil.loadData(write("{ \"persons\": null }"));
+
+    assertTrue(result.getPersons().isEmpty());
+    assertTrue(result.getFirestations().isEmpty());
+    assertTrue(result.getMedicalrecords().isEmpty());
   }
 
   @Test
-  void loadData_shouldThrowRuntimeException_whenIOExceptionOccurs() throws Exception {
-    when(objectMapper.readValue(any(File.class), eq(DataBindingDto.class)))
-            .thenThrow(new RuntimeException("Simulated read error"));
+  void loadData_shouldThrowRuntimeException_whenJsonIsMalformed() throws IOException {
+    File file = write("{ \"persons\": [ { \"firstName\": ");
 
-    RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-      jsonDataUtil.loadData();
-    });
+    RuntimeException exception = assertThrows(RuntimeException.class, () -> jsonDataUtil.loadData(file));
 
     assertTrue(exception.getMessage().contains("Error reading json file"));
   }
 
-}
\ No newline at end of file
+  @Test
+  void loadData_shouldThrowRuntimeException_whenFileIsMissing() {
+    File file = directory.resolve("missing.json").toFile();
+
+    RuntimeException exception = assertThrows(RuntimeException.class, () -> jsonDataUtil.loadData(file));
+
+    assertTrue(exception.getMessage().contains("Error reading json file"));
+  }
+
+  @Test
+  void saveData_shouldWriteJsonAndSnapshot() {
+    File json = directory.resolve("out.json").toFile();
+    File snapshot = directory.resolve("out.snapshot").toFile();
+    DataBindingDto data = new DataBindingDto(
+            List.of(new Person("John", "Boyd", "1509 Culver St", "Culver", "97451", "841-874-6512", "jaboyd@email.com")),
+            List.of(new FireStation("1509 Culver St", 3)),
+            List.of());
+
+    jsonDataUtil.saveData(data, json, snapshot);
+
+    assertEquals(data, jsonDataUtil.loadData(json));
+    assertEquals(data, jsonDataUtil.loadData(json, snapshot));
+    assertTrue(snapshot.lastModified() >= json.lastModified());
+  }
+
+  @Test
+  void saveData_shouldEmitPersistenceEvents_whenRecording() throws IOException {
+    File json = directory.resolve("out.json").toFile();
+    File snapshot = directory.resolve("out.snapshot").toFile();
+    Path dump = directory.resolve("events.jfr");
+
+    try (Recording recording = new Recording()) {
+      recording.enable(PersistenceEvent.class);
+      recording.start();
+      jsonDataUtil.saveData(new DataBindingDto(), json, snapshot);
+      jsonDataUtil.loadData(json);
+      recording.stop();
+      recording.dump(dump);
+    }
+
+    List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+    assertEquals(List.of("save " + json, "save " + snapshot, "load " + json),
+            events.stream().map(event -> event.getString("operation") + " " + event.getString("path")).toList());
+    assertEquals(json.length(), events.get(0).getLong("bytes"));
+  }
+
+  @Test
+  void loadData_shouldPreferSnapshot_whenNewerThanJson() throws IOException {
+    File json = write(DATA);
+    File snapshot = directory.resolve("data.snapshot").toFile();
+    BinarySnapshot.write(new DataBindingDto(), snapshot.toPath());
+    assertTrue(snapshot.setLastModified(json.lastModified() + 1_000));
+
+    DataBindingDto result = jsonDataUtil.loadData(json, snapshot);
+
+    assertTrue(result.getPersons().isEmpty());
+  }
+
+  @Test
+  void loadData_shouldReadJson_whenSnapshotIsOlder() throws IOException {
+    File json = write(DATA);
+    File snapshot = directory.resolve("data.snapshot").toFile();
+    BinarySnapshot.write(new DataBindingDto(), snapshot.toPath());
+    assertTrue(snapshot.setLastModified(json.lastModified() - 1_000));
+
+    DataBindingDto result = jsonDataUtil.loadData(json, snapshot);
+
+    assertEquals(2, result.getPersons().size());
+  }
+
+  @Test
+  void loadData_shouldFallBackToJson_whenSnapshotIsCorrupt() throws IOException {
+    File json = write(DATA);
+    File snapshot = directory.resolve("data.snapshot").toFile();
+    Files.writeString(snapshot.toPath(), "corrupt");
+    assertTrue(snapshot.setLastModified(json.lastModified() + 1_000));
+
+    DataBindingDto result = jsonDataUtil.loadData(json, snapshot);
+
+    assertEquals(2, result.getPersons().size());
+  }
+
+  @Test
+  void loadData_shouldFallBackToJson_whenSnapshotIsGarbageAfterItsHeader() throws IOException {
+    File json = write(DATA);
+    File snapshot = directory.resolve("data.snapshot").toFile();
+    try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(snapshot.toPath()))) {
+      out.writeInt(BinarySnapshot.MAGIC);
+      out.writeInt(BinarySnapshot.VERSION);
+      out.writeInt(-7);
+      out.writeInt(Integer.MAX_VALUE);
+    }
+    assertTrue(snapshot.setLastModified(json.lastModified() + 1_000));
+
+    DataBindingDto result = jsonDataUtil.loadData(json, snapshot);
+
+    assertEquals(2, result.getPersons().size());
+  }
+
+  @Test
+  void mapData_shouldWriteSnapshotFromJson_whenSnapshotIsMissing() throws IOException {
+    File json = write(DATA);
+    File snapshot = directory.resolve("data.snapshot").toFile();
+
+    MappedSnapshot result = jsonDataUtil.mapData(json, snapshot);
+
+    assertTrue(snapshot.isFile());
+    assertEquals(2, result.personCount());
+    assertEquals(jsonDataUtil.loadData(json).getPersons(), new ArrayList<>(result.dataset().getPersons()));
+  }
+
+  @Test
+  void mapData_shouldMapExistingSnapshot_whenNewerThanJson() throws IOException {
+    File json = write(DATA);
+    File snapshot = directory.resolve("data.snapshot").toFile();
+    BinarySnapshot.write(new DataBindingDto(), snapshot.toPath());
+    assertTrue(snapshot.setLastModified(json.lastModified() + 1_000));
+
+    MappedSnapshot result = jsonDataUtil.mapData(json, snapshot);
+
+    assertEquals(0, result.personCount());
+  }
+
+  @Test
+  void mapData_shouldThrowRuntimeException_whenSnapshotIsCorrupt() throws IOException {
+    File snapshot = directory.resolve("data.snapshot").toFile();
+    Files.writeString(snapshot.toPath(), "corrupt");
+
+    assertThrows(RuntimeException.class,
+            () -> jsonDataUtil.mapData(directory.resolve("missing.json").toFile(), snapshot));
+  }
+
+  @Test
+  void saveData_shouldWriteMappedDataset_withSavedRecords() throws IOException {
+    File json = write(DATA);
+    File snapshot = directory.resolve("data.snapshot").toFile();
+    MappedSnapshot source = jsonDataUtil.mapData(json, snapshot);
+    MappedOverlay<Person> persons = new MappedOverlay<>(source.personCount(), source::person);
+    Person added = new Person("Tenley", "Boyd", "1509 Culver St", "Culver", "97451", "841-874-6512", "tenz@email.com");
+    persons.put(Keys.nameKey("Tenley", "Boyd"), -1, added);
+    DataBindingDto data = source.dataset();
+    data.setPersons(persons.copy());
+    File outJson = directory.resolve("out.json").toFile();
+    File outSnapshot = directory.resolve("out.snapshot").toFile();
+
+    jsonDataUtil.saveData(data, outJson, outSnapshot);
+
+    List<Person> expected = new ArrayList<>(jsonDataUtil.loadData(json).getPersons());
+    expected.add(added);
+    assertEquals(expected, jsonDataUtil.loadData(outJson).getPersons());
+    assertEquals(jsonDataUtil.loadData(outJson), BinarySnapshot.read(outSnapshot.toPath()));
+  }
+
+  @Test
+  void isMapped_shouldReflectStorageMode() {
+    assertFalse(jsonDataUtil.isMapped());
+    assertTrue(new JsonDataUtil(new ObjectMapper(), false, "mapped").isMapped());
+  }
+
+  private File write(String content) throws IOException {
+    Path file = directory.resolve("data.json");
+    Files.writeString(file, content);
+    return file.toFile();
+  }
+}
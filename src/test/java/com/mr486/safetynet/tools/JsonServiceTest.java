@@ -13,19 +13,25 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 class JsonServiceTest {
 
   @Mock
   private JsonDataUtil jsonDataUtil;
 
+  @Mock
+  private WriteBehindPersister persister;
+
+  @Mock
+  private WriteAheadLog journal;
+
   private JsonService jsonService;
 
   @BeforeEach
   void setUp() {
     MockitoAnnotations.openMocks(this);
-    jsonService = new JsonService(jsonDataUtil);
+    jsonService = new JsonService(jsonDataUtil, persister, journal);
   }
 
   @Test
@@ -36,7 +42,7 @@ class JsonServiceTest {
 
     when(jsonDataUtil.loadData()).thenReturn(dataBindingDto);
 
-    List<FireStation> result = jsonService.loadFireStations();
+    List<FireStation> result = jsonService.loadFireStations(List::of);
 
     assertNotNull(result);
     assertEquals(1, result.size());
@@ -50,7 +56,7 @@ class JsonServiceTest {
 
     when(jsonDataUtil.loadData()).thenReturn(dataBindingDto);
 
-    List<FireStation> result = jsonService.loadFireStations();
+    List<FireStation> result = jsonService.loadFireStations(List::of);
 
     assertNotNull(result);
     assertTrue(result.isEmpty());
@@ -64,7 +70,7 @@ class JsonServiceTest {
 
     when(jsonDataUtil.loadData()).thenReturn(dataBindingDto);
 
-    List<Person> result = jsonService.loadPersons();
+    List<Person> result = jsonService.loadPersons(List::of);
 
     assertNotNull(result);
     assertEquals(1, result.size());
@@ -78,7 +84,7 @@ class JsonServiceTest {
 
     when(jsonDataUtil.loadData()).thenReturn(dataBindingDto);
 
-    List<Person> result = jsonService.loadPersons();
+    List<Person> result = jsonService.loadPersons(List::of);
 
     assertNotNull(result);
     assertTrue(result.isEmpty());
@@ -102,7 +108,7 @@ class JsonServiceTest {
 
     when(jsonDataUtil.loadData()).thenReturn(dataBindingDto);
 
-    List<MedicalRecord> result = jsonService.loadMedicalRecords();
+    List<MedicalRecord> result = jsonService.loadMedicalRecords(List::of);
 
     assertNotNull(result);
     assertEquals(1, result.size());
@@ -116,7 +122,7 @@ class JsonServiceTest {
 
     when(jsonDataUtil.loadData()).thenReturn(dataBindingDto);
 
-    List<MedicalRecord> result = jsonService.loadMedicalRecords();
+    List<MedicalRecord> result = jsonService.loadMedicalRecords(List::of);
 
     assertNotNull(result);
     assertTrue(result.isEmpty());
@@ -127,7 +133,7 @@ class JsonServiceTest {
   void loadFireStations_shouldReturnEmptyList_whenExceptionIsThrown() {
     when(jsonDataUtil.loadData()).thenThrow(new RuntimeException("Erreur de lecture"));
 
-    List<FireStation> result = jsonService.loadFireStations();
+    List<FireStation> result = jsonService.loadFireStations(List::of);
 
     assertNotNull(result);
     assertTrue(result.isEmpty());
@@ -137,7 +143,7 @@ class JsonServiceTest {
   void loadPersons_shouldReturnEmptyList_whenExceptionIsThrown() {
     when(jsonDataUtil.loadData()).thenThrow(new RuntimeException("Erreur de lecture"));
 
-    List<Person> result = jsonService.loadPersons();
+    List<Person> result = jsonService.loadPersons(List::of);
 
     assertNotNull(result);
     assertTrue(result.isEmpty());
@@ -147,10 +153,166 @@ class JsonServiceTest {
   void loadMedicalRecords_shouldReturnEmptyList_whenExceptionIsThrown() {
     when(jsonDataUtil.loadData()).thenThrow(new RuntimeException("Erreur de lecture"));
 
-    List<MedicalRecord> result = jsonService.loadMedicalRecords();
+    List<MedicalRecord> result = jsonService.loadMedicalRecords(List::of);
 
     assertNotNull(result);
     assertTrue(result.isEmpty());
   }
 
-}
\ No newline at end of file
+  @Test
+  void loadAll_shouldParseJsonFileOnlyOnce() {
+    DataBindingDto dataBindingDto = new DataBindingDto();
+    dataBindingDto.setPersons(List.of(new Person("John", "Doe", "123 Main St", "City", "12345", "123-456-7890", "john.doe@example.com")));
+    dataBindingDto.setFirestations(List.of(new FireStation("123 Main St", 1)));
+
+    when(jsonDataUtil.loadData()).thenReturn(dataBindingDto);
+
+    assertEquals(1, jsonService.loadPersons(List::of).size());
+    assertEquals(1, jsonService.loadFireStations(List::of).size());
+    assertTrue(jsonService.loadMedicalRecords(List::of).isEmpty());
+    verify(jsonDataUtil, times(1)).loadData();
+  }
+
+  @Test
+  void loadAll_shouldNotRetryReading_whenJsonFileIsUnreadable() {
+    when(jsonDataUtil.loadData()).thenThrow(new RuntimeException("Erreur de lecture"));
+
+    assertTrue(jsonService.loadPersons(List::of).isEmpty());
+    assertTrue(jsonService.loadFireStations(List::of).isEmpty());
+    assertTrue(jsonService.loadMedicalRecords(List::of).isEmpty());
+    verify(jsonDataUtil, times(1)).loadData();
+  }
+
+  @Test
+  void savePersons_shouldMarkDatasetDirtyWithoutWritingFile() {
+    DataBindingDto dataBindingDto = new DataBindingDto();
+    dataBindingDto.setFirestations(List.of(new FireStation("123 Main St", 1)));
+    when(jsonDataUtil.loadData()).thenReturn(dataBindingDto);
+    jsonService.loadPersons(List::of);
+
+    jsonService.savePersons(() -> List.of(new Person("John", "Doe", "123 Main St", "City", "12345", "123-456-7890", "john.doe@example.com")));
+
+    verify(persister, times(1)).markDirty(any());
+    verify(jsonDataUtil, never()).saveData(any());
+    verify(jsonDataUtil, times(1)).loadData();
+  }
+
+  @Test
+  void snapshot_shouldCombineSavedAndLoadedSections() {
+    DataBindingDto dataBindingDto = new DataBindingDto();
+    dataBindingDto.setFirestations(List.of(new FireStation("123 Main St", 1)));
+    when(jsonDataUtil.loadData()).thenReturn(dataBindingDto);
+    List<FireStation> fireStations = new ArrayList<>();
+    fireStations.addAll(jsonService.loadFireStations(() -> List.copyOf(fireStations)));
+    jsonService.savePersons(() -> List.of(new Person("John", "Doe", "123 Main St", "City", "12345", "123-456-7890", "john.doe@example.com")));
+
+    DataBindingDto snapshot = jsonService.snapshot();
+
+    assertEquals(1, snapshot.getPersons().size());
+    assertEquals(1, snapshot.getFirestations().size());
+    assertTrue(snapshot.getMedicalrecords().isEmpty());
+  }
+
+  @Test
+  void loadPersons_shouldReleaseSection_onceHandedOver() {
+    Person person = new Person("John", "Doe", "123 Main St", "City", "12345", "123-456-7890", "john.doe@example.com");
+    DataBindingDto dataBindingDto = new DataBindingDto();
+    dataBindingDto.setPersons(new ArrayList<>(List.of(person)));
+    dataBindingDto.setMedicalrecords(List.of(new MedicalRecord("John", "Doe", "01/01/2000", new ArrayList<>(), new ArrayList<>())));
+    when(jsonDataUtil.loadData()).thenReturn(dataBindingDto);
+
+    assertEquals(List.of(person), jsonService.loadPersons(List::of));
+
+    assertNull(dataBindingDto.getPersons());
+    assertTrue(jsonService.loadPersons(List::of).isEmpty());
+    DataBindingDto snapshot = jsonService.snapshot();
+    assertTrue(snapshot.getPersons().isEmpty());
+    assertEquals(1, snapshot.getMedicalrecords().size());
+    verify(jsonDataUtil, times(1)).loadData();
+  }
+
+  @Test
+  void snapshot_shouldCopySavedSection_whenWrittenRatherThanWhenSaved() {
+    when(jsonDataUtil.loadData()).thenReturn(new DataBindingDto());
+    List<Person> persons = new ArrayList<>();
+    jsonService.savePersons(() -> List.copyOf(persons));
+    persons.add(new Person("John", "Doe", "123 Main St", "City", "12345", "123-456-7890", "john.doe@example.com"));
+
+    DataBindingDto snapshot = jsonService.snapshot();
+
+    assertEquals(1, snapshot.getPersons().size());
+    persons.clear();
+    assertEquals(1, snapshot.getPersons().size());
+  }
+
+  @Test
+  void snapshot_shouldReturnNull_whenJsonFileIsUnreadable() {
+    when(jsonDataUtil.loadData()).thenThrow(new RuntimeException("Erreur de lecture"));
+    jsonService.loadPersons(List::of);
+
+    assertNull(jsonService.snapshot());
+  }
+
+  @Test
+  void loadPersons_shouldScheduleCompaction_whenJournalEntriesAreReplayed() {
+    DataBindingDto dataBindingDto = new DataBindingDto();
+    when(jsonDataUtil.loadData()).thenReturn(dataBindingDto);
+    when(journal.replay(dataBindingDto)).thenReturn(3);
+
+    jsonService.loadPersons(List::of);
+
+    verify(persister, times(1)).markDirty(any());
+  }
+
+  @Test
+  void journal_shouldAppendEntryToWriteAheadLog() {
+    JournalEntry entry = JournalEntry.deletePerson("John", "Doe");
+
+    jsonService.journal(entry);
+
+    verify(journal, times(1)).append(entry);
+  }
+
+  @Test
+  void mappedSnapshot_shouldReturnNull_whenDatasetIsOnHeap() {
+    when(jsonDataUtil.loadData()).thenReturn(new DataBindingDto());
+
+    assertNull(jsonService.mappedSnapshot());
+  }
+
+  @Test
+  void loadFireStations_shouldReadMappedSnapshot_whenStorageIsMapped() {
+    MappedSnapshot mappedSnapshot = mock(MappedSnapshot.class);
+    DataBindingDto dataBindingDto = new DataBindingDto();
+    dataBindingDto.setFirestations(List.of(new FireStation("123 Main St", 1)));
+    when(jsonDataUtil.isMapped()).thenReturn(true);
+    when(jsonDataUtil.mapData()).thenReturn(mappedSnapshot);
+    when(mappedSnapshot.dataset()).thenReturn(dataBindingDto);
+
+    List<FireStation> result = jsonService.loadFireStations(List::of);
+
+    assertEquals(1, result.size());
+    assertSame(mappedSnapshot, jsonService.mappedSnapshot());
+    verify(jsonDataUtil, never()).loadData();
+    verify(jsonDataUtil, times(1)).mapData();
+  }
+
+  @Test
+  void mappedSnapshot_shouldCompactJournalBeforeMapping_whenEntriesArePending() {
+    DataBindingDto dataBindingDto = new DataBindingDto();
+    when(jsonDataUtil.isMapped()).thenReturn(true);
+    when(journal.hasEntries()).thenReturn(true);
+    when(journal.rotate()).thenReturn(4L);
+    when(jsonDataUtil.loadData()).thenReturn(dataBindingDto);
+    when(jsonDataUtil.mapData()).thenReturn(mock(MappedSnapshot.class));
+
+    jsonService.mappedSnapshot();
+
+    var inOrder = inOrder(journal, jsonDataUtil);
+    inOrder.verify(journal).replay(dataBindingDto);
+    inOrder.verify(jsonDataUtil).saveData(dataBindingDto);
+    inOrder.verify(journal).discardBefore(4L);
+    inOrder.verify(jsonDataUtil).mapData();
+    verify(persister, never()).markDirty(any());
+  }
+}
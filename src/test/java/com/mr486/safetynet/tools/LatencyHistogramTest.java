@@ -0,0 +1,77 @@
+package com.mr486.safetynet.tools;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+  @Test
+  void index_shouldKeepSmallValuesExact_andBoundRelativeError() {
+    for (long value = 0; value < 16; value++) {
+      assertEquals(value, LatencyHistogram.highestEquivalent(LatencyHistogram.index(value)));
+    }
+    for (long value : new long[]{16, 17, 1_000, 123_456, 987_654_321, Long.MAX_VALUE}) {
+      long highest = LatencyHistogram.highestEquivalent(LatencyHistogram.index(value));
+      assertTrue(highest >= value, "bucket of " + value + " ends at " + highest);
+      assertTrue(highest - value <= value / 16, "bucket of " + value + " ends at " + highest);
+    }
+  }
+
+  @Test
+  void index_shouldBeMonotonic() {
+    int previous = 0;
+    for (long value = 0; value < 100_000; value++) {
+      int index = LatencyHistogram.index(value);
+      assertTrue(index >= previous);
+      assertTrue(index <= previous + 1);
+      previous = index;
+    }
+  }
+
+  @Test
+  void summary_shouldReportPercentilesInMicros() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 1_000; i++) {
+      histogram.record(i * 1_000L);
+    }
+
+    LatencyHistogram.Summary summary = histogram.summary();
+
+    assertEquals(1_000, summary.count());
+    assertEquals(500, summary.meanMicros());
+    assertEquals(500, summary.p50Micros(), 500 / 16);
+    assertEquals(900, summary.p90Micros(), 900 / 16);
+    assertEquals(990, summary.p99Micros(), 990 / 16);
+    assertEquals(1_000, summary.p999Micros(), 1_000 / 16);
+    assertEquals(1_000, summary.maxMicros());
+  }
+
+  @Test
+  void summary_shouldBeEmpty_whenNothingIsRecorded() {
+    assertEquals(new LatencyHistogram.Summary(0, 0, 0, 0, 0, 0, 0), new LatencyHistogram().summary());
+  }
+
+  @Test
+  void record_shouldCountEveryValue_whenConcurrent() throws Exception {
+    LatencyHistogram histogram = new LatencyHistogram();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    for (int thread = 0; thread < 4; thread++) {
+      executor.execute(() -> {
+        for (int i = 0; i < 10_000; i++) {
+          histogram.record(i);
+        }
+      });
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+    LatencyHistogram.Summary summary = histogram.summary();
+    assertEquals(40_000, summary.count());
+    assertEquals(9, summary.maxMicros());
+  }
+}
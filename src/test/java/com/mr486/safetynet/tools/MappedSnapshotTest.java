@@ -0,0 +1,159 @@
+package com.mr486.safetynet.tools;
+
+import com.mr486.safetynet.dto.request.DataBindingDto;
+import com.mr486.safetynet.model.FireStation;
+import com.mr486.safetynet.model.MedicalRecord;
+import com.mr486.safetynet.model.Person;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedSnapshotTest {
+
+  @TempDir
+  Path directory;
+
+  private DataBindingDto data;
+  private MappedSnapshot snapshot;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    data = new DataBindingDto(
+            new ArrayList<>(List.of(
+                    new Person("John", "Boyd", "1509 Culver St", "Culver", "97451", "841-874-6512", "jaboyd@email.com"),
+                    new Person("Jacob", "Boyd", "1509 Culver St", "Culver", "97451", "841-874-6513", "drk@email.com"),
+                    new Person("Tony", "Cooper", "112 Steppes Pl", "Culver", "97451", "841-874-6874", null),
+                    new Person("Eric", "Cadigan", "951 LoneTree Rd", "Paris", "97451", "841-874-7458", "gramps@email.com"))),
+            new ArrayList<>(List.of(new FireStation("1509 Culver St", 3), new FireStation("112 Steppes Pl", null))),
+            new ArrayList<>(List.of(
+                    new MedicalRecord("John", "Boyd", "03/06/1984",
+                            new ArrayList<>(List.of("aznol:350mg")), new ArrayList<>(List.of("nillacilan"))),
+                    new MedicalRecord("Tony", "Cooper", "03/06/1994", new ArrayList<>(), new ArrayList<>()))));
+    Path file = directory.resolve("data.snapshot");
+    BinarySnapshot.write(data, file);
+    snapshot = MappedSnapshot.open(file);
+  }
+
+  @Test
+  void dataset_shouldDecodeAllRecords() {
+    DataBindingDto result = snapshot.dataset();
+
+    assertEquals(data.getPersons(), new ArrayList<>(result.getPersons()));
+    assertEquals(data.getFirestations(), result.getFirestations());
+    assertEquals(data.getMedicalrecords(), new ArrayList<>(result.getMedicalrecords()));
+  }
+
+  @Test
+  void personIndex_shouldFindPerson_ignoringCase() {
+    int index = snapshot.personIndex("jacob", "BOYD");
+
+    assertEquals(1, index);
+    assertEquals("841-874-6513", snapshot.person(index).getPhone());
+  }
+
+  @Test
+  void personIndex_shouldReturnMinusOne_whenPersonDoesNotExist() {
+    assertEquals(-1, snapshot.personIndex("Jane", "Boyd"));
+  }
+
+  @Test
+  void personsByAddress_shouldReturnMatchingPositionsInOrder() {
+    assertArrayEquals(new int[]{0, 1}, snapshot.personsByAddress("1509 CULVER ST"));
+    assertEquals(0, snapshot.personsByAddress("unknown").length);
+  }
+
+  @Test
+  void personsByLastNameAndCity_shouldReturnMatchingPositions() {
+    assertArrayEquals(new int[]{0, 1}, snapshot.personsByLastName("boyd"));
+    assertArrayEquals(new int[]{0, 1, 2}, snapshot.personsByCity("culver"));
+    assertArrayEquals(new int[]{3}, snapshot.personsByCity("Paris"));
+  }
+
+  @Test
+  void medicalRecordIndex_shouldFindMedicalRecord() {
+    int index = snapshot.medicalRecordIndex("TONY", "cooper");
+
+    assertEquals(1, index);
+    assertEquals("03/06/1994", snapshot.medicalRecord(index).getBirthdate());
+    assertEquals(-1, snapshot.medicalRecordIndex("Jacob", "Boyd"));
+  }
+
+  @Test
+  void dataset_shouldBeReadOnly() {
+    List<Person> persons = snapshot.dataset().getPersons();
+
+    assertThrows(UnsupportedOperationException.class, () -> persons.add(new Person()));
+  }
+
+  @Test
+  void open_shouldIndexManyPersons() throws IOException {
+    List<Person> persons = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      persons.add(new Person("First" + i, "Last" + i % 100, i % 500 + " Main St", "City" + i % 7, "97451", "841", null));
+    }
+    Path file = directory.resolve("large.snapshot");
+    BinarySnapshot.write(new DataBindingDto(persons, List.of(), List.of()), file);
+
+    MappedSnapshot large = MappedSnapshot.open(file);
+
+    assertEquals(9_999, large.personIndex("first9999", "last99"));
+    assertEquals(20, large.personsByAddress("42 Main St").length);
+    assertTrue(Arrays.stream(large.personsByLastName("Last7")).allMatch(i -> i % 100 == 7));
+  }
+
+  @Test
+  void open_shouldThrowIOException_whenFileIsTruncated() throws IOException {
+    Path file = directory.resolve("data.snapshot");
+    byte[] bytes = Files.readAllBytes(file);
+    Path truncated = directory.resolve("truncated.snapshot");
+    Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 6));
+
+    assertThrows(IOException.class, () -> MappedSnapshot.open(truncated));
+  }
+
+  @Test
+  void open_shouldThrowIOException_whenFileIsTruncatedAnywhere() throws IOException {
+    byte[] bytes = Files.readAllBytes(directory.resolve("data.snapshot"));
+    Path truncated = directory.resolve("truncated.snapshot");
+
+    for (int length = 0; length < bytes.length; length++) {
+      Files.write(truncated, Arrays.copyOf(bytes, length));
+      assertThrows(IOException.class, () -> MappedSnapshot.open(truncated), "truncated at " + length);
+    }
+  }
+
+  @Test
+  void open_shouldThrowOnlyIOException_whenAnyIntIsCorrupt() throws IOException {
+    byte[] bytes = Files.readAllBytes(directory.resolve("data.snapshot"));
+    Path corrupt = directory.resolve("corrupt.snapshot");
+
+    for (int position = 0; position + Integer.BYTES <= bytes.length; position++) {
+      for (int value : new int[]{Integer.MAX_VALUE, Integer.MIN_VALUE, -2, 1 << 20}) {
+        Files.write(corrupt, ByteBuffer.allocate(bytes.length).put(bytes).putInt(position, value).array());
+        try {
+          MappedSnapshot.open(corrupt);
+        } catch (Exception e) {
+          assertInstanceOf(IOException.class, e, value + " at " + position);
+        }
+      }
+    }
+  }
+
+  @Test
+  void open_shouldThrowIOException_whenFileIsNotASnapshot() throws IOException {
+    Path file = directory.resolve("data.json");
+    Files.writeString(file, "{ \"persons\": [] }");
+
+    assertThrows(IOException.class, () -> MappedSnapshot.open(file));
+  }
+}
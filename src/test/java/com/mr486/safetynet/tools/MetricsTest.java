@@ -0,0 +1,46 @@
+package com.mr486.safetynet.tools;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsTest {
+
+  private final Metrics metrics = new Metrics();
+
+  @Test
+  void timerAndCounter_shouldReturnSameInstance_forSameName() {
+    assertSame(metrics.timer("persistence.flush"), metrics.timer("persistence.flush"));
+    assertSame(metrics.counter("persistence.mutations"), metrics.counter("persistence.mutations"));
+  }
+
+  @Test
+  void snapshot_shouldCollectMetricsSortedByName() {
+    metrics.timer("http.GET /fire").record(2_000_000);
+    metrics.counter("http.GET /fire.errors").increment();
+    metrics.counter("http.GET /childAlert.errors").add(2);
+    AtomicLong size = new AtomicLong(10);
+    metrics.gauge("persistence.json.bytes", size::get);
+    size.set(20);
+
+    Metrics.Snapshot snapshot = metrics.snapshot();
+
+    assertEquals(1, snapshot.timers().get("http.GET /fire").count());
+    assertEquals(2_000, snapshot.timers().get("http.GET /fire").maxMicros());
+    assertEquals(List.of("http.GET /childAlert.errors", "http.GET /fire.errors"),
+            List.copyOf(snapshot.counters().keySet()));
+    assertEquals(20, snapshot.gauges().get("persistence.json.bytes"));
+  }
+
+  @Test
+  void snapshot_shouldReportFailingGaugeAsMinusOne() {
+    metrics.gauge("persistence.journal.bytes", () -> {
+      throw new IllegalStateException("unreadable");
+    });
+
+    assertEquals(-1, metrics.snapshot().gauges().get("persistence.journal.bytes"));
+  }
+}
@@ -0,0 +1,119 @@
+package com.mr486.safetynet.tools;
+
+import com.mr486.safetynet.configuration.AppConfiguation;
+import com.mr486.safetynet.exception.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageTest {
+
+  private static final List<Positioned<String>> ITEMS = List.of(
+          new Positioned<>(0, "a"), new Positioned<>(3, "b"), new Positioned<>(4, "c"));
+
+  @Test
+  void read_shouldReturnCursorOfLastItem_whenMoreItemsFollow() {
+    Page<String> page = Page.read(ITEMS.iterator(), 2);
+
+    assertEquals(List.of("a", "b"), page.items());
+    assertEquals(3, Page.position(page.nextCursor()));
+  }
+
+  @Test
+  void read_shouldReturnNoCursor_onLastPage() {
+    Page<String> page = Page.read(ITEMS.iterator(), 3);
+
+    assertEquals(List.of("a", "b", "c"), page.items());
+    assertNull(page.nextCursor());
+  }
+
+  @Test
+  void of_shouldPageListByIndex() {
+    List<String> items = List.of("a", "b", "c");
+
+    Page<String> first = Page.of(items, null, 2);
+    Page<String> second = Page.of(items, first.nextCursor(), 2);
+
+    assertEquals(List.of("a", "b"), first.items());
+    assertEquals(List.of("c"), second.items());
+    assertNull(second.nextCursor());
+    assertEquals(List.of("c"), Page.of(items, first.nextCursor(), 5).items());
+  }
+
+  @Test
+  void of_shouldReadEachItemOnce_whenPagingThroughWholeList() {
+    int[] reads = new int[1];
+    List<Integer> items = new AbstractList<>() {
+      @Override
+      public Integer get(int index) {
+        reads[0]++;
+        return index;
+      }
+
+      @Override
+      public int size() {
+        return 10_000;
+      }
+    };
+
+    String cursor = null;
+    int pages = 0;
+    do {
+      cursor = Page.of(items, cursor, 10).nextCursor();
+      pages++;
+    } while (cursor != null);
+
+    assertEquals(1_000, pages);
+    assertEquals(10_000, reads[0]);
+  }
+
+  @Test
+  void of_shouldReturnEmptyPage_whenCursorIsPastTheEnd() {
+    Page<String> page = Page.of(List.of("a"), Page.cursor(7), 5);
+
+    assertTrue(page.items().isEmpty());
+    assertNull(page.nextCursor());
+  }
+
+  @Test
+  void position_shouldStartFromFirst_whenCursorIsMissing() {
+    assertEquals(-1, Page.position(null));
+    assertEquals(-1, Page.position(""));
+  }
+
+  @Test
+  void position_shouldThrowException_whenCursorIsInvalid() {
+    String negative = Base64.getUrlEncoder().encodeToString("p:-2".getBytes(StandardCharsets.US_ASCII));
+    String notANumber = Base64.getUrlEncoder().encodeToString("p:x".getBytes(StandardCharsets.US_ASCII));
+
+    assertThrows(InvalidRequestException.class, () -> Page.position("not base64!"));
+    assertThrows(InvalidRequestException.class, () -> Page.position(negative));
+    assertThrows(InvalidRequestException.class, () -> Page.position(notANumber));
+  }
+
+  @Test
+  void checkLimit_shouldAcceptLimitsUpToMaxPageSize() {
+    assertEquals(1, Page.checkLimit(1));
+    assertEquals(AppConfiguation.MAX_PAGE_SIZE, Page.checkLimit(AppConfiguation.MAX_PAGE_SIZE));
+    assertThrows(InvalidRequestException.class, () -> Page.checkLimit(0));
+    assertThrows(InvalidRequestException.class, () -> Page.checkLimit(AppConfiguation.MAX_PAGE_SIZE + 1));
+  }
+
+  @Test
+  void of_shouldPagePositionedListByPosition_whenItIsComputedAgainAfterAChange() {
+    Page<String> first = Page.of(PositionedList.sorted(ITEMS), null, 2);
+
+    // "a" was removed and "d" added: the next page still starts after "b"
+    Page<String> second = Page.of(PositionedList.sorted(List.of(
+            new Positioned<>(3, "b"), new Positioned<>(4, "c"), new Positioned<>(9, "d"))), first.nextCursor(), 2);
+
+    assertEquals(List.of("a", "b"), first.items());
+    assertEquals(List.of("c", "d"), second.items());
+    assertNull(second.nextCursor());
+  }
+}
@@ -0,0 +1,30 @@
+package com.mr486.safetynet.tools;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionedListTest {
+
+  @Test
+  void distinct_shouldKeepEachValueAtItsFirstPosition_droppingRemovedItems() {
+    PositionedList<String> values = PositionedList.distinct(List.of(
+            new Positioned<>(8, "a"), new Positioned<>(2, "b"), new Positioned<>(-1, "c"), new Positioned<>(5, "a")));
+
+    assertEquals(List.of("b", "a"), values);
+    assertEquals(5, values.position(1));
+  }
+
+  @Test
+  void indexAfter_shouldReturnIndexOfFirstFollowingValue() {
+    PositionedList<String> values = PositionedList.sorted(List.of(
+            new Positioned<>(2, "a"), new Positioned<>(5, "b"), new Positioned<>(5, "c"), new Positioned<>(9, "d")));
+
+    assertEquals(0, values.indexAfter(-1));
+    assertEquals(1, values.indexAfter(3));
+    assertEquals(3, values.indexAfter(5));
+    assertEquals(4, values.indexAfter(9));
+  }
+}
@@ -0,0 +1,40 @@
+package com.mr486.safetynet.tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mr486.safetynet.exception.InvalidRequestException;
+import com.mr486.safetynet.model.Person;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectionTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final List<Person> persons = List.of(
+          new Person("John", "Boyd", "1509 Culver St", "Culver", "97451", "841-874-6512", "jaboyd@email.com"));
+
+  @Test
+  void of_shouldReturnNone_whenNoFieldIsRequested() {
+    assertSame(Projection.NONE, Projection.of(objectMapper, Person.class, null));
+    assertSame(Projection.NONE, Projection.of(objectMapper, Person.class, " , "));
+    assertSame(persons, Projection.NONE.apply(persons));
+  }
+
+  @Test
+  void apply_shouldKeepRequestedFields_inPropertyOrder() {
+    Projection projection = Projection.of(objectMapper, Person.class, "email,firstName,email");
+
+    assertEquals("[{\"firstName\":\"John\",\"email\":\"jaboyd@email.com\"}]", projection.apply(persons).toString());
+  }
+
+  @Test
+  void of_shouldThrowException_whenFieldIsUnknown() {
+    InvalidRequestException exception = assertThrows(InvalidRequestException.class,
+            () -> Projection.of(objectMapper, Person.class, "firstName,age"));
+
+    assertTrue(exception.getMessage().startsWith("Unknown field: age"));
+  }
+}
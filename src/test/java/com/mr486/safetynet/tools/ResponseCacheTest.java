@@ -0,0 +1,249 @@
+package com.mr486.safetynet.tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheTest {
+
+  private MutableClock clock;
+  private MockEnvironment environment;
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() {
+    clock = new MutableClock(LocalDateTime.of(2024, 6, 1, 12, 0));
+    environment = new MockEnvironment();
+  }
+
+  @Test
+  void get_shouldComputeOnce_thenHit() {
+    ResponseCache cache = cache(1 << 20);
+
+    assertEquals("value-1", cache.get("fire", "a", List.of("address:a"), this::load));
+    assertEquals("value-1", cache.get("fire", "a", List.of("address:a"), this::load));
+
+    assertEquals(1, loads.get());
+    ResponseCache.Stats stats = cache.stats();
+    assertEquals(1, stats.hits());
+    assertEquals(1, stats.misses());
+    assertEquals(1, stats.size());
+    assertTrue(stats.weight() > 0);
+  }
+
+  @Test
+  void get_shouldAlwaysCompute_whenDisabled() {
+    ResponseCache cache = new ResponseCache(new ObjectMapper(), environment, false, 1 << 20, 60_000, true, clock);
+
+    cache.get("fire", "a", List.of(), this::load);
+    cache.get("fire", "a", List.of(), this::load);
+
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void invalidate_shouldDiscardTaggedResponsesOnly() {
+    ResponseCache cache = cache(1 << 20);
+    cache.get("fire", "a", List.of("address:a", "station:1"), this::load);
+    cache.get("fire", "b", List.of("address:b", "station:2"), this::load);
+
+    cache.invalidate(List.of("station:1", "city:unknown"));
+
+    assertEquals("value-3", cache.get("fire", "a", List.of("address:a", "station:1"), this::load));
+    assertEquals("value-2", cache.get("fire", "b", List.of("address:b", "station:2"), this::load));
+    assertEquals(1, cache.stats().invalidations());
+  }
+
+  @Test
+  void get_shouldNotCacheResponse_computedDuringInvalidation() {
+    ResponseCache cache = cache(1 << 20);
+
+    cache.get("fire", "a", List.of("address:a"), () -> {
+      cache.invalidate(List.of("address:a"));
+      return load();
+    });
+    cache.get("fire", "a", List.of("address:a"), this::load);
+
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void get_shouldExpireAfterEndpointTtl() {
+    environment.setProperty("safetynet.cache.ttl-ms.flood", "1000");
+    ResponseCache cache = cache(1 << 20);
+    cache.get("flood", "[1]", List.of(), this::load);
+    cache.get("fire", "a", List.of(), this::load);
+
+    clock.plusMillis(1_500);
+
+    assertEquals("value-3", cache.get("flood", "[1]", List.of(), this::load));
+    assertEquals("value-2", cache.get("fire", "a", List.of(), this::load));
+    assertEquals(1, cache.stats().expirations());
+  }
+
+  @Test
+  void get_shouldExpireAtMidnight() {
+    ResponseCache cache = cache(1 << 20);
+    clock.set(LocalDateTime.of(2024, 6, 1, 23, 59, 59));
+    cache.get("fire", "a", List.of(), this::load);
+
+    clock.plusMillis(2_000);
+
+    assertEquals("value-2", cache.get("fire", "a", List.of(), this::load));
+  }
+
+  @Test
+  void get_shouldEvictUnreferencedEntries_whenFull() {
+    // Each entry weighs its key (6 chars) plus the JSON string "value-N" (9 bytes)
+    ResponseCache cache = cache(45);
+    cache.get("fire", "a", List.of(), this::load);
+    cache.get("fire", "b", List.of(), this::load);
+    cache.get("fire", "c", List.of(), this::load);
+    cache.get("fire", "a", List.of(), this::load);
+
+    cache.get("fire", "d", List.of(), this::load);
+
+    ResponseCache.Stats stats = cache.stats();
+    assertEquals(1, stats.evictions());
+    assertEquals(3, stats.size());
+    assertTrue(stats.weight() <= 45);
+    assertEquals("value-1", cache.get("fire", "a", List.of(), this::load));
+    assertEquals("value-5", cache.get("fire", "b", List.of(), this::load));
+  }
+
+  @Test
+  void get_shouldNotCacheResponse_largerThanCache() {
+    ResponseCache cache = cache(10);
+
+    cache.get("fire", "a", List.of(), this::load);
+    cache.get("fire", "a", List.of(), this::load);
+
+    assertEquals(2, loads.get());
+    assertEquals(0, cache.stats().size());
+  }
+
+  @Test
+  void invalidateAll_shouldDiscardEveryResponse() {
+    ResponseCache cache = cache(1 << 20);
+    cache.get("fire", "a", List.of("address:a"), this::load);
+    cache.get("fire", "b", List.of(), this::load);
+
+    cache.invalidateAll();
+
+    assertEquals(0, cache.stats().size());
+    assertEquals(0, cache.stats().weight());
+    assertEquals(2, cache.stats().invalidations());
+  }
+
+  @Test
+  void cached_shouldReturnJsonOfResponse_onMissAndHit() {
+    ResponseCache cache = cache(1 << 20);
+
+    ResponseCache.Cached<String> missed = cache.cached("fire", "a", List.of(), this::load);
+    ResponseCache.Cached<String> hit = cache.cached("fire", "a", List.of(), this::load);
+
+    assertEquals("value-1", missed.value());
+    assertSame(missed.value(), hit.value());
+    assertArrayEquals("\"value-1\"".getBytes(StandardCharsets.UTF_8), missed.serialized().json());
+    assertSame(missed.serialized(), hit.serialized());
+    assertTrue(missed.serialized().etag().matches("\"[0-9a-f]+-9\""));
+  }
+
+  @Test
+  void cached_shouldReturnJsonOnEveryHit() {
+    ResponseCache cache = cache(1 << 20);
+    cache.get("fire", "a", List.of(), this::load);
+
+    assertNotNull(cache.cached("fire", "a", List.of(), this::load).serialized());
+    assertNotNull(cache.cached("fire", "a", List.of(), this::load).serialized());
+  }
+
+  @Test
+  void cached_shouldReturnNoJson_whenNotKept() {
+    ResponseCache cache = new ResponseCache(new ObjectMapper(), environment, true, 1 << 20, 60_000, false, clock);
+
+    assertNull(cache.cached("fire", "a", List.of(), this::load).serialized());
+  }
+
+  @Test
+  void cached_shouldReturnNoJson_whenResponseIsTooLargeToBeCached() {
+    ResponseCache cache = cache(10);
+
+    ResponseCache.Cached<String> response = cache.cached("fire", "a", List.of(), this::load);
+
+    assertEquals("value-1", response.value());
+    assertNull(response.serialized());
+  }
+
+  @Test
+  void cached_shouldChangeEtag_whenResponseChanges() {
+    ResponseCache cache = cache(1 << 20);
+    String firstEtag = cache.cached("fire", "a", List.of("address:a"), this::load).serialized().etag();
+
+    cache.invalidate(List.of("address:a"));
+    String secondEtag = cache.cached("fire", "a", List.of("address:a"), this::load).serialized().etag();
+
+    assertNotEquals(firstEtag, secondEtag);
+  }
+
+  @Test
+  void cached_shouldSerializeAsItsValue() throws Exception {
+    ResponseCache cache = cache(1 << 20);
+
+    ResponseCache.Cached<String> response = cache.cached("fire", "a", List.of(), this::load);
+
+    assertEquals("\"value-1\"", new ObjectMapper().writeValueAsString(response));
+  }
+
+  private ResponseCache cache(long maxWeight) {
+    return new ResponseCache(new ObjectMapper(), environment, true, maxWeight, 60_000, true, clock);
+  }
+
+  private String load() {
+    return "value-" + loads.incrementAndGet();
+  }
+
+  private static final class MutableClock extends Clock {
+
+    private Instant instant;
+
+    MutableClock(LocalDateTime dateTime) {
+      set(dateTime);
+    }
+
+    void set(LocalDateTime dateTime) {
+      instant = dateTime.toInstant(ZoneOffset.UTC);
+    }
+
+    void plusMillis(long millis) {
+      instant = instant.plusMillis(millis);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Instant instant() {
+      return instant;
+    }
+  }
+}
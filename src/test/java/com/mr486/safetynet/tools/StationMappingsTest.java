@@ -0,0 +1,44 @@
+package com.mr486.safetynet.tools;
+
+import com.mr486.safetynet.model.FireStation;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StationMappingsTest {
+
+  @Test
+  void add_shouldAppendStation_whenAddressIsNotCoveredByIt() {
+    List<FireStation> mappings = StationMappings.add(null, new FireStation("112 Steppes Pl", 3));
+
+    mappings = StationMappings.add(mappings, new FireStation("112 Steppes Pl", 4));
+
+    assertEquals(List.of(new FireStation("112 Steppes Pl", 3), new FireStation("112 Steppes Pl", 4)), mappings);
+  }
+
+  @Test
+  void add_shouldReturnSameList_whenAddressIsAlreadyCoveredByStation() {
+    List<FireStation> mappings = List.of(new FireStation("112 Steppes Pl", 3));
+
+    assertSame(mappings, StationMappings.add(mappings, new FireStation("112 STEPPES PL", 3)));
+  }
+
+  @Test
+  void save_shouldReplaceFirstMapping_andDropOthersWithSameStation() {
+    List<FireStation> mappings = List.of(
+            new FireStation("112 Steppes Pl", 3),
+            new FireStation("112 Steppes Pl", 4),
+            new FireStation("112 Steppes Pl", 5));
+
+    List<FireStation> saved = StationMappings.save(mappings, new FireStation("112 Steppes Pl", 4));
+
+    assertEquals(List.of(new FireStation("112 Steppes Pl", 4), new FireStation("112 Steppes Pl", 5)), saved);
+  }
+
+  @Test
+  void save_shouldCreateMappings_whenAddressHasNone() {
+    assertEquals(List.of(new FireStation("1 Main St", 1)), StationMappings.save(null, new FireStation("1 Main St", 1)));
+  }
+}
@@ -0,0 +1,163 @@
+package com.mr486.safetynet.tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mr486.safetynet.dto.request.DataBindingDto;
+import com.mr486.safetynet.model.FireStation;
+import com.mr486.safetynet.model.MedicalRecord;
+import com.mr486.safetynet.model.Person;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAheadLogTest {
+
+  @TempDir
+  Path directory;
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  private WriteAheadLog journal;
+
+  @BeforeEach
+  void setUp() {
+    journal = open();
+  }
+
+  @AfterEach
+  void tearDown() {
+    journal.close();
+  }
+
+  @Test
+  void replay_shouldApplyJournaledMutationsOnTopOfLoadedData() {
+    journal.append(JournalEntry.savePerson(person("Jane", "Smith", "2 Oak St")));
+    journal.append(JournalEntry.savePerson(person("John", "Doe", "9 New St")));
+    journal.append(JournalEntry.deleteFireStation("1 MAIN ST"));
+    journal.append(JournalEntry.saveFireStation(new FireStation("2 Oak St", 4)));
+    journal.append(JournalEntry.deleteMedicalRecord("john", "doe"));
+    journal.close();
+
+    DataBindingDto data = loaded();
+    int replayed = open().replay(data);
+
+    assertEquals(5, replayed);
+    assertEquals(2, data.getPersons().size());
+    assertEquals("9 New St", data.getPersons().get(0).getAddress());
+    assertEquals("Jane", data.getPersons().get(1).getFirstName());
+    assertEquals(List.of(new FireStation("2 Oak St", 4)), data.getFirestations());
+    assertTrue(data.getMedicalrecords().isEmpty());
+  }
+
+  @Test
+  void replay_shouldKeepEveryStationOfAnAddress_replacingTheFirstOnSave() {
+    journal.append(JournalEntry.savePerson(person("Jane", "Smith", "2 Oak St")));
+    journal.append(JournalEntry.saveFireStation(new FireStation("112 Steppes Pl", 5)));
+    journal.close();
+
+    DataBindingDto data = loaded();
+    data.setFirestations(new ArrayList<>(List.of(
+            new FireStation("112 Steppes Pl", 3),
+            new FireStation("1 Main St", 1),
+            new FireStation("112 Steppes Pl", 4))));
+    open().replay(data);
+
+    assertEquals(List.of(new FireStation("112 Steppes Pl", 5), new FireStation("112 Steppes Pl", 4),
+            new FireStation("1 Main St", 1)), data.getFirestations());
+  }
+
+  @Test
+  void hasEntries_shouldReturnTrue_onlyWhenSegmentsArePending() {
+    assertFalse(journal.hasEntries());
+
+    journal.append(JournalEntry.deletePerson("John", "Doe"));
+    journal.close();
+
+    WriteAheadLog reopened = open();
+    assertTrue(reopened.hasEntries());
+    reopened.discardBefore(reopened.rotate());
+    assertFalse(reopened.hasEntries());
+    reopened.close();
+  }
+
+  @Test
+  void replay_shouldReturnZero_whenJournalIsEmpty() {
+    DataBindingDto data = loaded();
+
+    assertEquals(0, journal.replay(data));
+    assertEquals(1, data.getPersons().size());
+  }
+
+  @Test
+  void replay_shouldIgnoreTruncatedLastEntry() throws IOException {
+    journal.append(JournalEntry.deletePerson("John", "Doe"));
+    journal.close();
+    try (Stream<Path> files = Files.list(directory)) {
+      Path segment = files.findFirst().orElseThrow();
+      Files.writeString(segment, "{\"op\":\"SAVE_PER", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+
+    DataBindingDto data = loaded();
+
+    assertEquals(1, open().replay(data));
+    assertTrue(data.getPersons().isEmpty());
+  }
+
+  @Test
+  void discardBefore_shouldDeleteSegmentsCoveredBySnapshot() throws IOException {
+    journal.append(JournalEntry.deletePerson("John", "Doe"));
+    long covered = journal.rotate();
+    journal.append(JournalEntry.deleteFireStation("1 Main St"));
+
+    journal.discardBefore(covered);
+    journal.close();
+
+    DataBindingDto data = loaded();
+    assertEquals(1, open().replay(data));
+    assertEquals(1, data.getPersons().size());
+    assertTrue(data.getFirestations().isEmpty());
+    try (Stream<Path> files = Files.list(directory)) {
+      assertEquals(1, files.count());
+    }
+  }
+
+  @Test
+  void append_shouldDoNothing_whenJournalIsDisabled() throws IOException {
+    WriteAheadLog disabled = new WriteAheadLog(mapper, false, directory.resolve("data.wal").toString(), 50);
+
+    disabled.append(JournalEntry.deletePerson("John", "Doe"));
+    disabled.close();
+
+    assertFalse(disabled.isEnabled());
+    try (Stream<Path> files = Files.list(directory)) {
+      assertEquals(0, files.count());
+    }
+  }
+
+  private WriteAheadLog open() {
+    return new WriteAheadLog(mapper, true, directory.resolve("data.wal").toString(), 50);
+  }
+
+  private static DataBindingDto loaded() {
+    ArrayList<String> medications = new ArrayList<>(List.of("aspirin:100mg"));
+    return new DataBindingDto(
+            new ArrayList<>(List.of(person("John", "Doe", "1 Main St"))),
+            new ArrayList<>(List.of(new FireStation("1 Main St", 1))),
+            new ArrayList<>(List.of(new MedicalRecord("John", "Doe", "01/01/1980", medications, new ArrayList<>()))));
+  }
+
+  private static Person person(String firstName, String lastName, String address) {
+    return new Person(firstName, lastName, address, "City", "12345", "555-0000", "mail@test.com");
+  }
+}
@@ -0,0 +1,138 @@
+package com.mr486.safetynet.tools;
+
+import com.mr486.safetynet.dto.request.DataBindingDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class WriteBehindPersisterTest {
+
+  @Mock
+  private JsonDataUtil jsonDataUtil;
+
+  @Mock
+  private WriteAheadLog journal;
+
+  private final Metrics metrics = new Metrics();
+
+  private WriteBehindPersister persister;
+
+  private final Supplier<DataBindingDto> snapshot = DataBindingDto::new;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+  }
+
+  @AfterEach
+  void tearDown() {
+    persister.close();
+  }
+
+  @Test
+  void markDirty_shouldCoalesceBurstOfMutationsIntoFewWrites() {
+    persister = new WriteBehindPersister(jsonDataUtil, journal, metrics, 60_000, 5_000);
+
+    for (int i = 0; i < 10_000; i++) {
+      persister.markDirty(snapshot);
+    }
+    persister.close();
+
+    verify(jsonDataUtil, atLeastOnce()).saveData(any());
+    verify(jsonDataUtil, atMost(3)).saveData(any());
+  }
+
+  @Test
+  void markDirty_shouldFlushAfterInterval_whenThresholdIsNotReached() {
+    persister = new WriteBehindPersister(jsonDataUtil, journal, metrics, 50, 1_000);
+
+    persister.markDirty(snapshot);
+
+    verify(jsonDataUtil, timeout(2_000).times(1)).saveData(any());
+  }
+
+  @Test
+  void flush_shouldDoNothing_whenNothingIsDirty() {
+    persister = new WriteBehindPersister(jsonDataUtil, journal, metrics, 60_000, 1_000);
+
+    persister.flush();
+
+    verify(jsonDataUtil, never()).saveData(any());
+  }
+
+  @Test
+  void flush_shouldRetryOnNextFlush_whenWriteFails() {
+    persister = new WriteBehindPersister(jsonDataUtil, journal, metrics, 60_000, 1_000);
+    doThrow(new RuntimeException("disk full")).doNothing().when(jsonDataUtil).saveData(any());
+
+    persister.markDirty(snapshot);
+    persister.flush();
+    persister.flush();
+    persister.flush();
+
+    verify(jsonDataUtil, times(2)).saveData(any());
+  }
+
+  @Test
+  void flush_shouldNotWrite_whenSnapshotIsUnavailable() {
+    persister = new WriteBehindPersister(jsonDataUtil, journal, metrics, 60_000, 1_000);
+
+    persister.markDirty(() -> null);
+    persister.flush();
+
+    verify(jsonDataUtil, never()).saveData(any());
+  }
+
+  @Test
+  void flush_shouldDiscardJournalSegmentsCoveredBySnapshot() {
+    persister = new WriteBehindPersister(jsonDataUtil, journal, metrics, 60_000, 1_000);
+    when(journal.rotate()).thenReturn(7L);
+
+    persister.markDirty(snapshot);
+    persister.flush();
+
+    InOrder inOrder = inOrder(journal, jsonDataUtil);
+    inOrder.verify(journal).rotate();
+    inOrder.verify(jsonDataUtil).saveData(any());
+    inOrder.verify(journal).discardBefore(7L);
+  }
+
+  @Test
+  void flush_shouldKeepJournalSegments_whenWriteFails() {
+    persister = new WriteBehindPersister(jsonDataUtil, journal, metrics, 60_000, 1_000);
+    doThrow(new RuntimeException("disk full")).when(jsonDataUtil).saveData(any());
+
+    persister.markDirty(snapshot);
+    persister.flush();
+
+    verify(journal, never()).discardBefore(anyLong());
+  }
+
+  @Test
+  void flush_shouldRecordMutationsFlushesAndFailures() {
+    persister = new WriteBehindPersister(jsonDataUtil, journal, metrics, 60_000, 1_000);
+    doThrow(new RuntimeException("disk full")).doNothing().when(jsonDataUtil).saveData(any());
+    when(journal.sizeBytes()).thenReturn(42L);
+
+    persister.markDirty(snapshot);
+    persister.markDirty(snapshot);
+    persister.flush();
+    persister.flush();
+
+    Metrics.Snapshot recorded = metrics.snapshot();
+    assertEquals(2, recorded.counters().get("persistence.mutations"));
+    assertEquals(1, recorded.counters().get("persistence.flush.failures"));
+    assertEquals(1, recorded.timers().get("persistence.flush").count());
+    assertEquals(42, recorded.gauges().get("persistence.journal.bytes"));
+  }
+}